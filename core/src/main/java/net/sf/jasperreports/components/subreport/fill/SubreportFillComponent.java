@@ -144,7 +144,12 @@ public abstract class SubreportFillComponent extends BaseFillComponent
 	protected ComponentFillSubreportFactory createFillTableSubreportFactory() throws JRException
 	{
 		BuiltinExpressionEvaluatorFactory builtinEvaluatorFactory = new BuiltinExpressionEvaluatorFactory();
-		
+		return createFillSubreportFactory(getJasperReport(builtinEvaluatorFactory), builtinEvaluatorFactory);
+	}
+
+	protected ComponentFillSubreportFactory createFillSubreportFactory(JasperReport jasperReport, 
+			BuiltinExpressionEvaluatorFactory builtinEvaluatorFactory)
+	{
 		SubreportElementAdapter subreport = 
 			new SubreportElementAdapter(
 				getDatasetRun(), 
@@ -153,7 +158,7 @@ public abstract class SubreportFillComponent extends BaseFillComponent
 		return 
 			new ComponentFillSubreportFactory(
 				subreport, 
-				getJasperReport(builtinEvaluatorFactory),
+				jasperReport,
 				//compiledTableReport,
 				builtinEvaluatorFactory
 				);
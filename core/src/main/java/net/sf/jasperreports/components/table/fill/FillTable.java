@@ -72,6 +72,7 @@ public class FillTable extends SubreportFillComponent
 	private static final Log log = LogFactory.getLog(FillTable.class);
 	
 	protected static final String FILL_CACHE_KEY_TABLE_INSTANCE_COUNTER = FillTable.class.getName() + "#instanceCounter";
+	protected static final String FILL_CACHE_KEY_CACHED_TABLE_REPORTS = FillTable.class.getName() + "#cachedTableReports";
 	protected static final String EXCEPTION_MESSAGE_KEY_UNSUPPORTED_REPORT_DATA_TYPE = "components.table.unsupported.report.data.type";
 	
 	private final TableComponent table;
@@ -403,7 +404,44 @@ public class FillTable extends SubreportFillComponent
 	}
 
 	@Override
-	public JasperReport getJasperReport(BuiltinExpressionEvaluatorFactory builtinEvaluatorFactory) throws JRException
+	protected ComponentFillSubreportFactory createFillTableSubreportFactory() throws JRException
+	{
+		JRFillContext fillerContext = fillContext.getFiller().getFillContext();
+		boolean cacheReports = fillContext.getFiller().getPropertiesUtil().getBooleanProperty(
+				TableReportCache.PROPERTY_ENABLED, false,
+				fillContext.getComponentElement(), 
+				fillContext.getFiller().getMasterFiller().getJasperReport()
+				);
+		if (!cacheReports)
+		{
+			return super.createFillTableSubreportFactory();
+		}
+		
+		JasperReport parentReport = fillContext.getFiller().getJasperReport();
+		TableReportCache.TableReportKey key = new TableReportCache.TableReportKey(table, fillColumns, 
+				TableReport.getReportStructureProperties(fillContext),
+				fillContext.getFiller().getJasperReportsContext(), 
+				fillContext.getFillDataset().getTimeZone(), fillerContext.getMasterTimeZone());
+		
+		TableReportCache cache = TableReportCache.getInstance();
+		TableReportCache.CachedTableReport cachedReport = cache.checkout(parentReport, key);
+		if (cachedReport == null)
+		{
+			BuiltinExpressionEvaluatorFactory builtinEvaluatorFactory = new BuiltinExpressionEvaluatorFactory();
+			TableJasperReport tableReport = getJasperReport(builtinEvaluatorFactory);
+			cachedReport = new TableReportCache.CachedTableReport(tableReport, builtinEvaluatorFactory);
+		}
+		
+		// return the report to the cache when the fill ends
+		CachedTableReports fillReports = fillerContext.getFillCache(FILL_CACHE_KEY_CACHED_TABLE_REPORTS, 
+				() -> new CachedTableReports(cache));
+		fillReports.add(parentReport, key, cachedReport);
+		
+		return createFillSubreportFactory(cachedReport.getTableReport(), cachedReport.getBuiltinEvaluatorFactory());
+	}
+
+	@Override
+	public TableJasperReport getJasperReport(BuiltinExpressionEvaluatorFactory builtinEvaluatorFactory) throws JRException
 	{
 		JasperReport parentReport = fillContext.getFiller().getJasperReport();
 		JasperReport containingReport = containingReport(parentReport);
@@ -506,4 +544,47 @@ public class FillTable extends SubreportFillComponent
 
 		return printFrame;
 	}
+	
+	protected static class CachedTableReports implements JRFillContext.FillCacheDisposable
+	{
+		private final TableReportCache cache;
+		private final List<CheckedOutReport> reports;
+		
+		public CachedTableReports(TableReportCache cache)
+		{
+			this.cache = cache;
+			this.reports = new ArrayList<>();
+		}
+		
+		public synchronized void add(JasperReport parentReport, TableReportCache.TableReportKey key, 
+				TableReportCache.CachedTableReport cachedReport)
+		{
+			reports.add(new CheckedOutReport(parentReport, key, cachedReport));
+		}
+
+		@Override
+		public synchronized void dispose()
+		{
+			for (CheckedOutReport report : reports)
+			{
+				cache.checkin(report.parentReport, report.key, report.cachedReport);
+			}
+			reports.clear();
+		}
+	}
+	
+	private static class CheckedOutReport
+	{
+		final JasperReport parentReport;
+		final TableReportCache.TableReportKey key;
+		final TableReportCache.CachedTableReport cachedReport;
+		
+		CheckedOutReport(JasperReport parentReport, TableReportCache.TableReportKey key, 
+				TableReportCache.CachedTableReport cachedReport)
+		{
+			this.parentReport = parentReport;
+			this.key = key;
+			this.cachedReport = cachedReport;
+		}
+	}
 }
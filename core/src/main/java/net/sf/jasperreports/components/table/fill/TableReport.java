@@ -365,7 +365,8 @@ public class TableReport implements JRReport
 	public static final String TABLE_HEADER_LABEL_MATCHER_EXPORT_KEY = "net.sf.jasperreports.components.table.header.label";
 	public static final String TABLE_HEADER_ICON_LABEL_MATCHER_EXPORT_KEY = "net.sf.jasperreports.components.table.header.icon.label";
 
-	private final FillContext fillContext;
+	// only used while the report structure is created, released when the report is cached across fills
+	private FillContext fillContext;
 	private final TableComponent table;
 	private final JasperReport parentReport;
 	private final TableReportDataset mainDataset;
@@ -377,10 +378,30 @@ public class TableReport implements JRReport
 	private final JRDesignBand pageFooter;
 	private final JRDesignBand lastPageFooter;
 	private final JRDesignBand noData;
+	private final int width;
+	private final WhenNoDataTypeEnum whenNoDataType;
+	private SummaryGroupFooterPrintWhenEvaluator summaryGroupFooterEvaluator;
 	
 	private final List<TableIndexProperties> tableIndexProperties;
 	private final Map<Integer, JRPropertiesMap> headerHtmlBaseProperties;
 	
+	// properties that are read when the report structure is created
+	private static final String[] REPORT_STRUCTURE_PROPERTIES = new String[]{
+			PROPERTY_TABLE_NAME,
+			PROPERTY_INTERACTIVE_TABLE,
+			PROPERTY_FLOATING_HEADER,
+			PROPERTY_ACCESSIBLE_TABLE,
+			PROPERTY_GENERATE_TABLE_PDF_TAGS,
+			PROPERTY_UP_ARROW_CHAR,
+			PROPERTY_DOWN_ARROW_CHAR,
+			PROPERTY_FILTER_CHAR,
+			JRComponentElement.PROPERTY_COMPONENT_NAME,
+			JRTextField.PROPERTY_FORMAT_TIMEZONE,
+			JRTextField.PROPERTY_SQL_DATE_FORMAT_TIMEZONE,
+			JRTextField.PROPERTY_SQL_TIMESTAMP_FORMAT_TIMEZONE,
+			JRTextField.PROPERTY_SQL_TIME_FORMAT_TIMEZONE,
+			};
+
 	private final JRPropertiesUtil propertiesUtil;
 	private String tableName;
 	private boolean isInteractiveTable;
@@ -470,6 +491,9 @@ public class TableReport implements JRReport
 		}
 		
 		this.noData = createNoData(table.getNoData());
+		
+		this.width = fillContext.getComponentElement().getWidth();
+		this.whenNoDataType = resolveWhenNoDataType();
 	}
 	
 	protected class ReportBandInfo
@@ -1699,6 +1723,13 @@ public class TableReport implements JRReport
 		{
 			tableScriptletParam = parametersMap.get(TABLE_SCRIPTLET_NAME 
 					+ JRScriptlet.SCRIPTLET_PARAMETER_NAME_SUFFIX);
+			tableScriptlet = null;
+		}
+		
+		protected void release()
+		{
+			tableScriptletParam = null;
+			tableScriptlet = null;
 		}
 
 		protected void ensureValue()
@@ -1769,7 +1800,8 @@ public class TableReport implements JRReport
 		footerFrame.getLineBox().getPen().setLineWidth((Float)0f);
 		footerFrame.setRemoveLineWhenBlank(true);
 		
-		JRDesignExpression footerPrintWhen = builtinEvaluatorFactory.createExpression(new SummaryGroupFooterPrintWhenEvaluator());
+		summaryGroupFooterEvaluator = new SummaryGroupFooterPrintWhenEvaluator();
+		JRDesignExpression footerPrintWhen = builtinEvaluatorFactory.createExpression(summaryGroupFooterEvaluator);
 		footerFrame.setPrintWhenExpression(footerPrintWhen);
 		
 		// clone the contents of the page footer in the frame
@@ -2028,7 +2060,7 @@ public class TableReport implements JRReport
 	@Override
 	public int getColumnWidth()
 	{
-		return fillContext.getComponentElement().getWidth();
+		return width;
 	}
 
 	@Override
@@ -2151,7 +2183,7 @@ public class TableReport implements JRReport
 	@Override
 	public int getPageWidth()
 	{
-		return fillContext.getComponentElement().getWidth();
+		return width;
 	}
 
 	@Override
@@ -2273,6 +2305,11 @@ public class TableReport implements JRReport
 	
 	@Override
 	public WhenNoDataTypeEnum getWhenNoDataType()
+	{
+		return whenNoDataType;
+	}
+	
+	protected WhenNoDataTypeEnum resolveWhenNoDataType()
 	{
 		WhenNoDataTypeTableEnum whenNoDataType = table.getWhenNoDataType(); 
 		if (whenNoDataType == null)
@@ -2425,6 +2462,45 @@ public class TableReport implements JRReport
 		}
 	}
 
+	/**
+	 * Returns the values of the properties that determine the structure of the report
+	 * created for a table, as resolved for the table element, the report that contains it
+	 * and the JasperReports context.
+	 * 
+	 * <p>
+	 * The values are used along with the table columns to identify reports in the {@link TableReportCache}.
+	 * </p>
+	 * 
+	 * @param fillContext the fill context of the table
+	 * @return the property values
+	 */
+	protected static List<String> getReportStructureProperties(FillContext fillContext)
+	{
+		JRPropertiesUtil propertiesUtil = JRPropertiesUtil.getInstance(fillContext.getFiller().getJasperReportsContext());
+		JasperReport parentReport = fillContext.getFiller().getJasperReport();
+		List<String> values = new ArrayList<>(REPORT_STRUCTURE_PROPERTIES.length + 1);
+		for (String name : REPORT_STRUCTURE_PROPERTIES)
+		{
+			values.add(propertiesUtil.getProperty(name, fillContext.getComponentElement(), parentReport));
+		}
+		values.add(propertiesUtil.getProperty(fillContext.getFillDataset(), TableComponent.CONFIG_PROPERTY_WHEN_NO_DATA_TYPE));
+		return values;
+	}
+
+	/**
+	 * Releases the references to the fill that created the report, so that the report
+	 * can be kept in the {@link TableReportCache} and reused by subsequent fills.
+	 */
+	protected void releaseFill()
+	{
+		fillContext = null;
+		
+		if (summaryGroupFooterEvaluator != null)
+		{
+			summaryGroupFooterEvaluator.release();
+		}
+	}
+
 	// creates a JRPropertiesMap instance that is used as base properties for table elements.
 	// on each table instantiation, a property in the base instance changes its value and the
 	// value propagates to the print elements created by the table.
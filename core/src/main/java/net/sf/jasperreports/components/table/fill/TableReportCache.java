@@ -0,0 +1,389 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2025 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.components.table.fill;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TimeZone;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.collections4.map.ReferenceMap;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import net.sf.jasperreports.annotations.properties.Property;
+import net.sf.jasperreports.annotations.properties.PropertyScope;
+import net.sf.jasperreports.components.table.TableComponent;
+import net.sf.jasperreports.engine.DefaultJasperReportsContext;
+import net.sf.jasperreports.engine.JRPropertiesUtil;
+import net.sf.jasperreports.engine.JasperReport;
+import net.sf.jasperreports.engine.JasperReportsContext;
+import net.sf.jasperreports.engine.fill.BuiltinExpressionEvaluatorFactory;
+import net.sf.jasperreports.properties.PropertyConstants;
+
+/**
+ * JVM wide cache of reports generated for table components.
+ * 
+ * <p>
+ * A table component is filled by generating a report from the table columns that are printed
+ * and running it as a subreport.
+ * The generated reports are cached per report fill, and when {@link #PROPERTY_ENABLED} is set
+ * they are also kept in this cache and reused by subsequent fills of the same report.
+ * Reports are cached by the report that contains the table, the table component, the printed columns
+ * and their widths, the properties that determine the report structure, the JasperReports context 
+ * and the time zones used by the fill.
+ * Per instance data such as the table instance index is set each time the table is filled.
+ * </p>
+ * 
+ * <p>
+ * A cached report is used by a single fill at a time, fills check out reports from the cache
+ * and return them when the fill ends.
+ * The cached reports of a report that contains tables are softly referenced, so that they are
+ * released when memory is needed.
+ * The cached reports strongly reference the report that contains the table, which can only be
+ * garbage collected after its cached reports have been released.
+ * </p>
+ * 
+ * @author agent (agent@local)
+ */
+public class TableReportCache
+{
+	private static final Log log = LogFactory.getLog(TableReportCache.class);
+	
+	/**
+	 * Property that determines whether reports generated for table components are cached across report fills.
+	 * 
+	 * @see TableReportCache
+	 */
+	@Property(
+			category = PropertyConstants.CATEGORY_TABLE,
+			defaultValue = PropertyConstants.BOOLEAN_FALSE,
+			scopes = {PropertyScope.CONTEXT, PropertyScope.REPORT, PropertyScope.TABLE},
+			sinceVersion = PropertyConstants.VERSION_7_0_7,
+			valueType = Boolean.class
+			)
+	public static final String PROPERTY_ENABLED = JRPropertiesUtil.PROPERTY_PREFIX + "components.table.report.cache.enabled";
+	
+	/**
+	 * Property that specifies the maximum number of generated reports cached for a report.
+	 * 
+	 * <p>
+	 * The property is read from the default JasperReports context when the cache is created.
+	 * </p>
+	 * 
+	 * @see TableReportCache
+	 */
+	@Property(
+			category = PropertyConstants.CATEGORY_TABLE,
+			defaultValue = "64",
+			scopes = {PropertyScope.GLOBAL},
+			sinceVersion = PropertyConstants.VERSION_7_0_7,
+			valueType = Integer.class
+			)
+	public static final String PROPERTY_MAX_ENTRIES = JRPropertiesUtil.PROPERTY_PREFIX + "components.table.report.cache.max.entries";
+	
+	private static final class InstanceHolder
+	{
+		private static final TableReportCache INSTANCE = new TableReportCache(
+				JRPropertiesUtil.getInstance(DefaultJasperReportsContext.getInstance()).getIntegerProperty(
+						PROPERTY_MAX_ENTRIES, 64));
+	}
+	
+	/**
+	 * Returns the JVM wide table report cache.
+	 * 
+	 * @return the table report cache instance
+	 */
+	public static TableReportCache getInstance()
+	{
+		return InstanceHolder.INSTANCE;
+	}
+	
+	private final int maxEntries;
+	private final ReferenceMap<JasperReport, ReportEntries> reportEntries;
+	private final AtomicLong hitCount = new AtomicLong();
+	private final AtomicLong missCount = new AtomicLong();
+	
+	/**
+	 * Creates a table report cache.
+	 * 
+	 * @param maxEntries the maximum number of generated reports cached for a report
+	 */
+	public TableReportCache(int maxEntries)
+	{
+		this.maxEntries = maxEntries;
+		this.reportEntries = new ReferenceMap<>(
+				ReferenceMap.ReferenceStrength.WEAK, ReferenceMap.ReferenceStrength.SOFT);
+	}
+	
+	/**
+	 * Removes a generated report from the cache.
+	 * 
+	 * <p>
+	 * The report is not available to other fills until it is returned to the cache via
+	 * {@link #checkin(JasperReport, TableReportKey, CachedTableReport)}.
+	 * </p>
+	 * 
+	 * @param parentReport the report that contains the table
+	 * @param key the key of the generated report
+	 * @return a cached report, or <code>null</code> if no report is available
+	 */
+	public CachedTableReport checkout(JasperReport parentReport, TableReportKey key)
+	{
+		CachedTableReport cachedReport = null;
+		synchronized (reportEntries)
+		{
+			ReportEntries entries = reportEntries.get(parentReport);
+			if (entries != null)
+			{
+				cachedReport = entries.remove(key);
+			}
+		}
+		
+		(cachedReport == null ? missCount : hitCount).incrementAndGet();
+		if (log.isDebugEnabled())
+		{
+			log.debug((cachedReport == null ? "no cached report for " : "found cached report for ") + key);
+		}
+		return cachedReport;
+	}
+	
+	/**
+	 * Returns a generated report to the cache.
+	 * 
+	 * @param parentReport the report that contains the table
+	 * @param key the key of the generated report
+	 * @param cachedReport the generated report
+	 */
+	public void checkin(JasperReport parentReport, TableReportKey key, CachedTableReport cachedReport)
+	{
+		cachedReport.getTableReport().getBaseReport().releaseFill();
+		
+		synchronized (reportEntries)
+		{
+			ReportEntries entries = reportEntries.get(parentReport);
+			if (entries == null)
+			{
+				entries = new ReportEntries();
+				reportEntries.put(parentReport, entries);
+			}
+			
+			if (entries.size < maxEntries)
+			{
+				entries.add(key, cachedReport);
+			}
+			else if (log.isDebugEnabled())
+			{
+				log.debug("table report cache full for " + parentReport.getName() + ", discarding report for " + key);
+			}
+		}
+	}
+	
+	/**
+	 * Returns the number of reports currently available in the cache.
+	 * 
+	 * <p>
+	 * Reports that are checked out by fills are not included.
+	 * </p>
+	 * 
+	 * @return the number of cached reports
+	 */
+	public int getSize()
+	{
+		int size = 0;
+		synchronized (reportEntries)
+		{
+			for (ReportEntries entries : reportEntries.values())
+			{
+				size += entries.size;
+			}
+		}
+		return size;
+	}
+	
+	/**
+	 * Returns the number of checkouts that found a cached report.
+	 * 
+	 * @return the number of cache hits
+	 */
+	public long getHitCount()
+	{
+		return hitCount.get();
+	}
+	
+	/**
+	 * Returns the number of checkouts that did not find a cached report.
+	 * 
+	 * @return the number of cache misses
+	 */
+	public long getMissCount()
+	{
+		return missCount.get();
+	}
+	
+	/**
+	 * Removes all reports from the cache.
+	 */
+	public void invalidateAll()
+	{
+		synchronized (reportEntries)
+		{
+			reportEntries.clear();
+		}
+	}
+	
+	protected static class ReportEntries
+	{
+		private final Map<TableReportKey, Deque<CachedTableReport>> reports = new HashMap<>();
+		private int size;
+		
+		protected CachedTableReport remove(TableReportKey key)
+		{
+			Deque<CachedTableReport> keyReports = reports.get(key);
+			if (keyReports == null)
+			{
+				return null;
+			}
+			
+			CachedTableReport cachedReport = keyReports.poll();
+			if (keyReports.isEmpty())
+			{
+				reports.remove(key);
+			}
+			--size;
+			return cachedReport;
+		}
+		
+		protected void add(TableReportKey key, CachedTableReport cachedReport)
+		{
+			reports.computeIfAbsent(key, k -> new ArrayDeque<>()).push(cachedReport);
+			++size;
+		}
+	}
+	
+	/**
+	 * A report generated for a table, along with the builtin expressions used by the report.
+	 */
+	public static class CachedTableReport
+	{
+		private final TableJasperReport tableReport;
+		private final BuiltinExpressionEvaluatorFactory builtinEvaluatorFactory;
+		
+		public CachedTableReport(TableJasperReport tableReport, 
+				BuiltinExpressionEvaluatorFactory builtinEvaluatorFactory)
+		{
+			this.tableReport = tableReport;
+			this.builtinEvaluatorFactory = builtinEvaluatorFactory;
+		}
+
+		public TableJasperReport getTableReport()
+		{
+			return tableReport;
+		}
+
+		public BuiltinExpressionEvaluatorFactory getBuiltinEvaluatorFactory()
+		{
+			return builtinEvaluatorFactory;
+		}
+	}
+	
+	/**
+	 * The key of a generated table report.
+	 * 
+	 * <p>
+	 * The table component and the JasperReports context are compared by identity,
+	 * the printed columns are compared by table column instance and width.
+	 * The key also includes the values of the properties that are read when the report is created,
+	 * so that reports are not reused when the properties change in the context or in the report.
+	 * </p>
+	 */
+	public static class TableReportKey
+	{
+		private final TableComponent table;
+		private final List<FillColumn> fillColumns;
+		private final List<String> properties;
+		private final JasperReportsContext jasperReportsContext;
+		private final TimeZone reportTimeZone;
+		private final TimeZone masterTimeZone;
+		private final int hash;
+		
+		public TableReportKey(TableComponent table, List<FillColumn> fillColumns, List<String> properties,
+				JasperReportsContext jasperReportsContext, TimeZone reportTimeZone, TimeZone masterTimeZone)
+		{
+			this.table = table;
+			this.fillColumns = fillColumns;
+			this.properties = properties;
+			this.jasperReportsContext = jasperReportsContext;
+			this.reportTimeZone = reportTimeZone;
+			this.masterTimeZone = masterTimeZone;
+			
+			int hash = System.identityHashCode(table);
+			hash = hash * 31 + fillColumns.hashCode();
+			hash = hash * 31 + properties.hashCode();
+			hash = hash * 31 + System.identityHashCode(jasperReportsContext);
+			hash = hash * 31 + Objects.hashCode(reportTimeZone);
+			hash = hash * 31 + Objects.hashCode(masterTimeZone);
+			this.hash = hash;
+		}
+
+		@Override
+		public int hashCode()
+		{
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object obj)
+		{
+			if (obj == this)
+			{
+				return true;
+			}
+			
+			if (!(obj instanceof TableReportKey))
+			{
+				return false;
+			}
+			
+			TableReportKey key = (TableReportKey) obj;
+			return table == key.table
+					&& jasperReportsContext == key.jasperReportsContext
+					&& hash == key.hash
+					&& fillColumns.equals(key.fillColumns)
+					&& properties.equals(key.properties)
+					&& Objects.equals(reportTimeZone, key.reportTimeZone)
+					&& Objects.equals(masterTimeZone, key.masterTimeZone);
+		}
+
+		@Override
+		public String toString()
+		{
+			return "{table: " + table + ", columns: " + fillColumns.size() + "}";
+		}
+	}
+}
@@ -43,6 +43,7 @@ import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.sql.Types;
+import java.util.Arrays;
 import java.util.Calendar;
 import java.util.HashMap;
 import java.util.Map;
@@ -137,6 +138,46 @@ public class JRResultSetDataSource implements JRDataSource
 	private int rowCount;
 	
 	private Boolean supportsTypedGetObjectMethod;
+	
+	private Map<JRField, FieldAccessor> fieldAccessors = new HashMap<>();
+	private FieldAccessor[] accessorPlan = new FieldAccessor[0];
+	private int accessorPlanSize;
+	private int accessorPlanPosition;
+	private boolean accessorPlanComplete;
+
+	/**
+	 * Reads a field value from the current result set row.
+	 */
+	@FunctionalInterface
+	protected interface ColumnReader
+	{
+		Object read() throws Exception;
+	}
+	
+	/**
+	 * Field value reader bound to a result set column.
+	 */
+	protected static class FieldAccessor
+	{
+		private final JRField field;
+		private final ColumnReader reader;
+		
+		public FieldAccessor(JRField field, ColumnReader reader)
+		{
+			this.field = field;
+			this.reader = reader;
+		}
+		
+		public JRField getField()
+		{
+			return field;
+		}
+		
+		public ColumnReader getReader()
+		{
+			return reader;
+		}
+	}
 
 	/**
 	 *
@@ -195,6 +236,13 @@ public class JRResultSetDataSource implements JRDataSource
 			{
 				log.debug("read " + rowCount + " rows from result set");
 			}
+			
+			if (rowCount > 1)
+			{
+				// the fields have been read for the first row
+				accessorPlanComplete = true;
+			}
+			accessorPlanPosition = 0;
 		}
 		
 		return hasNext;
@@ -208,259 +256,333 @@ public class JRResultSetDataSource implements JRDataSource
 
 		if (field != null && resultSet != null)
 		{
-			Integer columnIndex = getColumnIndex(field);
-			Class<?> clazz = field.getValueClass();
+			FieldAccessor accessor = getFieldAccessor(field);
 
 			try
 			{
-				if (clazz.equals(java.lang.Boolean.class))
-				{
-					objValue = resultSet.getBoolean(columnIndex);
-					if(resultSet.wasNull())
-					{
-						objValue = null;
-					}
-				}
-				else if (clazz.equals(java.lang.Byte.class))
-				{
-					objValue = resultSet.getByte(columnIndex);
-					if(resultSet.wasNull())
-					{
-						objValue = null;
-					}
-				}
-				else if (
-					clazz.equals(java.util.Date.class)
-					|| clazz.equals(java.sql.Date.class)
-					)
-				{
-					objValue = readDate(columnIndex, field);
-				}
-				else if (clazz.equals(java.sql.Timestamp.class))
+				objValue = accessor.reader.read();
+			}
+			catch (Exception e)
+			{
+				throw 
+					new JRException(
+						EXCEPTION_MESSAGE_KEY_RESULT_SET_FIELD_VALUE_NOT_RETRIEVED,
+						new Object[]{field.getName(), field.getValueClass().getName()}, 
+						e);
+			}
+		}
+		
+		return objValue;
+	}
+
+
+	/**
+	 * Returns the accessor for a field.
+	 * 
+	 * <p>
+	 * The accessors are recorded in the order in which the fields are read for the first row,
+	 * and for the subsequent rows the fields are expected to be read in the same order.
+	 * Fields that are read out of order are looked up by the field object.
+	 * </p>
+	 */
+	protected FieldAccessor getFieldAccessor(JRField field) throws JRException
+	{
+		if (accessorPlanPosition < accessorPlanSize)
+		{
+			FieldAccessor accessor = accessorPlan[accessorPlanPosition];
+			if (accessor.field == field)
+			{
+				++accessorPlanPosition;
+				return accessor;
+			}
+		}
+		
+		FieldAccessor accessor = fieldAccessors.get(field);
+		if (accessor == null)
+		{
+			accessor = createFieldAccessor(field);
+			fieldAccessors.put(field, accessor);
+		}
+		
+		if (!accessorPlanComplete)
+		{
+			if (accessorPlanSize == accessorPlan.length)
+			{
+				accessorPlan = Arrays.copyOf(accessorPlan, Math.max(8, 2 * accessorPlanSize));
+			}
+			accessorPlan[accessorPlanSize] = accessor;
+			++accessorPlanSize;
+			accessorPlanPosition = accessorPlanSize;
+		}
+		
+		return accessor;
+	}
+
+
+	/**
+	 * Creates the accessor for a field, resolving the result set column, 
+	 * the column type and the date/time calendar for the field.
+	 */
+	protected FieldAccessor createFieldAccessor(JRField field) throws JRException
+	{
+		int columnIndex = getColumnIndex(field);
+		Class<?> clazz = field.getValueClass();
+		
+		ColumnReader reader;
+		try
+		{
+			if (clazz.equals(java.lang.Boolean.class))
+			{
+				reader = () -> 
 				{
-					objValue = readTimestamp(columnIndex, field);
-				}
-				else if (clazz.equals(java.sql.Time.class))
+					boolean value = resultSet.getBoolean(columnIndex);
+					return resultSet.wasNull() ? null : value;
+				};
+			}
+			else if (clazz.equals(java.lang.Byte.class))
+			{
+				reader = () -> 
 				{
-					objValue = readTime(columnIndex, field);
-				}
-				else if (clazz.equals(java.lang.Double.class))
+					byte value = resultSet.getByte(columnIndex);
+					return resultSet.wasNull() ? null : value;
+				};
+			}
+			else if (
+				clazz.equals(java.util.Date.class)
+				|| clazz.equals(java.sql.Date.class)
+				)
+			{
+				Calendar calendar = getFieldCalendar(field);
+				reader = () -> readDate(columnIndex, field, calendar);
+			}
+			else if (clazz.equals(java.sql.Timestamp.class))
+			{
+				Calendar calendar = getFieldCalendar(field);
+				reader = () -> readTimestamp(columnIndex, field, calendar);
+			}
+			else if (clazz.equals(java.sql.Time.class))
+			{
+				Calendar calendar = getFieldCalendar(field);
+				reader = () -> readTime(columnIndex, field, calendar);
+			}
+			else if (clazz.equals(java.lang.Double.class))
+			{
+				reader = () -> 
 				{
-					objValue = resultSet.getDouble(columnIndex);
-					if(resultSet.wasNull())
-					{
-						objValue = null;
-					}
-				}
-				else if (clazz.equals(java.lang.Float.class))
+					double value = resultSet.getDouble(columnIndex);
+					return resultSet.wasNull() ? null : value;
+				};
+			}
+			else if (clazz.equals(java.lang.Float.class))
+			{
+				reader = () -> 
 				{
-					objValue = resultSet.getFloat(columnIndex);
-					if(resultSet.wasNull())
-					{
-						objValue = null;
-					}
-				}
-				else if (clazz.equals(java.lang.Integer.class))
+					float value = resultSet.getFloat(columnIndex);
+					return resultSet.wasNull() ? null : value;
+				};
+			}
+			else if (clazz.equals(java.lang.Integer.class))
+			{
+				reader = () -> 
 				{
-					objValue = resultSet.getInt(columnIndex);
-					if(resultSet.wasNull())
-					{
-						objValue = null;
-					}
-				}
-				else if (clazz.equals(java.io.InputStream.class))
+					int value = resultSet.getInt(columnIndex);
+					return resultSet.wasNull() ? null : value;
+				};
+			}
+			else if (clazz.equals(java.io.InputStream.class))
+			{
+				int columnType = resultSet.getMetaData().getColumnType(columnIndex);
+				reader = () -> 
 				{
-					byte[] bytes = readBytes(columnIndex);
-					
-					if(bytes == null)
-					{
-						objValue = null;
-					}
-					else
-					{
-						objValue = new ByteArrayInputStream(bytes);
-					}					
-				}
-				else if (clazz.equals(java.lang.Long.class))
+					byte[] bytes = readBytes(columnIndex, columnType);
+					return bytes == null ? null : new ByteArrayInputStream(bytes);
+				};
+			}
+			else if (clazz.equals(java.lang.Long.class))
+			{
+				reader = () -> 
 				{
-					objValue = resultSet.getLong(columnIndex);
-					if(resultSet.wasNull())
-					{
-						objValue = null;
-					}
-				}
-				else if (clazz.equals(java.lang.Short.class))
+					long value = resultSet.getLong(columnIndex);
+					return resultSet.wasNull() ? null : value;
+				};
+			}
+			else if (clazz.equals(java.lang.Short.class))
+			{
+				reader = () -> 
 				{
-					objValue = resultSet.getShort(columnIndex);
-					if(resultSet.wasNull())
-					{
-						objValue = null;
-					}
-				}
-				else if (clazz.equals(java.math.BigDecimal.class))
+					short value = resultSet.getShort(columnIndex);
+					return resultSet.wasNull() ? null : value;
+				};
+			}
+			else if (clazz.equals(java.math.BigDecimal.class))
+			{
+				reader = () -> 
 				{
-					objValue = resultSet.getBigDecimal(columnIndex);
-					if(resultSet.wasNull())
-					{
-						objValue = null;
-					}
-				}
-				else if (clazz.equals(java.lang.String.class))
+					java.math.BigDecimal value = resultSet.getBigDecimal(columnIndex);
+					return resultSet.wasNull() ? null : value;
+				};
+			}
+			else if (clazz.equals(java.lang.String.class))
+			{
+				int columnType = resultSet.getMetaData().getColumnType(columnIndex);
+				switch (columnType)
 				{
-					int columnType = resultSet.getMetaData().getColumnType(columnIndex);
-					switch (columnType)
-					{
-						case Types.CLOB:
+					case Types.CLOB:
+						reader = () -> 
+						{
 							Clob clob = resultSet.getClob(columnIndex);
-							if (resultSet.wasNull())
-							{
-								objValue = null;
-							}
-							else
-							{
-								objValue = clobToString(clob);
-							}
-							break;
-							
-						default:
-							objValue = resultSet.getString(columnIndex);
-							if(resultSet.wasNull())
-							{
-								objValue = null;
-							}
-							break;
-					}
-				}
-				else if (clazz.equals(Clob.class))
-				{
-					objValue = resultSet.getClob(columnIndex);
-					if(resultSet.wasNull())
-					{
-						objValue = null;
-					}
+							return resultSet.wasNull() ? null : clobToString(clob);
+						};
+						break;
+						
+					default:
+						reader = () -> 
+						{
+							String value = resultSet.getString(columnIndex);
+							return resultSet.wasNull() ? null : value;
+						};
+						break;
 				}
-				else if (clazz.equals(Reader.class))
+			}
+			else if (clazz.equals(Clob.class))
+			{
+				reader = () -> 
 				{
-					Reader reader = null;
-					long size = -1;
-					
-					int columnType = resultSet.getMetaData().getColumnType(columnIndex);
-					switch (columnType)
-					{
-						case Types.CLOB:
-							Clob clob = resultSet.getClob(columnIndex);
-							if (!resultSet.wasNull())
-							{
-								reader = clob.getCharacterStream();
-								size = clob.length();
-							}
-							break;
-							
-						default:
-							reader = resultSet.getCharacterStream(columnIndex);
-							if (resultSet.wasNull())
-							{
-								reader = null; 
-							}
-					}
-					
-					if (reader == null)
-					{
-						objValue = null;
-					}
-					else
-					{
-						objValue = getArrayReader(reader, size);
-					}
-				}
-				else if (clazz.equals(Blob.class))
+					Clob value = resultSet.getClob(columnIndex);
+					return resultSet.wasNull() ? null : value;
+				};
+			}
+			else if (clazz.equals(Reader.class))
+			{
+				int columnType = resultSet.getMetaData().getColumnType(columnIndex);
+				reader = () -> readReader(columnIndex, columnType);
+			}
+			else if (clazz.equals(Blob.class))
+			{
+				reader = () -> 
 				{
-					objValue = resultSet.getBlob(columnIndex);
-					if(resultSet.wasNull())
-					{
-						objValue = null;
-					}
-				}
-				else if (clazz.equals(Image.class))
+					Blob value = resultSet.getBlob(columnIndex);
+					return resultSet.wasNull() ? null : value;
+				};
+			}
+			else if (clazz.equals(Image.class))
+			{
+				int columnType = resultSet.getMetaData().getColumnType(columnIndex);
+				reader = () -> 
 				{
-					byte[] bytes = readBytes(columnIndex);
-					
-					if(bytes == null)
-					{
-						objValue = null;
-					}
-					else
-					{
-						objValue = JRImageLoader.getInstance(jasperReportsContext).loadAwtImageFromBytes(bytes);
-					}					
-				}
-				else if (clazz.equals(byte[].class))
+					byte[] bytes = readBytes(columnIndex, columnType);
+					return bytes == null ? null 
+							: JRImageLoader.getInstance(jasperReportsContext).loadAwtImageFromBytes(bytes);
+				};
+			}
+			else if (clazz.equals(byte[].class))
+			{
+				int columnType = resultSet.getMetaData().getColumnType(columnIndex);
+				reader = () -> readBytes(columnIndex, columnType);
+			}
+			else if (clazz.equals(Object.class))
+			{
+				// there is no point in getting typed value when class is java.lang.Object;
+				// some drivers even fail trying to convert to java.lang.Object, if typed getObject(int, Class)
+				// getter is used as in readObject
+				reader = () -> resultSet.getObject(columnIndex);
+			}
+			else
+			{
+				reader = () -> readObject(columnIndex, clazz);
+			}
+		}
+		catch (SQLException e)
+		{
+			throw 
+				new JRException(
+					EXCEPTION_MESSAGE_KEY_RESULT_SET_METADATA_NOT_RETRIEVED, 
+					null, 
+					e);
+		}
+		
+		return new FieldAccessor(field, reader);
+	}
+
+
+	protected Object readReader(int columnIndex, int columnType) throws SQLException, IOException
+	{
+		Reader reader = null;
+		long size = -1;
+		
+		switch (columnType)
+		{
+			case Types.CLOB:
+				Clob clob = resultSet.getClob(columnIndex);
+				if (!resultSet.wasNull())
 				{
-					objValue = readBytes(columnIndex);
+					reader = clob.getCharacterStream();
+					size = clob.length();
 				}
-				else if (clazz.equals(Object.class))
+				break;
+				
+			default:
+				reader = resultSet.getCharacterStream(columnIndex);
+				if (resultSet.wasNull())
 				{
-					// there is no point in getting typed value when class is java.lang.Object;
-					// some drivers even fail trying to convert to java.lang.Object, if typed getObject(int, Class)
-					// getter is used as in the next else block
-					objValue = resultSet.getObject(columnIndex);
+					reader = null; 
 				}
-				else
+		}
+		
+		return reader == null ? null : getArrayReader(reader, size);
+	}
+
+
+	protected Object readObject(int columnIndex, Class<?> clazz) throws SQLException
+	{
+		Object objValue;
+		if (supportsTypedGetObjectMethod == null)
+		{
+			try
+			{
+				objValue = resultSet.getObject(columnIndex, clazz);
+				supportsTypedGetObjectMethod = true;
+			}
+			catch (AbstractMethodError e)
+			{
+				supportsTypedGetObjectMethod = false;
+				objValue = resultSet.getObject(columnIndex);
+			}
+			catch (SQLException e)
+			{
+				// although implemented by the driver, the getObject(int, Class) might still fail for some other reason,
+				// so we fallback to getObject(int), but it does not mean we are not going to try it again next time
+				if (log.isDebugEnabled())
 				{
-					if (supportsTypedGetObjectMethod == null)
-					{
-						try
-						{
-							objValue = resultSet.getObject(columnIndex, clazz);
-							supportsTypedGetObjectMethod = true;
-						}
-						catch (AbstractMethodError e)
-						{
-							supportsTypedGetObjectMethod = false;
-							objValue = resultSet.getObject(columnIndex);
-						}
-						catch (SQLException e)
-						{
-							// although implemented by the driver, the getObject(int, Class) might still fail for some other reason,
-							// so we fallback to getObject(int), but it does not mean we are not going to try it again next time
-							if (log.isDebugEnabled())
-							{
-								log.debug("ResultSet.getObject(int, Class) method call failed.", e);
-							}
-							
-							objValue = resultSet.getObject(columnIndex);
-						}
-					}
-					else
-					{
-						if (supportsTypedGetObjectMethod)
-						{
-							objValue = resultSet.getObject(columnIndex, clazz);
-						}
-						else
-						{
-							objValue = resultSet.getObject(columnIndex);
-						}
-					}
+					log.debug("ResultSet.getObject(int, Class) method call failed.", e);
 				}
+				
+				objValue = resultSet.getObject(columnIndex);
 			}
-			catch (Exception e)
+		}
+		else
+		{
+			if (supportsTypedGetObjectMethod)
 			{
-				throw 
-					new JRException(
-						EXCEPTION_MESSAGE_KEY_RESULT_SET_FIELD_VALUE_NOT_RETRIEVED,
-						new Object[]{field.getName(), clazz.getName()}, 
-						e);
+				objValue = resultSet.getObject(columnIndex, clazz);
+			}
+			else
+			{
+				objValue = resultSet.getObject(columnIndex);
 			}
 		}
-		
 		return objValue;
 	}
 
 
 	protected Object readDate(Integer columnIndex, JRField field) throws SQLException
 	{
-		Calendar calendar = getFieldCalendar(field);
+		return readDate(columnIndex, field, getFieldCalendar(field));
+	}
+
+
+	protected Object readDate(int columnIndex, JRField field, Calendar calendar) throws SQLException
+	{
 		java.sql.Date objValue = calendar == null ? resultSet.getDate(columnIndex)
 				: resultSet.getDate(columnIndex, calendar);
 		if(resultSet.wasNull())
@@ -479,7 +601,12 @@ public class JRResultSetDataSource implements JRDataSource
 
 	protected Object readTimestamp(Integer columnIndex, JRField field) throws SQLException
 	{
-		Calendar calendar = getFieldCalendar(field);
+		return readTimestamp(columnIndex, field, getFieldCalendar(field));
+	}
+
+
+	protected Object readTimestamp(int columnIndex, JRField field, Calendar calendar) throws SQLException
+	{
 		java.sql.Timestamp objValue = calendar == null ? resultSet.getTimestamp(columnIndex)
 				: resultSet.getTimestamp(columnIndex, calendar);
 		if(resultSet.wasNull())
@@ -498,7 +625,12 @@ public class JRResultSetDataSource implements JRDataSource
 
 	protected Object readTime(Integer columnIndex, JRField field) throws SQLException
 	{
-		Calendar calendar = getFieldCalendar(field);
+		return readTime(columnIndex, field, getFieldCalendar(field));
+	}
+
+
+	protected Object readTime(int columnIndex, JRField field, Calendar calendar) throws SQLException
+	{
 		java.sql.Time objValue = calendar == null ? resultSet.getTime(columnIndex)
 				: resultSet.getTime(columnIndex, calendar);
 		if(resultSet.wasNull())
@@ -751,11 +883,15 @@ public class JRResultSetDataSource implements JRDataSource
 	}
 
 	protected byte[] readBytes(Integer columnIndex) throws SQLException, IOException
+	{
+		return readBytes(columnIndex, resultSet.getMetaData().getColumnType(columnIndex));
+	}
+
+	protected byte[] readBytes(int columnIndex, int columnType) throws SQLException, IOException
 	{
 		InputStream is = null;
 		long size = -1;
 		
-		int columnType = resultSet.getMetaData().getColumnType(columnIndex);
 		switch (columnType)
 		{
 			case Types.BLOB:
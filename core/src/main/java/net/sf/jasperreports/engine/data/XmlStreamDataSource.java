@@ -0,0 +1,761 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2025 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.data;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JRPropertiesUtil;
+import net.sf.jasperreports.engine.JasperReportsContext;
+import net.sf.jasperreports.engine.util.JRXmlUtils;
+import net.sf.jasperreports.engine.util.xml.JRXPathExecuter;
+import net.sf.jasperreports.engine.util.xml.JRXPathExecuterUtils;
+import net.sf.jasperreports.repo.RepositoryContext;
+import net.sf.jasperreports.repo.RepositoryUtil;
+
+
+/**
+ * XML data source that reads the records from the XML input via a StAX stream reader,
+ * without building the DOM document for the whole input.
+ * 
+ * <p>
+ * Only the subtree of the current record element is kept in memory as a DOM document,
+ * the field expressions being evaluated on the record node in the same way as by {@link JRXmlDataSource}.
+ * The select expression is limited to absolute element paths, see {@link #isStreamable(String)}.
+ * Field expressions need to be relative to the record node and cannot navigate outside 
+ * the record element, i.e. absolute paths and the parent, ancestor and sibling axes are not supported.
+ * </p>
+ * 
+ * <p>
+ * The data source can be rewound only when created for a repository location, in which case
+ * the location is read again.
+ * Random access via {@link RandomAccessDataSource} is limited to the current record.
+ * </p>
+ * 
+ * @author agent (agent@local)
+ */
+public class XmlStreamDataSource extends AbstractXmlDataSource<JRXmlDataSource>
+{
+	
+	private static final Log log = LogFactory.getLog(XmlStreamDataSource.class);
+	
+	public static final String EXCEPTION_MESSAGE_KEY_STREAM_DOCUMENT_NOT_AVAILABLE = "data.xml.stream.document.not.available";
+	public static final String EXCEPTION_MESSAGE_KEY_STREAM_NOT_REWINDABLE = "data.xml.stream.not.rewindable";
+	public static final String EXCEPTION_MESSAGE_KEY_STREAM_READ_ERROR = "data.xml.stream.read.error";
+	public static final String EXCEPTION_MESSAGE_KEY_STREAM_UNSUPPORTED_FIELD_EXPRESSION = "data.xml.stream.unsupported.field.expression";
+	
+	private static final String PATH_SEPARATOR = "/";
+	private static final String WILDCARD = "*";
+	
+	private static final Pattern NAME_PATTERN = Pattern.compile(
+			"[\\p{L}_][\\p{L}\\p{N}._-]*(:[\\p{L}_][\\p{L}\\p{N}._-]*)?");
+	
+	private static final Pattern OUTER_AXIS_PATTERN = Pattern.compile(
+			"(ancestor|parent|preceding|following)(-[a-z]+)*\\s*::");
+	
+	private static class PathStep
+	{
+		final String name;
+		final boolean descendant;
+		
+		PathStep(String name, boolean descendant)
+		{
+			this.name = name;
+			this.descendant = descendant;
+		}
+		
+		boolean matches(String elementName)
+		{
+			return name == null || name.equals(elementName);
+		}
+	}
+
+	private final JasperReportsContext jasperReportsContext;
+	private final RepositoryContext repositoryContext;
+	private final String location;
+	private InputStream inputStream;
+	private final PathStep[] path;
+	private final boolean fixedDepth;
+	private final boolean namespaceAware;
+	
+	private final JRXPathExecuter xPathExecuter;
+	private final DocumentBuilder documentBuilder;
+	private final XMLInputFactory inputFactory;
+	private XMLStreamReader reader;
+	private boolean started;
+	private boolean ended;
+	
+	private final List<String> elementNames = new ArrayList<>();
+	private final List<String[]> namespaceDeclarations = new ArrayList<>();
+	private final List<Integer> namespaceDeclarationCounts = new ArrayList<>();
+	private final Deque<Element> pendingRecords = new ArrayDeque<>();
+	private final Set<String> checkedFieldExpressions = new HashSet<>();
+	
+	private int recordCount;
+	private Element currentNode;
+	
+	/**
+	 * Creates a data source that reads XML data from an input stream.
+	 * 
+	 * <p>
+	 * The stream is not closed by the data source.
+	 * </p>
+	 * 
+	 * @param jasperReportsContext the context
+	 * @param in the XML input stream
+	 * @param selectExpression the select expression
+	 * @param isNamespaceAware whether the XML data is read as namespace aware
+	 * @throws JRException if the data source cannot be created
+	 * @see #isStreamable(String)
+	 */
+	public XmlStreamDataSource(JasperReportsContext jasperReportsContext, InputStream in, 
+			String selectExpression, boolean isNamespaceAware) throws JRException
+	{
+		this(jasperReportsContext, null, null, in, selectExpression, isNamespaceAware);
+	}
+
+	/**
+	 * Creates a data source that reads XML data from a repository location.
+	 * 
+	 * @param context the repository context
+	 * @param location the XML data location
+	 * @param selectExpression the select expression
+	 * @param isNamespaceAware whether the XML data is read as namespace aware
+	 * @throws JRException if the data source cannot be created
+	 * @see #isStreamable(String)
+	 */
+	public XmlStreamDataSource(RepositoryContext context, String location, 
+			String selectExpression, boolean isNamespaceAware) throws JRException
+	{
+		this(context.getJasperReportsContext(), context, location, null, selectExpression, isNamespaceAware);
+	}
+	
+	private XmlStreamDataSource(JasperReportsContext jasperReportsContext, 
+			RepositoryContext repositoryContext, String location, InputStream inputStream, 
+			String selectExpression, boolean isNamespaceAware) throws JRException
+	{
+		if (selectExpression == null)
+		{
+			throw 
+				new JRException(
+					EXCEPTION_MESSAGE_KEY_NULL_SELECT_EXPRESSION,
+					(Object[])null);
+		}
+		
+		this.path = parsePath(selectExpression);
+		if (path == null)
+		{
+			throw new IllegalArgumentException("Select expression " + selectExpression + " is not supported for streaming");
+		}
+		
+		boolean descendantSteps = false;
+		for (PathStep step : path)
+		{
+			descendantSteps |= step.descendant;
+		}
+		this.fixedDepth = !descendantSteps;
+		
+		this.jasperReportsContext = jasperReportsContext;
+		this.repositoryContext = repositoryContext;
+		this.location = location;
+		this.inputStream = inputStream;
+		this.namespaceAware = isNamespaceAware;
+		
+		this.xPathExecuter = JRXPathExecuterUtils.getXPathExecuter(jasperReportsContext);
+		this.documentBuilder = JRXmlUtils.createDocumentBuilder(isNamespaceAware);
+		this.inputFactory = createInputFactory();
+	}
+	
+	/**
+	 * Determines whether a select expression can be evaluated by the streaming data source.
+	 * 
+	 * <p>
+	 * Absolute location paths consisting of element names or <code>*</code>
+	 * separated by <code>/</code> or <code>//</code> are supported, e.g. <code>/A/B</code>, 
+	 * <code>/A/*&#47;C</code> or <code>//B</code>.
+	 * Element names are matched as they appear in the document, including prefixes.
+	 * Predicates, functions and other axes need the whole document and are not supported.
+	 * </p>
+	 * 
+	 * @param selectExpression the XPath select expression
+	 * @return whether the expression can be used to stream the records
+	 */
+	public static boolean isStreamable(String selectExpression)
+	{
+		return selectExpression != null && parsePath(selectExpression) != null;
+	}
+	
+	private static PathStep[] parsePath(String selectExpression)
+	{
+		String expression = selectExpression.trim();
+		if (!expression.startsWith(PATH_SEPARATOR))
+		{
+			return null;
+		}
+		
+		List<PathStep> steps = new ArrayList<>();
+		int position = 0;
+		while (position < expression.length())
+		{
+			// at a separator
+			boolean descendant = expression.startsWith(PATH_SEPARATOR, position + 1);
+			position += descendant ? 2 : 1;
+			
+			int stepEnd = expression.indexOf(PATH_SEPARATOR, position);
+			if (stepEnd < 0)
+			{
+				stepEnd = expression.length();
+			}
+			
+			String name = expression.substring(position, stepEnd);
+			if (WILDCARD.equals(name))
+			{
+				steps.add(new PathStep(null, descendant));
+			}
+			else if (NAME_PATTERN.matcher(name).matches())
+			{
+				steps.add(new PathStep(name, descendant));
+			}
+			else
+			{
+				return null;
+			}
+			
+			position = stepEnd;
+		}
+		return steps.toArray(new PathStep[steps.size()]);
+	}
+	
+	private XMLInputFactory createInputFactory()
+	{
+		XMLInputFactory factory = XMLInputFactory.newInstance();
+		factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, namespaceAware);
+		factory.setProperty(XMLInputFactory.IS_COALESCING, Boolean.TRUE);
+		factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+		if (!JRPropertiesUtil.getInstance(jasperReportsContext).getBooleanProperty(
+				JRXmlUtils.PROPERTY_ALLOW_DOCTYPE, false))
+		{
+			factory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+		}
+		return factory;
+	}
+
+	@Override
+	public boolean next() throws JRException
+	{
+		if (!started)
+		{
+			start();
+		}
+		
+		if (ended)
+		{
+			return false;
+		}
+		
+		try
+		{
+			currentNode = nextRecord();
+		}
+		catch (XMLStreamException e)
+		{
+			throw 
+				new JRException(
+					EXCEPTION_MESSAGE_KEY_STREAM_READ_ERROR,
+					(Object[]) null, 
+					e);
+		}
+		
+		if (currentNode == null)
+		{
+			if (log.isDebugEnabled())
+			{
+				log.debug("read " + recordCount + " records");
+			}
+			
+			end();
+			return false;
+		}
+		
+		++recordCount;
+		return true;
+	}
+	
+	protected void start() throws JRException
+	{
+		started = true;
+		ended = false;
+		recordCount = 0;
+		currentNode = null;
+		pendingRecords.clear();
+		elementNames.clear();
+		namespaceDeclarations.clear();
+		namespaceDeclarationCounts.clear();
+		
+		try
+		{
+			if (location != null)
+			{
+				inputStream = RepositoryUtil.getInstance(repositoryContext).getInputStreamFromLocation(location);
+			}
+			reader = inputFactory.createXMLStreamReader(inputStream);
+		}
+		catch (XMLStreamException e)
+		{
+			throw 
+				new JRException(
+					EXCEPTION_MESSAGE_KEY_STREAM_READ_ERROR,
+					(Object[]) null, 
+					e);
+		}
+	}
+	
+	private Element nextRecord() throws XMLStreamException
+	{
+		if (!pendingRecords.isEmpty())
+		{
+			// nested records found in the previous record subtree
+			return pendingRecords.poll();
+		}
+		
+		while (reader.hasNext())
+		{
+			switch (reader.next())
+			{
+			case XMLStreamConstants.START_ELEMENT:
+				pushElement();
+				if (matchesPath())
+				{
+					readRecord();
+					return pendingRecords.poll();
+				}
+				
+				if (fixedDepth && !matchesPathStart())
+				{
+					skipElement();
+				}
+				break;
+			case XMLStreamConstants.END_ELEMENT:
+				popElement();
+				break;
+			default:
+				break;
+			}
+		}
+		return null;
+	}
+	
+	/**
+	 * Reads the subtree of the current element into a new document, 
+	 * collecting the elements that match the select path as records.
+	 */
+	private void readRecord() throws XMLStreamException
+	{
+		Document document = documentBuilder.newDocument();
+		Element record = createElement(document);
+		if (namespaceAware)
+		{
+			declareNamespaces(record);
+		}
+		document.appendChild(record);
+		pendingRecords.add(record);
+		
+		int recordDepth = elementNames.size();
+		Node parent = record;
+		while (elementNames.size() >= recordDepth)
+		{
+			switch (reader.next())
+			{
+			case XMLStreamConstants.START_ELEMENT:
+				pushElement();
+				Element element = createElement(document);
+				parent.appendChild(element);
+				parent = element;
+				
+				if (!fixedDepth && matchesPath())
+				{
+					pendingRecords.add(element);
+				}
+				break;
+			case XMLStreamConstants.END_ELEMENT:
+				popElement();
+				parent = parent.getParentNode();
+				break;
+			case XMLStreamConstants.CHARACTERS:
+			case XMLStreamConstants.CDATA:
+			case XMLStreamConstants.SPACE:
+				parent.appendChild(document.createTextNode(reader.getText()));
+				break;
+			default:
+				// comments and processing instructions are not needed
+				break;
+			}
+		}
+	}
+	
+	private void skipElement() throws XMLStreamException
+	{
+		int depth = 1;
+		while (depth > 0)
+		{
+			switch (reader.next())
+			{
+			case XMLStreamConstants.START_ELEMENT:
+				++depth;
+				break;
+			case XMLStreamConstants.END_ELEMENT:
+				--depth;
+				break;
+			default:
+				break;
+			}
+		}
+		popElement();
+	}
+	
+	private Element createElement(Document document)
+	{
+		Element element;
+		if (namespaceAware)
+		{
+			element = document.createElementNS(namespaceURI(reader.getNamespaceURI()), 
+					qualifiedName(reader.getPrefix(), reader.getLocalName()));
+			for (int i = 0; i < reader.getNamespaceCount(); i++)
+			{
+				element.setAttributeNS(XMLConstants.XMLNS_ATTRIBUTE_NS_URI, 
+						namespaceAttribute(reader.getNamespacePrefix(i)), reader.getNamespaceURI(i));
+			}
+			for (int i = 0; i < reader.getAttributeCount(); i++)
+			{
+				element.setAttributeNS(namespaceURI(reader.getAttributeNamespace(i)), 
+						qualifiedName(reader.getAttributePrefix(i), reader.getAttributeLocalName(i)), 
+						reader.getAttributeValue(i));
+			}
+		}
+		else
+		{
+			element = document.createElement(elementNames.get(elementNames.size() - 1));
+			for (int i = 0; i < reader.getAttributeCount(); i++)
+			{
+				element.setAttribute(qualifiedName(reader.getAttributePrefix(i), reader.getAttributeLocalName(i)), 
+						reader.getAttributeValue(i));
+			}
+		}
+		return element;
+	}
+	
+	/**
+	 * Copies on the record element the namespaces declared by the ancestor elements, 
+	 * so that the namespace prefixes can be used on the record document.
+	 */
+	private void declareNamespaces(Element record)
+	{
+		for (int i = namespaceDeclarations.size() - 1; i >= 0; i--)
+		{
+			String[] declaration = namespaceDeclarations.get(i);
+			String attribute = namespaceAttribute(declaration[0]);
+			if (!record.hasAttributeNS(XMLConstants.XMLNS_ATTRIBUTE_NS_URI, 
+					declaration[0] == null ? XMLConstants.XMLNS_ATTRIBUTE : declaration[0]))
+			{
+				record.setAttributeNS(XMLConstants.XMLNS_ATTRIBUTE_NS_URI, attribute, declaration[1]);
+			}
+		}
+	}
+	
+	private void pushElement()
+	{
+		elementNames.add(qualifiedName(reader.getPrefix(), reader.getLocalName()));
+		
+		if (namespaceAware)
+		{
+			int count = reader.getNamespaceCount();
+			for (int i = 0; i < count; i++)
+			{
+				String prefix = reader.getNamespacePrefix(i);
+				namespaceDeclarations.add(new String[] {
+						prefix == null || prefix.isEmpty() ? null : prefix, 
+						reader.getNamespaceURI(i)});
+			}
+			namespaceDeclarationCounts.add(count);
+		}
+	}
+	
+	private void popElement()
+	{
+		elementNames.remove(elementNames.size() - 1);
+		
+		if (namespaceAware)
+		{
+			int count = namespaceDeclarationCounts.remove(namespaceDeclarationCounts.size() - 1);
+			for (int i = 0; i < count; i++)
+			{
+				namespaceDeclarations.remove(namespaceDeclarations.size() - 1);
+			}
+		}
+	}
+	
+	private static String qualifiedName(String prefix, String localName)
+	{
+		return prefix == null || prefix.isEmpty() ? localName : prefix + ":" + localName;
+	}
+	
+	private static String namespaceAttribute(String prefix)
+	{
+		return prefix == null || prefix.isEmpty() ? XMLConstants.XMLNS_ATTRIBUTE 
+				: XMLConstants.XMLNS_ATTRIBUTE + ":" + prefix;
+	}
+	
+	private static String namespaceURI(String uri)
+	{
+		return uri == null || uri.isEmpty() ? null : uri;
+	}
+	
+	private boolean matchesPath()
+	{
+		return matchesPath(0, 0);
+	}
+	
+	private boolean matchesPath(int stepIndex, int elementIndex)
+	{
+		if (stepIndex == path.length)
+		{
+			return elementIndex == elementNames.size();
+		}
+		
+		PathStep step = path[stepIndex];
+		if (step.descendant)
+		{
+			for (int idx = elementIndex; idx < elementNames.size(); idx++)
+			{
+				if (step.matches(elementNames.get(idx)) && matchesPath(stepIndex + 1, idx + 1))
+				{
+					return true;
+				}
+			}
+			return false;
+		}
+		
+		return elementIndex < elementNames.size() 
+				&& step.matches(elementNames.get(elementIndex))
+				&& matchesPath(stepIndex + 1, elementIndex + 1);
+	}
+	
+	/**
+	 * Determines whether the current element can contain records, for paths without descendant steps.
+	 */
+	private boolean matchesPathStart()
+	{
+		int depth = elementNames.size();
+		if (depth >= path.length)
+		{
+			return false;
+		}
+		
+		for (int idx = 0; idx < depth; idx++)
+		{
+			if (!path[idx].matches(elementNames.get(idx)))
+			{
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	protected void end()
+	{
+		ended = true;
+		currentNode = null;
+		pendingRecords.clear();
+		close();
+	}
+
+	/**
+	 * Closes the XML stream reader, and the input stream if it was opened by the data source.
+	 */
+	public void close()
+	{
+		if (reader != null)
+		{
+			try
+			{
+				reader.close();
+			}
+			catch (XMLStreamException e)
+			{
+				log.warn("Failed to close XML stream reader", e);
+			}
+			reader = null;
+		}
+		
+		if (location != null && inputStream != null)
+		{
+			try
+			{
+				inputStream.close();
+			}
+			catch (IOException e)
+			{
+				log.warn("Failed to close input stream for location " + location, e);
+			}
+			inputStream = null;
+		}
+	}
+
+	@Override
+	public void moveFirst() throws JRException
+	{
+		if (!started)
+		{
+			return;
+		}
+		
+		if (location == null)
+		{
+			throw 
+				new JRException(
+					EXCEPTION_MESSAGE_KEY_STREAM_NOT_REWINDABLE,
+					(Object[]) null);
+		}
+		
+		close();
+		started = false;
+	}
+
+	/**
+	 * Returns the number of records read so far.
+	 */
+	@Override
+	public int recordCount()
+	{
+		return recordCount;
+	}
+
+	@Override
+	public int currentIndex()
+	{
+		return recordCount - 1;
+	}
+
+	/**
+	 * Only the current record can be accessed, as the previous records are discarded.
+	 */
+	@Override
+	public void moveToRecord(int index) throws NoRecordAtIndexException
+	{
+		if (currentNode == null || index != recordCount - 1)
+		{
+			throw new NoRecordAtIndexException(index);
+		}
+	}
+
+	@Override
+	public Node getCurrentNode()
+	{
+		return currentNode;
+	}
+
+	@Override
+	public Object getSelectObject(Node currentNode, String expression) throws JRException
+	{
+		checkFieldExpression(expression);
+		return xPathExecuter.selectObject(currentNode, expression);
+	}
+	
+	protected void checkFieldExpression(String expression) throws JRException
+	{
+		if (checkedFieldExpressions.contains(expression))
+		{
+			return;
+		}
+		
+		String trimmedExpression = expression.trim();
+		if (trimmedExpression.startsWith(PATH_SEPARATOR)
+				|| trimmedExpression.contains("..")
+				|| OUTER_AXIS_PATTERN.matcher(trimmedExpression).find())
+		{
+			throw 
+				new JRException(
+					EXCEPTION_MESSAGE_KEY_STREAM_UNSUPPORTED_FIELD_EXPRESSION,
+					new Object[] {expression});
+		}
+		
+		checkedFieldExpressions.add(expression);
+	}
+
+	@Override
+	public JRXmlDataSource subDataSource(String selectExpr) throws JRException
+	{
+		Document doc = subDocument();
+		JRXmlDataSource subDataSource = new JRXmlDataSource(jasperReportsContext, doc, selectExpr);
+		subDataSource.setTextAttributes(this);
+		return subDataSource;
+	}
+
+	@Override
+	public Document subDocument() throws JRException
+	{
+		if (currentNode == null)
+		{
+			throw 
+				new JRException(
+					EXCEPTION_MESSAGE_KEY_NODE_NOT_AVAILABLE,
+					(Object[]) null);
+		}
+		
+		return JRXmlUtils.createDocument(currentNode, namespaceAware);
+	}
+
+	/**
+	 * Not supported, the whole XML document is not available when reading the data as a stream.
+	 */
+	@Override
+	public JRXmlDataSource dataSource(String selectExpr) throws JRException
+	{
+		throw 
+			new JRException(
+				EXCEPTION_MESSAGE_KEY_STREAM_DOCUMENT_NOT_AVAILABLE,
+				(Object[]) null);
+	}
+}
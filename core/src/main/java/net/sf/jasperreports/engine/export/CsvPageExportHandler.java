@@ -0,0 +1,103 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2025 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.export;
+
+import java.io.Writer;
+
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JasperPrint;
+import net.sf.jasperreports.engine.JasperReportsContext;
+import net.sf.jasperreports.export.SimpleCsvExporterConfiguration;
+import net.sf.jasperreports.export.SimpleCsvReportConfiguration;
+import net.sf.jasperreports.export.SimpleExporterInput;
+import net.sf.jasperreports.export.SimpleWriterExporterOutput;
+
+/**
+ * Page export handler that writes the pages of a report as CSV data, using a
+ * {@link JRCsvExporter} for each page.
+ * 
+ * @author agent (agent@local)
+ * @see FillExportPipeline
+ */
+public class CsvPageExportHandler implements PageExportHandler
+{
+	
+	private final JasperReportsContext jasperReportsContext;
+	private final Writer writer;
+	private final SimpleCsvExporterConfiguration configuration;
+
+	/**
+	 * @param jasperReportsContext the context
+	 * @param writer the writer to which the CSV data is written, it is not closed by the handler
+	 */
+	public CsvPageExportHandler(JasperReportsContext jasperReportsContext, Writer writer)
+	{
+		this(jasperReportsContext, writer, new SimpleCsvExporterConfiguration());
+	}
+	
+	/**
+	 * @param jasperReportsContext the context
+	 * @param writer the writer to which the CSV data is written, it is not closed by the handler
+	 * @param configuration the exporter configuration
+	 */
+	public CsvPageExportHandler(JasperReportsContext jasperReportsContext, Writer writer, 
+			SimpleCsvExporterConfiguration configuration)
+	{
+		this.jasperReportsContext = jasperReportsContext;
+		this.writer = writer;
+		this.configuration = configuration;
+	}
+
+	@Override
+	public void exportPage(JasperPrint jasperPrint, int pageIndex, boolean lastPage) throws JRException
+	{
+		JRCsvExporter exporter = new JRCsvExporter(jasperReportsContext);
+		exporter.setExporterInput(new SimpleExporterInput(jasperPrint));
+		exporter.setExporterOutput(new SimpleWriterExporterOutput(writer));
+		
+		if (pageIndex == 0)
+		{
+			exporter.setConfiguration(configuration);
+		}
+		else
+		{
+			// the BOM is only written at the start of the output
+			SimpleCsvExporterConfiguration pageConfiguration = new SimpleCsvExporterConfiguration();
+			pageConfiguration.setFieldDelimiter(configuration.getFieldDelimiter());
+			pageConfiguration.setFieldEnclosure(configuration.getFieldEnclosure());
+			pageConfiguration.setRecordDelimiter(configuration.getRecordDelimiter());
+			pageConfiguration.setForceFieldEnclosure(configuration.getForceFieldEnclosure());
+			pageConfiguration.setEscapeFormula(configuration.getEscapeFormula());
+			pageConfiguration.setWriteBOM(false);
+			exporter.setConfiguration(pageConfiguration);
+		}
+		
+		SimpleCsvReportConfiguration reportConfiguration = new SimpleCsvReportConfiguration();
+		reportConfiguration.setPageIndex(pageIndex);
+		exporter.setConfiguration(reportConfiguration);
+		
+		exporter.exportReport();
+	}
+
+}
@@ -0,0 +1,421 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2025 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.export;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JRPrintPage;
+import net.sf.jasperreports.engine.JRRuntimeException;
+import net.sf.jasperreports.engine.JasperPrint;
+import net.sf.jasperreports.engine.base.JRBasePrintPage;
+import net.sf.jasperreports.engine.base.JRVirtualPrintPage;
+import net.sf.jasperreports.engine.fill.AsynchronousFilllListener;
+import net.sf.jasperreports.engine.fill.FillHandle;
+import net.sf.jasperreports.engine.fill.FillListener;
+import net.sf.jasperreports.export.ExportInterruptedException;
+
+/**
+ * Exports the pages of a report while the report is being filled.
+ * 
+ * <p>
+ * The pipeline listens to the page events of an asynchronous fill handle and passes each
+ * page to a {@link PageExportHandler} as soon as the page is final, that is when the next 
+ * page has been started and the page no longer has elements waiting for delayed evaluation.
+ * Pages are exported in order on the thread that calls {@link #export(PageExportHandler)},
+ * while the report is filled on the fill handle thread.
+ * </p>
+ * 
+ * <p>
+ * For large reports, a virtualizer should be used for the fill so that pages do not stay
+ * in memory until they are exported.  If the generated report is not needed after the export,
+ * the pipeline can also {@link #setReleaseExportedPages(boolean) release} the exported pages,
+ * in which case the returned report only contains empty pages.
+ * </p>
+ * 
+ * @author agent (agent@local)
+ * @see CsvPageExportHandler
+ * @see HtmlPageExportHandler
+ */
+public class FillExportPipeline implements FillListener, AsynchronousFilllListener
+{
+	private static final Log log = LogFactory.getLog(FillExportPipeline.class);
+	
+	public static final String EXCEPTION_MESSAGE_KEY_FILL_ERROR = "export.pipeline.fill.error";
+	public static final String EXCEPTION_MESSAGE_KEY_FILL_CANCELLED = "export.pipeline.fill.cancelled";
+	
+	// checking page status periodically in case it changes without an event
+	private static final long PAGE_CHECK_INTERVAL = TimeUnit.MILLISECONDS.toNanos(200);
+	
+	private final FillHandle fillHandle;
+	private final Lock lock;
+	private final Condition pageCondition;
+	
+	private JasperPrint jasperPrint;
+	private int generatedPageCount;
+	private boolean done;
+	private boolean cancelled;
+	private Throwable error;
+	
+	private boolean releaseExportedPages;
+	private int exportedPageCount;
+	private int releasedPageCount;
+
+	/**
+	 * Creates a pipeline for a fill handle that has not been started.
+	 * 
+	 * @param fillHandle the fill handle
+	 */
+	public FillExportPipeline(FillHandle fillHandle)
+	{
+		this.fillHandle = fillHandle;
+		this.lock = new ReentrantLock();
+		this.pageCondition = lock.newCondition();
+		
+		fillHandle.addListener(this);
+		fillHandle.addFillListener(this);
+	}
+
+	/**
+	 * Returns whether pages are released after being exported.
+	 * 
+	 * @see #setReleaseExportedPages(boolean)
+	 */
+	public boolean isReleaseExportedPages()
+	{
+		return releaseExportedPages;
+	}
+
+	/**
+	 * Specifies whether pages should be released after being exported.
+	 * 
+	 * <p>
+	 * If set, exported pages are replaced by empty pages in the generated report, and 
+	 * the data of virtualized pages is disposed, so that the memory used by the fill does 
+	 * not grow with the number of pages.  While the fill is running, the pages are replaced
+	 * on the fill thread, when the next page is generated.
+	 * </p>
+	 * 
+	 * @param releaseExportedPages whether to release the exported pages
+	 */
+	public void setReleaseExportedPages(boolean releaseExportedPages)
+	{
+		this.releaseExportedPages = releaseExportedPages;
+	}
+
+	/**
+	 * Starts the fill and exports the report pages as they are generated.
+	 * 
+	 * <p>
+	 * The method returns after the report has been filled and all pages have been exported.
+	 * If the export fails, the fill is cancelled.
+	 * </p>
+	 * 
+	 * @param handler the handler that exports the pages
+	 * @return the generated report
+	 * @throws JRException
+	 */
+	public JasperPrint export(PageExportHandler handler) throws JRException
+	{
+		fillHandle.startFill();
+		
+		boolean exported = false;
+		try
+		{
+			JasperPrint print = exportPages(handler);
+			exported = true;
+			return print;
+		}
+		finally
+		{
+			if (!exported)
+			{
+				cancelFill();
+			}
+		}
+	}
+
+	protected JasperPrint exportPages(PageExportHandler handler) throws JRException
+	{
+		boolean started = false;
+		int pageIndex = 0;
+		while (true)
+		{
+			// waiting until the current page is final and we know whether it's the last one
+			PageState pageState = waitForPage(pageIndex);
+			if (pageState == PageState.NONE)
+			{
+				break;
+			}
+			
+			if (!started)
+			{
+				handler.startReport(jasperPrint);
+				started = true;
+			}
+			
+			if (log.isDebugEnabled())
+			{
+				log.debug("exporting page " + pageIndex);
+			}
+			
+			handler.exportPage(jasperPrint, pageIndex, pageState == PageState.LAST);
+			pageExported(pageIndex);
+			++pageIndex;
+		}
+		
+		if (!started)
+		{
+			handler.startReport(jasperPrint);
+		}
+		handler.endReport(jasperPrint);
+		return jasperPrint;
+	}
+	
+	protected static enum PageState
+	{
+		NONE,
+		LAST,
+		NOT_LAST
+	}
+	
+	protected PageState waitForPage(int pageIndex) throws JRException
+	{
+		lock.lock();
+		try
+		{
+			while (true)
+			{
+				checkFillStatus();
+				
+				if (done)
+				{
+					int pageCount = jasperPrint.getPages().size();
+					return pageIndex >= pageCount ? PageState.NONE 
+							: (pageIndex == pageCount - 1 ? PageState.LAST : PageState.NOT_LAST);
+				}
+				
+				if (pageIndex < generatedPageCount && fillHandle.isPageFinal(pageIndex))
+				{
+					return PageState.NOT_LAST;
+				}
+				
+				pageCondition.awaitNanos(PAGE_CHECK_INTERVAL);
+			}
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			throw new ExportInterruptedException();
+		}
+		finally
+		{
+			lock.unlock();
+		}
+	}
+	
+	protected void pageExported(int pageIndex)
+	{
+		if (!releaseExportedPages)
+		{
+			return;
+		}
+		
+		lock.lock();
+		try
+		{
+			exportedPageCount = pageIndex + 1;
+			if (done)
+			{
+				// the fill no longer modifies the pages list, releasing the page now
+				releasePages();
+			}
+		}
+		finally
+		{
+			lock.unlock();
+		}
+	}
+	
+	/**
+	 * Releases the pages exported so far, called while holding the lock.
+	 * <p>
+	 * The page list is modified either on the fill thread or after the fill has completed.
+	 */
+	protected void releasePages()
+	{
+		if (releasedPageCount >= exportedPageCount)
+		{
+			return;
+		}
+		
+		List<JRPrintPage> pages = jasperPrint.getPages();
+		for (int pageIndex = releasedPageCount; pageIndex < exportedPageCount; pageIndex++)
+		{
+			if (log.isDebugEnabled())
+			{
+				log.debug("releasing page " + pageIndex);
+			}
+			
+			JRPrintPage page = pages.set(pageIndex, new JRBasePrintPage());
+			if (page instanceof JRVirtualPrintPage)
+			{
+				((JRVirtualPrintPage) page).dispose();
+			}
+		}
+		releasedPageCount = exportedPageCount;
+	}
+	
+	protected void checkFillStatus()
+	{
+		if (error != null)
+		{
+			throw 
+				new JRRuntimeException(
+					EXCEPTION_MESSAGE_KEY_FILL_ERROR,
+					(Object[])null,
+					error);
+		}
+		
+		if (cancelled)
+		{
+			throw 
+				new JRRuntimeException(
+					EXCEPTION_MESSAGE_KEY_FILL_CANCELLED,
+					(Object[])null);
+		}
+	}
+	
+	protected void cancelFill()
+	{
+		boolean running;
+		lock.lock();
+		try
+		{
+			running = !done;
+		}
+		finally
+		{
+			lock.unlock();
+		}
+		
+		if (running)
+		{
+			try
+			{
+				fillHandle.cancellFill();
+			}
+			catch (JRException e)
+			{
+				log.warn("Error cancelling report fill", e);
+			}
+		}
+	}
+
+	@Override
+	public void pageGenerated(JasperPrint jasperPrint, int pageIndex)
+	{
+		lock.lock();
+		try
+		{
+			this.jasperPrint = jasperPrint;
+			generatedPageCount = pageIndex + 1;
+			releasePages();
+			pageCondition.signalAll();
+		}
+		finally
+		{
+			lock.unlock();
+		}
+	}
+
+	@Override
+	public void pageUpdated(JasperPrint jasperPrint, int pageIndex)
+	{
+		lock.lock();
+		try
+		{
+			pageCondition.signalAll();
+		}
+		finally
+		{
+			lock.unlock();
+		}
+	}
+
+	@Override
+	public void reportFinished(JasperPrint jasperPrint)
+	{
+		lock.lock();
+		try
+		{
+			this.jasperPrint = jasperPrint;
+			done = true;
+			pageCondition.signalAll();
+		}
+		finally
+		{
+			lock.unlock();
+		}
+	}
+
+	@Override
+	public void reportCancelled()
+	{
+		lock.lock();
+		try
+		{
+			cancelled = true;
+			done = true;
+			pageCondition.signalAll();
+		}
+		finally
+		{
+			lock.unlock();
+		}
+	}
+
+	@Override
+	public void reportFillError(Throwable t)
+	{
+		lock.lock();
+		try
+		{
+			error = t;
+			done = true;
+			pageCondition.signalAll();
+		}
+		finally
+		{
+			lock.unlock();
+		}
+	}
+}
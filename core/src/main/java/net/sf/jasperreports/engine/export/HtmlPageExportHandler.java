@@ -0,0 +1,164 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2025 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.export;
+
+import java.io.IOException;
+import java.io.Writer;
+
+import net.sf.jasperreports.engine.JRAbstractExporter;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JRRuntimeException;
+import net.sf.jasperreports.engine.JasperPrint;
+import net.sf.jasperreports.engine.JasperReportsContext;
+import net.sf.jasperreports.export.SimpleExporterInput;
+import net.sf.jasperreports.export.SimpleHtmlExporterConfiguration;
+import net.sf.jasperreports.export.SimpleHtmlExporterOutput;
+import net.sf.jasperreports.export.SimpleHtmlReportConfiguration;
+
+/**
+ * Page export handler that writes the pages of a report as a single HTML document, 
+ * using a {@link HtmlExporter} for each page.
+ * 
+ * <p>
+ * The HTML header is written with the first page and the footer with the last page.
+ * </p>
+ * 
+ * @author agent (agent@local)
+ * @see FillExportPipeline
+ */
+public class HtmlPageExportHandler implements PageExportHandler
+{
+	
+	public static final String DEFAULT_BETWEEN_PAGES_HTML = "<br/>\n<br/>\n";
+	
+	private final JasperReportsContext jasperReportsContext;
+	private final Writer writer;
+	private HtmlResourceHandler imageHandler;
+	private String betweenPagesHtml = DEFAULT_BETWEEN_PAGES_HTML;
+	
+	private boolean pagesExported;
+
+	/**
+	 * @param jasperReportsContext the context
+	 * @param writer the writer to which the HTML is written, it is not closed by the handler
+	 */
+	public HtmlPageExportHandler(JasperReportsContext jasperReportsContext, Writer writer)
+	{
+		this.jasperReportsContext = jasperReportsContext;
+		this.writer = writer;
+	}
+
+	@Override
+	public void exportPage(JasperPrint jasperPrint, int pageIndex, boolean lastPage) throws JRException
+	{
+		if (pagesExported)
+		{
+			write(betweenPagesHtml);
+		}
+		
+		SimpleHtmlExporterConfiguration configuration = new SimpleHtmlExporterConfiguration();
+		if (pagesExported)
+		{
+			configuration.setHtmlHeader("");
+		}
+		if (!lastPage)
+		{
+			configuration.setHtmlFooter("");
+		}
+		configuration.setFlushOutput(true);
+		
+		SimpleHtmlReportConfiguration reportConfiguration = new SimpleHtmlReportConfiguration();
+		reportConfiguration.setPageIndex(pageIndex);
+		
+		export(jasperPrint, configuration, reportConfiguration);
+		pagesExported = true;
+	}
+	
+	@Override
+	public void endReport(JasperPrint jasperPrint) throws JRException
+	{
+		if (!pagesExported)
+		{
+			// writing the header and footer for a report without pages
+			export(jasperPrint, new SimpleHtmlExporterConfiguration(), new SimpleHtmlReportConfiguration());
+		}
+	}
+
+	protected void export(JasperPrint jasperPrint, SimpleHtmlExporterConfiguration configuration,
+			SimpleHtmlReportConfiguration reportConfiguration) throws JRException
+	{
+		HtmlExporter exporter = new HtmlExporter(jasperReportsContext);
+		exporter.setExporterInput(new SimpleExporterInput(jasperPrint));
+		
+		SimpleHtmlExporterOutput output = new SimpleHtmlExporterOutput(writer);
+		output.setImageHandler(imageHandler);
+		exporter.setExporterOutput(output);
+		
+		exporter.setConfiguration(configuration);
+		exporter.setConfiguration(reportConfiguration);
+		exporter.exportReport();
+	}
+	
+	protected void write(String html)
+	{
+		try
+		{
+			writer.write(html);
+		}
+		catch (IOException e)
+		{
+			throw 
+				new JRRuntimeException(
+					JRAbstractExporter.EXCEPTION_MESSAGE_KEY_OUTPUT_WRITER_ERROR,
+					new Object[]{writer},
+					e);
+		}
+	}
+
+	public HtmlResourceHandler getImageHandler()
+	{
+		return imageHandler;
+	}
+
+	/**
+	 * Sets the handler used for the images in the report.
+	 */
+	public void setImageHandler(HtmlResourceHandler imageHandler)
+	{
+		this.imageHandler = imageHandler;
+	}
+
+	public String getBetweenPagesHtml()
+	{
+		return betweenPagesHtml;
+	}
+
+	/**
+	 * Sets the HTML written between pages.
+	 */
+	public void setBetweenPagesHtml(String betweenPagesHtml)
+	{
+		this.betweenPagesHtml = betweenPagesHtml;
+	}
+}
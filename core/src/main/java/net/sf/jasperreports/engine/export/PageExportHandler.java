@@ -0,0 +1,75 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2025 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.export;
+
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JasperPrint;
+
+/**
+ * Exports the pages of a report as they are handed over by a {@link FillExportPipeline}.
+ * 
+ * <p>
+ * All methods are called on the thread that runs the pipeline, in page order.
+ * Handlers are provided for formats where each page can be exported separately, such as
+ * CSV and HTML; formats whose document structure depends on all pages are exported after
+ * the fill.
+ * </p>
+ * 
+ * @author agent (agent@local)
+ * @see FillExportPipeline#export(PageExportHandler)
+ */
+public interface PageExportHandler
+{
+
+	/**
+	 * Called before the first page is exported.
+	 * 
+	 * @param jasperPrint the report that is being generated
+	 * @throws JRException
+	 */
+	default void startReport(JasperPrint jasperPrint) throws JRException
+	{
+	}
+	
+	/**
+	 * Called when a page is final and can be exported.
+	 * 
+	 * @param jasperPrint the report that is being generated
+	 * @param pageIndex the index of the page
+	 * @param lastPage whether this is the last page of the report
+	 * @throws JRException
+	 */
+	void exportPage(JasperPrint jasperPrint, int pageIndex, boolean lastPage) throws JRException;
+	
+	/**
+	 * Called after the report has been generated and all its pages have been exported.
+	 * 
+	 * @param jasperPrint the generated report
+	 * @throws JRException
+	 */
+	default void endReport(JasperPrint jasperPrint) throws JRException
+	{
+	}
+	
+}
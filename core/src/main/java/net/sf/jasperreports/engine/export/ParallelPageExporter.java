@@ -0,0 +1,300 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2025 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.export;
+
+import java.awt.image.BufferedImage;
+import java.io.StringWriter;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JRRuntimeException;
+import net.sf.jasperreports.engine.JasperPrint;
+import net.sf.jasperreports.engine.JasperReportsContext;
+import net.sf.jasperreports.engine.print.JRPrinterAWT;
+import net.sf.jasperreports.export.ExportInterruptedException;
+import net.sf.jasperreports.export.SimpleExporterInput;
+import net.sf.jasperreports.export.SimpleHtmlExporterConfiguration;
+import net.sf.jasperreports.export.SimpleHtmlExporterOutput;
+import net.sf.jasperreports.export.SimpleHtmlReportConfiguration;
+
+/**
+ * Exports the pages of a document in parallel and hands the results over in page order.
+ * 
+ * <p>
+ * Each page is rendered by a {@link PageRenderer} into a separate buffer (such as an image
+ * or a piece of HTML) on a fork-join pool, and the buffers are passed to a {@link PageConsumer}
+ * on the calling thread in the order of the pages, so that they can be stitched together.
+ * The number of pages rendered ahead of the consumer is bounded, which limits the memory
+ * used by the buffers of large documents.
+ * </p>
+ * 
+ * <p>
+ * This can only be used for page independent formats, where the rendering of a page does not
+ * depend on the pages before it.
+ * Each page is rendered by a separate exporter, so the renderers should not share state that
+ * is not thread safe.  The HTML resource handler passed to 
+ * {@link #htmlRenderer(JasperReportsContext, HtmlResourceHandler)} is shared by all pages,
+ * the renderer synchronizes the calls to it.
+ * Virtualized pages are paged in by the rendering threads, concurrently.
+ * </p>
+ * 
+ * @author agent (agent@local)
+ */
+public class ParallelPageExporter
+{
+	private static final Log log = LogFactory.getLog(ParallelPageExporter.class);
+	
+	public static final String EXCEPTION_MESSAGE_KEY_PAGE_EXPORT_ERROR = "export.parallel.page.export.error";
+	
+	/**
+	 * Renders a page of a document into a buffer.
+	 * 
+	 * @param <B> the type of the page buffer
+	 */
+	@FunctionalInterface
+	public static interface PageRenderer<B>
+	{
+		B renderPage(JasperPrint jasperPrint, int pageIndex) throws JRException;
+	}
+	
+	/**
+	 * Receives the rendered pages, in page order.
+	 * 
+	 * @param <B> the type of the page buffer
+	 */
+	@FunctionalInterface
+	public static interface PageConsumer<B>
+	{
+		void pageRendered(int pageIndex, B pageBuffer) throws JRException;
+	}
+	
+	private final ForkJoinPool pool;
+	private final int maxPendingPages;
+
+	/**
+	 * Creates an exporter that uses the common fork-join pool.
+	 */
+	public ParallelPageExporter()
+	{
+		this(ForkJoinPool.commonPool());
+	}
+	
+	/**
+	 * Creates an exporter that uses a specific fork-join pool.
+	 * 
+	 * @param pool the pool on which the pages are rendered
+	 */
+	public ParallelPageExporter(ForkJoinPool pool)
+	{
+		this(pool, 2 * pool.getParallelism());
+	}
+	
+	/**
+	 * @param pool the pool on which the pages are rendered
+	 * @param maxPendingPages the maximum number of pages that are rendered ahead of the consumer
+	 */
+	public ParallelPageExporter(ForkJoinPool pool, int maxPendingPages)
+	{
+		this.pool = pool;
+		this.maxPendingPages = Math.max(1, maxPendingPages);
+	}
+
+	/**
+	 * Exports all the pages of a document.
+	 */
+	public <B> void exportPages(JasperPrint jasperPrint, 
+			PageRenderer<B> renderer, PageConsumer<B> consumer) throws JRException
+	{
+		exportPages(jasperPrint, 0, jasperPrint.getPages().size() - 1, renderer, consumer);
+	}
+	
+	/**
+	 * Exports a range of pages of a document.
+	 * 
+	 * @param jasperPrint the document
+	 * @param startPageIndex the index of the first page to export
+	 * @param endPageIndex the index of the last page to export
+	 * @param renderer the page renderer, called concurrently from the pool threads
+	 * @param consumer the page consumer, called on the current thread in page order
+	 * @throws JRException
+	 */
+	public <B> void exportPages(JasperPrint jasperPrint, int startPageIndex, int endPageIndex,
+			PageRenderer<B> renderer, PageConsumer<B> consumer) throws JRException
+	{
+		if (log.isDebugEnabled())
+		{
+			log.debug("exporting pages " + startPageIndex + " to " + endPageIndex
+					+ " of " + jasperPrint.getName() + " on " + pool);
+		}
+		
+		Deque<ForkJoinTask<B>> pendingPages = new ArrayDeque<>(maxPendingPages);
+		int nextPageIndex = startPageIndex;
+		boolean done = false;
+		try
+		{
+			for (int pageIndex = startPageIndex; pageIndex <= endPageIndex; pageIndex++)
+			{
+				while (nextPageIndex <= endPageIndex && pendingPages.size() < maxPendingPages)
+				{
+					int renderedPageIndex = nextPageIndex++;
+					pendingPages.add(pool.submit(() -> renderer.renderPage(jasperPrint, renderedPageIndex)));
+				}
+				
+				B pageBuffer = pageResult(pendingPages.poll());
+				consumer.pageRendered(pageIndex, pageBuffer);
+			}
+			done = true;
+		}
+		finally
+		{
+			if (!done)
+			{
+				for (ForkJoinTask<B> pendingPage : pendingPages)
+				{
+					pendingPage.cancel(false);
+				}
+			}
+		}
+	}
+	
+	protected <B> B pageResult(ForkJoinTask<B> pageTask) throws JRException
+	{
+		try
+		{
+			return pageTask.get();
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			throw new ExportInterruptedException();
+		}
+		catch (ExecutionException e)
+		{
+			Throwable cause = e.getCause();
+			if (cause instanceof JRException)
+			{
+				throw (JRException) cause;
+			}
+			if (cause instanceof RuntimeException)
+			{
+				throw (RuntimeException) cause;
+			}
+			throw 
+				new JRRuntimeException(
+					EXCEPTION_MESSAGE_KEY_PAGE_EXPORT_ERROR,
+					(Object[])null,
+					cause);
+		}
+	}
+	
+	/**
+	 * Returns a renderer that draws pages to images using the {@link JRGraphics2DExporter}.
+	 * 
+	 * @param jasperReportsContext the context
+	 * @param zoom the zoom ratio
+	 * @return a page renderer that produces images
+	 * @see JRPrinterAWT#printPageToImage(int, float)
+	 */
+	public static PageRenderer<BufferedImage> imageRenderer(JasperReportsContext jasperReportsContext, float zoom)
+	{
+		return (jasperPrint, pageIndex) -> 
+			(BufferedImage) new JRPrinterAWT(jasperReportsContext, jasperPrint).printPageToImage(pageIndex, zoom);
+	}
+	
+	/**
+	 * Returns a renderer that exports each page as a separate HTML fragment, without
+	 * the HTML header and footer.
+	 * 
+	 * @param jasperReportsContext the context
+	 * @param resourceHandler the handler for the images, can be <code>null</code>.
+	 * The handler is shared by the exporters of all pages, the calls to it are synchronized
+	 * on the handler so that it does not need to be thread safe.
+	 * @return a page renderer that produces HTML fragments
+	 */
+	public static PageRenderer<String> htmlRenderer(JasperReportsContext jasperReportsContext, 
+			HtmlResourceHandler resourceHandler)
+	{
+		HtmlResourceHandler sharedHandler = resourceHandler == null ? null 
+				: new SynchronizedHtmlResourceHandler(resourceHandler);
+		return (jasperPrint, pageIndex) -> 
+		{
+			StringWriter pageWriter = new StringWriter();
+			
+			HtmlExporter exporter = new HtmlExporter(jasperReportsContext);
+			exporter.setExporterInput(new SimpleExporterInput(jasperPrint));
+			
+			SimpleHtmlExporterOutput output = new SimpleHtmlExporterOutput(pageWriter);
+			output.setImageHandler(sharedHandler);
+			exporter.setExporterOutput(output);
+			
+			SimpleHtmlExporterConfiguration exporterConfiguration = new SimpleHtmlExporterConfiguration();
+			exporterConfiguration.setHtmlHeader("");
+			exporterConfiguration.setBetweenPagesHtml("");
+			exporterConfiguration.setHtmlFooter("");
+			exporter.setConfiguration(exporterConfiguration);
+			
+			SimpleHtmlReportConfiguration reportConfiguration = new SimpleHtmlReportConfiguration();
+			reportConfiguration.setPageIndex(pageIndex);
+			exporter.setConfiguration(reportConfiguration);
+			
+			exporter.exportReport();
+			return pageWriter.toString();
+		};
+	}
+	
+	protected static class SynchronizedHtmlResourceHandler implements HtmlResourceHandler
+	{
+		private final HtmlResourceHandler handler;
+		
+		public SynchronizedHtmlResourceHandler(HtmlResourceHandler handler)
+		{
+			this.handler = handler;
+		}
+
+		@Override
+		public String getResourcePath(String id)
+		{
+			synchronized (handler)
+			{
+				return handler.getResourcePath(id);
+			}
+		}
+
+		@Override
+		public void handleResource(String id, byte[] data)
+		{
+			synchronized (handler)
+			{
+				handler.handleResource(id, data);
+			}
+		}
+	}
+}
@@ -102,6 +102,8 @@ public abstract class BaseReportFiller implements ReportFiller
 	protected Map<String,JRFillDataset> datasetMap;
 
 	protected DelayedFillActions delayedActions;
+	
+	protected DatasetRunPrefetcher datasetRunPrefetcher;
 
 	protected JRAbstractScriptlet scriptlet;
 
@@ -418,6 +420,8 @@ public abstract class BaseReportFiller implements ReportFiller
 
 		mainDataset.evaluateFieldProperties();
 		
+		prefetchDatasetRuns();
+		
 		mainDataset.initDatasource();
 
 		this.scriptlet = mainDataset.delegateScriptlet;
@@ -431,6 +435,31 @@ public abstract class BaseReportFiller implements ReportFiller
 		}
 	}
 	
+	/**
+	 * Starts the queries of the independent subdataset runs, if enabled.
+	 * 
+	 * @throws JRException
+	 * @see DatasetRunPrefetcher#PROPERTY_THREAD_COUNT
+	 */
+	protected void prefetchDatasetRuns() throws JRException
+	{
+		DatasetRunPrefetcher prefetcher = new DatasetRunPrefetcher(this);
+		if (prefetcher.isEnabled())
+		{
+			datasetRunPrefetcher = prefetcher;
+			prefetcher.prefetch();
+		}
+	}
+	
+	protected void disposeDatasetRunPrefetcher()
+	{
+		if (datasetRunPrefetcher != null)
+		{
+			datasetRunPrefetcher.dispose();
+			datasetRunPrefetcher = null;
+		}
+	}
+	
 	protected void setBookmarkHelper()
 	{
 		boolean isCreateBookmarks = propertiesUtil.getBooleanProperty(mainDataset, 
@@ -0,0 +1,353 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2025 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.fill;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import net.sf.jasperreports.annotations.properties.Property;
+import net.sf.jasperreports.annotations.properties.PropertyScope;
+import net.sf.jasperreports.engine.JRDataSource;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JRPropertiesUtil;
+import net.sf.jasperreports.engine.JRValueParameter;
+import net.sf.jasperreports.engine.ParameterContributor;
+import net.sf.jasperreports.engine.query.JRQueryExecuter;
+import net.sf.jasperreports.engine.query.QueryExecuterFactory;
+import net.sf.jasperreports.engine.query.SimpleQueryExecutionContext;
+import net.sf.jasperreports.engine.util.JRQueryExecuterUtils;
+import net.sf.jasperreports.properties.PropertyConstants;
+
+/**
+ * Executes ahead of time the queries of subdataset runs whose parameters only
+ * depend on report parameters.
+ * 
+ * <p>
+ * When a report is filled, the subdataset runs of the charts and crosstabs placed in the
+ * main report bands are evaluated one after the other on the filling thread.
+ * The prefetcher evaluates the parameters of the independent dataset runs as soon as the report
+ * parameters are known and executes the dataset queries concurrently on a bounded
+ * thread pool. When a dataset run is evaluated, the prefetched data source is used if the
+ * run parameter values are the same as the ones used for the prefetched query.
+ * </p>
+ * 
+ * @author agent (agent@local)
+ * @see #PROPERTY_THREAD_COUNT
+ * @see #PROPERTY_PREFETCH
+ */
+public class DatasetRunPrefetcher
+{
+	private static final Log log = LogFactory.getLog(DatasetRunPrefetcher.class);
+	
+	/**
+	 * Property that specifies the number of threads used to execute subdataset queries ahead of time.
+	 * 
+	 * <p>
+	 * Queries are prefetched for subdataset runs of charts and crosstabs placed in the main report
+	 * whose parameter, parameters map and connection expressions only reference report parameters,
+	 * and which do not use a data source expression.
+	 * The queries are executed concurrently, therefore the connections used by the subdatasets
+	 * (e.g. the report connection) need to support concurrent queries.
+	 * Prefetching can be disabled for individual dataset runs by setting
+	 * {@link #PROPERTY_PREFETCH} to <code>false</code>.
+	 * </p>
+	 * 
+	 * <p>
+	 * If set to 0 or negative, queries are not prefetched. 
+	 * The default value is 0.
+	 * </p>
+	 */
+	@Property(
+			category = PropertyConstants.CATEGORY_FILL,
+			defaultValue = "0",
+			scopes = {PropertyScope.CONTEXT, PropertyScope.REPORT},
+			sinceVersion = PropertyConstants.VERSION_7_0_7,
+			valueType = Integer.class
+			)
+	public static final String PROPERTY_THREAD_COUNT = JRPropertiesUtil.PROPERTY_PREFIX + "fill.dataset.prefetch.threads";
+	
+	/**
+	 * Property that determines whether the query of a subdataset run can be prefetched.
+	 * 
+	 * @see #PROPERTY_THREAD_COUNT
+	 */
+	@Property(
+			category = PropertyConstants.CATEGORY_FILL,
+			defaultValue = PropertyConstants.BOOLEAN_TRUE,
+			scopes = {PropertyScope.SUBDATASET_RUN},
+			sinceVersion = PropertyConstants.VERSION_7_0_7,
+			valueType = Boolean.class
+			)
+	public static final String PROPERTY_PREFETCH = JRPropertiesUtil.PROPERTY_PREFIX + "fill.dataset.prefetch";
+	
+	private static final String THREAD_POOL_KEY = "net.sf.jasperreports.engine.fill.DatasetRunPrefetcher.ThreadPool";
+
+	private final BaseReportFiller filler;
+	private final int threadCount;
+	private final List<JRFillDatasetRun> prefetchedRuns;
+	
+	public DatasetRunPrefetcher(BaseReportFiller filler)
+	{
+		this.filler = filler;
+		this.threadCount = JRPropertiesUtil.getInstance(filler.getJasperReportsContext()).getIntegerProperty(
+				filler.getMainDataset(), PROPERTY_THREAD_COUNT, 0);
+		this.prefetchedRuns = new ArrayList<>();
+	}
+	
+	/**
+	 * Determines whether queries are to be prefetched for the report.
+	 * 
+	 * @return whether queries are prefetched
+	 */
+	public boolean isEnabled()
+	{
+		return threadCount > 0
+				&& !filler.getFillContext().hasDataSnapshot()
+				&& filler.getFillContext().getDataRecorder() == null;
+	}
+	
+	/**
+	 * Starts the queries for the independent subdataset runs of the main dataset element datasets.
+	 * 
+	 * @throws JRException
+	 */
+	public void prefetch() throws JRException
+	{
+		// the element datasets that run subdatasets are registered with the subdatasets
+		Set<JRFillDatasetRun> datasetRuns = new LinkedHashSet<>();
+		for (JRFillDataset dataset : filler.datasetMap.values())
+		{
+			JRFillElementDataset[] elementDatasets = dataset.elementDatasets;
+			if (elementDatasets == null)
+			{
+				continue;
+			}
+			
+			for (JRFillElementDataset elementDataset : elementDatasets)
+			{
+				JRFillDatasetRun datasetRun = elementDataset.datasetRun;
+				// subreport fillers register their element datasets with the master
+				if (datasetRun != null && datasetRun.filler == filler && datasetRun.isPrefetchable())
+				{
+					datasetRuns.add(datasetRun);
+				}
+			}
+		}
+		
+		if (datasetRuns.isEmpty())
+		{
+			return;
+		}
+		
+		ExecutorService executor = getExecutor();
+		for (JRFillDatasetRun datasetRun : datasetRuns)
+		{
+			if (log.isDebugEnabled())
+			{
+				log.debug("Fill " + filler.fillerId + ": prefetching query for dataset " + datasetRun.getDatasetName());
+			}
+			
+			if (datasetRun.prefetch(executor))
+			{
+				prefetchedRuns.add(datasetRun);
+			}
+		}
+	}
+	
+	/**
+	 * Releases the prefetched queries that have not been used by the dataset runs.
+	 */
+	public void dispose()
+	{
+		for (JRFillDatasetRun datasetRun : prefetchedRuns)
+		{
+			datasetRun.disposePrefetchedQuery();
+		}
+		prefetchedRuns.clear();
+	}
+	
+	protected ExecutorService getExecutor()
+	{
+		JRFillContext fillContext = filler.getFillContext();
+		ThreadPoolSubreportRunnerFactory.ExecutorServiceDisposable executor = fillContext.getFillCache(THREAD_POOL_KEY, () ->
+		{
+			ExecutorService threadExecutor = Executors.newFixedThreadPool(threadCount, new PrefetchThreadFactory(fillContext));
+			if (log.isDebugEnabled())
+			{
+				log.debug("created prefetch thread executor " + threadExecutor + " with " + threadCount + " threads");
+			}
+			return new ThreadPoolSubreportRunnerFactory.ExecutorServiceDisposable(threadExecutor);
+		});
+		return executor.getExecutorService();
+	}
+	
+	/**
+	 * The query of a subdataset run executed ahead of time.
+	 */
+	protected static class PrefetchedQuery
+	{
+		private final Map<String, Object> runParameterValues;
+		private final List<ParameterContributor> parameterContributors;
+		private final JRQueryExecuter queryExecuter;
+		private final Future<JRDataSource> dataSourceFuture;
+		
+		/**
+		 * Creates the query executer and submits the query execution.
+		 * 
+		 * @param executor the executor on which the query is executed
+		 * @param dataset the dataset
+		 * @param runParameterValues the dataset run parameter values for which the query is executed
+		 * @param queryParameters the dataset parameters, holding the values to be used for the query
+		 * @param parameterContributors the contributors that provided parameter values for the query, 
+		 * to be disposed after the query data source is no longer used 
+		 * @throws JRException
+		 */
+		protected PrefetchedQuery(ExecutorService executor, JRFillDataset dataset, 
+				Map<String, Object> runParameterValues, Map<String, ? extends JRValueParameter> queryParameters, 
+				List<ParameterContributor> parameterContributors) throws JRException
+		{
+			this.runParameterValues = runParameterValues;
+			this.parameterContributors = parameterContributors;
+			
+			QueryExecuterFactory queryExecuterFactory = JRQueryExecuterUtils.getInstance(dataset.getJasperReportsContext())
+					.getExecuterFactory(dataset.getQuery().getLanguage());
+			SimpleQueryExecutionContext queryExecutionContext = SimpleQueryExecutionContext.of(
+					dataset.getJasperReportsContext(), dataset.getRepositoryContext());
+			this.queryExecuter = queryExecuterFactory.createQueryExecuter(queryExecutionContext, dataset, queryParameters);
+			this.dataSourceFuture = executor.submit(queryExecuter::createDatasource);
+		}
+		
+		/**
+		 * Determines whether the prefetched query was executed for some dataset run parameter values.
+		 * 
+		 * @param parameterValues the dataset run parameter values
+		 * @return whether the prefetched query can be used for the parameter values
+		 */
+		public boolean matches(Map<String, Object> parameterValues)
+		{
+			return runParameterValues.equals(parameterValues);
+		}
+		
+		/**
+		 * Waits for the prefetched query to execute and returns the data source.
+		 * 
+		 * @return the data source produced by the query
+		 * @throws JRException
+		 */
+		public JRDataSource getDataSource() throws JRException
+		{
+			try
+			{
+				return dataSourceFuture.get();
+			}
+			catch (InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+				throw new JRFillInterruptedException();
+			}
+			catch (ExecutionException e)
+			{
+				Throwable cause = e.getCause();
+				if (cause instanceof JRException)
+				{
+					throw (JRException) cause;
+				}
+				if (cause instanceof RuntimeException)
+				{
+					throw (RuntimeException) cause;
+				}
+				throw new JRException(cause);
+			}
+		}
+		
+		/**
+		 * Cancels the query if still running, closes the query executer and disposes 
+		 * the parameter contributors used by the query.
+		 */
+		public void dispose()
+		{
+			if (!dataSourceFuture.isDone())
+			{
+				if (log.isDebugEnabled())
+				{
+					log.debug("cancelling prefetched query");
+				}
+				
+				try
+				{
+					queryExecuter.cancelQuery();
+				}
+				catch (JRException | RuntimeException e)
+				{
+					log.warn("Failed to cancel prefetched query", e);
+				}
+				dataSourceFuture.cancel(true);
+			}
+			
+			queryExecuter.close();
+			
+			if (parameterContributors != null)
+			{
+				for (ParameterContributor contributor : parameterContributors)
+				{
+					contributor.dispose();
+				}
+			}
+		}
+	}
+	
+	protected static class PrefetchThreadFactory implements ThreadFactory
+	{
+		private final JRFillContext fillContext;
+		private final AtomicInteger threadCount;
+		
+		public PrefetchThreadFactory(JRFillContext fillContext)
+		{
+			this.fillContext = fillContext;
+			this.threadCount = new AtomicInteger();
+		}
+
+		@Override
+		public Thread newThread(Runnable r)
+		{
+			String threadName = fillContext.getMasterFiller().getJasperReport().getName() 
+					+ " dataset prefetch #" + threadCount.incrementAndGet();
+			Thread thread = new Thread(r, threadName);
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+}
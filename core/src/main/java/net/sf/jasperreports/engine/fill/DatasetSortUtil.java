@@ -67,6 +67,68 @@ public class DatasetSortUtil
 			)
 	public static final String PROPERTY_USE_COLLATOR = JRPropertiesUtil.PROPERTY_PREFIX + "sorting.use.collator";
 
+	/**
+	 * Property that specifies the maximum number of records kept in memory while sorting a dataset.
+	 * 
+	 * <p>
+	 * When the number of dataset records exceeds the limit, the records are sorted in chunks of the specified size,
+	 * and the sorted chunks are written to temporary files and merged while the sorted records are read.
+	 * Record values that do not have a built-in serializer need to be serializable.
+	 * Zero or negative values mean that all records are sorted in memory, which is the default.
+	 * </p>
+	 * 
+	 * <p>
+	 * Datasets whose data is recorded in a data snapshot are always sorted in memory.
+	 * </p>
+	 * 
+	 * @see SortedRecordRuns
+	 */
+	@Property(
+			category = PropertyConstants.CATEGORY_FILL,
+			defaultValue = "0",
+			scopes = {PropertyScope.CONTEXT, PropertyScope.REPORT, PropertyScope.DATASET},
+			sinceVersion = PropertyConstants.VERSION_7_0_7,
+			valueType = Integer.class
+			)
+	public static final String PROPERTY_MEMORY_MAX_RECORDS = JRPropertiesUtil.PROPERTY_PREFIX + "sorting.memory.max.records";
+
+	/**
+	 * Property that determines whether the dataset records are sorted using parallel threads.
+	 * 
+	 * <p>
+	 * The records, or the chunks of records when {@link #PROPERTY_MEMORY_MAX_RECORDS} is set,
+	 * are sorted via {@link Arrays#parallelSort(Object[], Comparator)}, which uses the common fork/join pool.
+	 * The order of the sorted records is the same as in the sequential sort.
+	 * </p>
+	 */
+	@Property(
+			category = PropertyConstants.CATEGORY_FILL,
+			defaultValue = PropertyConstants.BOOLEAN_FALSE,
+			scopes = {PropertyScope.CONTEXT, PropertyScope.REPORT, PropertyScope.DATASET},
+			sinceVersion = PropertyConstants.VERSION_7_0_7,
+			valueType = Boolean.class
+			)
+	public static final String PROPERTY_PARALLEL = JRPropertiesUtil.PROPERTY_PREFIX + "sorting.parallel";
+
+	/**
+	 * Property that determines whether the records of a dataset that is sorted in memory are stored column-wise.
+	 * 
+	 * <p>
+	 * Numeric, character and date values are then kept in primitive arrays, reducing the memory used by the records
+	 * and the cost of comparing the values while sorting.
+	 * </p>
+	 * 
+	 * @see SortRecordColumns
+	 */
+	@Property(
+			category = PropertyConstants.CATEGORY_FILL,
+			defaultValue = PropertyConstants.BOOLEAN_TRUE,
+			scopes = {PropertyScope.CONTEXT, PropertyScope.REPORT, PropertyScope.DATASET},
+			sinceVersion = PropertyConstants.VERSION_7_0_7,
+			valueType = Boolean.class
+			)
+	public static final String PROPERTY_COLUMNAR_RECORDS = JRPropertiesUtil.PROPERTY_PREFIX + "sorting.columnar.records";
+
 	/**
 	 * Returns all current sort field criteria, including the dynamic ones provided as report parameter.
 	 */
@@ -119,29 +181,62 @@ public class DatasetSortUtil
 	{
 		DatasetSortInfo sortInfo = createSortInfo(dataset);
 		
-		SortFillDatasetRun sortDatasetRun = new SortFillDatasetRun(filler, dataset, sortInfo);
+		JRPropertiesUtil propertiesUtil = dataset.getPropertiesUtil();
+		boolean parallel = propertiesUtil.getBooleanProperty(dataset, PROPERTY_PARALLEL, false);
+		// records recorded in data snapshots need to be kept in memory in their original order
+		int maxMemoryRecords = dataset.dataRecorder == null 
+				? propertiesUtil.getIntegerProperty(dataset, PROPERTY_MEMORY_MAX_RECORDS, 0) : 0;
+		boolean columnar = maxMemoryRecords <= 0 
+				&& propertiesUtil.getBooleanProperty(dataset, PROPERTY_COLUMNAR_RECORDS, true);
+		
+		SortFillDatasetRun sortDatasetRun = new SortFillDatasetRun(filler, dataset, sortInfo, 
+				locale, parallel, maxMemoryRecords, columnar);
 		
 		List<SortedDataSource.SortRecord> records = sortDatasetRun.sort();
 		
+		SortedRecordRuns recordRuns = sortDatasetRun.getRecordRuns();
+		if (recordRuns != null)
+		{
+			return new SortedDataSource(sortInfo, recordRuns);
+		}
+		
+		SortRecordColumns recordColumns = sortDatasetRun.getRecordColumns();
+		if (recordColumns != null)
+		{
+			Integer[] indexes = sortIndexes(new DataSourceComparator(sortInfo, locale, recordColumns, parallel), 
+					recordColumns.size(), parallel);
+			return new SortedDataSource(sortInfo, recordColumns, indexes);
+		}
+		
 		// using indirect sorting in order to also preserve the original record order for data caching
-		int recordCount = records.size();
+		Integer[] indexes = sortIndexes(sortInfo, locale, records, parallel);
+		return new SortedDataSource(sortInfo, records, indexes);
+	}
+
+	protected static Integer[] sortIndexes(DatasetSortInfo sortInfo, Locale locale, 
+			List<SortedDataSource.SortRecord> records, boolean parallel)
+	{
+		return sortIndexes(new DataSourceComparator(sortInfo, locale, records, parallel), 
+				records.size(), parallel);
+	}
+
+	protected static Integer[] sortIndexes(DataSourceComparator comparator, int recordCount, boolean parallel)
+	{
 		// we need wrapper objects for Arrays.sort with comparator
 		Integer[] indexes = new Integer[recordCount];
 		for (int i = 0; i < recordCount; i++) {
 			indexes[i] = i;
 		}
 		
-		/*   */
-		Arrays.sort(
-			indexes, 
-			new DataSourceComparator(
-				sortInfo, 
-				locale,
-				records
-				)
-			);
-		
-		return new SortedDataSource(sortInfo, records, indexes);
+		if (parallel)
+		{
+			Arrays.parallelSort(indexes, comparator);
+		}
+		else
+		{
+			Arrays.sort(indexes, comparator);
+		}
+		return indexes;
 	}
 
 
@@ -241,51 +336,105 @@ public class DatasetSortUtil
 class DataSourceComparator implements Comparator<Integer>
 {
 	private final Collator collator;
+	private final ThreadLocal<Collator> threadCollators;
 	private final List<SortFieldInfo> sortFields;
 	private final List<SortedDataSource.SortRecord> records;
+	private final SortRecordColumns recordColumns;
 
 	public DataSourceComparator(DatasetSortInfo sortFieldInfo, Locale locale, 
 			List<SortedDataSource.SortRecord> records)
 	{
-		this.collator = Collator.getInstance(locale);
+		this(sortFieldInfo, locale, records, false);
+	}
+
+	public DataSourceComparator(DatasetSortInfo sortFieldInfo, Locale locale, 
+			List<SortedDataSource.SortRecord> records, boolean concurrent)
+	{
+		this(sortFieldInfo, locale, records, null, concurrent);
+	}
+
+	public DataSourceComparator(DatasetSortInfo sortFieldInfo, Locale locale, 
+			SortRecordColumns recordColumns, boolean concurrent)
+	{
+		this(sortFieldInfo, locale, null, recordColumns, concurrent);
+	}
+
+	private DataSourceComparator(DatasetSortInfo sortFieldInfo, Locale locale, 
+			List<SortedDataSource.SortRecord> records, SortRecordColumns recordColumns, 
+			boolean concurrent)
+	{
+		Collator localeCollator = Collator.getInstance(locale);
+		// collator instances synchronize comparisons, using a collator per thread for concurrent sorting
+		this.collator = concurrent ? null : localeCollator;
+		this.threadCollators = concurrent ? ThreadLocal.withInitial(() -> (Collator) localeCollator.clone()) : null;
 		this.sortFields = sortFieldInfo.getSortFields();
 		this.records = records;
+		this.recordColumns = recordColumns;
 	}
 
 	@Override
-	@SuppressWarnings({ "rawtypes", "unchecked" })
 	public int compare(Integer idx1, Integer idx2)
 	{
-		// assuming random access records list
-		Object[] record1 = records.get(idx1).getValues();
-		Object[] record2 = records.get(idx2).getValues();
+		if (recordColumns != null)
+		{
+			return compareColumns(idx1, idx2);
+		}
 		
+		// assuming random access records list
+		return compareValues(records.get(idx1).getValues(), records.get(idx2).getValues());
+	}
+
+	public int compareRecords(SortedDataSource.SortRecord record1, SortedDataSource.SortRecord record2)
+	{
+		return compareValues(record1.getValues(), record2.getValues());
+	}
+
+	protected int compareColumns(int record1, int record2)
+	{
+		Collator collator = null;
 		int ret = 0;
 
 		for (SortFieldInfo info : sortFields)
 		{
-			Comparable field1 = (Comparable)record1[info.getRecordIndex()];
-			Comparable field2 = (Comparable)record2[info.getRecordIndex()];
-
-			if (field1 == null)
-			{
-				ret = (field2 == null) ? 0 : -1;
-			}
-			else if (field2 == null)
+			int column = info.getRecordIndex();
+			if (!info.useCollator() && recordColumns.isPrimitive(column))
 			{
-				ret = 1;
+				ret = recordColumns.compareValues(column, record1, record2);
 			}
 			else
 			{
-				if (info.useCollator())
+				if (collator == null)
 				{
-					ret = collator.compare(field1, field2);
+					collator = collator();
 				}
-				else
+				
+				ret = compareFieldValues(info, collator, 
+						recordColumns.getValue(record1, column), recordColumns.getValue(record2, column));
+			}
+
+			if (ret != 0)
+			{
+				if (info.isDescending())
 				{
-					ret = field1.compareTo(field2);
+					ret = -ret;
 				}
+				
+				return ret;
 			}
+		}
+
+		return ret;
+	}
+
+	protected int compareValues(Object[] record1, Object[] record2)
+	{
+		Collator collator = collator();
+		int ret = 0;
+
+		for (SortFieldInfo info : sortFields)
+		{
+			ret = compareFieldValues(info, collator, 
+					record1[info.getRecordIndex()], record2[info.getRecordIndex()]);
 
 			if (ret != 0)
 			{
@@ -300,6 +449,40 @@ class DataSourceComparator implements Comparator<Integer>
 
 		return ret;
 	}
+
+	protected Collator collator()
+	{
+		return this.collator == null ? threadCollators.get() : this.collator;
+	}
+
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	protected int compareFieldValues(SortFieldInfo info, Collator collator, Object value1, Object value2)
+	{
+		Comparable field1 = (Comparable) value1;
+		Comparable field2 = (Comparable) value2;
+		
+		int ret;
+		if (field1 == null)
+		{
+			ret = (field2 == null) ? 0 : -1;
+		}
+		else if (field2 == null)
+		{
+			ret = 1;
+		}
+		else
+		{
+			if (info.useCollator())
+			{
+				ret = collator.compare(field1, field2);
+			}
+			else
+			{
+				ret = field1.compareTo(field2);
+			}
+		}
+		return ret;
+	}
 }
 
 
@@ -312,11 +495,31 @@ class SortFillDatasetRun extends JRFillDatasetRun
 {
 
 	private DatasetSortInfo sortInfo;
+	private Locale locale;
+	private boolean parallel;
+	private int maxMemoryRecords;
 	private int recordIndex;
 	private List<SortedDataSource.SortRecord> records;
+	private SortedRecordRuns recordRuns;
+	private boolean columnar;
+	private SortRecordColumns recordColumns;
 
 	
 	public SortFillDatasetRun(BaseReportFiller filler, JRFillDataset dataset, DatasetSortInfo sortInfo) throws JRException
+	{
+		this(filler, dataset, sortInfo, null, false, 0);
+	}
+
+	
+	public SortFillDatasetRun(BaseReportFiller filler, JRFillDataset dataset, DatasetSortInfo sortInfo,
+			Locale locale, boolean parallel, int maxMemoryRecords) throws JRException
+	{
+		this(filler, dataset, sortInfo, locale, parallel, maxMemoryRecords, false);
+	}
+
+	
+	public SortFillDatasetRun(BaseReportFiller filler, JRFillDataset dataset, DatasetSortInfo sortInfo,
+			Locale locale, boolean parallel, int maxMemoryRecords, boolean columnar) throws JRException
 	{
 		super(
 			filler, 
@@ -325,6 +528,10 @@ class SortFillDatasetRun extends JRFillDatasetRun
 			);
 
 		this.sortInfo = sortInfo;
+		this.locale = locale;
+		this.parallel = parallel;
+		this.maxMemoryRecords = maxMemoryRecords;
+		this.columnar = columnar;
 	}
 
 	
@@ -332,21 +539,70 @@ class SortFillDatasetRun extends JRFillDatasetRun
 	{
 		recordIndex = 0;
 		records = new ArrayList<>();
+		recordRuns = null;
+		recordColumns = columnar ? new SortRecordColumns(sortInfo.getRecordFields().size()) : null;
 
+		boolean success = false;
 		try
 		{
 			//all parameters are already set onto the dataset by the main fill process
 
 			iterate();
+			
+			if (recordRuns != null && !records.isEmpty())
+			{
+				writeRun();
+			}
+			success = true;
 		}
 		finally
 		{
 			dataset.closeQueryExecuter();
 			dataset.reset();
+			
+			if (!success && recordRuns != null)
+			{
+				recordRuns.dispose();
+				recordRuns = null;
+			}
 		}
 		
 		return records;
 	}
+	
+	/**
+	 * Returns the sorted runs written to temporary files, if the number of records
+	 * exceeded the in-memory limit.
+	 * 
+	 * @return the sorted runs, or <code>null</code> if the records were kept in memory
+	 */
+	public SortedRecordRuns getRecordRuns()
+	{
+		return recordRuns;
+	}
+	
+	/**
+	 * Returns the records stored column-wise, if enabled.
+	 * 
+	 * @return the record columns, or <code>null</code> if the records are kept as a list
+	 */
+	public SortRecordColumns getRecordColumns()
+	{
+		return recordColumns;
+	}
+	
+	protected void writeRun() throws JRException
+	{
+		if (recordRuns == null)
+		{
+			DataSourceComparator comparator = new DataSourceComparator(sortInfo, locale, null);
+			recordRuns = new SortedRecordRuns(sortInfo.getRecordFields().size(), comparator::compareRecords);
+		}
+		
+		Integer[] indexes = DatasetSortUtil.sortIndexes(sortInfo, locale, records, parallel);
+		recordRuns.addRun(records, indexes);
+		records = new ArrayList<>();
+	}
 
 	
 	@Override
@@ -375,12 +631,25 @@ class SortFillDatasetRun extends JRFillDatasetRun
 			++index;
 		}
 		
+		if (recordColumns != null)
+		{
+			// the position in the columns is the original record index
+			recordColumns.addRecord(record);
+			++recordIndex;
+			return;
+		}
+		
 		// also store the original record index
 		SortRecord sortRecord = new SortedDataSource.SortRecord(record, recordIndex);
 		
 		++recordIndex;
 		
 		records.add(sortRecord);
+		
+		if (maxMemoryRecords > 0 && records.size() >= maxMemoryRecords)
+		{
+			writeRun();
+		}
 	}
 
 
@@ -0,0 +1,210 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2025 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.fill;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import net.sf.jasperreports.engine.JRPrintElement;
+import net.sf.jasperreports.engine.JRPrintFrame;
+import net.sf.jasperreports.engine.JRVirtualizable;
+import net.sf.jasperreports.engine.base.VirtualElementsData;
+
+/**
+ * Side index of delayed evaluation elements that belong to virtualized page elements.
+ * 
+ * <p>
+ * When a block of page elements that contains elements with delayed evaluations is virtualized,
+ * the delayed elements are kept in memory and the index records their position in the block.
+ * The delayed evaluations are resolved on the retained elements, without reading the virtualized
+ * elements back, and the retained elements are patched into the block each time its data is
+ * internalized, which usually happens when the report is exported.
+ * </p>
+ * 
+ * <p>
+ * The index is registered as a listener on the virtualization context and remains registered
+ * after the report fill ends.
+ * </p>
+ * 
+ * @author agent (agent@local)
+ * @see DelayedFillActions#PROPERTY_VIRTUALIZED_PLACEHOLDERS
+ */
+public class DelayedElementPlaceholders implements VirtualizationListener<VirtualElementsData>
+{
+	private static final Log log = LogFactory.getLog(DelayedElementPlaceholders.class);
+	
+	private final Map<String, Map<Integer, List<Placeholder>>> placeholders;
+	
+	public DelayedElementPlaceholders()
+	{
+		this.placeholders = new HashMap<>();
+	}
+	
+	/**
+	 * Sets the placeholders recorded by a filler for a virtualizable object, replacing any previous placeholders.
+	 * 
+	 * @param uid the virtualizable object UID
+	 * @param sourceId the Id of the delayed actions that recorded the placeholders
+	 * @param objectPlaceholders the placeholders, empty if the object no longer contains delayed elements
+	 */
+	public synchronized void setPlaceholders(String uid, int sourceId, List<Placeholder> objectPlaceholders)
+	{
+		Map<Integer, List<Placeholder>> sourcePlaceholders = placeholders.get(uid);
+		if (objectPlaceholders.isEmpty())
+		{
+			if (sourcePlaceholders != null)
+			{
+				sourcePlaceholders.remove(sourceId);
+				if (sourcePlaceholders.isEmpty())
+				{
+					placeholders.remove(uid);
+				}
+			}
+		}
+		else
+		{
+			if (sourcePlaceholders == null)
+			{
+				sourcePlaceholders = new HashMap<>(4);
+				placeholders.put(uid, sourcePlaceholders);
+			}
+			sourcePlaceholders.put(sourceId, objectPlaceholders);
+		}
+	}
+	
+	protected synchronized List<Placeholder> getPlaceholders(String uid)
+	{
+		Map<Integer, List<Placeholder>> sourcePlaceholders = placeholders.get(uid);
+		if (sourcePlaceholders == null)
+		{
+			return null;
+		}
+		
+		List<Placeholder> objectPlaceholders = new ArrayList<>();
+		for (List<Placeholder> list : sourcePlaceholders.values())
+		{
+			objectPlaceholders.addAll(list);
+		}
+		return objectPlaceholders;
+	}
+
+	@Override
+	public void beforeExternalization(JRVirtualizable<VirtualElementsData> object)
+	{
+		// placeholders are set by the delayed actions
+	}
+
+	@Override
+	public void afterInternalization(JRVirtualizable<VirtualElementsData> object)
+	{
+		List<Placeholder> objectPlaceholders = getPlaceholders(object.getUID());
+		if (objectPlaceholders == null)
+		{
+			return;
+		}
+		
+		List<JRPrintElement> elements = object.getVirtualData().getElements();
+		for (Placeholder placeholder : objectPlaceholders)
+		{
+			// placeholders are not removed so that they can be applied again on read-only contexts
+			placeholder.apply(elements);
+		}
+		
+		if (log.isDebugEnabled())
+		{
+			log.debug("patched " + objectPlaceholders.size() + " delayed elements in " + object.getUID());
+		}
+	}
+	
+	/**
+	 * The position of a delayed element in a list of virtualized elements.
+	 */
+	public static class Placeholder
+	{
+		private final int[] path;
+		private final JRPrintElement element;
+		private final int fillElementId;
+		
+		/**
+		 * 
+		 * @param path the offsets of the element in the element list and in the containing frames
+		 * @param element the delayed element
+		 * @param fillElementId the Id of the fill element that evaluates the delayed element
+		 */
+		public Placeholder(int[] path, JRPrintElement element, int fillElementId)
+		{
+			this.path = path;
+			this.element = element;
+			this.fillElementId = fillElementId;
+		}
+		
+		protected void apply(List<JRPrintElement> elements)
+		{
+			List<JRPrintElement> parentElements = elements;
+			for (int i = 0; i < path.length - 1; i++)
+			{
+				JRPrintElement parent = offsetElement(parentElements, path[i]);
+				if (!(parent instanceof JRPrintFrame))
+				{
+					logMismatch();
+					return;
+				}
+				parentElements = ((JRPrintFrame) parent).getElements();
+			}
+			
+			int offset = path[path.length - 1];
+			JRPrintElement current = offsetElement(parentElements, offset);
+			if (current == null
+					|| current.getSourceElementId() != element.getSourceElementId()
+					|| current.getPrintElementId() != element.getPrintElementId())
+			{
+				logMismatch();
+				return;
+			}
+			
+			if (current != element)
+			{
+				parentElements.set(offset, element);
+			}
+		}
+
+		private JRPrintElement offsetElement(List<JRPrintElement> elements, int offset)
+		{
+			return elements != null && offset < elements.size() ? elements.get(offset) : null;
+		}
+		
+		private void logMismatch()
+		{
+			if (log.isWarnEnabled())
+			{
+				log.warn("delayed element " + element + " evaluated by " + fillElementId + " not found");
+			}
+		}
+	}
+}
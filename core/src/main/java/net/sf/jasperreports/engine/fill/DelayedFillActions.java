@@ -23,6 +23,8 @@
  */
 package net.sf.jasperreports.engine.fill;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -32,9 +34,13 @@ import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
 
+import net.sf.jasperreports.annotations.properties.Property;
+import net.sf.jasperreports.annotations.properties.PropertyScope;
 import net.sf.jasperreports.engine.JRException;
 import net.sf.jasperreports.engine.JRPrintElement;
+import net.sf.jasperreports.engine.JRPrintFrame;
 import net.sf.jasperreports.engine.JRPrintPage;
+import net.sf.jasperreports.engine.JRPropertiesUtil;
 import net.sf.jasperreports.engine.JRRuntimeException;
 import net.sf.jasperreports.engine.JRVirtualizable;
 import net.sf.jasperreports.engine.JasperPrint;
@@ -46,6 +52,7 @@ import net.sf.jasperreports.engine.base.VirtualizablePageElements;
 import net.sf.jasperreports.engine.type.EvaluationTimeEnum;
 import net.sf.jasperreports.engine.util.LinkedMap;
 import net.sf.jasperreports.engine.util.UniformPrintElementVisitor;
+import net.sf.jasperreports.properties.PropertyConstants;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -58,8 +65,33 @@ public class DelayedFillActions implements VirtualizationListener<VirtualElement
 	private static final Log log = LogFactory.getLog(DelayedFillActions.class);
 	
 	protected static final String FILL_CACHE_KEY_ID = DelayedFillActions.class.getName() + "#id";
+	protected static final String FILL_CACHE_KEY_PLACEHOLDERS = DelayedFillActions.class.getName() + "#placeholders";
 	public static final String EXCEPTION_MESSAGE_KEY_ELEMENT_NOT_FOUND = "fill.delayed.fill.actions.element.not.found";
 	
+	/**
+	 * Property that determines whether delayed evaluation elements on virtualized pages are kept
+	 * in a side index instead of being stored with the virtualized page data.
+	 * 
+	 * <p>
+	 * By default, virtualized pages that contain delayed evaluation elements (such as page totals)
+	 * are read back when the delayed evaluations are resolved.
+	 * When this property is set, the delayed elements are kept in memory and resolved directly,
+	 * and their virtualized copies are replaced with the resolved elements when the page data is
+	 * next read, usually during the report export.
+	 * This avoids reading and writing the virtualized pages again at the end of the report fill.
+	 * </p>
+	 * 
+	 * @see DelayedElementPlaceholders
+	 */
+	@Property(
+			category = PropertyConstants.CATEGORY_FILL,
+			defaultValue = PropertyConstants.BOOLEAN_FALSE,
+			scopes = {PropertyScope.CONTEXT, PropertyScope.REPORT},
+			sinceVersion = PropertyConstants.VERSION_7_0_7,
+			valueType = Boolean.class
+			)
+	public static final String PROPERTY_VIRTUALIZED_PLACEHOLDERS = JRPropertiesUtil.PROPERTY_PREFIX + "fill.delayed.evaluation.virtualized.placeholders";
+	
 	private final int id;
 	private final BaseReportFiller reportFiller;
 	private final JRFillContext fillContext;
@@ -74,6 +106,9 @@ public class DelayedFillActions implements VirtualizationListener<VirtualElement
 	
 	private Set<Integer> transferredIds;
 	
+	private final boolean usePlaceholders;
+	private Map<JRVirtualizationContext, DelayedElementPlaceholders> placeholders;
+	
 	public DelayedFillActions(BaseReportFiller reportFiller)
 	{
 		this.id = assignId(reportFiller);
@@ -83,6 +118,13 @@ public class DelayedFillActions implements VirtualizationListener<VirtualElement
 		this.fillElements = new HashMap<>();
 		this.masterFillElementIds = new HashSet<>();
 		this.listenedContexts = new HashSet<>();
+		
+		this.usePlaceholders = reportFiller.getPropertiesUtil().getBooleanProperty(
+				fillContext.getMasterFiller().getJasperReport(), PROPERTY_VIRTUALIZED_PLACEHOLDERS, false);
+		if (usePlaceholders)
+		{
+			this.placeholders = new HashMap<>();
+		}
 	}
 	
 	private static int assignId(BaseReportFiller reportFiller)
@@ -113,6 +155,11 @@ public class DelayedFillActions implements VirtualizationListener<VirtualElement
 				virtualizationContext.addListener(this);
 				listenedContexts.add(virtualizationContext);
 				
+				if (usePlaceholders)
+				{
+					placeholders.put(virtualizationContext, contextPlaceholders(virtualizationContext));
+				}
+				
 				if (log.isDebugEnabled())
 				{
 					log.debug(id + " registered virtualization listener on " + virtualizationContext);
@@ -121,6 +168,25 @@ public class DelayedFillActions implements VirtualizationListener<VirtualElement
 		}
 	}
 	
+	protected DelayedElementPlaceholders contextPlaceholders(JRVirtualizationContext virtualizationContext)
+	{
+		// the placeholders are shared by all fillers that use the virtualization context
+		Map<JRVirtualizationContext, DelayedElementPlaceholders> contextsPlaceholders = 
+				fillContext.getFillCache(FILL_CACHE_KEY_PLACEHOLDERS, HashMap::new);
+		synchronized (contextsPlaceholders)
+		{
+			DelayedElementPlaceholders contextPlaceholders = contextsPlaceholders.get(virtualizationContext);
+			if (contextPlaceholders == null)
+			{
+				contextPlaceholders = new DelayedElementPlaceholders();
+				// the listener is not removed on dispose as it needs to patch the pages after the fill
+				virtualizationContext.addListener(contextPlaceholders);
+				contextsPlaceholders.put(virtualizationContext, contextPlaceholders);
+			}
+			return contextPlaceholders;
+		}
+	}
+	
 	public void dispose()
 	{
 		for (JRVirtualizationContext virtualizationContext : listenedContexts)
@@ -364,7 +430,14 @@ public class DelayedFillActions implements VirtualizationListener<VirtualElement
 		virtualizationContext.lock();//already locked in ElementsBlock.beforeExternalization()
 		try
 		{
-			writeElementEvaluations(object);
+			if (usePlaceholders)
+			{
+				writeElementPlaceholders(object);
+			}
+			else
+			{
+				writeElementEvaluations(object);
+			}
 		}
 		finally
 		{
@@ -424,6 +497,85 @@ public class DelayedFillActions implements VirtualizationListener<VirtualElement
 		}
 	}
 
+	protected void writeElementPlaceholders(JRVirtualizable<VirtualElementsData> object)
+	{
+		JRVirtualPrintPage page = ((VirtualizablePageElements) object).getPage();// ugly but needed for now
+		FillPageKey pageKey = new FillPageKey(page);
+		
+		// the delayed actions stay in the actions map and are resolved on the elements kept by the placeholders
+		List<DelayedElementPlaceholders.Placeholder> objectPlaceholders = new ArrayList<>();
+		List<LinkedMap<Object, EvaluationBoundAction>> pageActions = new ArrayList<>(actionsMap.size());
+		for (LinkedHashMap<FillPageKey, LinkedMap<Object, EvaluationBoundAction>> map : actionsMap.values())
+		{
+			synchronized (map)
+			{
+				LinkedMap<Object, EvaluationBoundAction> evaluationActions = map.get(pageKey);
+				if (evaluationActions != null && !evaluationActions.isEmpty())
+				{
+					pageActions.add(evaluationActions);
+				}
+			}
+		}
+		
+		if (!pageActions.isEmpty())
+		{
+			collectPlaceholders(object.getVirtualData().getElements(), new int[0], pageActions, objectPlaceholders);
+		}
+		
+		if (log.isDebugEnabled())
+		{
+			log.debug(id + " recording " + objectPlaceholders.size() + " delayed element placeholders for " + object.getUID());
+		}
+		
+		JRVirtualizationContext virtualizationContext = page.getVirtualizationContext();
+		DelayedElementPlaceholders contextPlaceholders = placeholders.get(virtualizationContext);
+		if (contextPlaceholders == null)
+		{
+			if (objectPlaceholders.isEmpty())
+			{
+				return;
+			}
+			
+			// pages are normally registered when adding the delayed actions
+			contextPlaceholders = contextPlaceholders(virtualizationContext);
+			placeholders.put(virtualizationContext, contextPlaceholders);
+		}
+		contextPlaceholders.setPlaceholders(object.getUID(), id, objectPlaceholders);
+	}
+	
+	protected void collectPlaceholders(List<JRPrintElement> elements, int[] parentPath,
+			List<LinkedMap<Object, EvaluationBoundAction>> pageActions, List<DelayedElementPlaceholders.Placeholder> objectPlaceholders)
+	{
+		for (int i = 0; i < elements.size(); i++)
+		{
+			JRPrintElement element = elements.get(i);
+			int[] path = Arrays.copyOf(parentPath, parentPath.length + 1);
+			path[parentPath.length] = i;
+			
+			for (LinkedMap<Object, EvaluationBoundAction> evaluationActions : pageActions)
+			{
+				EvaluationBoundAction action = evaluationActions.get(element);
+				if (action instanceof ElementEvaluationAction)
+				{
+					int fillElementId = ((ElementEvaluationAction) action).element.printElementOriginator.getSourceElementId();
+					objectPlaceholders.add(new DelayedElementPlaceholders.Placeholder(path, element, fillElementId));
+					// one placeholder per element, even if it has several evaluation times
+					break;
+				}
+			}
+			
+			if (element instanceof JRPrintFrame)
+			{
+				List<JRPrintElement> frameElements = ((JRPrintFrame) element).getElements();
+				// virtualized frame elements are handled separately
+				if (!(frameElements instanceof VirtualizableElementList))
+				{
+					collectPlaceholders(frameElements, path, pageActions, objectPlaceholders);
+				}
+			}
+		}
+	}
+
 	@Override
 	public void afterInternalization(JRVirtualizable<VirtualElementsData> object)
 	{
@@ -0,0 +1,176 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2025 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.fill;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+import net.sf.jasperreports.engine.JasperReportsContext;
+import net.sf.jasperreports.engine.fill.FillProfiler.Category;
+import net.sf.jasperreports.jackson.util.JacksonUtil;
+
+/**
+ * Timing data collected by a {@link FillProfiler} during a report fill.
+ * 
+ * <p>
+ * All times are expressed in nanoseconds.
+ * Entries are sorted by category and by descending total time.
+ * </p>
+ * 
+ * @author agent (agent@local)
+ */
+@JsonPropertyOrder({"reportName", "totalTime", "entries"})
+public class FillProfile
+{
+	private static final double NANOS_PER_MILLI = 1_000_000d;
+	
+	private final String reportName;
+	private final long totalTime;
+	private final List<Entry> entries;
+	
+	public FillProfile(String reportName, long totalTime, List<Entry> entries)
+	{
+		this.reportName = reportName;
+		this.totalTime = totalTime;
+		
+		List<Entry> sortedEntries = new ArrayList<>(entries);
+		sortedEntries.sort(Comparator.comparing(Entry::getCategory)
+				.thenComparing(Comparator.comparingLong(Entry::getTotalTime).reversed()));
+		this.entries = Collections.unmodifiableList(sortedEntries);
+	}
+
+	public String getReportName()
+	{
+		return reportName;
+	}
+
+	/**
+	 * Returns the time elapsed between the creation of the profiler and the end of the fill.
+	 * 
+	 * @return the total fill time in nanoseconds
+	 */
+	public long getTotalTime()
+	{
+		return totalTime;
+	}
+
+	public List<Entry> getEntries()
+	{
+		return entries;
+	}
+	
+	public List<Entry> getEntries(Category category)
+	{
+		return entries.stream().filter(entry -> entry.getCategory() == category).collect(Collectors.toList());
+	}
+	
+	/**
+	 * Returns the profile as a JSON string.
+	 * 
+	 * @param jasperReportsContext the context used to obtain the JSON mapper
+	 * @return the JSON representation of the profile
+	 */
+	public String toJson(JasperReportsContext jasperReportsContext)
+	{
+		return JacksonUtil.getInstance(jasperReportsContext).getIndentedJsonString(this);
+	}
+	
+	/**
+	 * Returns the profile as a text table, with times expressed in milliseconds.
+	 * 
+	 * @return the text representation of the profile
+	 */
+	public String toText()
+	{
+		StringBuilder text = new StringBuilder();
+		text.append(String.format("Fill profile for report %s, total time %.3f ms%n", reportName, totalTime / NANOS_PER_MILLI));
+		Category currentCategory = null;
+		for (Entry entry : entries)
+		{
+			if (entry.getCategory() != currentCategory)
+			{
+				currentCategory = entry.getCategory();
+				text.append(String.format("%n%-16s %10s %12s %10s  %s%n", currentCategory, "count", "total ms", "avg ms", "name"));
+			}
+			text.append(String.format("%-16s %10d %12.3f %10.3f  %s%n", "", entry.getCount(), 
+					entry.getTotalTime() / NANOS_PER_MILLI, entry.getAverageTime() / NANOS_PER_MILLI, entry.getName()));
+		}
+		return text.toString();
+	}
+	
+	@Override
+	public String toString()
+	{
+		return toText();
+	}
+
+	@JsonPropertyOrder({"category", "name", "count", "totalTime"})
+	public static class Entry
+	{
+		private final Category category;
+		private final String name;
+		private final long count;
+		private final long totalTime;
+		
+		public Entry(Category category, String name, long count, long totalTime)
+		{
+			this.category = category;
+			this.name = name;
+			this.count = count;
+			this.totalTime = totalTime;
+		}
+
+		public Category getCategory()
+		{
+			return category;
+		}
+
+		public String getName()
+		{
+			return name;
+		}
+
+		public long getCount()
+		{
+			return count;
+		}
+
+		public long getTotalTime()
+		{
+			return totalTime;
+		}
+		
+		@JsonIgnore
+		public double getAverageTime()
+		{
+			return count == 0 ? 0 : (double) totalTime / count;
+		}
+	}
+}
@@ -0,0 +1,285 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2025 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.fill;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import net.sf.jasperreports.annotations.properties.Property;
+import net.sf.jasperreports.annotations.properties.PropertyScope;
+import net.sf.jasperreports.engine.JRExpression;
+import net.sf.jasperreports.engine.JROrigin;
+import net.sf.jasperreports.engine.JRPropertiesUtil;
+import net.sf.jasperreports.engine.JRQuery;
+import net.sf.jasperreports.properties.PropertyConstants;
+
+/**
+ * Collects fill time and invocation counts for bands, elements, expressions, queries and text measuring.
+ * 
+ * <p>
+ * A profiler is created for the master report fill when {@link #PROPERTY_ENABLED} is set,
+ * and is shared by all subreport fills.
+ * Times are measured inclusively, for instance the time of a band includes the time of its elements,
+ * which includes the time of the element expressions.
+ * When the fill completes successfully, the collected data is logged and published to fill listeners
+ * as a {@link net.sf.jasperreports.engine.fill.events.FillProfileEvent}.
+ * </p>
+ * 
+ * @author agent (agent@local)
+ * @see FillProfile
+ */
+public class FillProfiler
+{
+	private static final Log log = LogFactory.getLog(FillProfiler.class);
+	
+	/**
+	 * Property that enables the collection of fill timing data.
+	 * 
+	 * <p>
+	 * The resulting profile is logged at <code>INFO</code> level as a table, and at <code>DEBUG</code> level
+	 * as JSON, using the <code>net.sf.jasperreports.engine.fill.FillProfiler</code> logger.
+	 * </p>
+	 */
+	@Property(
+			category = PropertyConstants.CATEGORY_FILL,
+			defaultValue = PropertyConstants.BOOLEAN_FALSE,
+			scopes = {PropertyScope.CONTEXT, PropertyScope.REPORT},
+			sinceVersion = PropertyConstants.VERSION_7_0_7,
+			valueType = Boolean.class
+			)
+	public static final String PROPERTY_ENABLED = JRPropertiesUtil.PROPERTY_PREFIX + "fill.profiler.enabled";
+	
+	private static final int EXPRESSION_TEXT_MAX_LENGTH = 60;
+	
+	public enum Category
+	{
+		BAND,
+		ELEMENT_EVALUATE,
+		ELEMENT_PREPARE,
+		EXPRESSION,
+		QUERY,
+		TEXT_MEASURE
+	}
+	
+	/**
+	 * Creates a profiler for a master report fill if profiling is enabled for the report.
+	 * 
+	 * @param masterFiller the master report filler
+	 * @return a profiler, or <code>null</code> if profiling is not enabled
+	 */
+	public static FillProfiler forFiller(BaseReportFiller masterFiller)
+	{
+		boolean enabled = masterFiller.getPropertiesUtil().getBooleanProperty(
+				masterFiller.getJasperReport(), PROPERTY_ENABLED, false);
+		return enabled ? new FillProfiler(masterFiller.getJasperReport().getName()) : null;
+	}
+	
+	private final String reportName;
+	private final long startTime;
+	private final Map<Category, ConcurrentMap<Object, Timing>> timings;
+	
+	protected FillProfiler(String reportName)
+	{
+		this.reportName = reportName;
+		this.startTime = System.nanoTime();
+		
+		this.timings = new EnumMap<>(Category.class);
+		for (Category category : Category.values())
+		{
+			timings.put(category, new ConcurrentHashMap<>());
+		}
+	}
+	
+	/**
+	 * Returns the start time of a measured operation.
+	 * 
+	 * @return the current value of {@link System#nanoTime()}
+	 */
+	public long start()
+	{
+		return System.nanoTime();
+	}
+	
+	public void bandFilled(JRFillBand band, long start)
+	{
+		JROrigin origin = band.getOrigin();
+		record(Category.BAND, origin == null ? band : origin, band, start);
+	}
+	
+	public void elementEvaluated(JRFillElement element, long start)
+	{
+		record(Category.ELEMENT_EVALUATE, element.getParent(), element, start);
+	}
+	
+	public void elementPrepared(JRFillElement element, long start)
+	{
+		record(Category.ELEMENT_PREPARE, element.getParent(), element, start);
+	}
+	
+	public void textMeasured(JRFillTextElement element, long start)
+	{
+		record(Category.TEXT_MEASURE, element.getParent(), element, start);
+	}
+	
+	public void expressionEvaluated(JRFillDataset dataset, JRExpression expression, long start)
+	{
+		record(Category.EXPRESSION, expression, dataset, start);
+	}
+	
+	public void queryExecuted(JRFillDataset dataset, JRQuery query, long start)
+	{
+		record(Category.QUERY, query, dataset, start);
+	}
+	
+	protected void record(Category category, Object key, Object source, long start)
+	{
+		long time = System.nanoTime() - start;
+		
+		ConcurrentMap<Object, Timing> categoryTimings = timings.get(category);
+		Timing timing = categoryTimings.get(key);
+		if (timing == null)
+		{
+			timing = categoryTimings.computeIfAbsent(key, k -> new Timing(describe(category, k, source)));
+		}
+		timing.count.increment();
+		timing.time.add(time);
+	}
+	
+	protected String describe(Category category, Object key, Object source)
+	{
+		switch (category)
+		{
+		case BAND:
+			return key instanceof JROrigin ? describeOrigin((JROrigin) key) 
+					: "band " + ((JRFillBand) source).getId();
+		case EXPRESSION:
+			return describeExpression((JRFillDataset) source, (JRExpression) key);
+		case QUERY:
+			return ((JRFillDataset) source).getName() + " " + ((JRQuery) key).getLanguage() + " query";
+		case ELEMENT_EVALUATE:
+		case ELEMENT_PREPARE:
+		case TEXT_MEASURE:
+		default:
+			return describeElement((JRFillElement) source);
+		}
+	}
+
+	protected String describeOrigin(JROrigin origin)
+	{
+		StringBuilder description = new StringBuilder();
+		description.append(origin.getReportName());
+		description.append(' ');
+		description.append(origin.getBandType());
+		if (origin.getGroupName() != null)
+		{
+			description.append(' ');
+			description.append(origin.getGroupName());
+		}
+		return description.toString();
+	}
+
+	protected String describeElement(JRFillElement element)
+	{
+		StringBuilder description = new StringBuilder();
+		description.append(element.getFiller().getJasperReport().getName());
+		description.append(' ');
+		description.append(element.getClass().getSimpleName());
+		description.append(' ');
+		description.append(element.getKey() == null ? element.getUUID() : element.getKey());
+		return description.toString();
+	}
+
+	protected String describeExpression(JRFillDataset dataset, JRExpression expression)
+	{
+		String text = expression.getText();
+		text = text == null ? "" : text.trim().replaceAll("\\s+", " ");
+		if (text.length() > EXPRESSION_TEXT_MAX_LENGTH)
+		{
+			text = text.substring(0, EXPRESSION_TEXT_MAX_LENGTH - 3) + "...";
+		}
+		return dataset.getName() + " #" + expression.getId() + " " + text;
+	}
+	
+	/**
+	 * Creates a snapshot of the data collected so far.
+	 * 
+	 * @return the fill profile
+	 */
+	public FillProfile createProfile()
+	{
+		long totalTime = System.nanoTime() - startTime;
+		List<FillProfile.Entry> entries = new ArrayList<>();
+		for (Map.Entry<Category, ConcurrentMap<Object, Timing>> categoryEntry : timings.entrySet())
+		{
+			for (Timing timing : categoryEntry.getValue().values())
+			{
+				entries.add(new FillProfile.Entry(categoryEntry.getKey(), timing.name, 
+						timing.count.sum(), timing.time.sum()));
+			}
+		}
+		return new FillProfile(reportName, totalTime, entries);
+	}
+	
+	/**
+	 * Creates the profile at the end of the fill and logs it.
+	 * 
+	 * @param fillContext the fill context
+	 * @return the fill profile
+	 */
+	protected FillProfile fillDone(JRFillContext fillContext)
+	{
+		FillProfile profile = createProfile();
+		if (log.isInfoEnabled())
+		{
+			log.info(profile.toText());
+		}
+		if (log.isDebugEnabled())
+		{
+			log.debug(profile.toJson(fillContext.getMasterFiller().getJasperReportsContext()));
+		}
+		return profile;
+	}
+	
+	protected static class Timing
+	{
+		private final String name;
+		private final LongAdder count;
+		private final LongAdder time;
+		
+		public Timing(String name)
+		{
+			this.name = name;
+			this.count = new LongAdder();
+			this.time = new LongAdder();
+		}
+	}
+}
@@ -0,0 +1,342 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2025 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.fill;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import net.sf.jasperreports.annotations.properties.Property;
+import net.sf.jasperreports.annotations.properties.PropertyScope;
+import net.sf.jasperreports.engine.DefaultJasperReportsContext;
+import net.sf.jasperreports.engine.JRPropertiesUtil;
+import net.sf.jasperreports.properties.PropertyConstants;
+import net.sf.jasperreports.repo.ResourceInfo;
+
+/**
+ * JVM wide cache of resources loaded from the repository during report filling.
+ * 
+ * <p>
+ * Subreports, style templates and images loaded from repository locations are cached per report fill
+ * by {@link JRFillContext}.
+ * When the shared cache is enabled via {@link #PROPERTY_ENABLED}, these resources are also kept in this cache
+ * and reused by subsequent report fills.
+ * Resources are cached by repository location and resource version, as returned by 
+ * {@link ResourceInfo#getResourceVersionKey()}, which means that only resources whose version is known
+ * (e.g. resources stored in files) are shared across fills, and that modified resources are loaded again.
+ * </p>
+ * 
+ * <p>
+ * The number of cached resources is limited by {@link #PROPERTY_MAX_ENTRIES}, the least recently used
+ * resources being evicted first.
+ * </p>
+ * 
+ * @author agent (agent@local)
+ */
+public class FillResourceCache
+{
+	private static final Log log = LogFactory.getLog(FillResourceCache.class);
+	
+	/**
+	 * Property that determines whether resources loaded from the repository are cached across report fills.
+	 * 
+	 * @see FillResourceCache
+	 */
+	@Property(
+			category = PropertyConstants.CATEGORY_FILL,
+			defaultValue = PropertyConstants.BOOLEAN_FALSE,
+			scopes = {PropertyScope.CONTEXT, PropertyScope.REPORT},
+			sinceVersion = PropertyConstants.VERSION_7_0_7,
+			valueType = Boolean.class
+			)
+	public static final String PROPERTY_ENABLED = JRPropertiesUtil.PROPERTY_PREFIX + "fill.resource.cache.enabled";
+	
+	/**
+	 * Property that specifies the maximum number of resources kept in the shared fill resource cache.
+	 * 
+	 * <p>
+	 * The property is read from the default JasperReports context when the cache is created.
+	 * </p>
+	 * 
+	 * @see FillResourceCache
+	 */
+	@Property(
+			category = PropertyConstants.CATEGORY_FILL,
+			defaultValue = "256",
+			scopes = {PropertyScope.GLOBAL},
+			sinceVersion = PropertyConstants.VERSION_7_0_7,
+			valueType = Integer.class
+			)
+	public static final String PROPERTY_MAX_ENTRIES = JRPropertiesUtil.PROPERTY_PREFIX + "fill.resource.cache.max.entries";
+	
+	/**
+	 * The types of resources kept in the cache.
+	 */
+	public enum ResourceType
+	{
+		REPORT,
+		TEMPLATE,
+		IMAGE
+	}
+	
+	private static final class InstanceHolder
+	{
+		private static final FillResourceCache INSTANCE = new FillResourceCache(
+				JRPropertiesUtil.getInstance(DefaultJasperReportsContext.getInstance()).getIntegerProperty(
+						PROPERTY_MAX_ENTRIES, 256));
+	}
+	
+	/**
+	 * Returns the JVM wide resource cache.
+	 * 
+	 * @return the resource cache instance
+	 */
+	public static FillResourceCache getInstance()
+	{
+		return InstanceHolder.INSTANCE;
+	}
+
+	private final int maxEntries;
+	private final Map<ResourceKey, Object> resources;
+	private final AtomicLong hitCount = new AtomicLong();
+	private final AtomicLong missCount = new AtomicLong();
+	
+	/**
+	 * Creates a resource cache.
+	 * 
+	 * @param maxEntries the maximum number of cached resources
+	 */
+	public FillResourceCache(int maxEntries)
+	{
+		this.maxEntries = maxEntries;
+		this.resources = new LinkedHashMap<ResourceKey, Object>(16, 0.75f, true)
+		{
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<ResourceKey, Object> eldest)
+			{
+				boolean remove = size() > FillResourceCache.this.maxEntries;
+				if (remove && log.isDebugEnabled())
+				{
+					log.debug("evicting " + eldest.getKey());
+				}
+				return remove;
+			}
+		};
+	}
+	
+	/**
+	 * Returns a cached resource.
+	 * 
+	 * @param type the resource type
+	 * @param resourceInfo the repository information of the resource
+	 * @param qualifier additional attributes that were used to load the resource, possibly <code>null</code>
+	 * @return the cached resource, or <code>null</code> if the resource is not present in the cache
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> T get(ResourceType type, ResourceInfo resourceInfo, Object qualifier)
+	{
+		ResourceKey key = resourceKey(type, resourceInfo, qualifier);
+		if (key == null)
+		{
+			return null;
+		}
+		
+		Object resource;
+		synchronized (resources)
+		{
+			resource = resources.get(key);
+		}
+		
+		if (resource == null)
+		{
+			missCount.incrementAndGet();
+		}
+		else
+		{
+			hitCount.incrementAndGet();
+			if (log.isDebugEnabled())
+			{
+				log.debug("found cached resource " + key);
+			}
+		}
+		return (T) resource;
+	}
+	
+	/**
+	 * Adds a resource to the cache.
+	 * 
+	 * @param type the resource type
+	 * @param resourceInfo the repository information of the resource
+	 * @param qualifier additional attributes that were used to load the resource, possibly <code>null</code>
+	 * @param resource the loaded resource
+	 * @return the resource already present in the cache, if any, or the loaded resource otherwise
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> T put(ResourceType type, ResourceInfo resourceInfo, Object qualifier, T resource)
+	{
+		ResourceKey key = resourceKey(type, resourceInfo, qualifier);
+		if (key == null || resource == null || maxEntries <= 0)
+		{
+			return resource;
+		}
+		
+		synchronized (resources)
+		{
+			Object existing = resources.putIfAbsent(key, resource);
+			return existing == null ? resource : (T) existing;
+		}
+	}
+	
+	protected ResourceKey resourceKey(ResourceType type, ResourceInfo resourceInfo, Object qualifier)
+	{
+		Object versionKey = resourceInfo == null ? null : resourceInfo.getResourceVersionKey();
+		return versionKey == null ? null 
+				: new ResourceKey(type, resourceInfo.getRepositoryResourceLocation(), versionKey, qualifier);
+	}
+	
+	/**
+	 * Removes all versions of the resources stored at a repository location.
+	 * 
+	 * @param location the repository location
+	 * @return the number of resources removed from the cache
+	 */
+	public int invalidate(String location)
+	{
+		int count = 0;
+		synchronized (resources)
+		{
+			for (Iterator<ResourceKey> it = resources.keySet().iterator(); it.hasNext();)
+			{
+				if (Objects.equals(location, it.next().location))
+				{
+					it.remove();
+					++count;
+				}
+			}
+		}
+		return count;
+	}
+	
+	/**
+	 * Removes all resources from the cache.
+	 */
+	public void invalidateAll()
+	{
+		synchronized (resources)
+		{
+			resources.clear();
+		}
+	}
+	
+	/**
+	 * Returns the number of resources currently in the cache.
+	 * 
+	 * @return the number of cached resources
+	 */
+	public int getSize()
+	{
+		synchronized (resources)
+		{
+			return resources.size();
+		}
+	}
+	
+	public int getMaxEntries()
+	{
+		return maxEntries;
+	}
+	
+	/**
+	 * Returns the number of resource lookups that found the resource in the cache.
+	 * 
+	 * @return the number of cache hits
+	 */
+	public long getHitCount()
+	{
+		return hitCount.get();
+	}
+	
+	/**
+	 * Returns the number of resource lookups that did not find the resource in the cache.
+	 * 
+	 * @return the number of cache misses
+	 */
+	public long getMissCount()
+	{
+		return missCount.get();
+	}
+	
+	protected static class ResourceKey
+	{
+		private final ResourceType type;
+		private final String location;
+		private final Object versionKey;
+		private final Object qualifier;
+		private final int hash;
+		
+		public ResourceKey(ResourceType type, String location, Object versionKey, Object qualifier)
+		{
+			this.type = type;
+			this.location = location;
+			this.versionKey = versionKey;
+			this.qualifier = qualifier;
+			this.hash = Objects.hash(type, location, versionKey, qualifier);
+		}
+
+		@Override
+		public int hashCode()
+		{
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object obj)
+		{
+			if (obj == this)
+			{
+				return true;
+			}
+			if (!(obj instanceof ResourceKey))
+			{
+				return false;
+			}
+			ResourceKey key = (ResourceKey) obj;
+			return type == key.type && Objects.equals(location, key.location)
+					&& versionKey.equals(key.versionKey) && Objects.equals(qualifier, key.qualifier);
+		}
+
+		@Override
+		public String toString()
+		{
+			return type + ":" + location + ":" + versionKey + (qualifier == null ? "" : ":" + qualifier);
+		}
+	}
+}
@@ -0,0 +1,164 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2025 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.fill;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import net.sf.jasperreports.engine.JRException;
+
+
+/**
+ * Subreport runner that fills subreports on the master filler thread.
+ * <p>
+ * The subreport is filled directly on the thread that requests it, without any thread handoff.
+ * If the subreport content does not fit in the space available on the current page, the
+ * inline fill is discarded and the subreport fill is restarted with a runner created by
+ * a fallback factory, which is able to suspend and resume the subreport fill across pages.
+ * <p>
+ * Subreports whose data cannot be rewound (i.e. subreports that use non rewindable data sources)
+ * are always filled by the fallback runner.
+ * 
+ * @author agent (agent@local)
+ * @see InlineSubreportRunnerFactory
+ */
+public class InlineSubreportRunner extends JRSubreportRunnable implements JRSubreportRunner
+{
+	
+	private static final Log log = LogFactory.getLog(InlineSubreportRunner.class);
+
+	private final JRFillSubreport fillSubreport;
+	private final JRBaseFiller subreportFiller;
+	private final JRSubreportRunnerFactory fallbackRunnerFactory;
+	
+	private JRSubreportRunner fallbackRunner;
+	private boolean inline;
+	private boolean overflowed;
+	
+	public InlineSubreportRunner(JRFillSubreport fillSubreport, JRBaseFiller subreportFiller,
+			JRSubreportRunnerFactory fallbackRunnerFactory)
+	{
+		super(fillSubreport);
+		this.fillSubreport = fillSubreport;
+		this.subreportFiller = subreportFiller;
+		this.fallbackRunnerFactory = fallbackRunnerFactory;
+	}
+
+	@Override
+	public boolean isFilling()
+	{
+		return fallbackRunner != null && fallbackRunner.isFilling();
+	}
+
+	@Override
+	public JRSubreportRunResult start() throws JRException
+	{
+		if (!fillSubreport.isRestartable())
+		{
+			if (log.isDebugEnabled())
+			{
+				log.debug("Fill " + subreportFiller.fillerId + ": not restartable, using fallback runner");
+			}
+			
+			fallbackRunner = fallbackRunnerFactory.createSubreportRunner(fillSubreport, subreportFiller);
+			return fallbackRunner.start();
+		}
+		
+		if (log.isDebugEnabled())
+		{
+			log.debug("Fill " + subreportFiller.fillerId + ": filling inline");
+		}
+		
+		inline = true;
+		overflowed = false;
+		try
+		{
+			run();
+		}
+		finally
+		{
+			inline = false;
+		}
+		
+		if (overflowed)
+		{
+			if (log.isDebugEnabled())
+			{
+				log.debug("Fill " + subreportFiller.fillerId + ": overflowed, restarting with fallback runner");
+			}
+			
+			return fillSubreport.restartSubreportFill(fallbackRunnerFactory);
+		}
+		
+		return runResult();
+	}
+
+	@Override
+	public JRSubreportRunResult resume() throws JRException
+	{
+		return fallbackRunner.resume();
+	}
+
+	@Override
+	public void reset() throws JRException
+	{
+		if (fallbackRunner != null)
+		{
+			fallbackRunner.reset();
+			fallbackRunner = null;
+		}
+	}
+
+	@Override
+	public void cancel() throws JRException
+	{
+		if (fallbackRunner != null)
+		{
+			fallbackRunner.cancel();
+		}
+	}
+
+	@Override
+	public void suspend() throws JRException
+	{
+		if (inline)
+		{
+			// the subreport does not fit on the current page, abandoning the inline fill.
+			// the exception is silently discarded by run()
+			overflowed = true;
+			throw new JRFillInterruptedException();
+		}
+		
+		fallbackRunner.suspend();
+	}
+
+	@Override
+	public void abort()
+	{
+		if (fallbackRunner != null)
+		{
+			fallbackRunner.abort();
+		}
+	}
+}
@@ -0,0 +1,92 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2025 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.fill;
+
+import net.sf.jasperreports.annotations.properties.Property;
+import net.sf.jasperreports.annotations.properties.PropertyScope;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JRPropertiesUtil;
+import net.sf.jasperreports.engine.JRRuntimeException;
+import net.sf.jasperreports.engine.util.JRSingletonCache;
+import net.sf.jasperreports.properties.PropertyConstants;
+
+
+/**
+ * {@link InlineSubreportRunner} subreport runners factory.
+ * <p>
+ * Subreports are filled on the master filler thread as long as they fit on the current page,
+ * which avoids the thread handoff for reports that contain many small subreports.
+ * Subreports that overflow are filled again from the beginning by runners created by the factory
+ * specified by {@link #PROPERTY_FALLBACK_FACTORY}.
+ * <p>
+ * Note that the expressions and scriptlets of overflowing subreports are evaluated again
+ * when the subreport fill is restarted.
+ * 
+ * @author agent (agent@local)
+ */
+public class InlineSubreportRunnerFactory implements JRSubreportRunnerFactory
+{
+	
+	/**
+	 * Property specifying the {@link JRSubreportRunnerFactory} implementation used to create runners
+	 * for subreports that do not fit on the page when filled inline.
+	 * 
+	 * @see InlineSubreportRunnerFactory
+	 */
+	@Property(
+			category = PropertyConstants.CATEGORY_FILL,
+			defaultValue = "net.sf.jasperreports.engine.fill.ThreadPoolSubreportRunnerFactory",
+			scopes = {PropertyScope.CONTEXT},
+			sinceVersion = PropertyConstants.VERSION_7_0_7
+			)
+	public static final String PROPERTY_FALLBACK_FACTORY = JRPropertiesUtil.PROPERTY_PREFIX + "subreport.runner.inline.fallback.factory";
+	
+	private static final JRSingletonCache<JRSubreportRunnerFactory> fallbackFactoryCache = 
+			new JRSingletonCache<>(JRSubreportRunnerFactory.class);
+
+	@Override
+	public JRSubreportRunner createSubreportRunner(JRFillSubreport fillSubreport, JRBaseFiller subreportFiller)
+	{
+		return new InlineSubreportRunner(fillSubreport, subreportFiller, getFallbackFactory(subreportFiller));
+	}
+
+	protected JRSubreportRunnerFactory getFallbackFactory(JRBaseFiller subreportFiller)
+	{
+		String factoryClassName = subreportFiller.getPropertiesUtil().getProperty(PROPERTY_FALLBACK_FACTORY);
+		if (factoryClassName == null)
+		{
+			factoryClassName = ThreadPoolSubreportRunnerFactory.class.getName();
+		}
+		
+		try
+		{
+			return fallbackFactoryCache.getCachedInstance(factoryClassName);
+		}
+		catch (JRException e)
+		{
+			throw new JRRuntimeException(e);
+		}
+	}
+
+}
@@ -657,6 +657,8 @@ public abstract class JRBaseFiller extends BaseReportFiller implements JRDefault
 			{
 				// commit the cached data
 				fillContext.cacheDone();
+				
+				fillContext.profileDone();
 			}
 
 			if (parent != null)
@@ -666,6 +668,8 @@ public abstract class JRBaseFiller extends BaseReportFiller implements JRDefault
 			
 			delayedActions.dispose();
 
+			disposeDatasetRunPrefetcher();
+
 			clearFillingThread();
 
 			//kill the subreport filler threads
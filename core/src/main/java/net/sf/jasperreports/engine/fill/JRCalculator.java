@@ -85,6 +85,8 @@ public class JRCalculator implements JRFillExpressionEvaluator
 	 * The expression evaluator
 	 */
 	private final DatasetExpressionEvaluator evaluator;
+	
+	private FillProfiler profiler;
 
 
 	/**
@@ -138,6 +140,9 @@ public class JRCalculator implements JRFillExpressionEvaluator
 					true
 					);
 		evaluator.init(parsm, fldsm,varsm, whenResourceMissingType, ignoreNPE);
+		
+		BaseReportFiller filler = dataset.getFiller();
+		profiler = filler == null ? null : filler.getFillContext().getProfiler();
 	}
 
 
@@ -170,14 +175,13 @@ public class JRCalculator implements JRFillExpressionEvaluator
 			{
 				JRFillVariable variable = variables[i];
 				Object expressionValue = evaluate(variable.getExpression());
-				Object newValue = variable.getIncrementer().increment(variable, expressionValue, AbstractValueProvider.getCurrentValueProvider());
-				variable.setValue(newValue);
+				variable.calculateValue(expressionValue);
 				variable.setInitialized(false);
-				variable.setPreviousIncrementedValue(variable.getIncrementedValue());
+				variable.updatePreviousIncrementedValue();
 
 				if (variable.getIncrementType() == IncrementTypeEnum.NONE)
 				{
-					variable.setIncrementedValue(variable.getValue());
+					variable.updateIncrementedValue();
 				}
 			}
 		}
@@ -223,8 +227,7 @@ public class JRCalculator implements JRFillExpressionEvaluator
 			{
 				JRFillVariable variable = variables[i];
 				Object expressionValue = evaluateEstimated(variable.getExpression());
-				Object newValue = variable.getIncrementer().increment(variable, expressionValue,  AbstractValueProvider.getEstimatedValueProvider());
-				variable.setEstimatedValue(newValue);
+				variable.estimateValue(expressionValue);
 				//variable.setInitialized(false);
 			}
 		}
@@ -278,7 +281,7 @@ public class JRCalculator implements JRFillExpressionEvaluator
 						JRFillGroup group = grpsm.get(variable.getIncrementGroup());
 						if (group.hasChanged())
 						{
-							variable.setIncrementedValue(variable.getValue());
+							variable.updateIncrementedValue();
 						}
 					}
 				}
@@ -391,7 +394,7 @@ public class JRCalculator implements JRFillExpressionEvaluator
 
 			if (toIncrement)
 			{
-				variable.setIncrementedValue(variable.getValue());
+				variable.updateIncrementedValue();
 				if (toSetPreviousValue)
 				{
 					variable.setPreviousIncrementedValue(variable.getValue());
@@ -404,7 +407,7 @@ public class JRCalculator implements JRFillExpressionEvaluator
 		}
 		else
 		{
-			variable.setIncrementedValue(variable.getValue());
+			variable.updateIncrementedValue();
 //			variable.setValue(
 //				evaluate(variable.getExpression())
 //				);
@@ -531,7 +534,7 @@ public class JRCalculator implements JRFillExpressionEvaluator
 			variable.setValue(
 				evaluate(variable.getExpression())
 				);
-			variable.setIncrementedValue(variable.getValue());
+			variable.updateIncrementedValue();
 		}
 	}
 
@@ -627,7 +630,15 @@ public class JRCalculator implements JRFillExpressionEvaluator
 	 */
 	public Object evaluateOld(JRExpression expression) throws JRExpressionEvalException
 	{
-		return evaluator.evaluateOld(expression);
+		if (profiler == null)
+		{
+			return evaluator.evaluateOld(expression);
+		}
+		
+		long start = profiler.start();
+		Object value = evaluator.evaluateOld(expression);
+		profiler.expressionEvaluated(dataset, expression, start);
+		return value;
 	}
 
 
@@ -636,7 +647,15 @@ public class JRCalculator implements JRFillExpressionEvaluator
 	 */
 	public Object evaluateEstimated(JRExpression expression) throws JRExpressionEvalException
 	{
-		return evaluator.evaluateEstimated(expression);
+		if (profiler == null)
+		{
+			return evaluator.evaluateEstimated(expression);
+		}
+		
+		long start = profiler.start();
+		Object value = evaluator.evaluateEstimated(expression);
+		profiler.expressionEvaluated(dataset, expression, start);
+		return value;
 	}
 
 
@@ -645,7 +664,26 @@ public class JRCalculator implements JRFillExpressionEvaluator
 	 */
 	public Object evaluate(JRExpression expression) throws JRExpressionEvalException
 	{
-		return evaluator.evaluate(expression);
+		if (profiler == null)
+		{
+			return evaluator.evaluate(expression);
+		}
+		
+		long start = profiler.start();
+		Object value = evaluator.evaluate(expression);
+		profiler.expressionEvaluated(dataset, expression, start);
+		return value;
+	}
+
+
+	/**
+	 * Returns the expression evaluator used by this calculator.
+	 * 
+	 * @return the expression evaluator
+	 */
+	public DatasetExpressionEvaluator getEvaluator()
+	{
+		return evaluator;
 	}
 
 
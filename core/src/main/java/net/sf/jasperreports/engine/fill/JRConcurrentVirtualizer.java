@@ -0,0 +1,713 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2025 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.fill;
+
+import java.io.IOException;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import net.sf.jasperreports.engine.JRRuntimeException;
+import net.sf.jasperreports.engine.JRVirtualizable;
+import net.sf.jasperreports.engine.JRVirtualizer;
+import net.sf.jasperreports.engine.util.VirtualizationSerializer;
+
+
+/**
+ * Virtualizer that keeps track of the paged in objects using concurrent data structures,
+ * and delegates the actual storage of the virtualized data to a
+ * {@link JRAbstractLRUVirtualizer} instance such as {@link JRFileVirtualizer},
+ * {@link JRSwapFileVirtualizer} or {@link JRGzipVirtualizer}.
+ * <p>
+ * Unlike {@link JRAbstractLRUVirtualizer}, which synchronizes all operations on the virtualizer
+ * instance, this implementation records object accesses without locking, by updating
+ * an access timestamp on the cache entry.  Eviction is performed by a single thread at a time,
+ * which selects the least recently accessed entries when the cache exceeds its maximum size;
+ * threads that find another thread evicting do not wait for it.
+ * This way fill and export threads that share a virtualizer do not serialize against each other.
+ * <p>
+ * Besides the maximum number of paged in objects, the virtualizer can limit the memory used by
+ * the paged in objects via a {@link VirtualizerMemoryBudget}, which can be shared by several
+ * virtualizers.  The size of an object is estimated from the length of its serialized data,
+ * and the least recently used objects are evicted when the budget is exceeded.
+ * <p>
+ * The cache size of the storage virtualizer is not used, only its storage methods are called.
+ * <pre>
+ * JRVirtualizer virtualizer = new JRConcurrentVirtualizer(100, new JRSwapFileVirtualizer(0, swapFile));
+ * </pre>
+ * 
+ * @author agent (agent@local)
+ */
+public class JRConcurrentVirtualizer implements JRVirtualizer
+{
+	private static final Log log = LogFactory.getLog(JRConcurrentVirtualizer.class);
+
+	protected static class CacheEntry extends WeakReference<JRVirtualizable>
+	{
+		private final String id;
+		private final long size;
+		private volatile long accessTime;
+		private volatile boolean last;
+
+		public CacheEntry(JRVirtualizable o, long size, ReferenceQueue<JRVirtualizable> queue)
+		{
+			super(o, queue);
+			this.id = o.getUID();
+			this.size = size;
+			touch();
+		}
+		
+		/**
+		 * Returns the estimated size of the object data, used for memory budgeting.
+		 */
+		public long getSize()
+		{
+			return size;
+		}
+
+		public String getId()
+		{
+			return id;
+		}
+		
+		public long getAccessTime()
+		{
+			return accessTime;
+		}
+		
+		public void touch()
+		{
+			accessTime = System.nanoTime();
+		}
+	}
+	
+	protected static class EvictionCandidate
+	{
+		private final CacheEntry entry;
+		// access time snapshot, the entry access time can change while selecting candidates
+		private final long accessTime;
+		
+		public EvictionCandidate(CacheEntry entry, long accessTime)
+		{
+			this.entry = entry;
+			this.accessTime = accessTime;
+		}
+	}
+	
+	private static final Comparator<EvictionCandidate> LEAST_RECENT_FIRST = 
+		(c1, c2) -> Long.compare(c1.accessTime, c2.accessTime);
+	
+	/**
+	 * The minimum number of least recently accessed objects selected for eviction at once.
+	 * When evicting to fit the memory budget and the selected objects are not enough, 
+	 * the next eviction continues with the following objects.
+	 */
+	protected static final int EVICTION_BATCH_SIZE = 16;
+	
+	private final int maxSize;
+	private final JRAbstractLRUVirtualizer storage;
+	private final VirtualizerMemoryBudget memoryBudget;
+	
+	private final ReferenceQueue<JRVirtualizable> refQueue;
+	private final ConcurrentHashMap<String, CacheEntry> pagedIn;
+	private final ConcurrentHashMap<String, CacheEntry> pagedOut;
+	private final Map<JRVirtualizationContext, CacheEntry> lastEntries;
+	private final ReentrantLock evictionLock;
+
+	private volatile boolean readOnly;
+
+	/**
+	 * Creates a concurrent virtualizer.
+	 * 
+	 * @param maxSize the maximum size (in JRVirtualizable objects) of the paged in cache.
+	 * @param storage the virtualizer used to store the data of the paged out objects
+	 */
+	public JRConcurrentVirtualizer(int maxSize, JRAbstractLRUVirtualizer storage)
+	{
+		this(maxSize, storage, null);
+	}
+
+	/**
+	 * Creates a concurrent virtualizer that limits the memory used by the paged in objects.
+	 * 
+	 * @param maxSize the maximum size (in JRVirtualizable objects) of the paged in cache.
+	 * Pass {@link Integer#MAX_VALUE} to only limit the size in bytes.
+	 * @param storage the virtualizer used to store the data of the paged out objects
+	 * @param memoryBudget the memory budget for the paged in objects, possibly shared with
+	 * other virtualizers.  If <code>null</code>, only the number of objects is limited.
+	 */
+	public JRConcurrentVirtualizer(int maxSize, JRAbstractLRUVirtualizer storage, 
+			VirtualizerMemoryBudget memoryBudget)
+	{
+		this.maxSize = maxSize;
+		this.storage = storage;
+		this.memoryBudget = memoryBudget;
+		
+		this.refQueue = new ReferenceQueue<>();
+		this.pagedIn = new ConcurrentHashMap<>();
+		this.pagedOut = new ConcurrentHashMap<>();
+		this.lastEntries = new WeakHashMap<>();
+		this.evictionLock = new ReentrantLock();
+	}
+
+	/**
+	 * Returns the virtualizer used to store the data of the paged out objects.
+	 * 
+	 * @return the storage virtualizer
+	 */
+	public JRAbstractLRUVirtualizer getStorage()
+	{
+		return storage;
+	}
+
+	/**
+	 * Returns the memory budget used by the virtualizer.
+	 * 
+	 * @return the memory budget, <code>null</code> if the paged in cache is only limited by object count
+	 */
+	public VirtualizerMemoryBudget getMemoryBudget()
+	{
+		return memoryBudget;
+	}
+	
+	protected CacheEntry createEntry(JRVirtualizable o, long size)
+	{
+		return new CacheEntry(o, size, refQueue);
+	}
+	
+	protected void putPagedIn(CacheEntry entry)
+	{
+		CacheEntry old = pagedIn.put(entry.getId(), entry);
+		if (memoryBudget != null)
+		{
+			memoryBudget.add(entry.getSize());
+			if (old != null)
+			{
+				memoryBudget.subtract(old.getSize());
+			}
+		}
+	}
+	
+	protected boolean removePagedIn(CacheEntry entry)
+	{
+		boolean removed = pagedIn.remove(entry.getId(), entry);
+		if (removed && memoryBudget != null)
+		{
+			memoryBudget.subtract(entry.getSize());
+		}
+		return removed;
+	}
+	
+	protected void startSizeRecording()
+	{
+		if (memoryBudget != null)
+		{
+			VirtualizationSerializer.startSizeRecording();
+		}
+	}
+	
+	protected long endSizeRecording()
+	{
+		if (memoryBudget == null)
+		{
+			return 0;
+		}
+		
+		long size = VirtualizationSerializer.endSizeRecording();
+		memoryBudget.sample(size);
+		return size;
+	}
+
+	protected void purge()
+	{
+		CacheEntry ref;
+		while ((ref = (CacheEntry) refQueue.poll()) != null)
+		{
+			// only removing the entry if it was not replaced in the meantime
+			removePagedIn(ref);
+			pagedOut.remove(ref.getId(), ref);
+		}
+	}
+
+	protected boolean isPagedOut(String id)
+	{
+		CacheEntry entry = pagedOut.get(id);
+		return entry != null && entry.get() != null;
+	}
+
+	protected void setLast(CacheEntry entry, JRVirtualizationContext context)
+	{
+		if (!entry.last)
+		{
+			synchronized (lastEntries)
+			{
+				CacheEntry previous = lastEntries.put(context, entry);
+				if (previous != null && previous != entry)
+				{
+					previous.last = false;
+				}
+				entry.last = true;
+			}
+		}
+	}
+	
+	protected void clearLast(JRVirtualizable o, JRVirtualizationContext context)
+	{
+		synchronized (lastEntries)
+		{
+			CacheEntry contextLast = lastEntries.get(context);
+			if (contextLast != null && contextLast.get() == o)
+			{
+				lastEntries.remove(context);
+				contextLast.last = false;
+			}
+		}
+	}
+
+	@Override
+	public void contextChanged(JRVirtualizable<?> o, JRVirtualizationContext oldContext)
+	{
+		clearLast(o, oldContext);
+	}
+
+	/**
+	 * Sets the read only mode for the virtualizer.
+	 *
+	 * @param ro the read-only mode to set
+	 * @see JRAbstractLRUVirtualizer#setReadOnly(boolean)
+	 */
+	public void setReadOnly(boolean ro)
+	{
+		this.readOnly = ro;
+		storage.setReadOnly(ro);
+	}
+
+	/**
+	 * Determines whether the virtualizer is in read-only mode.
+	 *
+	 * @return whether the virtualizer is in read-only mode
+	 * @see #setReadOnly(boolean)
+	 */
+	public boolean isReadOnly()
+	{
+		return readOnly;
+	}
+
+	@Override
+	public void registerObject(JRVirtualizable o)
+	{
+		String uid = o.getUID();
+		if (log.isDebugEnabled())
+		{
+			log.debug("registering " + uid + " with context " + o.getContext());
+		}
+		
+		purge();
+		
+		// the object data was not serialized yet, using the average size
+		CacheEntry entry = createEntry(o, memoryBudget == null ? 0 : memoryBudget.getAverageObjectSize());
+		CacheEntry old = pagedIn.putIfAbsent(uid, entry);
+		if (old == null)
+		{
+			if (memoryBudget != null)
+			{
+				memoryBudget.add(entry.getSize());
+			}
+		}
+		else
+		{
+			JRVirtualizable oldObject = old.get();
+			if (oldObject == null)
+			{
+				putPagedIn(entry);
+			}
+			else if (oldObject != o)
+			{
+				throw new IllegalStateException("Wrong object stored with UID \"" + uid + "\"");
+			}
+			else
+			{
+				entry = old;
+			}
+		}
+		
+		setLast(entry, o.getContext());
+		
+		evict();
+	}
+
+	protected boolean isEvictable(CacheEntry entry, JRVirtualizable value)
+	{
+		return value.getContext().isDisposed() || !entry.last;
+	}
+
+	protected boolean isEvictionRequired()
+	{
+		return pagedIn.size() > maxSize 
+				|| (memoryBudget != null && memoryBudget.getExcess() > 0);
+	}
+
+	protected List<CacheEntry> evictionCandidates()
+	{
+		int countExcess = pagedIn.size() - maxSize;
+		long sizeExcess = memoryBudget == null ? 0 : memoryBudget.getExcess();
+		if (countExcess <= 0 && sizeExcess <= 0)
+		{
+			return Collections.emptyList();
+		}
+		
+		// keeping the least recently accessed entries in a bounded heap that has the most recent 
+		// entry on top, so that selecting the candidates is O(n log limit) instead of sorting all entries
+		int limit = Math.max(countExcess, EVICTION_BATCH_SIZE);
+		PriorityQueue<EvictionCandidate> leastRecent = new PriorityQueue<>(limit, LEAST_RECENT_FIRST.reversed());
+		for (CacheEntry entry : pagedIn.values())
+		{
+			JRVirtualizable value = entry.get();
+			if (value != null && isEvictable(entry, value))
+			{
+				long accessTime = entry.getAccessTime();
+				if (leastRecent.size() < limit)
+				{
+					leastRecent.add(new EvictionCandidate(entry, accessTime));
+				}
+				else if (accessTime < leastRecent.peek().accessTime)
+				{
+					leastRecent.poll();
+					leastRecent.add(new EvictionCandidate(entry, accessTime));
+				}
+			}
+		}
+		
+		List<EvictionCandidate> evictable = new ArrayList<>(leastRecent);
+		evictable.sort(LEAST_RECENT_FIRST);
+		
+		List<CacheEntry> candidates = new ArrayList<>(evictable.size());
+		long candidatesSize = 0;
+		for (EvictionCandidate candidate : evictable)
+		{
+			if (candidates.size() >= countExcess && candidatesSize >= sizeExcess)
+			{
+				break;
+			}
+			
+			candidates.add(candidate.entry);
+			candidatesSize += candidate.entry.getSize();
+		}
+		
+		if (candidates.size() < countExcess && log.isDebugEnabled())
+		{
+			log.debug("The virtualizer is used by more contexts than its in-memory cache size " + maxSize);
+		}
+		
+		return candidates;
+	}
+
+	protected void evict()
+	{
+		if (!isEvictionRequired())
+		{
+			return;
+		}
+		
+		// if another thread is evicting, we let it do the job
+		if (!evictionLock.tryLock())
+		{
+			return;
+		}
+		
+		try
+		{
+			for (CacheEntry entry : evictionCandidates())
+			{
+				JRVirtualizable o = entry.get();
+				if (o == null)
+				{
+					continue;
+				}
+				
+				String uid = entry.getId();
+				if (o.getContext().tryLock())
+				{
+					try
+					{
+						// check again as the object might have been accessed meanwhile
+						if (isEvictable(entry, o) && removePagedIn(entry))
+						{
+							if (log.isDebugEnabled())
+							{
+								log.debug("evicting " + uid);
+							}
+							
+							if (!o.getContext().isDisposed())
+							{
+								virtualizeData(o);
+							}
+						}
+						else if (log.isDebugEnabled())
+						{
+							log.debug("no longer evictable: " + uid);
+						}
+					}
+					finally
+					{
+						o.getContext().unlock();
+					}
+				}
+				else if (log.isDebugEnabled())
+				{
+					log.debug("couldn't lock for eviction " + uid);
+				}
+			}
+		}
+		finally
+		{
+			evictionLock.unlock();
+		}
+	}
+
+	@Override
+	public void deregisterObject(JRVirtualizable o)
+	{
+		String uid = o.getUID();
+		if (log.isDebugEnabled())
+		{
+			log.debug("deregistering " + uid);
+		}
+		
+		//try to remove virtual data
+		try
+		{
+			storage.dispose(o);
+		}
+		catch (Exception e)
+		{
+			log.error("Error removing virtual data", e);
+			//ignore
+		}
+
+		CacheEntry oldIn = pagedIn.get(uid);
+		if (oldIn != null && oldIn.get() != null)
+		{
+			if (oldIn.get() != o)
+			{
+				throw new IllegalStateException("Wrong object stored with UID \"" + uid + "\"");
+			}
+			
+			removePagedIn(oldIn);
+			clearLast(o, o.getContext());
+		}
+		else
+		{
+			CacheEntry oldOut = pagedOut.get(uid);
+			if (oldOut != null && oldOut.get() != null && oldOut.get() != o)
+			{
+				throw new IllegalStateException("Wrong object stored with UID \"" + uid + "\"");
+			}
+			
+			if (oldOut != null)
+			{
+				pagedOut.remove(uid, oldOut);
+			}
+		}
+	}
+
+	@Override
+	public void touch(JRVirtualizable o)
+	{
+		CacheEntry entry = pagedIn.get(o.getUID());
+		if (entry != null)
+		{
+			entry.touch();
+			setLast(entry, o.getContext());
+		}
+	}
+
+	@Override
+	public void requestData(JRVirtualizable o)
+	{
+		String uid = o.getUID();
+		boolean evictRequired = false;
+		
+		o.getContext().lock();
+		try
+		{
+			if (isPagedOut(uid))
+			{
+				if (log.isDebugEnabled())
+				{
+					log.debug("internalizing " + uid);
+				}
+				
+				long size;
+				startSizeRecording();
+				try
+				{
+					storage.pageIn(o);
+				}
+				catch (IOException e)
+				{
+					if (log.isDebugEnabled())
+					{
+						log.debug("Error devirtualizing object", e);
+					}
+					throw new JRRuntimeException(e);
+				}
+				finally
+				{
+					size = endSizeRecording();
+				}
+
+				CacheEntry entry = createEntry(o, size);
+				pagedOut.remove(uid);
+				putPagedIn(entry);
+				setLast(entry, o.getContext());
+
+				o.afterInternalization();
+				
+				evictRequired = true;
+			}
+			else
+			{
+				touch(o);
+			}
+		}
+		finally
+		{
+			o.getContext().unlock();
+		}
+		
+		if (evictRequired)
+		{
+			evict();
+		}
+	}
+
+	@Override
+	public void clearData(JRVirtualizable o)
+	{
+		String uid = o.getUID();
+		if (isPagedOut(uid))
+		{
+			// remove virtual data
+			storage.dispose(uid);
+			pagedOut.remove(uid);
+		}
+		else
+		{
+			touch(o);
+		}
+	}
+
+	@Override
+	public void virtualizeData(JRVirtualizable o)
+	{
+		String uid = o.getUID();
+		if (!isPagedOut(uid))
+		{
+			if (log.isDebugEnabled())
+			{
+				log.debug("externalizing " + uid);
+			}
+			
+			o.beforeExternalization();
+
+			long size;
+			startSizeRecording();
+			try
+			{
+				storage.pageOut(o);
+			}
+			catch (IOException e)
+			{
+				if (log.isDebugEnabled())
+				{
+					log.debug("Error virtualizing object", e);
+				}
+				throw new JRRuntimeException(e);
+			}
+			finally
+			{
+				size = endSizeRecording();
+			}
+
+			o.afterExternalization();
+
+			// Wait until we know it worked before tossing the data.
+			o.removeVirtualData();
+
+			pagedOut.put(uid, createEntry(o, size));
+		}
+	}
+
+	@Override
+	public void cleanup()
+	{
+		if (log.isDebugEnabled())
+		{
+			log.debug("disposing " + this);
+		}
+		
+		for (CacheEntry entry : pagedOut.values())
+		{
+			JRVirtualizable o = entry.get();
+			if (o != null)
+			{
+				try
+				{
+					storage.dispose(o);
+				}
+				catch (Exception e)
+				{
+					log.error("Error cleaning up virtualizer.", e);
+					// Do nothing because we want to try to remove all the data.
+				}
+			}
+		}
+		pagedOut.clear();
+		
+		for (CacheEntry entry : pagedIn.values())
+		{
+			removePagedIn(entry);
+		}
+		
+		synchronized (lastEntries)
+		{
+			lastEntries.clear();
+		}
+		
+		storage.cleanup();
+		readOnly = false;
+	}
+}
@@ -430,6 +430,9 @@ public class JRFillBand extends JRFillElementContainer implements JRBand, JROrig
 	{
 		filler.checkInterrupted();
 
+		FillProfiler profiler = filler.getFillContext().getProfiler();
+		long start = profiler == null ? 0 : profiler.start();
+		
 		filler.setBandOverFlowAllowed(isOverflowAllowed);
 
 		initFill();
@@ -455,6 +458,11 @@ public class JRFillBand extends JRFillElementContainer implements JRBand, JROrig
 			returnValues.copyValues(returnValuesContext);
 		}
 
+		if (profiler != null)
+		{
+			profiler.bandFilled(this, start);
+		}
+		
 		return printBand;
 	}
 
@@ -43,12 +43,14 @@ import net.sf.jasperreports.engine.Deduplicable;
 import net.sf.jasperreports.engine.JRException;
 import net.sf.jasperreports.engine.JRPrintElement;
 import net.sf.jasperreports.engine.JRPrintPage;
+import net.sf.jasperreports.engine.JRPropertiesUtil;
 import net.sf.jasperreports.engine.JRRuntimeException;
 import net.sf.jasperreports.engine.JRStyle;
 import net.sf.jasperreports.engine.JasperReport;
 import net.sf.jasperreports.engine.JasperReportsContext;
 import net.sf.jasperreports.engine.ReportContext;
 import net.sf.jasperreports.engine.fill.events.FillEvents;
+import net.sf.jasperreports.engine.fill.events.FillProfileEvent;
 import net.sf.jasperreports.engine.fonts.FontUtil;
 import net.sf.jasperreports.engine.query.JRQueryExecuter;
 import net.sf.jasperreports.engine.util.DeduplicableRegistry;
@@ -61,6 +63,7 @@ import net.sf.jasperreports.engine.util.Pair;
 import net.sf.jasperreports.renderers.Renderable;
 import net.sf.jasperreports.renderers.RenderersCache;
 import net.sf.jasperreports.repo.JasperDesignCache;
+import net.sf.jasperreports.repo.ResourceInfo;
 
 /**
  * Context class shared by all the fillers involved in a report (master and subfillers).
@@ -116,6 +119,11 @@ public class JRFillContext
 
 	private FillEvents fillEvents;
 	
+	private final FillProfiler profiler;
+	
+	private FillResourceCache sharedResourceCache;
+	private boolean sharedResourceCacheResolved;
+	
 	/**
 	 * Constructs a fill context.
 	 */
@@ -134,6 +142,8 @@ public class JRFillContext
 		FontUtil.getInstance(jasperReportsContext).resetThreadMissingFontsCache();
 		
 		this.queryExecuters = new HashMap<>();
+		
+		this.profiler = FillProfiler.forFiller(masterFiller);
 	}
 
 	public BaseReportFiller getMasterFiller()
@@ -161,6 +171,17 @@ public class JRFillContext
 		return fillEvents;
 	}
 
+	/**
+	 * Returns the profiler used for the fill.
+	 * 
+	 * @return the fill profiler, or <code>null</code> if profiling is not enabled
+	 * @see FillProfiler#PROPERTY_ENABLED
+	 */
+	public FillProfiler getProfiler()
+	{
+		return profiler;
+	}
+
 	/**
 	 * Checks whether an image renderer given by source has already been loaded and cached.
 	 * 
@@ -214,6 +235,59 @@ public class JRFillContext
 	}
 
 	
+	/**
+	 * Returns the JVM wide resource cache if enabled for the report.
+	 * 
+	 * @return the shared resource cache, or <code>null</code> if not enabled
+	 * @see FillResourceCache#PROPERTY_ENABLED
+	 */
+	protected synchronized FillResourceCache getSharedResourceCache()
+	{
+		if (!sharedResourceCacheResolved)
+		{
+			boolean enabled = JRPropertiesUtil.getInstance(masterFiller.getJasperReportsContext()).getBooleanProperty(
+					masterFiller.getMainDataset(), FillResourceCache.PROPERTY_ENABLED, false);
+			sharedResourceCache = enabled ? FillResourceCache.getInstance() : null;
+			sharedResourceCacheResolved = true;
+		}
+		return sharedResourceCache;
+	}
+	
+	
+	/**
+	 * Looks up a resource loaded by a previous report fill.
+	 * 
+	 * @param type the resource type
+	 * @param resourceInfo the repository information of the resource
+	 * @param qualifier additional attributes used to load the resource
+	 * @return the resource, or <code>null</code> if the resource is not found or if the shared cache is not enabled
+	 * @see FillResourceCache
+	 */
+	public <T> T getSharedResource(FillResourceCache.ResourceType type, ResourceInfo resourceInfo, Object qualifier)
+	{
+		FillResourceCache resourceCache = getSharedResourceCache();
+		return resourceCache == null ? null : resourceCache.get(type, resourceInfo, qualifier);
+	}
+	
+	
+	/**
+	 * Registers a resource loaded from the repository so that it can be used by subsequent report fills.
+	 * 
+	 * @param type the resource type
+	 * @param resourceInfo the repository information of the resource
+	 * @param qualifier additional attributes used to load the resource
+	 * @param resource the loaded resource
+	 * @return the resource to be used, which might be a resource previously registered by a different fill
+	 * @see FillResourceCache
+	 */
+	public <T> T registerSharedResource(FillResourceCache.ResourceType type, ResourceInfo resourceInfo, Object qualifier,
+			T resource)
+	{
+		FillResourceCache resourceCache = getSharedResourceCache();
+		return resourceCache == null ? resource : resourceCache.put(type, resourceInfo, qualifier, resource);
+	}
+
+	
 	/**
 	 * 
 	 */
@@ -641,6 +715,15 @@ public class JRFillContext
 		}
 	}
 	
+	public void profileDone()
+	{
+		if (profiler != null)
+		{
+			FillProfile profile = profiler.fillDone(this);
+			fillEvents.triggerEvent(FillProfileEvent.class, () -> new FillProfileEvent(masterFiller, profile));
+		}
+	}
+	
 	public void markCanceled()
 	{
 		canceled = true;
@@ -528,6 +528,15 @@ public class JRFillDataset implements JRDataset, DatasetFillContext
 	protected static JRCalculator createCalculator(JasperReportsContext jasperReportsContext, JasperReport jasperReport, JRDataset dataset) throws JRException
 	{
 		JREvaluator evaluator = JasperCompileManager.getInstance(jasperReportsContext).getEvaluator(jasperReport, dataset);
+		
+		boolean memoizeValues = JRPropertiesUtil.getInstance(jasperReportsContext).getBooleanProperty(
+				MemoizingExpressionEvaluatorDecorator.PROPERTY_MEMOIZE_VALUES, false, 
+				dataset, jasperReport);
+		if (memoizeValues)
+		{
+			return new JRCalculator(new MemoizingExpressionEvaluatorDecorator(evaluator));
+		}
+		
 		return new JRCalculator(evaluator);
 	}
 
@@ -1265,6 +1274,36 @@ public class JRFillDataset implements JRDataset, DatasetFillContext
 	}
 
 	
+	/**
+	 * Returns the parameter contributors used for the current parameter values and
+	 * releases them from the dataset, the caller becoming responsible for disposing them.
+	 * 
+	 * @return the parameter contributors, possibly <code>null</code>
+	 */
+	protected List<ParameterContributor> detachParameterContributors()
+	{
+		List<ParameterContributor> contributors = parameterContributors;
+		parameterContributors = null;
+		return contributors;
+	}
+
+	
+	/**
+	 * Creates a copy of the dataset parameters holding the current parameter values.
+	 * 
+	 * @return the parameters copy indexed by name
+	 */
+	protected Map<String,JRFillParameter> copyParametersMap()
+	{
+		Map<String,JRFillParameter> parametersCopy = new HashMap<>();
+		for (JRFillParameter parameter : parametersMap.values())
+		{
+			parametersCopy.put(parameter.getName(), new JRFillParameter(parameter));
+		}
+		return parametersCopy;
+	}
+
+	
 	/**
 	 *
 	 */
@@ -1330,7 +1369,14 @@ public class JRFillDataset implements JRDataset, DatasetFillContext
 				filler.fillContext.setRunningQueryExecuter(queryExecuter);
 			}
 			
-			return queryExecuter.createDatasource();
+			FillProfiler profiler = filler == null ? null : filler.getFillContext().getProfiler();
+			long start = profiler == null ? 0 : profiler.start();
+			JRDataSource queryDataSource = queryExecuter.createDatasource();
+			if (profiler != null)
+			{
+				profiler.queryExecuted(this, query, start);
+			}
+			return queryDataSource;
 		}
 		finally
 		{
@@ -1393,12 +1439,28 @@ public class JRFillDataset implements JRDataset, DatasetFillContext
 	{
 		closeQueryExecuter();
 		reset();
+		
+		if (log.isDebugEnabled() && calculator != null 
+				&& calculator.getEvaluator() instanceof MemoizingExpressionEvaluatorDecorator)
+		{
+			MemoizingExpressionEvaluatorDecorator memoizingEvaluator = 
+					(MemoizingExpressionEvaluatorDecorator) calculator.getEvaluator();
+			log.debug((filler == null ? "" : ("Fill " + filler.fillerId + ": ")) + "dataset " + getName()
+					+ " evaluated " + memoizingEvaluator.getEvaluatedCount() + " expressions, skipped "
+					+ memoizingEvaluator.getSkippedCount() + " evaluations");
+		}
 
 		if (ended)
 		{
 			// if the whole data source was iterated, submit the recorded data
 			cacheEnd();
 		}
+		
+		if (dataSource instanceof SortedDataSource)
+		{
+			// delete the temporary files of externally sorted records
+			((SortedDataSource) dataSource).dispose();
+		}
 	}
 
 	protected void closeQueryExecuter()
@@ -1586,8 +1648,7 @@ public class JRFillDataset implements JRDataset, DatasetFillContext
 			for (int i = 0; i < variables.length; i++)
 			{
 				JRFillVariable variable = variables[i];
-				variable.setPreviousOldValue(variable.getOldValue());
-				variable.setOldValue(variable.getValue());
+				variable.updateOldValue();
 			}
 		}
 	}
@@ -1616,8 +1677,7 @@ public class JRFillDataset implements JRDataset, DatasetFillContext
 			for (int i = 0; i < variables.length; i++)
 			{
 				JRFillVariable variable = variables[i];
-				variable.setValue(variable.getOldValue());
-				variable.setOldValue(variable.getPreviousOldValue());
+				variable.revertToOldValue();
 			}
 		}
 	}
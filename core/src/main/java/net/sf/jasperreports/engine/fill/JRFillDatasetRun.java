@@ -24,9 +24,11 @@
 package net.sf.jasperreports.engine.fill;
 
 import java.sql.Connection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -38,6 +40,7 @@ import net.sf.jasperreports.engine.JRDatasetParameter;
 import net.sf.jasperreports.engine.JRDatasetRun;
 import net.sf.jasperreports.engine.JRException;
 import net.sf.jasperreports.engine.JRExpression;
+import net.sf.jasperreports.engine.JRExpressionChunk;
 import net.sf.jasperreports.engine.JRParameter;
 import net.sf.jasperreports.engine.JRPropertiesHolder;
 import net.sf.jasperreports.engine.JRPropertiesMap;
@@ -46,6 +49,7 @@ import net.sf.jasperreports.engine.JRQuery;
 import net.sf.jasperreports.engine.JRRuntimeException;
 import net.sf.jasperreports.engine.JRScriptletException;
 import net.sf.jasperreports.engine.JRVariable;
+import net.sf.jasperreports.engine.ParameterContributor;
 import net.sf.jasperreports.engine.ReturnValue;
 import net.sf.jasperreports.engine.VariableReturnValue;
 import net.sf.jasperreports.engine.type.IncrementTypeEnum;
@@ -78,6 +82,8 @@ public class JRFillDatasetRun implements JRDatasetRun
 	private FillReturnValues returnValues;
 	private FillReturnValues.SourceContext returnValuesContext;
 	
+	private DatasetRunPrefetcher.PrefetchedQuery prefetchedQuery;
+	
 	/**
 	 * Construct an instance for a dataset run.
 	 * 
@@ -242,6 +248,23 @@ public class JRFillDatasetRun implements JRDatasetRun
 
 			copyConnectionParameter(parameterValues);
 			
+			if (prefetchedQuery != null)
+			{
+				if (prefetchedQuery.matches(parameterValues))
+				{
+					if (log.isDebugEnabled())
+					{
+						log.debug("using prefetched query for dataset " + dataset.getName());
+					}
+					
+					dataset.setDatasourceParameterValue(parameterValues, prefetchedQuery.getDataSource());
+				}
+				else
+				{
+					disposePrefetchedQuery();
+				}
+			}
+			
 			dataset.filterElementDatasets(elementDataset);
 			dataset.initCalculator();
 			dataset.setParameterValues(parameterValues);
@@ -255,11 +278,166 @@ public class JRFillDatasetRun implements JRDatasetRun
 			dataset.closeDatasource();
 			dataset.disposeParameterContributors();
 			dataset.restoreElementDatasets();
+			disposePrefetchedQuery();
 		}
 		
 		copyReturnValues();
 	}
 
+	/**
+	 * Determines whether the query of the dataset run can be executed ahead of time, 
+	 * i.e. whether the dataset has a query and the dataset run parameters only depend
+	 * on the report parameters.
+	 * 
+	 * @return whether the dataset query can be prefetched
+	 * @see DatasetRunPrefetcher
+	 */
+	protected boolean isPrefetchable()
+	{
+		if (dataSourceExpression != null || dataset.getQuery() == null
+				|| expressionEvaluator.getFillDataset() != filler.mainDataset)
+		{
+			return false;
+		}
+		
+		String prefetchProp = JRPropertiesUtil.getOwnProperty(this, DatasetRunPrefetcher.PROPERTY_PREFETCH);
+		if (!JRPropertiesUtil.asBoolean(prefetchProp, true))
+		{
+			return false;
+		}
+		
+		if (!dependsOnlyOnParameters(parametersMapExpression)
+				|| !dependsOnlyOnParameters(connectionExpression))
+		{
+			return false;
+		}
+		
+		if (parameters != null)
+		{
+			for (JRDatasetParameter parameter : parameters)
+			{
+				if (!dependsOnlyOnParameters(parameter.getExpression()))
+				{
+					return false;
+				}
+			}
+		}
+		
+		return true;
+	}
+	
+	private static boolean dependsOnlyOnParameters(JRExpression expression)
+	{
+		JRExpressionChunk[] chunks = expression == null ? null : expression.getChunks();
+		if (chunks != null)
+		{
+			for (JRExpressionChunk chunk : chunks)
+			{
+				switch (chunk.getType())
+				{
+					case JRExpressionChunk.TYPE_TEXT:
+					case JRExpressionChunk.TYPE_PARAMETER:
+					case JRExpressionChunk.TYPE_RESOURCE:
+						break;
+					default:
+						return false;
+				}
+			}
+		}
+		return true;
+	}
+	
+	/**
+	 * Evaluates the dataset run parameters and starts the execution of the dataset query.
+	 * 
+	 * @param executor the executor used for the query execution
+	 * @return whether the query execution was started
+	 * @throws JRException
+	 * @see #isPrefetchable()
+	 */
+	protected boolean prefetch(ExecutorService executor) throws JRException
+	{
+		Map<String,Object> parameterValues = 
+			JRFillSubreport.getParameterValues(
+				filler,
+				expressionEvaluator,
+				parametersMapExpression, 
+				parameters, 
+				JRExpression.EVALUATION_DEFAULT, 
+				false, 
+				dataset.getResourceBundle() != null,//hasResourceBundle
+				false//hasFormatFactory
+				);
+		
+		if (connectionExpression != null)
+		{
+			Connection connection = (Connection) expressionEvaluator.evaluate(connectionExpression, JRExpression.EVALUATION_DEFAULT);
+			dataset.setConnectionParameterValue(parameterValues, connection);
+		}
+
+		copyConnectionParameter(parameterValues);
+		
+		Map<String,Object> runParameterValues = new HashMap<>(parameterValues);
+		boolean prefetched = false;
+		try
+		{
+			dataset.setCacheSkipped(true);
+			dataset.initCalculator();
+			dataset.setParameterValues(parameterValues);
+			
+			List<ParameterContributor> contributors = dataset.detachParameterContributors();
+			if (connectionExpression == null && dataset.getParameterValue(JRParameter.REPORT_DATA_SOURCE) != null)
+			{
+				// the data source is provided as parameter value, the query would not be used
+				disposeContributors(contributors);
+			}
+			else
+			{
+				try
+				{
+					prefetchedQuery = new DatasetRunPrefetcher.PrefetchedQuery(executor, dataset, 
+							runParameterValues, dataset.copyParametersMap(), contributors);
+					prefetched = true;
+				}
+				finally
+				{
+					if (!prefetched)
+					{
+						disposeContributors(contributors);
+					}
+				}
+			}
+		}
+		finally
+		{
+			dataset.reset();
+		}
+		return prefetched;
+	}
+	
+	private static void disposeContributors(List<ParameterContributor> contributors)
+	{
+		if (contributors != null)
+		{
+			for (ParameterContributor contributor : contributors)
+			{
+				contributor.dispose();
+			}
+		}
+	}
+	
+	/**
+	 * Releases the query prefetched for the dataset run, if any.
+	 */
+	protected void disposePrefetchedQuery()
+	{
+		if (prefetchedQuery != null)
+		{
+			prefetchedQuery.dispose();
+			prefetchedQuery = null;
+		}
+	}
+
 	protected void saveReturnVariables()
 	{
 		if (returnValues != null)
@@ -275,11 +275,18 @@ public abstract class JRFillElementContainer extends JRFillElementGroup implemen
 			JRElement[] allElements = getElements();
 			if (allElements != null && allElements.length > 0)
 			{
+				FillProfiler profiler = filler.getFillContext().getProfiler();
 				for(int i = 0; i < allElements.length; i++)
 				{
 					JRFillElement element = (JRFillElement)allElements[i];
 					element.setCurrentEvaluation(evaluation);
+					
+					long start = profiler == null ? 0 : profiler.start();
 					element.evaluate(evaluation);
+					if (profiler != null)
+					{
+						profiler.elementEvaluated(element, start);
+					}
 				}
 			}
 		//}
@@ -343,15 +350,21 @@ public abstract class JRFillElementContainer extends JRFillElementGroup implemen
 
 		if (ySortedElements != null && ySortedElements.length > 0)
 		{
+			FillProfiler profiler = filler.getFillContext().getProfiler();
 			for (JRFillElement element : ySortedElements)
 			{
-				currentOverflowWithElements = 
+				long start = profiler == null ? 0 : profiler.start();
+				boolean elementOverflow = 
 					element.prepare(
 						availableHeight + getElementFirstY(element),
 						isOverflow,
 						isOverflowAllowed
-						) 
-					|| currentOverflowWithElements;
+						);
+				if (profiler != null)
+				{
+					profiler.elementPrepared(element, start);
+				}
+				currentOverflowWithElements = elementOverflow || currentOverflowWithElements;
 				
 				// it does not seem to make sense for elements that do not print because of their isToPrint() returning false,
 				// to push other dependent elements, but it was always like that; furthermore, such disappearing elements are pushed by 
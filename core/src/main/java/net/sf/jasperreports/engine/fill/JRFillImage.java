@@ -511,7 +511,18 @@ public class JRFillImage extends JRFillGraphicElement implements JRImage
 							}
 							else
 							{
-								newRenderer = RendererUtil.getInstance(repositoryContext).getNonLazyRenderable(absoluteLocation, getOnErrorType());
+								newRenderer = isUsingCache ? filler.fillContext.getSharedResource(
+										FillResourceCache.ResourceType.IMAGE, resourceInfo, getOnErrorType()) : null;
+								if (newRenderer == null)
+								{
+									newRenderer = RendererUtil.getInstance(repositoryContext).getNonLazyRenderable(absoluteLocation, getOnErrorType());
+									if (isUsingCache)
+									{
+										newRenderer = filler.fillContext.registerSharedResource(
+												FillResourceCache.ResourceType.IMAGE, resourceInfo, getOnErrorType(), newRenderer);
+									}
+								}
+								
 								if (isUsingCache)
 								{
 									newRenderer = filler.fillContext.registerLoadedRenderer(absoluteKey, newRenderer);
@@ -63,6 +63,18 @@ public class JRFillParameter implements JRValueParameter
 	}
 
 
+	/**
+	 * Creates a copy of a parameter holding the current parameter value.
+	 * 
+	 * @param parameter the parameter to copy
+	 */
+	protected JRFillParameter(JRFillParameter parameter)
+	{
+		parent = parameter.parent;
+		value = parameter.value;
+	}
+
+
 	@Override
 	public String getName()
 	{
@@ -135,8 +135,15 @@ public class JRFillReportTemplate implements JRReportTemplate
 					}
 					else
 					{
-						JRTemplate template = JRXmlTemplateLoader.getInstance(repositoryContext).loadTemplate(resourceLocation);
-						templateSource = ReportTemplateSource.of(template, resourceInfo);
+						templateSource = filler.fillContext.getSharedResource(
+								FillResourceCache.ResourceType.TEMPLATE, resourceInfo, null);
+						if (templateSource == null)
+						{
+							JRTemplate template = JRXmlTemplateLoader.getInstance(repositoryContext).loadTemplate(resourceLocation);
+							templateSource = ReportTemplateSource.of(template, resourceInfo);
+							templateSource = filler.fillContext.registerSharedResource(
+									FillResourceCache.ResourceType.TEMPLATE, resourceInfo, null, templateSource);
+						}
 						templateSource = filler.fillContext.registerLoadedTemplate(absoluteKey, templateSource);
 					}
 				}
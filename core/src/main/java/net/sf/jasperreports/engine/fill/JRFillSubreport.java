@@ -417,7 +417,21 @@ public class JRFillSubreport extends JRFillElement implements JRSubreport
 						}
 						else
 						{
-							report = loadReportSource(reportLocation, contextLocation, filler);
+							// only the compiled report is shared across fills, the report source 
+							// is created for the repository context of the current fill
+							JasperReport jasperReport = isUsingCache ? filler.fillContext.getSharedResource(
+									FillResourceCache.ResourceType.REPORT, resourceInfo, null) : null;
+							if (jasperReport == null)
+							{
+								jasperReport = loadReport(reportLocation, filler);
+								if (isUsingCache)
+								{
+									jasperReport = filler.fillContext.registerSharedResource(
+											FillResourceCache.ResourceType.REPORT, resourceInfo, null, jasperReport);
+								}
+							}
+							report = createReportSource(jasperReport, reportLocation, contextLocation, filler);
+							
 							if (isUsingCache)
 							{
 								report = filler.fillContext.registerLoadedSubreport(absolutePathKey, report);
@@ -444,15 +458,21 @@ public class JRFillSubreport extends JRFillElement implements JRSubreport
 			BaseReportFiller filler) throws JRException
 	{
 		JasperReport jasperReport = loadReport(reportSource, filler);
+		return createReportSource(jasperReport, 
+				reportSource instanceof String ? (String) reportSource : null, 
+				contextLocation, filler);
+	}
+	
+	protected static JasperReportSource createReportSource(JasperReport jasperReport, String reportLocation, 
+			String contextLocation, BaseReportFiller filler)
+	{
 		JasperReportSource report = null;
 		if (jasperReport != null)
 		{
 			RepositoryResourceContext currentContext = filler.getRepositoryContext().getResourceContext();
 			RepositoryResourceContext reportContext = SimpleRepositoryResourceContext.of(contextLocation,
 					currentContext == null ? null : currentContext.getDerivedContextFallback());
-			report = SimpleJasperReportSource.from(jasperReport, 
-					reportSource instanceof String ? (String) reportSource : null, 
-					reportContext);
+			report = SimpleJasperReportSource.from(jasperReport, reportLocation, reportContext);
 		}
 		return report;
 	}
@@ -609,6 +629,12 @@ public class JRFillSubreport extends JRFillElement implements JRSubreport
 
 	
 	protected void initSubreportFiller(DatasetExpressionEvaluator evaluator) throws JRException
+	{
+		initSubreportFiller(evaluator, getRunnerFactory());
+	}
+
+	protected void initSubreportFiller(DatasetExpressionEvaluator evaluator, 
+			JRSubreportRunnerFactory runnerFactory) throws JRException
 	{
 		JasperReport jasperReport = getReport();
 		if (log.isDebugEnabled())
@@ -645,7 +671,7 @@ public class JRFillSubreport extends JRFillElement implements JRSubreport
 		
 		subreportFiller.setReorderBandElements(isReorderBandElements());
 
-		runner = getRunnerFactory().createSubreportRunner(this, subreportFiller);
+		runner = runnerFactory.createSubreportRunner(this, subreportFiller);
 		subFillerParent.setSubreportRunner(runner);
 		
 		subreportFiller.mainDataset.setFillPosition(datasetPosition);
@@ -1028,6 +1054,11 @@ public class JRFillSubreport extends JRFillElement implements JRSubreport
 		
 		initSubreportFiller(null);//FIXME used cached evaluator
 
+		rewindDataSource();
+	}
+
+	protected void rewindDataSource() throws JRException
+	{
 		if (getConnectionExpression() == null && dataSource != null)
 		{
 			if(dataSource instanceof JRRewindableDataSource)
@@ -1048,6 +1079,55 @@ public class JRFillSubreport extends JRFillElement implements JRSubreport
 	}
 
 
+	/**
+	 * Determines whether the subreport fill can be discarded and started again from the beginning.
+	 * 
+	 * <p>
+	 * This is the case when the subreport data is produced by a query or by a rewindable
+	 * data source, and when the fill data is not recorded.
+	 * </p>
+	 * 
+	 * @return whether the subreport fill can be restarted
+	 * @see #restartSubreportFill(JRSubreportRunnerFactory)
+	 */
+	protected boolean isRestartable()
+	{
+		return subreportFiller != null
+				&& (getConnectionExpression() != null || dataSource == null 
+						|| dataSource instanceof JRRewindableDataSource)
+				&& filler.fillContext.getDataRecorder() == null;
+	}
+
+
+	/**
+	 * Discards the current subreport fill and starts it again from the beginning using a subreport
+	 * runner created by a specific factory.
+	 * 
+	 * @param runnerFactory the factory used to create the subreport runner
+	 * @return the result of the subreport run
+	 * @throws JRException
+	 * @see #isRestartable()
+	 */
+	protected JRSubreportRunResult restartSubreportFill(JRSubreportRunnerFactory runnerFactory) throws JRException
+	{
+		if (log.isDebugEnabled())
+		{
+			log.debug("Fill " + filler.fillerId + ": restarting " + subreportFiller.fillerId);
+		}
+		
+		cancelSubreportFill();
+		
+		initSubreportFiller(loadReportEvaluator(), runnerFactory);
+		
+		rewindDataSource();
+		
+		synchronized (subreportFiller)
+		{
+			return runner.start();
+		}
+	}
+
+
 	protected void cancelSubreportFill() throws JRException
 	{
 		if (log.isDebugEnabled())
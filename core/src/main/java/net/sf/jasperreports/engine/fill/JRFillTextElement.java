@@ -147,6 +147,8 @@ public abstract class JRFillTextElement extends JRFillElement implements JRTextE
 	private boolean dynamicScaleFontStepLimit;
 	private Integer defaultCutTextMaxHeight;
 	private boolean dynamicCutTextMaxHeight;
+	private Boolean measureCacheEnabled;
+	private TextMeasureCache measureCache;
 	
 	protected final boolean keepAverageCharWidth;
 
@@ -189,6 +191,7 @@ public abstract class JRFillTextElement extends JRFillElement implements JRTextE
 		this.dynamicScaleFontStepLimit = textElement.dynamicScaleFontStepLimit;
 		this.defaultCutTextMaxHeight = textElement.defaultCutTextMaxHeight;
 		this.dynamicCutTextMaxHeight = textElement.dynamicCutTextMaxHeight;
+		this.measureCacheEnabled = textElement.measureCacheEnabled;
 
 		this.keepAverageCharWidth = textElement.keepAverageCharWidth;
 
@@ -653,6 +656,65 @@ public abstract class JRFillTextElement extends JRFillElement implements JRTextE
 	}
 
 
+	/**
+	 * Returns the key under which the text measuring result is cached, or <code>null</code>
+	 * if the text is not to be measured via the cache.
+	 * 
+	 * @see TextMeasureCache
+	 */
+	protected TextMeasureCache.MeasureKey measureCacheKey(JRStyledText processedText, boolean canOverflow)
+	{
+		if (measureCacheEnabled == null)
+		{
+			measureCacheEnabled = filler.getPropertiesUtil().getBooleanProperty( 
+					TextMeasureCache.PROPERTY_ENABLED, false,
+					parent, filler.getMainDataset());
+		}
+		
+		if (!measureCacheEnabled
+				|| !(textMeasurer instanceof TextMeasurer)
+				|| providerStyle != null
+				|| !propertyExpressions.isEmpty()
+				|| scaleFontToFit()
+				|| !JRCommonText.MARKUP_NONE.equals(getMarkup()))
+		{
+			return null;
+		}
+		
+		if (measureCache == null)
+		{
+			measureCache = TextMeasureCache.getInstance(filler.getFillContext());
+		}
+		
+		return new TextMeasureCache.MeasureKey(parent, getStyle(), processedText.getText(), 
+				filler.getLocale(), getWidth(), getHeight(), getTextEnd(), !isCutParagraphOverflow, canOverflow);
+	}
+
+	protected JRMeasuredText measureText(
+		JRStyledText styledText,
+		int remainingTextStart,
+		int availableStretchHeight,
+		boolean indentFirstLine,
+		boolean canOverflow
+		)
+	{
+		FillProfiler profiler = filler.getFillContext().getProfiler();
+		long start = profiler == null ? 0 : profiler.start();
+		JRMeasuredText measuredText = textMeasurer.measure(
+			styledText,
+			remainingTextStart,
+			availableStretchHeight,
+			indentFirstLine,
+			canOverflow
+			);
+		if (profiler != null)
+		{
+			profiler.textMeasured(this, start);
+		}
+		return measuredText;
+	}
+
+
 	/**
 	 *
 	 */
@@ -677,13 +739,24 @@ public abstract class JRFillTextElement extends JRFillElement implements JRTextE
 
 		boolean canOverflow = canOverflow();
 		JRStyledText processedText = getProcessedStyledText();
-		JRMeasuredText measuredText = textMeasurer.measure(
-			processedText,
-			getTextEnd(),
-			availableStretchHeight,
-			!isCutParagraphOverflow, // indentFirstLine
-			canOverflow
-			);
+		TextMeasureCache.MeasureKey measureKey = measureCacheKey(processedText, canOverflow);
+		JRMeasuredText measuredText = measureKey == null ? null : measureCache.get(measureKey, availableStretchHeight);
+		if (measuredText == null)
+		{
+			measuredText = measureText(
+				processedText,
+				getTextEnd(),
+				availableStretchHeight,
+				!isCutParagraphOverflow, // indentFirstLine
+				canOverflow
+				);
+			
+			if (measureKey != null)
+			{
+				measureCache.put(measureKey, availableStretchHeight, measuredText, 
+						measuredText.getTextOffset() >= fullTextLength);
+			}
+		}
 		
 		if (
 			scaleFontToFit()
@@ -737,7 +810,7 @@ public abstract class JRFillTextElement extends JRFillElement implements JRTextE
 					&& (newFontSizeMaxDiff != scaleFontStepLimit || deltaSign * newFontSizeMaxDiff != - oldDeltaSign * oldFontSizeMaxDiff);
 				if (keepMeasuring)
 				{
-					tmpMeasuredText = textMeasurer.measure(
+					tmpMeasuredText = measureText(
 						tmpProcessedText,
 						getTextEnd(),
 						availableStretchHeight,
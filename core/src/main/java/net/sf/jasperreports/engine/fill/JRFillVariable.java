@@ -23,6 +23,7 @@
  */
 package net.sf.jasperreports.engine.fill;
 
+import net.sf.jasperreports.engine.JRException;
 import net.sf.jasperreports.engine.JRExpression;
 import net.sf.jasperreports.engine.JRVariable;
 import net.sf.jasperreports.engine.type.CalculationEnum;
@@ -66,6 +67,8 @@ public class JRFillVariable implements JRVariable, JRCalculable
 	 *
 	 */
 	private JRIncrementer incrementer;
+	
+	private final PrimitiveAccumulator accumulator;
 
 
 	/**
@@ -84,6 +87,8 @@ public class JRFillVariable implements JRVariable, JRCalculable
 		incrementGroup = variable.getIncrementGroup();
 		
 		helperVariables = new JRFillVariable[JRCalculable.HELPER_SIZE];
+		
+		accumulator = PrimitiveAccumulator.create(variable);
 	}
 
 	protected JRVariable getParent()
@@ -100,6 +105,11 @@ public class JRFillVariable implements JRVariable, JRCalculable
 		value = null;
 		isInitialized = false;
 		savedValue = null;
+		
+		if (accumulator != null)
+		{
+			accumulator.reset();
+		}
 	}
 
 
@@ -197,6 +207,10 @@ public class JRFillVariable implements JRVariable, JRCalculable
 	 */
 	public Object getOldValue()
 	{
+		if (accumulator != null)
+		{
+			return accumulator.get(PrimitiveAccumulator.OLD_VALUE);
+		}
 		return oldValue;
 	}
 		
@@ -205,7 +219,14 @@ public class JRFillVariable implements JRVariable, JRCalculable
 	 */
 	public void setOldValue(Object oldValue)
 	{
-		this.oldValue = oldValue;
+		if (accumulator != null)
+		{
+			accumulator.set(PrimitiveAccumulator.OLD_VALUE, oldValue);
+		}
+		else
+		{
+			this.oldValue = oldValue;
+		}
 	}
 
 	/**
@@ -213,6 +234,10 @@ public class JRFillVariable implements JRVariable, JRCalculable
 	 */
 	public Object getEstimatedValue()
 	{
+		if (accumulator != null)
+		{
+			return accumulator.get(PrimitiveAccumulator.ESTIMATED_VALUE);
+		}
 		return estimatedValue;
 	}
 		
@@ -221,12 +246,23 @@ public class JRFillVariable implements JRVariable, JRCalculable
 	 */
 	public void setEstimatedValue(Object estimatedValue)
 	{
-		this.estimatedValue = estimatedValue;
+		if (accumulator != null)
+		{
+			accumulator.set(PrimitiveAccumulator.ESTIMATED_VALUE, estimatedValue);
+		}
+		else
+		{
+			this.estimatedValue = estimatedValue;
+		}
 	}
 
 	@Override
 	public Object getIncrementedValue()
 	{
+		if (accumulator != null)
+		{
+			return accumulator.get(PrimitiveAccumulator.INCREMENTED_VALUE);
+		}
 		return incrementedValue;
 	}
 		
@@ -235,7 +271,14 @@ public class JRFillVariable implements JRVariable, JRCalculable
 	 */
 	public void setIncrementedValue(Object incrementedValue)
 	{
-		this.incrementedValue = incrementedValue;
+		if (accumulator != null)
+		{
+			accumulator.set(PrimitiveAccumulator.INCREMENTED_VALUE, incrementedValue);
+		}
+		else
+		{
+			this.incrementedValue = incrementedValue;
+		}
 	}
 
 	/**
@@ -243,6 +286,10 @@ public class JRFillVariable implements JRVariable, JRCalculable
 	 */
 	public Object getPreviousIncrementedValue()
 	{
+		if (accumulator != null)
+		{
+			return accumulator.get(PrimitiveAccumulator.PREVIOUS_INCREMENTED_VALUE);
+		}
 		return previousIncrementedValue;
 	}
 		
@@ -251,12 +298,23 @@ public class JRFillVariable implements JRVariable, JRCalculable
 	 */
 	public void setPreviousIncrementedValue(Object previousIncrementedValue)
 	{
-		this.previousIncrementedValue = previousIncrementedValue;
+		if (accumulator != null)
+		{
+			accumulator.set(PrimitiveAccumulator.PREVIOUS_INCREMENTED_VALUE, previousIncrementedValue);
+		}
+		else
+		{
+			this.previousIncrementedValue = previousIncrementedValue;
+		}
 	}
 
 	@Override
 	public Object getValue()
 	{
+		if (accumulator != null)
+		{
+			return accumulator.get(PrimitiveAccumulator.VALUE);
+		}
 		return value;
 	}
 		
@@ -265,7 +323,14 @@ public class JRFillVariable implements JRVariable, JRCalculable
 	 */
 	public void setValue(Object value)
 	{
-		this.value = value;
+		if (accumulator != null)
+		{
+			accumulator.set(PrimitiveAccumulator.VALUE, value);
+		}
+		else
+		{
+			this.value = value;
+		}
 	}
 
 	@Override
@@ -305,6 +370,114 @@ public class JRFillVariable implements JRVariable, JRCalculable
 		
 		return incrementer;
 	}
+	
+	
+	protected PrimitiveAccumulator getAccumulator()
+	{
+		return accumulator;
+	}
+	
+	
+	/**
+	 * Increments the variable with an expression value and sets the result as the variable value.
+	 * 
+	 * @param expressionValue the value of the variable expression
+	 * @throws JRException
+	 */
+	protected void calculateValue(Object expressionValue) throws JRException
+	{
+		if (accumulator == null 
+				|| !accumulator.increment(this, PrimitiveAccumulator.VALUE, expressionValue))
+		{
+			Object newValue = getIncrementer().increment(this, expressionValue, AbstractValueProvider.getCurrentValueProvider());
+			setValue(newValue);
+		}
+	}
+	
+	
+	/**
+	 * Increments the variable with an estimated expression value and sets the result as the estimated value.
+	 * 
+	 * @param expressionValue the estimated value of the variable expression
+	 * @throws JRException
+	 */
+	protected void estimateValue(Object expressionValue) throws JRException
+	{
+		if (accumulator == null 
+				|| !accumulator.increment(this, PrimitiveAccumulator.ESTIMATED_VALUE, expressionValue))
+		{
+			Object newValue = getIncrementer().increment(this, expressionValue, AbstractValueProvider.getEstimatedValueProvider());
+			setEstimatedValue(newValue);
+		}
+	}
+	
+	
+	/**
+	 * Sets the current value as the incremented value.
+	 */
+	protected void updateIncrementedValue()
+	{
+		if (accumulator != null)
+		{
+			accumulator.copy(PrimitiveAccumulator.VALUE, PrimitiveAccumulator.INCREMENTED_VALUE);
+		}
+		else
+		{
+			incrementedValue = value;
+		}
+	}
+	
+	
+	/**
+	 * Sets the incremented value as the previous incremented value.
+	 */
+	protected void updatePreviousIncrementedValue()
+	{
+		if (accumulator != null)
+		{
+			accumulator.copy(PrimitiveAccumulator.INCREMENTED_VALUE, PrimitiveAccumulator.PREVIOUS_INCREMENTED_VALUE);
+		}
+		else
+		{
+			previousIncrementedValue = incrementedValue;
+		}
+	}
+	
+	
+	/**
+	 * Shifts the current value to the old value, and the old value to the previous old value.
+	 */
+	protected void updateOldValue()
+	{
+		if (accumulator != null)
+		{
+			accumulator.copy(PrimitiveAccumulator.OLD_VALUE, PrimitiveAccumulator.PREVIOUS_OLD_VALUE);
+			accumulator.copy(PrimitiveAccumulator.VALUE, PrimitiveAccumulator.OLD_VALUE);
+		}
+		else
+		{
+			previousOldValue = oldValue;
+			oldValue = value;
+		}
+	}
+	
+	
+	/**
+	 * Reverts the current value to the old value, and the old value to the previous old value.
+	 */
+	protected void revertToOldValue()
+	{
+		if (accumulator != null)
+		{
+			accumulator.copy(PrimitiveAccumulator.OLD_VALUE, PrimitiveAccumulator.VALUE);
+			accumulator.copy(PrimitiveAccumulator.PREVIOUS_OLD_VALUE, PrimitiveAccumulator.OLD_VALUE);
+		}
+		else
+		{
+			value = oldValue;
+			oldValue = previousOldValue;
+		}
+	}
 
 	
 	/**
@@ -341,13 +514,13 @@ public class JRFillVariable implements JRVariable, JRCalculable
 		switch (evaluation)
 		{
 			case JRExpression.EVALUATION_OLD:
-				returnValue = oldValue;
+				returnValue = getOldValue();
 				break;
 			case JRExpression.EVALUATION_ESTIMATED:
-				returnValue = estimatedValue;
+				returnValue = getEstimatedValue();
 				break;
 			default:
-				returnValue = value;
+				returnValue = getValue();
 				break;
 		}
 		return returnValue;
@@ -358,16 +531,16 @@ public class JRFillVariable implements JRVariable, JRCalculable
 		switch (evaluation)
 		{
 			case JRExpression.EVALUATION_OLD:
-				savedValue = oldValue;
-				oldValue = newValue;
+				savedValue = getOldValue();
+				setOldValue(newValue);
 				break;
 			case JRExpression.EVALUATION_ESTIMATED:
-				savedValue = estimatedValue;
-				estimatedValue = newValue;
+				savedValue = getEstimatedValue();
+				setEstimatedValue(newValue);
 				break;
 			default:
-				savedValue = value;
-				value = newValue;
+				savedValue = getValue();
+				setValue(newValue);
 				break;
 		}
 	}
@@ -377,13 +550,13 @@ public class JRFillVariable implements JRVariable, JRCalculable
 		switch (evaluation)
 		{
 			case JRExpression.EVALUATION_OLD:
-				oldValue = savedValue;
+				setOldValue(savedValue);
 				break;
 			case JRExpression.EVALUATION_ESTIMATED:
-				estimatedValue = savedValue;
+				setEstimatedValue(savedValue);
 				break;
 			default:
-				value = savedValue;
+				setValue(savedValue);
 				break;
 		}
 		savedValue = null;
@@ -393,6 +566,10 @@ public class JRFillVariable implements JRVariable, JRCalculable
 	
 	public Object getPreviousOldValue()
 	{
+		if (accumulator != null)
+		{
+			return accumulator.get(PrimitiveAccumulator.PREVIOUS_OLD_VALUE);
+		}
 		return previousOldValue;
 	}
 
@@ -400,7 +577,14 @@ public class JRFillVariable implements JRVariable, JRCalculable
 	
 	public void setPreviousOldValue(Object previousOldValue)
 	{
-		this.previousOldValue = previousOldValue;
+		if (accumulator != null)
+		{
+			accumulator.set(PrimitiveAccumulator.PREVIOUS_OLD_VALUE, previousOldValue);
+		}
+		else
+		{
+			this.previousOldValue = previousOldValue;
+		}
 	}
 
 	@Override
@@ -32,6 +32,8 @@ package net.sf.jasperreports.engine.fill;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
@@ -40,10 +42,17 @@ import java.util.zip.GZIPOutputStream;
 
 import net.sf.jasperreports.engine.JRRuntimeException;
 import net.sf.jasperreports.engine.JRVirtualizable;
+import net.sf.jasperreports.engine.util.StreamCompression;
 
 /**
  * GZips the pages that it doesn't need, but keeps them in memory.
  * 
+ * <p>
+ * A different compression can be used for the pages by passing a {@link StreamCompression}
+ * implementation, such as {@link net.sf.jasperreports.engine.util.FastBlockStreamCompression}
+ * which is faster than GZIP at the cost of a lower compression ratio.
+ * </p>
+ * 
  * @author John Bindel
  */
 public class JRGzipVirtualizer extends JRAbstractLRUVirtualizer
@@ -51,6 +60,8 @@ public class JRGzipVirtualizer extends JRAbstractLRUVirtualizer
 	public static final String EXCEPTION_MESSAGE_KEY_NO_DATA_FOUND = "fill.virtualizer.no.data.found";
 	
 	private final Map<String,byte[]> zippedData;
+	
+	private final StreamCompression compression;
 
 	/**
 	 * @param maxSize
@@ -58,8 +69,21 @@ public class JRGzipVirtualizer extends JRAbstractLRUVirtualizer
 	 *            cache.
 	 */
 	public JRGzipVirtualizer(int maxSize) {
+		this(maxSize, null);
+	}
+
+	/**
+	 * @param maxSize
+	 *            the maximum size (in JRVirtualizable objects) of the paged in
+	 *            cache.
+	 * @param compression
+	 *            the compression to apply to the pages, if <code>null</code> 
+	 *            GZIP is used
+	 */
+	public JRGzipVirtualizer(int maxSize, StreamCompression compression) {
 		super(maxSize);
 		this.zippedData = Collections.synchronizedMap(new HashMap<String,byte[]>());
+		this.compression = compression;
 	}
 
 	@Override
@@ -70,22 +94,20 @@ public class JRGzipVirtualizer extends JRAbstractLRUVirtualizer
 	@Override
 	protected void pageOut(JRVirtualizable o) throws IOException {
 		if (!zippedData.containsKey(o.getUID())) {
-			GZIPOutputStream gos = null;
+			ByteArrayOutputStream baos = new ByteArrayOutputStream(3000);
+			OutputStream gos = null;
 			try {
-				ByteArrayOutputStream baos = new ByteArrayOutputStream(3000);
-				gos = new GZIPOutputStream(baos);
+				gos = compression == null ? new GZIPOutputStream(baos) : compression.compressedOutput(baos);
 				writeData(o, gos);
-				gos.finish();
-				gos.flush();
-
-				byte[] data = baos.toByteArray();
-				zippedData.put(o.getUID(), data);
 			}
 			finally {
 				if (gos != null) {
 					gos.close();
 				}
 			}
+
+			byte[] data = baos.toByteArray();
+			zippedData.put(o.getUID(), data);
 		}
 		else {
 			if (!isReadOnly(o)) {
@@ -98,7 +120,7 @@ public class JRGzipVirtualizer extends JRAbstractLRUVirtualizer
 
 	@Override
 	protected void pageIn(JRVirtualizable o) throws IOException {
-		GZIPInputStream gis = null;
+		InputStream gis = null;
 		try {
 			byte[] data = zippedData.get(o.getUID());
 			if (data == null) {
@@ -108,7 +130,7 @@ public class JRGzipVirtualizer extends JRAbstractLRUVirtualizer
 						new Object[]{o.getUID()});
 			}
 			ByteArrayInputStream bais = new ByteArrayInputStream(data);
-			gis = new GZIPInputStream(bais);
+			gis = compression == null ? new GZIPInputStream(bais) : compression.uncompressedInput(bais);
 			readData(o, gis);
 		}
 		finally {
@@ -123,6 +145,15 @@ public class JRGzipVirtualizer extends JRAbstractLRUVirtualizer
 		}
 	}
 
+	/**
+	 * Returns the compression applied to the pages.
+	 * 
+	 * @return the page compression, <code>null</code> if GZIP is used
+	 */
+	public StreamCompression getCompression() {
+		return compression;
+	}
+
 	@Override
 	public void cleanup()
 	{
@@ -0,0 +1,181 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2025 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.fill;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.LongAdder;
+
+import net.sf.jasperreports.engine.JRVirtualizable;
+import net.sf.jasperreports.engine.util.OffHeapVirtualizerStore;
+import net.sf.jasperreports.engine.util.StreamCompression;
+import net.sf.jasperreports.engine.util.SwapFile;
+
+
+/**
+ * A virtualizer that keeps the serialized virtual data in a bounded off-heap memory arena,
+ * and uses a swap file for the data that does not fit in the arena.
+ * <p>
+ * Objects evicted from the paged in cache are first stored off-heap, and only the oldest
+ * off-heap data is moved to the swap file when the arena fills up.
+ * <p>
+ * The virtualizer counts the hits and spills of each tier: requests for objects that are
+ * still paged in are heap hits, and paged out objects are heap spills.  The off-heap tier
+ * counters are kept by the {@link #getOffHeapStore() store}.
+ * 
+ * @author agent (agent@local)
+ * @see OffHeapVirtualizerStore
+ */
+public class JROffHeapVirtualizer extends StoreVirtualizer
+{
+	
+	private final OffHeapVirtualizerStore offHeapStore;
+	
+	private final LongAdder requestCount = new LongAdder();
+	private final LongAdder heapMissCount = new LongAdder();
+	private final LongAdder heapSpillCount = new LongAdder();
+	
+	/**
+	 * Creates an off-heap virtualizer.
+	 * <p>
+	 * The virtualizer will be considered the owner of the swap file.
+	 * 
+	 * @param maxSize the maximum size (in JRVirtualizable objects) of the paged in cache.
+	 * @param offHeapSize the size in bytes of the off-heap arena
+	 * @param swap the swap file to use for the data that does not fit in the off-heap arena
+	 */
+	public JROffHeapVirtualizer(int maxSize, int offHeapSize, SwapFile swap)
+	{
+		this(maxSize, offHeapSize, swap, true, null);
+	}
+	
+	/**
+	 * Creates an off-heap virtualizer.
+	 * 
+	 * @param maxSize the maximum size (in JRVirtualizable objects) of the paged in cache.
+	 * @param offHeapSize the size in bytes of the off-heap arena
+	 * @param swap the swap file to use for the data that does not fit in the off-heap arena
+	 * @param swapOwner whether the virtualizer is the owner (single user) of the swap file.
+	 * If <code>true</code>, the virtualizer will dispose the swap file on
+	 * {@link #cleanup() cleanup}.
+	 * @param compression stream compression to apply to serialized data
+	 */
+	public JROffHeapVirtualizer(int maxSize, int offHeapSize, SwapFile swap, boolean swapOwner,
+			StreamCompression compression)
+	{
+		this(maxSize, new OffHeapVirtualizerStore(offHeapSize, 4096, swap, swapOwner, compression));
+	}
+	
+	protected JROffHeapVirtualizer(int maxSize, OffHeapVirtualizerStore offHeapStore)
+	{
+		super(maxSize, offHeapStore);
+		
+		this.offHeapStore = offHeapStore;
+	}
+
+	/**
+	 * Returns the store used by the virtualizer, which exposes counters of the objects
+	 * stored and retrieved from the off-heap arena and from the swap file.
+	 * 
+	 * @return the off-heap store
+	 */
+	public OffHeapVirtualizerStore getOffHeapStore()
+	{
+		return offHeapStore;
+	}
+	
+	@Override
+	public void requestData(JRVirtualizable o)
+	{
+		requestCount.increment();
+		super.requestData(o);
+	}
+	
+	@Override
+	protected void pageOut(JRVirtualizable o) throws IOException
+	{
+		super.pageOut(o);
+		heapSpillCount.increment();
+	}
+
+	@Override
+	protected void pageIn(JRVirtualizable o) throws IOException
+	{
+		heapMissCount.increment();
+		super.pageIn(o);
+	}
+
+	/**
+	 * Returns the number of data requests for objects that were paged in.
+	 */
+	public long getHeapHitCount()
+	{
+		return requestCount.sum() - heapMissCount.sum();
+	}
+
+	/**
+	 * Returns the number of data requests for objects that had to be paged in.
+	 */
+	public long getHeapMissCount()
+	{
+		return heapMissCount.sum();
+	}
+
+	/**
+	 * Returns the number of objects paged out from the heap to the off-heap store.
+	 */
+	public long getHeapSpillCount()
+	{
+		return heapSpillCount.sum();
+	}
+
+	/**
+	 * Returns the number of paged in objects that were retrieved from the off-heap arena.
+	 * 
+	 * @see OffHeapVirtualizerStore#getOffHeapRetrieveCount()
+	 */
+	public long getOffHeapHitCount()
+	{
+		return offHeapStore.getOffHeapRetrieveCount();
+	}
+
+	/**
+	 * Returns the number of paged in objects that were read from the swap file.
+	 * 
+	 * @see OffHeapVirtualizerStore#getSwapRetrieveCount()
+	 */
+	public long getOffHeapMissCount()
+	{
+		return offHeapStore.getSwapRetrieveCount();
+	}
+
+	/**
+	 * Returns the number of objects spilled from the off-heap arena to the swap file.
+	 * 
+	 * @see OffHeapVirtualizerStore#getSpillCount()
+	 */
+	public long getOffHeapSpillCount()
+	{
+		return offHeapStore.getSpillCount();
+	}
+}
@@ -23,9 +23,12 @@
  */
 package net.sf.jasperreports.engine.fill;
 
+import net.sf.jasperreports.engine.util.JRSegmentedSwapFile;
 import net.sf.jasperreports.engine.util.JRSwapFile;
 import net.sf.jasperreports.engine.util.StreamCompression;
+import net.sf.jasperreports.engine.util.SwapFile;
 import net.sf.jasperreports.engine.util.SwapFileVirtualizerStore;
+import net.sf.jasperreports.engine.util.WriteBehindSwapFileVirtualizerStore;
 
 
 /**
@@ -76,7 +79,42 @@ public class JRSwapFileVirtualizer extends StoreVirtualizer
 	 */
 	public JRSwapFileVirtualizer(int maxSize, JRSwapFile swap, boolean swapOwner,
 			StreamCompression compression)
+	{
+		this(maxSize, (SwapFile) swap, swapOwner, compression);
+	}
+	
+	/**
+	 * Creates a virtualizer that uses a swap file, such as a {@link JRSegmentedSwapFile segmented swap file}.
+	 * 
+	 * @param maxSize the maximum size (in JRVirtualizable objects) of the paged in cache.
+	 * @param swap the swap file to use for data virtualization
+	 * @param swapOwner whether the virtualizer is the owner (single user) of the swap file.
+	 * If <code>true</code>, the virtualizer will dispose the swap file on
+	 * {@link #cleanup() cleanup}.
+	 * @param compression stream compression to apply to serialized data
+	 */
+	public JRSwapFileVirtualizer(int maxSize, SwapFile swap, boolean swapOwner,
+			StreamCompression compression)
 	{
 		super(maxSize, new SwapFileVirtualizerStore(swap, swapOwner, compression));
 	}
+	
+	/**
+	 * Creates a virtualizer that uses a swap file, writing the data asynchronously.
+	 * 
+	 * @param maxSize the maximum size (in JRVirtualizable objects) of the paged in cache.
+	 * @param swap the swap file to use for data virtualization
+	 * @param swapOwner whether the virtualizer is the owner (single user) of the swap file.
+	 * If <code>true</code>, the virtualizer will dispose the swap file on
+	 * {@link #cleanup() cleanup}.
+	 * @param compression stream compression to apply to serialized data
+	 * @param writeBehindQueueSize the maximum number of serialized objects waiting to be written
+	 * to the swap file by a background thread
+	 * @see WriteBehindSwapFileVirtualizerStore
+	 */
+	public JRSwapFileVirtualizer(int maxSize, SwapFile swap, boolean swapOwner,
+			StreamCompression compression, int writeBehindQueueSize)
+	{
+		super(maxSize, new WriteBehindSwapFileVirtualizerStore(swap, swapOwner, compression, writeBehindQueueSize));
+	}
 }
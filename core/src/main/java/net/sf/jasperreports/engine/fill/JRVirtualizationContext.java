@@ -41,6 +41,8 @@ import org.apache.commons.collections4.map.ReferenceMap;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
+import net.sf.jasperreports.annotations.properties.Property;
+import net.sf.jasperreports.annotations.properties.PropertyScope;
 import net.sf.jasperreports.engine.DefaultJasperReportsContext;
 import net.sf.jasperreports.engine.JRConstants;
 import net.sf.jasperreports.engine.JRPrintElement;
@@ -61,6 +63,8 @@ import net.sf.jasperreports.engine.base.VirtualizableElementList;
 import net.sf.jasperreports.engine.fonts.FontUtil;
 import net.sf.jasperreports.engine.util.DeepPrintElementVisitor;
 import net.sf.jasperreports.engine.util.UniformPrintElementVisitor;
+import net.sf.jasperreports.engine.virtualization.VirtualizationStringDictionary;
+import net.sf.jasperreports.properties.PropertyConstants;
 import net.sf.jasperreports.renderers.Renderable;
 
 /**
@@ -78,6 +82,29 @@ public class JRVirtualizationContext implements Serializable, VirtualizationList
 	
 	private static final Log log = LogFactory.getLog(JRVirtualizationContext.class);
 	
+	/**
+	 * Property that specifies the maximum number of strings kept in the dictionary
+	 * shared by the virtualized objects of a report fill.
+	 * 
+	 * <p>
+	 * Strings that repeat across virtualized pages are written as dictionary indexes
+	 * instead of the full string, which reduces the size of the virtualized data and 
+	 * the number of string instances created when the pages are read back.
+	 * If set to 0, no dictionary is used.
+	 * </p>
+	 * 
+	 * @see VirtualizationStringDictionary
+	 */
+	@Property(
+			category = PropertyConstants.CATEGORY_FILL,
+			defaultValue = "0",
+			scopes = {PropertyScope.CONTEXT},
+			sinceVersion = PropertyConstants.VERSION_7_0_7,
+			valueType = Integer.class
+			)
+	public static final String PROPERTY_STRING_DICTIONARY_SIZE = 
+			JRPropertiesUtil.PROPERTY_PREFIX + "virtualization.string.dictionary.size";
+	
 	private static final ReferenceMap<JasperPrint, JRVirtualizationContext> contexts = 
 		new ReferenceMap<>(
 			ReferenceMap.ReferenceStrength.WEAK, ReferenceMap.ReferenceStrength.WEAK
@@ -96,6 +123,7 @@ public class JRVirtualizationContext implements Serializable, VirtualizationList
 	
 	private transient Set<JRVirtualizationContext> frameContexts;
 	private transient Map<PrintElementId,VirtualizableElementList> virtualizableLists;
+	private transient VirtualizationStringDictionary stringDictionary;
 	
 	private volatile boolean readOnly;
 	private volatile boolean disposed;
@@ -120,6 +148,7 @@ public class JRVirtualizationContext implements Serializable, VirtualizationList
 		cachedRenderers = new ConcurrentHashMap<>(16, 0.75f, 1);
 		cachedTemplates = new ConcurrentHashMap<>(16, 0.75f, 1);
 		virtualizableLists = new ConcurrentHashMap<>(16, 0.75f, 1);
+		stringDictionary = createStringDictionary();
 		
 		subContexts = new ConcurrentHashMap<>(16, 0.75f, 1);
 		subContexts.put(this.id, this);
@@ -146,6 +175,7 @@ public class JRVirtualizationContext implements Serializable, VirtualizationList
 		this.cachedRenderers = parentContext.cachedRenderers;
 		this.cachedTemplates = parentContext.cachedTemplates;
 		this.virtualizableLists = parentContext.virtualizableLists;
+		this.stringDictionary = parentContext.stringDictionary;
 		
 		this.subContexts = new ConcurrentHashMap<>(16, 0.75f, 1);
 		this.subContexts.put(this.id, this);
@@ -166,6 +196,23 @@ public class JRVirtualizationContext implements Serializable, VirtualizationList
 		lock = new ReentrantLock(true);
 	}
 	
+	private VirtualizationStringDictionary createStringDictionary()
+	{
+		int dictionarySize = JRPropertiesUtil.getInstance(jasperReportsContext).getIntegerProperty(
+				PROPERTY_STRING_DICTIONARY_SIZE, 0);
+		if (dictionarySize <= 0)
+		{
+			return null;
+		}
+		
+		if (log.isDebugEnabled())
+		{
+			log.debug("using string dictionary of size " + dictionarySize + " for " + id);
+		}
+		
+		return new VirtualizationStringDictionary(dictionarySize);
+	}
+	
 	public void setVirtualPageSize(JasperReport jasperReport, Map<String, Object> parameterValues)
 	{
 		// see if we have a parameter for the page size
@@ -453,6 +500,17 @@ public class JRVirtualizationContext implements Serializable, VirtualizationList
 		this.virtualizer = virtualizer;
 	}
 
+	/**
+	 * Returns the string dictionary shared by the virtualized objects, if any.
+	 * 
+	 * @return the string dictionary, <code>null</code> if not used
+	 * @see #PROPERTY_STRING_DICTIONARY_SIZE
+	 */
+	public VirtualizationStringDictionary getStringDictionary()
+	{
+		return stringDictionary;
+	}
+
 	@SuppressWarnings("unchecked")
 	private void readObject(java.io.ObjectInputStream in) throws IOException, ClassNotFoundException
 	{
@@ -475,7 +533,12 @@ public class JRVirtualizationContext implements Serializable, VirtualizationList
 		if (root)
 		{
 			virtualizableLists = new ConcurrentHashMap<>(16, 0.75f, 1);
-			subContexts.values().stream().forEach(context -> {context.virtualizableLists = virtualizableLists;});
+			stringDictionary = createStringDictionary();
+			subContexts.values().stream().forEach(context -> 
+			{
+				context.virtualizableLists = virtualizableLists;
+				context.stringDictionary = stringDictionary;
+			});
 		}
 	}
 
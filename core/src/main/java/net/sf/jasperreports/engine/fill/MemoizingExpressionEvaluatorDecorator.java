@@ -0,0 +1,387 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2025 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.fill;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import net.sf.jasperreports.annotations.properties.Property;
+import net.sf.jasperreports.annotations.properties.PropertyScope;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JRExpression;
+import net.sf.jasperreports.engine.JRExpressionChunk;
+import net.sf.jasperreports.engine.JRPropertiesUtil;
+import net.sf.jasperreports.engine.type.WhenResourceMissingTypeEnum;
+import net.sf.jasperreports.properties.PropertyConstants;
+
+/**
+ * Expression evaluator decorator that skips the evaluation of expressions whose inputs
+ * did not change since the previous evaluation.
+ * 
+ * <p>
+ * The inputs of an expression are determined from the expression chunks.
+ * Expressions that only reference parameters, fields and resources are memoized:
+ * the expression value is reused as long as the values of the referenced parameters
+ * and fields are equal to the ones used for the previous evaluation.
+ * Expressions that reference variables, and expressions that do not reference any parameter 
+ * or field (e.g. <code>new java.util.Date()</code>), are always evaluated.
+ * </p>
+ * <p>
+ * Only values of immutable types (strings, numbers, booleans and characters) are reused, an
+ * expression producing any other type of value (e.g. a data source) is always evaluated.
+ * Likewise, an expression is always evaluated if any of its parameter or field values is not
+ * of an immutable type, since such a value could be modified without the change being detected.
+ * </p>
+ * 
+ * @author agent (agent@local)
+ * @see #PROPERTY_MEMOIZE_VALUES
+ */
+public class MemoizingExpressionEvaluatorDecorator implements DatasetExpressionEvaluator
+{
+
+	/**
+	 * Property that determines whether the values of expressions that only depend on parameters 
+	 * and fields are reused while the values of the parameters and fields do not change.
+	 * 
+	 * <p>
+	 * This can be used when the reports include expressions that are costly to evaluate and that
+	 * produce the same values for consecutive records (e.g. group labels).
+	 * The expressions need to be deterministic, i.e. an expression that produces different values
+	 * for the same parameter and field values (such as an expression that includes the current time)
+	 * is not evaluated again while the inputs do not change.
+	 * </p>
+	 * 
+	 * <p>
+	 * The property can be set globally, at report or at dataset level.
+	 * The default value is <code>false</code>.
+	 * </p>
+	 */
+	@Property(
+			category = PropertyConstants.CATEGORY_FILL,
+			defaultValue = PropertyConstants.BOOLEAN_FALSE,
+			scopes = {PropertyScope.CONTEXT, PropertyScope.DATASET},
+			sinceVersion = PropertyConstants.VERSION_7_0_7,
+			valueType = Boolean.class
+			)
+	public static final String PROPERTY_MEMOIZE_VALUES = JRPropertiesUtil.PROPERTY_PREFIX + "evaluator.memoize.values";
+	
+	private final DatasetExpressionEvaluator decorated;
+	
+	private Map<String, JRFillParameter> parametersMap;
+	private Map<String, JRFillField> fieldsMap;
+	
+	private final Map<JRExpression, MemoizedExpression> memoizedExpressions;
+	
+	private long evaluatedCount;
+	private long skippedCount;
+
+	public MemoizingExpressionEvaluatorDecorator(DatasetExpressionEvaluator decorated)
+	{
+		this.decorated = decorated;
+		this.memoizedExpressions = new HashMap<>();
+	}
+
+	@Override
+	public void init(Map<String, JRFillParameter> parametersMap, 
+			Map<String, JRFillField> fieldsMap, 
+			Map<String, JRFillVariable> variablesMap, 
+			WhenResourceMissingTypeEnum resourceMissingType,
+			boolean ignoreNPE) throws JRException
+	{
+		decorated.init(parametersMap, fieldsMap, variablesMap, resourceMissingType, ignoreNPE);
+		
+		this.parametersMap = parametersMap;
+		this.fieldsMap = fieldsMap;
+		memoizedExpressions.clear();
+	}
+
+	@Override
+	public Object evaluate(JRExpression expression) throws JRExpressionEvalException
+	{
+		MemoizedExpression memoized = memoizedExpression(expression);
+		if (memoized == null)
+		{
+			++evaluatedCount;
+			return decorated.evaluate(expression);
+		}
+		
+		return memoized.current.evaluate(expression, false);
+	}
+
+	@Override
+	public Object evaluateOld(JRExpression expression) throws JRExpressionEvalException
+	{
+		MemoizedExpression memoized = memoizedExpression(expression);
+		if (memoized == null)
+		{
+			++evaluatedCount;
+			return decorated.evaluateOld(expression);
+		}
+		
+		return memoized.old.evaluate(expression, true);
+	}
+
+	@Override
+	public Object evaluateEstimated(JRExpression expression) throws JRExpressionEvalException
+	{
+		MemoizedExpression memoized = memoizedExpression(expression);
+		if (memoized == null)
+		{
+			++evaluatedCount;
+			return decorated.evaluateEstimated(expression);
+		}
+		
+		//estimated evaluations only differ from default evaluations in variable values
+		return memoized.current.evaluate(expression, false);
+	}
+	
+	/**
+	 * Returns the number of expression evaluations that were delegated to the decorated evaluator.
+	 * 
+	 * @return the number of evaluated expressions
+	 */
+	public long getEvaluatedCount()
+	{
+		return evaluatedCount;
+	}
+	
+	/**
+	 * Returns the number of expression evaluations that were skipped because the expression
+	 * inputs did not change.
+	 * 
+	 * @return the number of skipped evaluations
+	 */
+	public long getSkippedCount()
+	{
+		return skippedCount;
+	}
+	
+	protected MemoizedExpression memoizedExpression(JRExpression expression)
+	{
+		if (expression == null)
+		{
+			return null;
+		}
+		
+		MemoizedExpression memoized = memoizedExpressions.get(expression);
+		if (memoized == null)
+		{
+			memoized = createMemoizedExpression(expression);
+			memoizedExpressions.put(expression, memoized);
+		}
+		return memoized.disabled ? null : memoized;
+	}
+	
+	protected MemoizedExpression createMemoizedExpression(JRExpression expression)
+	{
+		JRExpressionChunk[] chunks = expression.getChunks();
+		if (chunks == null || parametersMap == null)
+		{
+			return MemoizedExpression.DISABLED;
+		}
+		
+		List<JRFillParameter> parameters = new ArrayList<>();
+		List<JRFillField> fields = new ArrayList<>();
+		for (JRExpressionChunk chunk : chunks)
+		{
+			switch (chunk.getType())
+			{
+				case JRExpressionChunk.TYPE_TEXT:
+				case JRExpressionChunk.TYPE_RESOURCE:
+					break;
+				case JRExpressionChunk.TYPE_PARAMETER:
+				{
+					JRFillParameter parameter = parametersMap.get(chunk.getText());
+					if (parameter == null)
+					{
+						return MemoizedExpression.DISABLED;
+					}
+					if (!parameters.contains(parameter))
+					{
+						parameters.add(parameter);
+					}
+					break;
+				}
+				case JRExpressionChunk.TYPE_FIELD:
+				{
+					JRFillField field = fieldsMap == null ? null : fieldsMap.get(chunk.getText());
+					if (field == null)
+					{
+						return MemoizedExpression.DISABLED;
+					}
+					if (!fields.contains(field))
+					{
+						fields.add(field);
+					}
+					break;
+				}
+				case JRExpressionChunk.TYPE_VARIABLE:
+				default:
+					return MemoizedExpression.DISABLED;
+			}
+		}
+		
+		if (parameters.isEmpty() && fields.isEmpty())
+		{
+			//expressions without inputs are not necessarily constant
+			return MemoizedExpression.DISABLED;
+		}
+		
+		MemoizedExpression memoized = new MemoizedExpression(
+				parameters.toArray(new JRFillParameter[parameters.size()]), 
+				fields.toArray(new JRFillField[fields.size()]));
+		memoized.current = new MemoizedValue(memoized);
+		memoized.old = new MemoizedValue(memoized);
+		return memoized;
+	}
+	
+	protected static boolean isImmutableValue(Object value)
+	{
+		return value == null
+				|| value instanceof String
+				|| value instanceof Integer
+				|| value instanceof Long
+				|| value instanceof Double
+				|| value instanceof BigDecimal
+				|| value instanceof Boolean
+				|| value instanceof Short
+				|| value instanceof Byte
+				|| value instanceof Float
+				|| value instanceof BigInteger
+				|| value instanceof Character;
+	}
+	
+	protected static boolean sameValue(Object value1, Object value2)
+	{
+		return value1 == value2 || (value1 != null && value1.equals(value2));
+	}
+	
+	protected static class MemoizedExpression
+	{
+		protected static final MemoizedExpression DISABLED = new MemoizedExpression(null, null);
+		
+		private final JRFillParameter[] parameters;
+		private final JRFillField[] fields;
+		private MemoizedValue current;
+		private MemoizedValue old;
+		private boolean disabled;
+		
+		protected MemoizedExpression(JRFillParameter[] parameters, JRFillField[] fields)
+		{
+			this.parameters = parameters;
+			this.fields = fields;
+			this.disabled = parameters == null;
+		}
+	}
+	
+	protected class MemoizedValue
+	{
+		private final MemoizedExpression expression;
+		private final Object[] parameterValues;
+		private final Object[] fieldValues;
+		private boolean set;
+		private Object value;
+		
+		protected MemoizedValue(MemoizedExpression expression)
+		{
+			this.expression = expression;
+			this.parameterValues = new Object[expression.parameters.length];
+			this.fieldValues = new Object[expression.fields.length];
+		}
+		
+		protected Object evaluate(JRExpression jrExpression, boolean oldValues) throws JRExpressionEvalException
+		{
+			if (set && inputsUnchanged(oldValues))
+			{
+				++skippedCount;
+				return value;
+			}
+			
+			++evaluatedCount;
+			Object newValue = oldValues ? decorated.evaluateOld(jrExpression) : decorated.evaluate(jrExpression);
+			if (isImmutableValue(newValue) && recordInputs(oldValues))
+			{
+				value = newValue;
+				set = true;
+			}
+			else
+			{
+				//not reusing mutable values, or values computed from mutable inputs
+				expression.disabled = true;
+				value = null;
+				set = false;
+			}
+			return newValue;
+		}
+		
+		protected boolean recordInputs(boolean oldValues)
+		{
+			for (int i = 0; i < parameterValues.length; i++)
+			{
+				Object parameterValue = expression.parameters[i].getValue();
+				if (!isImmutableValue(parameterValue))
+				{
+					return false;
+				}
+				parameterValues[i] = parameterValue;
+			}
+			for (int i = 0; i < fieldValues.length; i++)
+			{
+				JRFillField field = expression.fields[i];
+				Object fieldValue = oldValues ? field.getOldValue() : field.getValue();
+				if (!isImmutableValue(fieldValue))
+				{
+					return false;
+				}
+				fieldValues[i] = fieldValue;
+			}
+			return true;
+		}
+		
+		protected boolean inputsUnchanged(boolean oldValues)
+		{
+			for (int i = 0; i < parameterValues.length; i++)
+			{
+				if (!sameValue(parameterValues[i], expression.parameters[i].getValue()))
+				{
+					return false;
+				}
+			}
+			for (int i = 0; i < fieldValues.length; i++)
+			{
+				JRFillField field = expression.fields[i];
+				if (!sameValue(fieldValues[i], oldValues ? field.getOldValue() : field.getValue()))
+				{
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+
+}
@@ -278,6 +278,8 @@ public class PartReportFiller extends BaseReportFiller
 			{
 				// commit the cached data
 				fillContext.cacheDone();
+				
+				fillContext.profileDone();
 			}
 
 /*			if (parent != null)
@@ -287,6 +289,8 @@ public class PartReportFiller extends BaseReportFiller
 */			
 			delayedActions.dispose();
 
+			disposeDatasetRunPrefetcher();
+
 			clearFillingThread();
 
 			//kill the subreport filler threads
@@ -0,0 +1,627 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2025 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.fill;
+
+import java.math.BigDecimal;
+
+import net.sf.jasperreports.engine.JRVariable;
+import net.sf.jasperreports.engine.type.CalculationEnum;
+
+/**
+ * Primitive backed storage for the values of a numeric variable that uses one of the
+ * built-in count, sum or average calculations.
+ * 
+ * <p>
+ * The values of the variable (current, old, incremented, estimated, etc.) are kept as
+ * primitive values and are only boxed when read through {@link JRFillVariable}.
+ * Incrementing the variable with a new expression value does not allocate a new object,
+ * and <code>java.math.BigDecimal</code> sums are kept as unscaled long values as long as
+ * they fit, the <code>BigDecimal</code> object being created when the value is read.
+ * </p>
+ * <p>
+ * The calculations produce exactly the same values as the built-in incrementers
+ * (such as {@link JRLongIncrementerFactory} or {@link JRBigDecimalIncrementerFactory}),
+ * including the arithmetic of the narrower types.
+ * Cases that are not covered are delegated to the variable incrementer.
+ * </p>
+ * 
+ * @author agent (agent@local)
+ */
+final class PrimitiveAccumulator
+{
+	
+	static final int VALUE = 0;
+	static final int OLD_VALUE = 1;
+	static final int PREVIOUS_OLD_VALUE = 2;
+	static final int INCREMENTED_VALUE = 3;
+	static final int PREVIOUS_INCREMENTED_VALUE = 4;
+	static final int ESTIMATED_VALUE = 5;
+	
+	private static final int SLOT_COUNT = 6;
+
+	private static final byte STATE_NULL = 0;
+	private static final byte STATE_OBJECT = 1;
+	private static final byte STATE_PRIMITIVE = 2;
+	
+	private static final int MAX_COMPACT_PRECISION = 18;
+	
+	private static final long[] LONG_TEN_POWERS = new long[MAX_COMPACT_PRECISION + 1];
+	static
+	{
+		LONG_TEN_POWERS[0] = 1;
+		for (int i = 1; i < LONG_TEN_POWERS.length; i++)
+		{
+			LONG_TEN_POWERS[i] = LONG_TEN_POWERS[i - 1] * 10;
+		}
+	}
+
+	private enum NumericType
+	{
+		BYTE, SHORT, INTEGER, LONG, FLOAT, DOUBLE, BIG_DECIMAL;
+		
+		boolean isIntegral()
+		{
+			return this == BYTE || this == SHORT || this == INTEGER || this == LONG;
+		}
+	}
+	
+	/**
+	 * Creates an accumulator for a variable, if the variable uses a calculation
+	 * that can be performed on primitive values.
+	 * 
+	 * @param variable the variable
+	 * @return an accumulator for the variable, or <code>null</code> if the variable
+	 * values are not numeric or the variable uses a custom incrementer
+	 */
+	static PrimitiveAccumulator create(JRVariable variable)
+	{
+		if (variable.getIncrementerFactoryClassName() != null)
+		{
+			return null;
+		}
+		
+		NumericType type = numericType(variable.getValueClassName());
+		if (type == null)
+		{
+			return null;
+		}
+		
+		CalculationEnum calculation = CalculationEnum.getValueOrDefault(variable.getCalculation());
+		switch (calculation)
+		{
+			case COUNT:
+			case SUM:
+				break;
+			case AVERAGE:
+				if (type == NumericType.BIG_DECIMAL)
+				{
+					//the division is left to the incrementer
+					return null;
+				}
+				break;
+			default:
+				return null;
+		}
+		
+		return new PrimitiveAccumulator(type, calculation);
+	}
+	
+	private static NumericType numericType(String valueClassName)
+	{
+		if (valueClassName == null)
+		{
+			return null;
+		}
+		
+		switch (valueClassName)
+		{
+			case "java.lang.Byte":
+				return NumericType.BYTE;
+			case "java.lang.Short":
+				return NumericType.SHORT;
+			case "java.lang.Integer":
+				return NumericType.INTEGER;
+			case "java.lang.Long":
+				return NumericType.LONG;
+			case "java.lang.Float":
+				return NumericType.FLOAT;
+			case "java.lang.Double":
+			case "java.lang.Number"://JRDefaultIncrementerFactory uses double arithmetic for Number
+				return NumericType.DOUBLE;
+			case "java.math.BigDecimal":
+				return NumericType.BIG_DECIMAL;
+			default:
+				return null;
+		}
+	}
+	
+	private final NumericType type;
+	private final CalculationEnum calculation;
+	
+	private final byte[] states;
+	private final long[] primitives;//long values, double bits or BigDecimal unscaled values
+	private final int[] scales;
+	private final Object[] objects;//boxed values or values that are not stored as primitives
+	
+	private PrimitiveAccumulator(NumericType type, CalculationEnum calculation)
+	{
+		this.type = type;
+		this.calculation = calculation;
+		
+		this.states = new byte[SLOT_COUNT];
+		this.primitives = new long[SLOT_COUNT];
+		this.scales = type == NumericType.BIG_DECIMAL ? new int[SLOT_COUNT] : null;
+		this.objects = new Object[SLOT_COUNT];
+	}
+
+	void reset()
+	{
+		for (int slot = 0; slot < SLOT_COUNT; slot++)
+		{
+			states[slot] = STATE_NULL;
+			objects[slot] = null;
+		}
+	}
+	
+	Object get(int slot)
+	{
+		switch (states[slot])
+		{
+			case STATE_NULL:
+				return null;
+			case STATE_OBJECT:
+				return objects[slot];
+			default:
+				Object value = objects[slot];
+				if (value == null)
+				{
+					value = box(slot);
+					objects[slot] = value;
+				}
+				return value;
+		}
+	}
+	
+	void set(int slot, Object value)
+	{
+		objects[slot] = value;
+		if (value == null)
+		{
+			states[slot] = STATE_NULL;
+			return;
+		}
+		
+		boolean primitive;
+		switch (type)
+		{
+			case BYTE:
+				primitive = value instanceof Byte;
+				break;
+			case SHORT:
+				primitive = value instanceof Short;
+				break;
+			case INTEGER:
+				primitive = value instanceof Integer;
+				break;
+			case LONG:
+				primitive = value instanceof Long;
+				break;
+			case FLOAT:
+				primitive = value instanceof Float;
+				break;
+			case DOUBLE:
+				primitive = value instanceof Double;
+				break;
+			case BIG_DECIMAL:
+				primitive = value instanceof BigDecimal 
+						&& ((BigDecimal) value).precision() <= MAX_COMPACT_PRECISION;
+				break;
+			default:
+				primitive = false;
+				break;
+		}
+		
+		if (primitive)
+		{
+			states[slot] = STATE_PRIMITIVE;
+			if (type == NumericType.BIG_DECIMAL)
+			{
+				BigDecimal decimal = (BigDecimal) value;
+				primitives[slot] = decimal.unscaledValue().longValue();
+				scales[slot] = decimal.scale();
+			}
+			else if (type.isIntegral())
+			{
+				primitives[slot] = ((Number) value).longValue();
+			}
+			else
+			{
+				primitives[slot] = Double.doubleToRawLongBits(((Number) value).doubleValue());
+			}
+		}
+		else
+		{
+			states[slot] = STATE_OBJECT;
+		}
+	}
+	
+	void copy(int sourceSlot, int destinationSlot)
+	{
+		states[destinationSlot] = states[sourceSlot];
+		primitives[destinationSlot] = primitives[sourceSlot];
+		objects[destinationSlot] = objects[sourceSlot];
+		if (scales != null)
+		{
+			scales[destinationSlot] = scales[sourceSlot];
+		}
+	}
+	
+	private Object box(int slot)
+	{
+		long primitive = primitives[slot];
+		switch (type)
+		{
+			case BYTE:
+				return (byte) primitive;
+			case SHORT:
+				return (short) primitive;
+			case INTEGER:
+				return (int) primitive;
+			case LONG:
+				return primitive;
+			case FLOAT:
+				return (float) Double.longBitsToDouble(primitive);
+			case DOUBLE:
+				return Double.longBitsToDouble(primitive);
+			case BIG_DECIMAL:
+			default:
+				return BigDecimal.valueOf(primitive, scales[slot]);
+		}
+	}
+	
+	/**
+	 * Increments the variable with an expression value, storing the result in a slot.
+	 * 
+	 * @param variable the variable
+	 * @param slot the slot in which the result is stored, either {@link #VALUE} or {@link #ESTIMATED_VALUE}
+	 * @param expressionValue the expression value
+	 * @return whether the increment was performed, <code>false</code> if the
+	 * variable incrementer needs to be used 
+	 */
+	boolean increment(JRFillVariable variable, int slot, Object expressionValue)
+	{
+		switch (calculation)
+		{
+			case COUNT:
+				return count(variable, slot, expressionValue);
+			case SUM:
+				return sum(variable, slot, expressionValue);
+			case AVERAGE:
+				return average(variable, slot, expressionValue);
+			default:
+				return false;
+		}
+	}
+	
+	private boolean count(JRFillVariable variable, int slot, Object expressionValue)
+	{
+		if (type == NumericType.BIG_DECIMAL && states[INCREMENTED_VALUE] == STATE_OBJECT)
+		{
+			return false;
+		}
+		
+		if (variable.isInitialized() || states[INCREMENTED_VALUE] == STATE_NULL)
+		{
+			setZero(slot);
+		}
+		else
+		{
+			copy(INCREMENTED_VALUE, slot);
+		}
+		
+		if (expressionValue != null)
+		{
+			switch (type)
+			{
+				case FLOAT:
+				case DOUBLE:
+					setDouble(slot, doubleValue(slot) + 1);
+					break;
+				case BIG_DECIMAL:
+					addDecimal(slot, 1, 0);
+					break;
+				default:
+					setLong(slot, longValue(slot) + 1);
+					break;
+			}
+		}
+		return true;
+	}
+	
+	private boolean sum(JRFillVariable variable, int slot, Object expressionValue)
+	{
+		if (expressionValue == null)
+		{
+			if (variable.isInitialized())
+			{
+				set(slot, null);
+			}
+			else
+			{
+				copy(INCREMENTED_VALUE, slot);
+			}
+			return true;
+		}
+		
+		if (type == NumericType.BIG_DECIMAL)
+		{
+			return sumDecimal(variable, slot, expressionValue);
+		}
+		
+		Number number = (Number) expressionValue;
+		boolean zero = variable.isInitialized() || states[INCREMENTED_VALUE] == STATE_NULL;
+		switch (type)
+		{
+			case BYTE:
+				setLong(slot, (zero ? 0 : longValue(INCREMENTED_VALUE)) + number.byteValue());
+				break;
+			case SHORT:
+				setLong(slot, (zero ? 0 : longValue(INCREMENTED_VALUE)) + number.shortValue());
+				break;
+			case INTEGER:
+				setLong(slot, (zero ? 0 : longValue(INCREMENTED_VALUE)) + number.intValue());
+				break;
+			case LONG:
+				setLong(slot, (zero ? 0 : longValue(INCREMENTED_VALUE)) + number.longValue());
+				break;
+			case FLOAT:
+				setDouble(slot, (zero ? 0 : doubleValue(INCREMENTED_VALUE)) + number.floatValue());
+				break;
+			case DOUBLE:
+			default:
+				setDouble(slot, (zero ? 0 : doubleValue(INCREMENTED_VALUE)) + number.doubleValue());
+				break;
+		}
+		return true;
+	}
+	
+	private boolean sumDecimal(JRFillVariable variable, int slot, Object expressionValue)
+	{
+		long unscaledValue;
+		int scale;
+		if (expressionValue instanceof Long || expressionValue instanceof Integer
+				|| expressionValue instanceof Short || expressionValue instanceof Byte)
+		{
+			unscaledValue = ((Number) expressionValue).longValue();
+			scale = 0;
+		}
+		else
+		{
+			BigDecimal decimal = JRBigDecimalIncrementerFactory.toBigDecimal(expressionValue);
+			if (decimal.precision() > MAX_COMPACT_PRECISION)
+			{
+				return false;
+			}
+			unscaledValue = decimal.unscaledValue().longValue();
+			scale = decimal.scale();
+		}
+		
+		if (variable.isInitialized() || states[INCREMENTED_VALUE] == STATE_NULL)
+		{
+			setZero(slot);
+		}
+		else if (states[INCREMENTED_VALUE] == STATE_OBJECT)
+		{
+			return false;
+		}
+		else
+		{
+			copy(INCREMENTED_VALUE, slot);
+		}
+		
+		addDecimal(slot, unscaledValue, scale);
+		return true;
+	}
+	
+	private boolean average(JRFillVariable variable, int slot, Object expressionValue)
+	{
+		if (expressionValue == null)
+		{
+			if (variable.isInitialized())
+			{
+				set(slot, null);
+			}
+			else
+			{
+				copy(VALUE, slot);
+			}
+			return true;
+		}
+		
+		PrimitiveAccumulator countAccumulator = helperAccumulator(variable, JRCalculable.HELPER_COUNT);
+		PrimitiveAccumulator sumAccumulator = helperAccumulator(variable, JRCalculable.HELPER_SUM);
+		//the helper values are read in the same way as the value providers do
+		int helperSlot = slot == ESTIMATED_VALUE ? ESTIMATED_VALUE : VALUE;
+		if (countAccumulator == null || sumAccumulator == null
+				|| countAccumulator.states[helperSlot] == STATE_NULL
+				|| sumAccumulator.states[helperSlot] == STATE_NULL)
+		{
+			return false;
+		}
+		
+		switch (type)
+		{
+			case BYTE:
+				setLong(slot, (byte) sumAccumulator.longValue(helperSlot) / (byte) countAccumulator.longValue(helperSlot));
+				break;
+			case SHORT:
+				setLong(slot, (short) sumAccumulator.longValue(helperSlot) / (short) countAccumulator.longValue(helperSlot));
+				break;
+			case INTEGER:
+				setLong(slot, (int) sumAccumulator.longValue(helperSlot) / (int) countAccumulator.longValue(helperSlot));
+				break;
+			case LONG:
+				setLong(slot, sumAccumulator.longValue(helperSlot) / countAccumulator.longValue(helperSlot));
+				break;
+			case FLOAT:
+				setDouble(slot, (float) sumAccumulator.doubleValue(helperSlot) / (float) countAccumulator.doubleValue(helperSlot));
+				break;
+			case DOUBLE:
+			default:
+				setDouble(slot, sumAccumulator.doubleValue(helperSlot) / countAccumulator.doubleValue(helperSlot));
+				break;
+		}
+		return true;
+	}
+	
+	private static PrimitiveAccumulator helperAccumulator(JRFillVariable variable, byte helperType)
+	{
+		JRCalculable helper = variable.getHelperVariable(helperType);
+		return helper instanceof JRFillVariable ? ((JRFillVariable) helper).getAccumulator() : null;
+	}
+	
+	private long longValue(int slot)
+	{
+		if (states[slot] == STATE_PRIMITIVE)
+		{
+			return primitives[slot];
+		}
+		
+		Number number = (Number) objects[slot];
+		switch (type)
+		{
+			case BYTE:
+				return number.byteValue();
+			case SHORT:
+				return number.shortValue();
+			case INTEGER:
+				return number.intValue();
+			default:
+				return number.longValue();
+		}
+	}
+	
+	private double doubleValue(int slot)
+	{
+		if (states[slot] == STATE_PRIMITIVE)
+		{
+			return Double.longBitsToDouble(primitives[slot]);
+		}
+		
+		Number number = (Number) objects[slot];
+		return type == NumericType.FLOAT ? number.floatValue() : number.doubleValue();
+	}
+	
+	private void setZero(int slot)
+	{
+		states[slot] = STATE_PRIMITIVE;
+		objects[slot] = null;
+		if (type == NumericType.FLOAT || type == NumericType.DOUBLE)
+		{
+			primitives[slot] = Double.doubleToRawLongBits(0d);
+		}
+		else
+		{
+			primitives[slot] = 0;
+			if (scales != null)
+			{
+				scales[slot] = 0;
+			}
+		}
+	}
+	
+	private void setLong(int slot, long value)
+	{
+		long primitive;
+		switch (type)
+		{
+			case BYTE:
+				primitive = (byte) value;
+				break;
+			case SHORT:
+				primitive = (short) value;
+				break;
+			case INTEGER:
+				primitive = (int) value;
+				break;
+			default:
+				primitive = value;
+				break;
+		}
+		
+		states[slot] = STATE_PRIMITIVE;
+		primitives[slot] = primitive;
+		objects[slot] = null;
+	}
+	
+	private void setDouble(int slot, double value)
+	{
+		double primitive = type == NumericType.FLOAT ? (float) value : value;
+		
+		states[slot] = STATE_PRIMITIVE;
+		primitives[slot] = Double.doubleToRawLongBits(primitive);
+		objects[slot] = null;
+	}
+	
+	private void addDecimal(int slot, long unscaledValue, int scale)
+	{
+		long slotValue = primitives[slot];
+		int slotScale = scales[slot];
+		int resultScale = Math.max(slotScale, scale);
+		
+		long result;
+		try
+		{
+			result = Math.addExact(rescale(slotValue, resultScale - slotScale), 
+					rescale(unscaledValue, resultScale - scale));
+		}
+		catch (ArithmeticException e)
+		{
+			//the result does not fit in a long, falling back to BigDecimal arithmetic
+			set(slot, BigDecimal.valueOf(slotValue, slotScale).add(BigDecimal.valueOf(unscaledValue, scale)));
+			return;
+		}
+		
+		states[slot] = STATE_PRIMITIVE;
+		primitives[slot] = result;
+		scales[slot] = resultScale;
+		objects[slot] = null;
+	}
+	
+	private static long rescale(long unscaledValue, int scaleDifference)
+	{
+		if (scaleDifference == 0 || unscaledValue == 0)
+		{
+			return unscaledValue;
+		}
+		
+		if (scaleDifference >= LONG_TEN_POWERS.length)
+		{
+			throw new ArithmeticException();
+		}
+		
+		return Math.multiplyExact(unscaledValue, LONG_TEN_POWERS[scaleDifference]);
+	}
+
+}
@@ -0,0 +1,528 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2025 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.fill;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Date;
+import java.util.List;
+import java.util.RandomAccess;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import net.sf.jasperreports.data.cache.NumberToByteTransformer;
+import net.sf.jasperreports.data.cache.NumberToCharTransformer;
+import net.sf.jasperreports.data.cache.NumberToDateTransformer;
+import net.sf.jasperreports.data.cache.NumberToIntegerTransformer;
+import net.sf.jasperreports.data.cache.NumberToLongTransformer;
+import net.sf.jasperreports.data.cache.NumberToSQLDateTransformer;
+import net.sf.jasperreports.data.cache.NumberToSQLTimeTransformer;
+import net.sf.jasperreports.data.cache.NumberToShortTransformer;
+import net.sf.jasperreports.data.cache.ValueTransformer;
+import net.sf.jasperreports.engine.fill.SortedDataSource.SortRecord;
+
+/**
+ * Column-wise storage of the records collected while sorting a dataset.
+ * 
+ * <p>
+ * Integral, character and date values are kept in <code>long</code> arrays and floating point values 
+ * in <code>double</code> arrays, which avoids holding a wrapper object for each value and allows the values 
+ * to be compared without unboxing.
+ * The column type is determined by the class of the first non null value in the column, 
+ * similarly to the data snapshot column stores.
+ * If a later value does not match the column type, the column falls back to an object array.
+ * Boxed values are recreated via the data snapshot value transformers when read.
+ * </p>
+ * 
+ * <p>
+ * The position of a record in the columns is its original index in the dataset.
+ * </p>
+ * 
+ * @author agent (agent@local)
+ */
+public class SortRecordColumns
+{
+	
+	private static final Log log = LogFactory.getLog(SortRecordColumns.class);
+	
+	private static final int INITIAL_CAPACITY = 64;
+	
+	private final Column[] columns;
+	private int size;
+	private int capacity;
+	
+	private BitSet filtered;
+	private int[] recordIndexes;
+	
+	public SortRecordColumns(int columnCount)
+	{
+		this.columns = new Column[columnCount];
+		for (int i = 0; i < columnCount; i++)
+		{
+			columns[i] = new UntypedColumn();
+		}
+		
+		this.size = 0;
+		this.capacity = 0;
+	}
+	
+	/**
+	 * Adds a record to the columns.
+	 * 
+	 * @param values the record values, one for each column
+	 */
+	public void addRecord(Object[] values)
+	{
+		if (size == capacity)
+		{
+			capacity = capacity == 0 ? INITIAL_CAPACITY : capacity + (capacity >> 1);
+			for (Column column : columns)
+			{
+				column.ensureCapacity(capacity);
+			}
+		}
+		
+		for (int i = 0; i < columns.length; i++)
+		{
+			Column column = columns[i];
+			if (!column.set(size, values[i]))
+			{
+				column = typedColumn(i, column, values[i]);
+				columns[i] = column;
+				column.set(size, values[i]);
+			}
+		}
+		++size;
+	}
+	
+	protected Column typedColumn(int columnIndex, Column column, Object value)
+	{
+		Column typedColumn = null;
+		if (column instanceof UntypedColumn)
+		{
+			typedColumn = createColumn(value.getClass());
+		}
+		
+		if (typedColumn == null)
+		{
+			if (log.isDebugEnabled())
+			{
+				log.debug("using object values for column " + columnIndex 
+						+ " at value of type " + value.getClass().getName());
+			}
+			
+			typedColumn = new ObjectColumn();
+		}
+		else if (log.isDebugEnabled())
+		{
+			log.debug("using " + typedColumn + " for column " + columnIndex);
+		}
+		
+		typedColumn.ensureCapacity(capacity);
+		// copy the previous values
+		for (int i = 0; i < size; i++)
+		{
+			typedColumn.set(i, column.get(i));
+		}
+		return typedColumn;
+	}
+	
+	protected Column createColumn(Class<?> type)
+	{
+		if (Integer.class.equals(type))
+		{
+			return new LongColumn(type, NumberToIntegerTransformer.instance());
+		}
+		if (Long.class.equals(type))
+		{
+			return new LongColumn(type, NumberToLongTransformer.instance());
+		}
+		if (Short.class.equals(type))
+		{
+			return new LongColumn(type, NumberToShortTransformer.instance());
+		}
+		if (Byte.class.equals(type))
+		{
+			return new LongColumn(type, NumberToByteTransformer.instance());
+		}
+		if (Character.class.equals(type))
+		{
+			return new LongColumn(type, NumberToCharTransformer.instance());
+		}
+		// not using subclasses as they might have additional state, e.g. timestamps 
+		if (Date.class.equals(type))
+		{
+			return new LongColumn(type, NumberToDateTransformer.instance());
+		}
+		if (java.sql.Date.class.equals(type))
+		{
+			return new LongColumn(type, NumberToSQLDateTransformer.instance());
+		}
+		if (java.sql.Time.class.equals(type))
+		{
+			return new LongColumn(type, NumberToSQLTimeTransformer.instance());
+		}
+		if (Double.class.equals(type) || Float.class.equals(type))
+		{
+			return new DoubleColumn(type);
+		}
+		return null;
+	}
+	
+	/**
+	 * Returns the number of records.
+	 * 
+	 * @return the number of records
+	 */
+	public int size()
+	{
+		return size;
+	}
+	
+	/**
+	 * Returns a record value.
+	 * 
+	 * @param record the record position
+	 * @param column the column index
+	 * @return the record value
+	 */
+	public Object getValue(int record, int column)
+	{
+		return columns[column].get(record);
+	}
+	
+	/**
+	 * Returns all values of a record.
+	 * 
+	 * @param record the record position
+	 * @return the record values
+	 */
+	public Object[] getValues(int record)
+	{
+		Object[] values = new Object[columns.length];
+		for (int i = 0; i < columns.length; i++)
+		{
+			values[i] = columns[i].get(record);
+		}
+		return values;
+	}
+	
+	/**
+	 * Determines whether the values of a column can be compared via {@link #compareValues(int, int, int)}.
+	 * 
+	 * @param column the column index
+	 * @return whether the column values are stored as primitives
+	 */
+	public boolean isPrimitive(int column)
+	{
+		return columns[column] instanceof PrimitiveColumn;
+	}
+	
+	/**
+	 * Compares two values of a primitive column, with <code>null</code> values being ordered first.
+	 * 
+	 * @param column the column index
+	 * @param record1 the first record position
+	 * @param record2 the second record position
+	 * @return the comparison result
+	 * @see #isPrimitive(int)
+	 */
+	public int compareValues(int column, int record1, int record2)
+	{
+		return ((PrimitiveColumn) columns[column]).compare(record1, record2);
+	}
+	
+	protected void markFiltered(int record, int recordIndex)
+	{
+		if (filtered == null)
+		{
+			filtered = new BitSet(size);
+			recordIndexes = new int[size];
+			for (int i = 0; i < size; i++)
+			{
+				recordIndexes[i] = i;
+			}
+		}
+		
+		filtered.set(record);
+		recordIndexes[record] = recordIndex;
+	}
+	
+	public boolean isFiltered(int record)
+	{
+		return filtered != null && filtered.get(record);
+	}
+	
+	public int getRecordIndex(int record)
+	{
+		return recordIndexes == null ? record : recordIndexes[record];
+	}
+	
+	/**
+	 * Returns a list view of the records, creating {@link SortRecord} instances on access.
+	 * 
+	 * @return the records list
+	 */
+	public List<SortRecord> asRecords()
+	{
+		return new RecordList();
+	}
+	
+	protected class RecordList extends AbstractList<SortRecord> implements RandomAccess
+	{
+		@Override
+		public SortRecord get(int index)
+		{
+			SortRecord record = new SortRecord(getValues(index), index);
+			if (isFiltered(index))
+			{
+				record.markFiltered();
+				record.setRecordIndex(getRecordIndex(index));
+			}
+			return record;
+		}
+
+		@Override
+		public int size()
+		{
+			return size;
+		}
+	}
+	
+	protected static abstract class Column
+	{
+		protected abstract void ensureCapacity(int capacity);
+		
+		/**
+		 * Sets a value, returning <code>false</code> if the value is not supported by the column.
+		 */
+		protected abstract boolean set(int index, Object value);
+		
+		protected abstract Object get(int index);
+	}
+	
+	protected static class UntypedColumn extends Column
+	{
+		@Override
+		protected void ensureCapacity(int capacity)
+		{
+			//NOP
+		}
+
+		@Override
+		protected boolean set(int index, Object value)
+		{
+			// only nulls so far
+			return value == null;
+		}
+
+		@Override
+		protected Object get(int index)
+		{
+			return null;
+		}
+	}
+	
+	protected static class ObjectColumn extends Column
+	{
+		private Object[] values = new Object[0];
+		
+		@Override
+		protected void ensureCapacity(int capacity)
+		{
+			values = Arrays.copyOf(values, capacity);
+		}
+
+		@Override
+		protected boolean set(int index, Object value)
+		{
+			values[index] = value;
+			return true;
+		}
+
+		@Override
+		protected Object get(int index)
+		{
+			return values[index];
+		}
+	}
+	
+	protected static abstract class PrimitiveColumn extends Column
+	{
+		private final Class<?> type;
+		private BitSet nulls;
+		
+		protected PrimitiveColumn(Class<?> type)
+		{
+			this.type = type;
+		}
+		
+		@Override
+		protected boolean set(int index, Object value)
+		{
+			if (value == null)
+			{
+				if (nulls == null)
+				{
+					nulls = new BitSet();
+				}
+				nulls.set(index);
+				return true;
+			}
+			
+			if (value.getClass() != type)
+			{
+				return false;
+			}
+			
+			setValue(index, value);
+			return true;
+		}
+		
+		protected abstract void setValue(int index, Object value);
+
+		@Override
+		protected Object get(int index)
+		{
+			return isNull(index) ? null : getValue(index);
+		}
+		
+		protected abstract Object getValue(int index);
+		
+		protected boolean isNull(int index)
+		{
+			return nulls != null && nulls.get(index);
+		}
+		
+		protected int compare(int index1, int index2)
+		{
+			if (isNull(index1))
+			{
+				return isNull(index2) ? 0 : -1;
+			}
+			if (isNull(index2))
+			{
+				return 1;
+			}
+			return compareValues(index1, index2);
+		}
+		
+		protected abstract int compareValues(int index1, int index2);
+		
+		@Override
+		public String toString()
+		{
+			return getClass().getSimpleName() + "[" + type.getName() + "]";
+		}
+	}
+	
+	protected static class LongColumn extends PrimitiveColumn
+	{
+		private final ValueTransformer transformer;
+		private long[] values = new long[0];
+		
+		protected LongColumn(Class<?> type, ValueTransformer transformer)
+		{
+			super(type);
+			this.transformer = transformer;
+		}
+
+		@Override
+		protected void ensureCapacity(int capacity)
+		{
+			values = Arrays.copyOf(values, capacity);
+		}
+
+		@Override
+		protected void setValue(int index, Object value)
+		{
+			long longValue;
+			if (value instanceof Number)
+			{
+				longValue = ((Number) value).longValue();
+			}
+			else if (value instanceof Character)
+			{
+				longValue = (Character) value;
+			}
+			else
+			{
+				longValue = ((Date) value).getTime();
+			}
+			values[index] = longValue;
+		}
+
+		@Override
+		protected Object getValue(int index)
+		{
+			return transformer.get(values[index]);
+		}
+
+		@Override
+		protected int compareValues(int index1, int index2)
+		{
+			return Long.compare(values[index1], values[index2]);
+		}
+	}
+	
+	protected static class DoubleColumn extends PrimitiveColumn
+	{
+		private final boolean floatValues;
+		private double[] values = new double[0];
+		
+		protected DoubleColumn(Class<?> type)
+		{
+			super(type);
+			this.floatValues = Float.class.equals(type);
+		}
+
+		@Override
+		protected void ensureCapacity(int capacity)
+		{
+			values = Arrays.copyOf(values, capacity);
+		}
+
+		@Override
+		protected void setValue(int index, Object value)
+		{
+			values[index] = ((Number) value).doubleValue();
+		}
+
+		@Override
+		protected Object getValue(int index)
+		{
+			double value = values[index];
+			return floatValues ? (Object) (float) value : (Object) value;
+		}
+
+		@Override
+		protected int compareValues(int index1, int index2)
+		{
+			// Float.compare is consistent with Double.compare for widened values
+			return Double.compare(values[index1], values[index2]);
+		}
+	}
+}
@@ -80,6 +80,11 @@ public class SortedDataSource implements JRRewindableDataSource, IndexedDataSour
 			return values;
 		}
 
+		public int getOriginalRecordIndex()
+		{
+			return originalRecordIndex;
+		}
+
 		protected void setRecordIndex(int recordIndex)
 		{
 			this.recordIndex = recordIndex;
@@ -98,24 +103,71 @@ public class SortedDataSource implements JRRewindableDataSource, IndexedDataSour
 	
 	private final JRDataSource originalDataSource;
 	private final List<SortRecord> records;
+	private final SortRecordColumns recordColumns;
 	private final Integer[] recordIndexes;
+	private final SortedRecordRuns recordRuns;
 	private final Map<String, Integer> columnNamesMap = new HashMap<>();
 	
 	private int currentIndex;
 	private SortRecord currentRecord;
+	private int currentPosition;
+	private SortedRecordRuns.MergeIterator runsIterator;
 	
 	public SortedDataSource(DatasetSortInfo sortInfo, 
 			List<SortRecord> records, Integer[] recordIndexes)
 	{
+		this(sortInfo, records, null, recordIndexes, null);
+		
 		if (records.size() != recordIndexes.length)
 		{
 			throw new IllegalArgumentException("Record count " + records.size() 
 					+ " doesn't match index count " + recordIndexes.length);
 		}
-
+	}
+	
+	/**
+	 * Creates a data source that reads the sorted records from runs stored in temporary files.
+	 * 
+	 * <p>
+	 * The data source deletes the run files when {@link #dispose() disposed}.
+	 * </p>
+	 * 
+	 * @param sortInfo the sort information
+	 * @param recordRuns the sorted record runs
+	 */
+	public SortedDataSource(DatasetSortInfo sortInfo, SortedRecordRuns recordRuns)
+	{
+		this(sortInfo, null, null, null, recordRuns);
+	}
+	
+	/**
+	 * Creates a data source that reads the sorted records from column-wise storage.
+	 * 
+	 * @param sortInfo the sort information
+	 * @param recordColumns the records in the original order
+	 * @param recordIndexes the positions of the records in sorted order
+	 */
+	public SortedDataSource(DatasetSortInfo sortInfo, 
+			SortRecordColumns recordColumns, Integer[] recordIndexes)
+	{
+		this(sortInfo, null, recordColumns, recordIndexes, null);
+		
+		if (recordColumns.size() != recordIndexes.length)
+		{
+			throw new IllegalArgumentException("Record count " + recordColumns.size() 
+					+ " doesn't match index count " + recordIndexes.length);
+		}
+	}
+	
+	private SortedDataSource(DatasetSortInfo sortInfo, 
+			List<SortRecord> records, SortRecordColumns recordColumns, 
+			Integer[] recordIndexes, SortedRecordRuns recordRuns)
+	{
 		this.originalDataSource = sortInfo.getOriginalDataSource();
 		this.records = records;
+		this.recordColumns = recordColumns;
 		this.recordIndexes = recordIndexes;
+		this.recordRuns = recordRuns;
 		
 		for (ListIterator<RecordField> it = sortInfo.getRecordFields().listIterator(); it.hasNext();)
 		{
@@ -131,41 +183,87 @@ public class SortedDataSource implements JRRewindableDataSource, IndexedDataSour
 
 	public JRDataSource getOriginalDataSource() throws JRException
 	{
-		if (currentRecord != null && originalDataSource instanceof RandomAccessDataSource)
+		int originalRecordIndex = currentOriginalRecordIndex();
+		if (originalRecordIndex >= 0 && originalDataSource instanceof RandomAccessDataSource)
 		{
 			RandomAccessDataSource dataSource = (RandomAccessDataSource) originalDataSource;
-			if (dataSource.currentIndex() != currentRecord.originalRecordIndex)
+			if (dataSource.currentIndex() != originalRecordIndex)
 			{
 				if (log.isDebugEnabled())
 				{
-					log.debug("moving original data source to record " + currentRecord.originalRecordIndex);
+					log.debug("moving original data source to record " + originalRecordIndex);
 				}
-				dataSource.moveToRecord(currentRecord.originalRecordIndex);
+				dataSource.moveToRecord(originalRecordIndex);
 			}
 		}
 		
 		return originalDataSource;
 	}
 	
+	protected int currentOriginalRecordIndex()
+	{
+		if (recordColumns != null)
+		{
+			// the record position is the original index
+			return currentIndex > 0 ? currentPosition : -1;
+		}
+		return currentRecord == null ? -1 : currentRecord.originalRecordIndex;
+	}
+	
 	@Override
-	public boolean next()
+	public boolean next() throws JRException
 	{
+		if (recordRuns != null)
+		{
+			return nextRunRecord();
+		}
+		
 		if (currentIndex >= recordIndexes.length)
 		{
 			return false;
 		}
 		
 		int recordIndex = recordIndexes[currentIndex];
-		// assuming random access
-		currentRecord = records.get(recordIndex);
+		if (recordColumns == null)
+		{
+			// assuming random access
+			currentRecord = records.get(recordIndex);
+		}
+		else
+		{
+			currentPosition = recordIndex;
+		}
 		++currentIndex;
 		return true;
 	}
 
+	protected boolean nextRunRecord() throws JRException
+	{
+		if (runsIterator == null)
+		{
+			runsIterator = recordRuns.open();
+		}
+		
+		if (!runsIterator.hasNext())
+		{
+			return false;
+		}
+		
+		currentRecord = runsIterator.next();
+		return true;
+	}
+
 	public void setRecordFilteredIndex(int index)
 	{
-		currentRecord.markFiltered();
-		currentRecord.setRecordIndex(index);
+		if (recordColumns == null)
+		{
+			currentRecord.markFiltered();
+			currentRecord.setRecordIndex(index);
+		}
+		else
+		{
+			recordColumns.markFiltered(currentPosition, index);
+		}
 	}
 
 	@Override
@@ -179,23 +277,66 @@ public class SortedDataSource implements JRRewindableDataSource, IndexedDataSour
 					EXCEPTION_MESSAGE_KEY_FIELD_NOT_FOUND,
 					new Object[]{jrField.getName()});
 		}
-		return currentRecord.fieldValue(fieldIndex);
+		return recordColumns == null ? currentRecord.fieldValue(fieldIndex) 
+				: recordColumns.getValue(currentPosition, fieldIndex);
 	}
 
 	@Override
 	public void moveFirst()
 	{
 		currentIndex = 0;
+		closeRunsIterator();
+	}
+	
+	protected void closeRunsIterator()
+	{
+		if (runsIterator != null)
+		{
+			runsIterator.close();
+			runsIterator = null;
+		}
+	}
+	
+	/**
+	 * Releases the resources used by the data source, deleting the sorted runs if the records
+	 * have been sorted externally.
+	 */
+	public void dispose()
+	{
+		if (recordRuns != null)
+		{
+			closeRunsIterator();
+			recordRuns.dispose();
+		}
 	}
 
 	@Override
 	public int getRecordIndex()
 	{
-		return currentRecord.getRecordIndex();
+		return recordColumns == null ? currentRecord.getRecordIndex() 
+				: recordColumns.getRecordIndex(currentPosition);
 	}
 
+	/**
+	 * Returns the records in the original order.
+	 * 
+	 * <p>
+	 * If the records are stored column-wise, the returned list creates record objects on access.
+	 * </p>
+	 * 
+	 * @return the list of records
+	 * @throws IllegalStateException if the records have been sorted externally
+	 */
 	public List<SortRecord> getRecords()
 	{
+		if (recordColumns != null)
+		{
+			return recordColumns.asRecords();
+		}
+		if (records == null)
+		{
+			throw new IllegalStateException("Records sorted in temporary files are not kept in memory");
+		}
 		return records;
 	}
 }
\ No newline at end of file
@@ -0,0 +1,322 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2025 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.fill;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JRRuntimeException;
+import net.sf.jasperreports.engine.fill.SortedDataSource.SortRecord;
+import net.sf.jasperreports.engine.virtualization.VirtualizationInput;
+import net.sf.jasperreports.engine.virtualization.VirtualizationOutput;
+
+/**
+ * Sorted runs of dataset records stored in temporary files.
+ * 
+ * <p>
+ * Used to sort datasets that exceed the in-memory record limit set by {@link DatasetSortUtil#PROPERTY_MEMORY_MAX_RECORDS}.
+ * Each run is written as a sorted chunk of the dataset records, using the virtualization serializers for 
+ * the record values. The runs are merged while the records are read, records that compare as equal being
+ * returned in their original order.
+ * </p>
+ * 
+ * @author agent (agent@local)
+ */
+public class SortedRecordRuns
+{
+	private static final Log log = LogFactory.getLog(SortedRecordRuns.class);
+	
+	public static final String EXCEPTION_MESSAGE_KEY_RUN_READ_ERROR = "fill.dataset.sort.run.read.error";
+	public static final String EXCEPTION_MESSAGE_KEY_RUN_WRITE_ERROR = "fill.dataset.sort.run.write.error";
+	
+	private static final int BUFFER_SIZE = 1 << 16;
+	// resetting the object stream in order not to keep handles for all serialized objects
+	private static final int RESET_INTERVAL = 1000;
+	
+	private final int fieldCount;
+	private final Comparator<SortRecord> comparator;
+	private final List<Run> runs;
+	private int recordCount;
+	
+	/**
+	 * Creates an empty list of runs.
+	 * 
+	 * @param fieldCount the number of values in a record
+	 * @param comparator the comparator used to sort the records in the runs
+	 */
+	public SortedRecordRuns(int fieldCount, Comparator<SortRecord> comparator)
+	{
+		this.fieldCount = fieldCount;
+		this.comparator = comparator;
+		this.runs = new ArrayList<>();
+	}
+	
+	/**
+	 * Writes a sorted run to a temporary file.
+	 * 
+	 * @param records the records
+	 * @param order the sorted order of the records, as indexes in the records list
+	 * @throws JRException
+	 */
+	public void addRun(List<SortRecord> records, Integer[] order) throws JRException
+	{
+		File file = null;
+		try
+		{
+			file = File.createTempFile("jr_sort_", ".run");
+			try (VirtualizationOutput out = new VirtualizationOutput(
+					new BufferedOutputStream(new FileOutputStream(file), BUFFER_SIZE), null))
+			{
+				for (int i = 0; i < order.length; i++)
+				{
+					if (i > 0 && i % RESET_INTERVAL == 0)
+					{
+						out.reset();
+					}
+					
+					SortRecord record = records.get(order[i]);
+					out.writeIntCompressed(record.getOriginalRecordIndex());
+					Object[] values = record.getValues();
+					for (int j = 0; j < fieldCount; j++)
+					{
+						out.writeJRObject(values[j], false, false);
+					}
+				}
+			}
+		}
+		catch (IOException e)
+		{
+			if (file != null)
+			{
+				file.delete();
+			}
+			throw new JRException(EXCEPTION_MESSAGE_KEY_RUN_WRITE_ERROR, (Object[]) null, e);
+		}
+		
+		if (log.isDebugEnabled())
+		{
+			log.debug("wrote run of " + order.length + " sorted records to " + file);
+		}
+		
+		runs.add(new Run(file, order.length));
+		recordCount += order.length;
+	}
+	
+	public int getRunCount()
+	{
+		return runs.size();
+	}
+	
+	public int getRecordCount()
+	{
+		return recordCount;
+	}
+	
+	/**
+	 * Opens the runs for reading the records in sorted order.
+	 * 
+	 * @return an iterator over the merged runs, to be closed after use
+	 * @throws JRException
+	 */
+	public MergeIterator open() throws JRException
+	{
+		MergeIterator iterator = new MergeIterator();
+		try
+		{
+			for (Run run : runs)
+			{
+				iterator.addRun(run);
+			}
+		}
+		catch (JRException | RuntimeException e)
+		{
+			iterator.close();
+			throw e;
+		}
+		return iterator;
+	}
+	
+	/**
+	 * Deletes the run files.
+	 */
+	public void dispose()
+	{
+		for (Run run : runs)
+		{
+			if (!run.file.delete() && log.isWarnEnabled())
+			{
+				log.warn("Could not delete sort run file " + run.file);
+			}
+		}
+		runs.clear();
+		recordCount = 0;
+	}
+	
+	protected static class Run
+	{
+		private final File file;
+		private final int recordCount;
+		
+		public Run(File file, int recordCount)
+		{
+			this.file = file;
+			this.recordCount = recordCount;
+		}
+	}
+	
+	protected class RunReader
+	{
+		private final Run run;
+		private final VirtualizationInput in;
+		private int readCount;
+		private SortRecord current;
+		
+		public RunReader(Run run) throws IOException
+		{
+			this.run = run;
+			this.in = new VirtualizationInput(
+					new BufferedInputStream(new FileInputStream(run.file), BUFFER_SIZE), null);
+		}
+		
+		public boolean advance() throws IOException
+		{
+			if (readCount >= run.recordCount)
+			{
+				current = null;
+				return false;
+			}
+			
+			int originalIndex = in.readIntCompressed();
+			Object[] values = new Object[fieldCount];
+			for (int i = 0; i < fieldCount; i++)
+			{
+				values[i] = in.readJRObject(false);
+			}
+			current = new SortRecord(values, originalIndex);
+			++readCount;
+			return true;
+		}
+		
+		public void close()
+		{
+			try
+			{
+				in.close();
+			}
+			catch (IOException e)
+			{
+				log.warn("Error closing sort run file " + run.file, e);
+			}
+		}
+	}
+	
+	/**
+	 * Iterator that merges the sorted runs.
+	 */
+	public class MergeIterator implements AutoCloseable
+	{
+		private final List<RunReader> readers;
+		private final PriorityQueue<RunReader> queue;
+		
+		protected MergeIterator()
+		{
+			this.readers = new ArrayList<>(runs.size());
+			this.queue = new PriorityQueue<>(Math.max(1, runs.size()), (reader1, reader2) ->
+			{
+				int order = comparator.compare(reader1.current, reader2.current);
+				return order != 0 ? order : Integer.compare(reader1.current.getOriginalRecordIndex(), 
+						reader2.current.getOriginalRecordIndex());
+			});
+		}
+		
+		protected void addRun(Run run) throws JRException
+		{
+			try
+			{
+				RunReader reader = new RunReader(run);
+				readers.add(reader);
+				if (reader.advance())
+				{
+					queue.add(reader);
+				}
+			}
+			catch (IOException e)
+			{
+				throw new JRException(EXCEPTION_MESSAGE_KEY_RUN_READ_ERROR, new Object[]{run.file}, e);
+			}
+		}
+		
+		public boolean hasNext()
+		{
+			return !queue.isEmpty();
+		}
+		
+		public SortRecord next()
+		{
+			RunReader reader = queue.poll();
+			if (reader == null)
+			{
+				throw new NoSuchElementException();
+			}
+			
+			SortRecord record = reader.current;
+			try
+			{
+				if (reader.advance())
+				{
+					queue.add(reader);
+				}
+			}
+			catch (IOException e)
+			{
+				throw new JRRuntimeException(EXCEPTION_MESSAGE_KEY_RUN_READ_ERROR, new Object[]{reader.run.file}, e);
+			}
+			return record;
+		}
+
+		@Override
+		public void close()
+		{
+			for (RunReader reader : readers)
+			{
+				reader.close();
+			}
+			readers.clear();
+			queue.clear();
+		}
+	}
+}
@@ -0,0 +1,353 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2025 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.fill;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import net.sf.jasperreports.annotations.properties.Property;
+import net.sf.jasperreports.annotations.properties.PropertyScope;
+import net.sf.jasperreports.engine.JRElement;
+import net.sf.jasperreports.engine.JRPropertiesUtil;
+import net.sf.jasperreports.engine.JRStyle;
+import net.sf.jasperreports.properties.PropertyConstants;
+
+/**
+ * Fill scope cache of text measuring results.
+ * 
+ * <p>
+ * When enabled via {@link #PROPERTY_ENABLED}, text elements that produce plain text look up
+ * the measuring result in this cache before measuring the text, so that repeated values 
+ * (such as the cells of a tabular report) are measured only once per fill.
+ * Results are cached per design element, element style, text, locale, element size and measuring parameters,
+ * and are shared by all the fill elements created for the same design element, including
+ * elements of subreports filled repeatedly.
+ * </p>
+ * 
+ * <p>
+ * A result that contains the entire text is reused for any available stretch height that is not smaller
+ * than the height it was measured for, since the text would fit in the same way.
+ * Results that only contain a part of the text are reused only for the same available stretch height.
+ * </p>
+ * 
+ * <p>
+ * Texts are measured without the cache when the element uses styled text markup, scales the font to fit,
+ * has dynamic properties, has a style set by a style provider, or uses a custom text measurer.
+ * </p>
+ * 
+ * @author agent (agent@local)
+ */
+public class TextMeasureCache implements JRFillContext.FillCacheDisposable
+{
+	private static final Log log = LogFactory.getLog(TextMeasureCache.class);
+	
+	protected static final String FILL_CACHE_KEY = TextMeasureCache.class.getName();
+	
+	/**
+	 * Property that determines whether text measuring results are cached during the report fill.
+	 * 
+	 * @see TextMeasureCache
+	 */
+	@Property(
+			category = PropertyConstants.CATEGORY_FILL,
+			defaultValue = PropertyConstants.BOOLEAN_FALSE,
+			scopes = {PropertyScope.CONTEXT, PropertyScope.REPORT, PropertyScope.TEXT_ELEMENT},
+			sinceVersion = PropertyConstants.VERSION_7_0_7,
+			valueType = Boolean.class
+			)
+	public static final String PROPERTY_ENABLED = JRPropertiesUtil.PROPERTY_PREFIX + "fill.text.measure.cache.enabled";
+	
+	/**
+	 * Property that specifies the maximum number of text measuring results kept in the cache during a report fill.
+	 * 
+	 * <p>
+	 * The property is read from the master report.
+	 * </p>
+	 * 
+	 * @see TextMeasureCache
+	 */
+	@Property(
+			category = PropertyConstants.CATEGORY_FILL,
+			defaultValue = "10000",
+			scopes = {PropertyScope.CONTEXT, PropertyScope.REPORT},
+			sinceVersion = PropertyConstants.VERSION_7_0_7,
+			valueType = Integer.class
+			)
+	public static final String PROPERTY_MAX_ENTRIES = JRPropertiesUtil.PROPERTY_PREFIX + "fill.text.measure.cache.max.entries";
+	
+	public static final int DEFAULT_MAX_ENTRIES = 10000;
+	
+	/**
+	 * Returns the text measure cache of a report fill, creating it if needed.
+	 * 
+	 * @param fillContext the fill context
+	 * @return the text measure cache
+	 */
+	public static TextMeasureCache getInstance(JRFillContext fillContext)
+	{
+		return fillContext.getFillCache(FILL_CACHE_KEY, () ->
+		{
+			BaseReportFiller masterFiller = fillContext.getMasterFiller();
+			int maxEntries = masterFiller.getPropertiesUtil().getIntegerProperty(masterFiller.getJasperReport(), 
+					PROPERTY_MAX_ENTRIES, DEFAULT_MAX_ENTRIES);
+			return new TextMeasureCache(maxEntries);
+		});
+	}
+	
+	private final int maxEntries;
+	private final Map<MeasureKey, CachedMeasure> measuredTexts;
+	private final AtomicLong hitCount = new AtomicLong();
+	private final AtomicLong missCount = new AtomicLong();
+	
+	/**
+	 * Creates a text measure cache.
+	 * 
+	 * @param maxEntries the maximum number of cached measuring results
+	 */
+	public TextMeasureCache(int maxEntries)
+	{
+		this.maxEntries = maxEntries;
+		this.measuredTexts = new LinkedHashMap<MeasureKey, CachedMeasure>(16, 0.75f, true)
+		{
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<MeasureKey, CachedMeasure> eldest)
+			{
+				return size() > TextMeasureCache.this.maxEntries;
+			}
+		};
+	}
+	
+	/**
+	 * Returns a cached measuring result.
+	 * 
+	 * @param key the measuring key
+	 * @param availableStretchHeight the available stretch height
+	 * @return the cached result, or <code>null</code> if no result applies to the key and available stretch height
+	 */
+	public JRMeasuredText get(MeasureKey key, int availableStretchHeight)
+	{
+		CachedMeasure cachedMeasure;
+		synchronized (measuredTexts)
+		{
+			cachedMeasure = measuredTexts.get(key);
+		}
+		
+		JRMeasuredText measuredText = cachedMeasure != null && cachedMeasure.appliesTo(availableStretchHeight) 
+				? cachedMeasure.measuredText : null;
+		if (measuredText == null)
+		{
+			missCount.incrementAndGet();
+		}
+		else
+		{
+			hitCount.incrementAndGet();
+		}
+		return measuredText;
+	}
+	
+	/**
+	 * Adds a measuring result to the cache.
+	 * 
+	 * @param key the measuring key
+	 * @param availableStretchHeight the available stretch height used to measure the text
+	 * @param measuredText the measuring result
+	 * @param complete whether the result contains the entire text
+	 */
+	public void put(MeasureKey key, int availableStretchHeight, JRMeasuredText measuredText, boolean complete)
+	{
+		if (maxEntries <= 0)
+		{
+			return;
+		}
+		
+		CachedMeasure cachedMeasure = new CachedMeasure(measuredText, availableStretchHeight, complete);
+		synchronized (measuredTexts)
+		{
+			CachedMeasure existing = measuredTexts.get(key);
+			// keep complete results that apply to more stretch heights
+			if (existing == null || !existing.complete 
+					|| (complete && availableStretchHeight < existing.availableStretchHeight))
+			{
+				measuredTexts.put(key, cachedMeasure);
+			}
+		}
+	}
+	
+	/**
+	 * Returns the number of results currently in the cache.
+	 * 
+	 * @return the number of cached results
+	 */
+	public int getSize()
+	{
+		synchronized (measuredTexts)
+		{
+			return measuredTexts.size();
+		}
+	}
+	
+	public int getMaxEntries()
+	{
+		return maxEntries;
+	}
+	
+	public long getHitCount()
+	{
+		return hitCount.get();
+	}
+	
+	public long getMissCount()
+	{
+		return missCount.get();
+	}
+	
+	/**
+	 * Returns the ratio of lookups that found the result in the cache.
+	 * 
+	 * @return the cache hit rate, between 0 and 1
+	 */
+	public double getHitRate()
+	{
+		long hits = hitCount.get();
+		long lookups = hits + missCount.get();
+		return lookups == 0 ? 0 : (double) hits / lookups;
+	}
+
+	@Override
+	public void dispose()
+	{
+		if (log.isDebugEnabled())
+		{
+			log.debug("text measure cache: " + getHitCount() + " hits, " + getMissCount() + " misses, hit rate " 
+					+ String.format("%.2f", getHitRate()) + ", " + getSize() + " entries");
+		}
+		
+		synchronized (measuredTexts)
+		{
+			measuredTexts.clear();
+		}
+	}
+	
+	protected static class CachedMeasure
+	{
+		private final JRMeasuredText measuredText;
+		private final int availableStretchHeight;
+		private final boolean complete;
+		
+		public CachedMeasure(JRMeasuredText measuredText, int availableStretchHeight, boolean complete)
+		{
+			this.measuredText = measuredText;
+			this.availableStretchHeight = availableStretchHeight;
+			this.complete = complete;
+		}
+		
+		public boolean appliesTo(int stretchHeight)
+		{
+			return complete ? stretchHeight >= availableStretchHeight : stretchHeight == availableStretchHeight;
+		}
+	}
+	
+	/**
+	 * Key of a text measuring result.
+	 * 
+	 * <p>
+	 * The design element and the style are compared by identity.
+	 * </p>
+	 */
+	public static class MeasureKey
+	{
+		private final JRElement template;
+		private final JRStyle style;
+		private final String text;
+		private final Locale locale;
+		private final int width;
+		private final int height;
+		private final int remainingTextStart;
+		private final boolean indentFirstLine;
+		private final boolean canOverflow;
+		private final int hash;
+		
+		public MeasureKey(JRElement template, JRStyle style, String text, Locale locale, int width, int height, 
+				int remainingTextStart, boolean indentFirstLine, boolean canOverflow)
+		{
+			this.template = template;
+			this.style = style;
+			this.text = text;
+			this.locale = locale;
+			this.width = width;
+			this.height = height;
+			this.remainingTextStart = remainingTextStart;
+			this.indentFirstLine = indentFirstLine;
+			this.canOverflow = canOverflow;
+			this.hash = computeHash();
+		}
+		
+		private int computeHash()
+		{
+			int hash = System.identityHashCode(template);
+			hash = 31 * hash + System.identityHashCode(style);
+			hash = 31 * hash + text.hashCode();
+			hash = 31 * hash + Objects.hashCode(locale);
+			hash = 31 * hash + width;
+			hash = 31 * hash + height;
+			hash = 31 * hash + remainingTextStart;
+			hash = 31 * hash + (indentFirstLine ? 1 : 0);
+			hash = 31 * hash + (canOverflow ? 1 : 0);
+			return hash;
+		}
+
+		@Override
+		public int hashCode()
+		{
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object obj)
+		{
+			if (obj == this)
+			{
+				return true;
+			}
+			if (!(obj instanceof MeasureKey))
+			{
+				return false;
+			}
+			MeasureKey key = (MeasureKey) obj;
+			return hash == key.hash && template == key.template && style == key.style
+					&& width == key.width && height == key.height
+					&& remainingTextStart == key.remainingTextStart
+					&& indentFirstLine == key.indentFirstLine && canOverflow == key.canOverflow
+					&& text.equals(key.text) && Objects.equals(locale, key.locale);
+		}
+	}
+}
@@ -0,0 +1,169 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2025 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.fill;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import net.sf.jasperreports.engine.JRRuntimeException;
+
+
+/**
+ * Subreport runner factory that fills subreports on virtual threads.
+ * 
+ * <p>
+ * Thread based subreport filling uses one thread for each running subreport, and most of these threads
+ * are blocked waiting for the master filler to consume the subreport pages.
+ * This factory creates a virtual thread per subreport fill, which avoids tying a platform
+ * thread to each subreport when filling reports with many nested subreports or when
+ * running many concurrent fills.
+ * </p>
+ * <p>
+ * Virtual threads are available starting with Java 21.  On older Java versions the factory
+ * falls back to a cached pool of platform threads, as {@link ThreadPoolSubreportRunnerFactory} does.
+ * Note that subreport fill threads synchronize via object monitors, and that virtual threads
+ * waiting on a monitor only release their carrier thread starting with Java 24.
+ * </p>
+ * <p>
+ * The factory is used by setting the {@link JRSubreportRunnerFactory#SUBREPORT_RUNNER_FACTORY} property
+ * to the name of this class.
+ * </p>
+ * 
+ * @author agent (agent@local)
+ */
+public class VirtualThreadSubreportRunnerFactory extends ThreadPoolSubreportRunnerFactory
+{
+	private static final Log log = LogFactory.getLog(VirtualThreadSubreportRunnerFactory.class);
+	
+	public static final String EXCEPTION_MESSAGE_KEY_VIRTUAL_THREAD_EXECUTOR_ERROR = "fill.subreport.virtual.thread.executor.error";
+	
+	private static final VirtualThreadSupport VIRTUAL_THREAD_SUPPORT = VirtualThreadSupport.detect();
+
+	/**
+	 * Determines whether virtual threads are supported by the Java runtime.
+	 * 
+	 * @return whether virtual threads are used to fill subreports
+	 */
+	public static boolean isVirtualThreadSupported()
+	{
+		return VIRTUAL_THREAD_SUPPORT != null;
+	}
+	
+	@Override
+	protected ExecutorService createThreadExecutor(JRFillContext fillContext)
+	{
+		if (VIRTUAL_THREAD_SUPPORT == null)
+		{
+			return super.createThreadExecutor(fillContext);
+		}
+		
+		String threadName = fillContext.getMasterFiller().getJasperReport().getName() + " subreports #";
+		ExecutorService threadExecutor = VIRTUAL_THREAD_SUPPORT.createExecutor(threadName);
+		if (log.isDebugEnabled())
+		{
+			log.debug("created subreports virtual thread executor " + threadExecutor 
+					+ " for " + fillContext.getMasterFiller().getJasperReport().getName());
+		}
+		return threadExecutor;
+	}
+	
+	/**
+	 * Reflective access to the virtual threads API, which is not available at the source level
+	 * used by the library.
+	 */
+	protected static class VirtualThreadSupport
+	{
+		private final Method ofVirtualMethod;
+		private final Method nameMethod;
+		private final Method factoryMethod;
+		private final Method newThreadPerTaskExecutorMethod;
+		
+		protected VirtualThreadSupport(Method ofVirtualMethod, Method nameMethod, Method factoryMethod, 
+				Method newThreadPerTaskExecutorMethod)
+		{
+			this.ofVirtualMethod = ofVirtualMethod;
+			this.nameMethod = nameMethod;
+			this.factoryMethod = factoryMethod;
+			this.newThreadPerTaskExecutorMethod = newThreadPerTaskExecutorMethod;
+		}
+		
+		protected static VirtualThreadSupport detect()
+		{
+			try
+			{
+				Method ofVirtualMethod = Thread.class.getMethod("ofVirtual");
+				Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+				Method nameMethod = builderClass.getMethod("name", String.class, long.class);
+				Method factoryMethod = builderClass.getMethod("factory");
+				Method newThreadPerTaskExecutorMethod = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+				
+				// making sure that virtual threads are not disabled as a preview feature
+				ofVirtualMethod.invoke(null);
+				
+				return new VirtualThreadSupport(ofVirtualMethod, nameMethod, factoryMethod, newThreadPerTaskExecutorMethod);
+			}
+			catch (ClassNotFoundException | NoSuchMethodException e)
+			{
+				if (log.isDebugEnabled())
+				{
+					log.debug("virtual threads not available, using platform threads for subreports");
+				}
+				return null;
+			}
+			catch (IllegalAccessException | InvocationTargetException | RuntimeException e)
+			{
+				if (log.isWarnEnabled())
+				{
+					log.warn("Virtual threads cannot be used, using platform threads for subreports", e);
+				}
+				return null;
+			}
+		}
+		
+		public ExecutorService createExecutor(String threadNamePrefix)
+		{
+			try
+			{
+				Object builder = ofVirtualMethod.invoke(null);
+				builder = nameMethod.invoke(builder, threadNamePrefix, 1L);
+				ThreadFactory threadFactory = (ThreadFactory) factoryMethod.invoke(builder);
+				return (ExecutorService) newThreadPerTaskExecutorMethod.invoke(null, threadFactory);
+			}
+			catch (IllegalAccessException | InvocationTargetException e)
+			{
+				throw 
+					new JRRuntimeException(
+						EXCEPTION_MESSAGE_KEY_VIRTUAL_THREAD_EXECUTOR_ERROR,
+						(Object[])null,
+						e);
+			}
+		}
+	}
+}
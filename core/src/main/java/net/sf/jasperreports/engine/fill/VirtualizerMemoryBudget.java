@@ -0,0 +1,123 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2025 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.fill;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+
+/**
+ * Memory budget for the data of the paged in virtualizable objects.
+ * <p>
+ * The budget keeps track of the estimated size of the objects kept in memory by one or more
+ * {@link JRConcurrentVirtualizer virtualizers}.  The size of an object is estimated from
+ * the length of its serialized data, as recorded when the object was last paged out or in.
+ * For objects that were never serialized, the average size of the serialized objects is used.
+ * <p>
+ * A single budget instance can be shared by the virtualizers of all the concurrent fills in
+ * a JVM, in which case each virtualizer evicts its own least recently used objects when the
+ * total size exceeds the budget.
+ * 
+ * @author agent (agent@local)
+ * @see JRConcurrentVirtualizer#JRConcurrentVirtualizer(int, JRAbstractLRUVirtualizer, VirtualizerMemoryBudget)
+ */
+public class VirtualizerMemoryBudget
+{
+	
+	private static final long DEFAULT_OBJECT_SIZE = 16 * 1024;
+	
+	private final long maxSize;
+	private final AtomicLong size;
+	private final AtomicLong sampledSize;
+	private final AtomicLong sampleCount;
+
+	/**
+	 * Creates a memory budget.
+	 * 
+	 * @param maxSize the maximum size in bytes of the paged in objects
+	 */
+	public VirtualizerMemoryBudget(long maxSize)
+	{
+		this.maxSize = maxSize;
+		this.size = new AtomicLong();
+		this.sampledSize = new AtomicLong();
+		this.sampleCount = new AtomicLong();
+	}
+
+	/**
+	 * Returns the maximum size in bytes of the paged in objects.
+	 * 
+	 * @return the budget size
+	 */
+	public long getMaxSize()
+	{
+		return maxSize;
+	}
+
+	/**
+	 * Returns the current estimated size in bytes of the paged in objects.
+	 * 
+	 * @return the estimated size of the paged in objects
+	 */
+	public long getSize()
+	{
+		return size.get();
+	}
+
+	/**
+	 * Returns the number of bytes by which the budget is exceeded.
+	 * 
+	 * @return the excess size, or a zero or negative value if the budget is not exceeded
+	 */
+	public long getExcess()
+	{
+		return size.get() - maxSize;
+	}
+	
+	protected void add(long objectSize)
+	{
+		size.addAndGet(objectSize);
+	}
+	
+	protected void subtract(long objectSize)
+	{
+		size.addAndGet(-objectSize);
+	}
+	
+	protected void sample(long objectSize)
+	{
+		sampledSize.addAndGet(objectSize);
+		sampleCount.incrementAndGet();
+	}
+	
+	/**
+	 * Returns the average serialized size of the objects recorded so far.
+	 * 
+	 * @return the average serialized object size
+	 */
+	public long getAverageObjectSize()
+	{
+		long count = sampleCount.get();
+		return count == 0 ? DEFAULT_OBJECT_SIZE : sampledSize.get() / count;
+	}
+}
@@ -239,6 +239,12 @@
  * represents an enhanced implementation of the JRSwapFile that only works with JRE 
  * version 1.4 or later, because it uses a <code>java.nio.channels.FileChannel</code> to perform 
  * concurrent I/O on the swap file. 
+ * </p><p>
+ * When many report-filling processes share the same swap virtualizer, the 
+ * {@link net.sf.jasperreports.engine.util.JRSegmentedSwapFile} class can be used to spread 
+ * the virtualized data over several concurrent swap files, each having its own list of free 
+ * blocks and its own lock. The segment is chosen based on the virtualization context of the 
+ * data, so that concurrent fills do not contend for a single swap file. 
  * </p>
  * <h3>In-Memory GZIP Virtualizer</h3>
  * The {@link net.sf.jasperreports.engine.fill.JRGzipVirtualizer} is a convenient 
@@ -247,6 +253,23 @@
  * memory consumption by compressing those pages in-memory using a GZIP algorithm. 
  * Tests indicate that memory consumption during large report-generating processes is 
  * reduced up to a factor of ten when the in-memory GZIP report virtualizer is used. 
+ * <p>
+ * When compressing the pages with GZIP takes too much CPU time, a faster compression such as 
+ * {@link net.sf.jasperreports.engine.util.FastBlockStreamCompression} can be passed to the 
+ * virtualizer. The same {@link net.sf.jasperreports.engine.util.StreamCompression} implementations 
+ * can be used for the pages written by the swap file and off-heap virtualizers. 
+ * </p>
+ * <h3>Concurrent Virtualizer</h3>
+ * When a virtualizer is shared by many concurrent report fills and exports, the 
+ * {@link net.sf.jasperreports.engine.fill.JRConcurrentVirtualizer} can be used to wrap any of 
+ * the virtualizers above. It keeps track of the in-memory pages using concurrent data structures 
+ * and records page accesses without locking, delegating only the storage of the virtualized pages 
+ * to the wrapped virtualizer. 
+ * <h3>Off-Heap Virtualizer</h3>
+ * The {@link net.sf.jasperreports.engine.fill.JROffHeapVirtualizer} keeps the serialized 
+ * pages in a bounded off-heap memory arena, outside the garbage collected heap. Only when the 
+ * arena is full, the oldest pages are moved to a swap file, so that most page-outs and page-ins 
+ * do not involve any disk I/O. 
  * <h3>Related Documentation</h3>
  * <a href="http://community.jaspersoft.com/wiki/jasperreports-library-tutorial">JasperReports Tutorial</a>
  * 
@@ -257,6 +280,7 @@
  * @see net.sf.jasperreports.engine.JRVirtualizer
  * @see net.sf.jasperreports.engine.util.JRConcurrentSwapFile
  * @see net.sf.jasperreports.engine.util.JRLoader
+ * @see net.sf.jasperreports.engine.util.JRSegmentedSwapFile
  * @see net.sf.jasperreports.engine.util.JRSwapFile
  */
 package net.sf.jasperreports.engine.fill;
@@ -0,0 +1,113 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2025 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.util;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Input stream that reads the remaining data of a sequence of byte buffers.
+ * <p>
+ * The buffers are read directly, without copying their contents to an intermediate array.
+ * The positions of the buffers are advanced as data is read, callers should pass
+ * buffers that are not shared with other threads (e.g. duplicates or slices).
+ * 
+ * @author agent (agent@local)
+ */
+public class ByteBuffersInputStream extends InputStream
+{
+	private final ByteBuffer[] buffers;
+	private int bufferIndex;
+	
+	public ByteBuffersInputStream(ByteBuffer... buffers)
+	{
+		this.buffers = buffers;
+		this.bufferIndex = 0;
+	}
+	
+	protected ByteBuffer current()
+	{
+		while (bufferIndex < buffers.length)
+		{
+			ByteBuffer buffer = buffers[bufferIndex];
+			if (buffer.hasRemaining())
+			{
+				return buffer;
+			}
+			++bufferIndex;
+		}
+		return null;
+	}
+
+	@Override
+	public int read()
+	{
+		ByteBuffer current = current();
+		return current == null ? -1 : (current.get() & 0xff);
+	}
+
+	@Override
+	public int read(byte[] b, int off, int len)
+	{
+		if (len == 0)
+		{
+			return 0;
+		}
+		
+		ByteBuffer current = current();
+		if (current == null)
+		{
+			return -1;
+		}
+		
+		int count = Math.min(len, current.remaining());
+		current.get(b, off, count);
+		return count;
+	}
+
+	@Override
+	public long skip(long n)
+	{
+		long skipped = 0;
+		ByteBuffer current;
+		while (skipped < n && (current = current()) != null)
+		{
+			int count = (int) Math.min(n - skipped, current.remaining());
+			current.position(current.position() + count);
+			skipped += count;
+		}
+		return skipped;
+	}
+
+	@Override
+	public int available()
+	{
+		long available = 0;
+		for (int i = bufferIndex; i < buffers.length; i++)
+		{
+			available += buffers[i].remaining();
+		}
+		return (int) Math.min(available, Integer.MAX_VALUE);
+	}
+}
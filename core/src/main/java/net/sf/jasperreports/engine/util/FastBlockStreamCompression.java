@@ -0,0 +1,542 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2025 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.util;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+import net.sf.jasperreports.engine.JRRuntimeException;
+
+/**
+ * Fast block compression implemented in pure Java.
+ * 
+ * <p>
+ * The data is split into blocks that are compressed using a LZ77 algorithm
+ * similar to LZ4: repeated sequences of at least 4 bytes are found using a hash table
+ * and encoded as back references, without any entropy coding.
+ * The compression ratio is lower than the one achieved by {@link DeflateStreamCompression},
+ * but compressing and decompressing the data is considerably faster, which makes it
+ * more suitable for virtualizers that write pages often.
+ * </p>
+ * 
+ * <p>
+ * The format is not compatible with the LZ4 frame format, it is only meant to be
+ * read back by the same class.
+ * </p>
+ * 
+ * @author agent (agent@local)
+ */
+public class FastBlockStreamCompression implements StreamCompression
+{
+	public static final String EXCEPTION_MESSAGE_KEY_INVALID_DATA = "util.fast.block.compression.invalid.data";
+	
+	public static final int DEFAULT_BLOCK_SIZE = 1 << 16;
+	
+	protected static final int BLOCK_END = 0;
+	protected static final int BLOCK_COMPRESSED = 1;
+	protected static final int BLOCK_RAW = 2;
+	
+	private static final int MIN_MATCH = 4;
+	private static final int MAX_OFFSET = 0xFFFF;
+	private static final int HASH_LOG = 12;
+	private static final int SKIP_TRIGGER = 6;
+	
+	private final int blockSize;
+	
+	public FastBlockStreamCompression()
+	{
+		this(DEFAULT_BLOCK_SIZE);
+	}
+	
+	/**
+	 * @param blockSize the size of the blocks in which the data is compressed
+	 */
+	public FastBlockStreamCompression(int blockSize)
+	{
+		this.blockSize = blockSize;
+	}
+
+	@Override
+	public OutputStream compressedOutput(OutputStream stream)
+	{
+		return new BlockOutputStream(stream, blockSize);
+	}
+
+	@Override
+	public InputStream uncompressedInput(InputStream stream)
+	{
+		return new BlockInputStream(stream);
+	}
+
+	public int getBlockSize()
+	{
+		return blockSize;
+	}
+	
+	/**
+	 * Returns the maximum size of the compressed data for a number of bytes.
+	 */
+	public static int maxCompressedLength(int length)
+	{
+		return length + length / 255 + 16;
+	}
+	
+	/**
+	 * Compresses a block of data.
+	 * 
+	 * @param src the data to compress
+	 * @param srcLength the number of bytes to compress
+	 * @param dest the destination buffer, of at least {@link #maxCompressedLength(int)} bytes
+	 * @param hashTable hash table used to find matches, of size <code>1 << 12</code>
+	 * @return the compressed size
+	 */
+	public static int compress(byte[] src, int srcLength, byte[] dest, int[] hashTable)
+	{
+		Arrays.fill(hashTable, -1);
+		
+		int anchor = 0;
+		int srcIndex = 0;
+		int destIndex = 0;
+		int matchLimit = srcLength - MIN_MATCH;
+		while (srcIndex <= matchLimit)
+		{
+			int sequence = readInt(src, srcIndex);
+			int hash = (sequence * -1640531535) >>> (32 - HASH_LOG);
+			int ref = hashTable[hash];
+			hashTable[hash] = srcIndex;
+			
+			if (ref < 0 || srcIndex - ref > MAX_OFFSET || readInt(src, ref) != sequence)
+			{
+				// advancing faster through data that does not compress
+				srcIndex += 1 + ((srcIndex - anchor) >>> SKIP_TRIGGER);
+				continue;
+			}
+			
+			// extending the match backwards
+			while (srcIndex > anchor && ref > 0 && src[srcIndex - 1] == src[ref - 1])
+			{
+				--srcIndex;
+				--ref;
+			}
+			
+			int matchLength = MIN_MATCH;
+			while (srcIndex + matchLength < srcLength && src[ref + matchLength] == src[srcIndex + matchLength])
+			{
+				++matchLength;
+			}
+			
+			destIndex = writeSequence(src, anchor, srcIndex - anchor, dest, destIndex, 
+					srcIndex - ref, matchLength);
+			
+			srcIndex += matchLength;
+			anchor = srcIndex;
+		}
+		
+		// the last sequence only has literals
+		return writeSequence(src, anchor, srcLength - anchor, dest, destIndex, 0, 0);
+	}
+	
+	private static int writeSequence(byte[] src, int literalsStart, int literalsLength, 
+			byte[] dest, int destIndex, int offset, int matchLength)
+	{
+		int tokenIndex = destIndex++;
+		int token = (literalsLength >= 15 ? 15 : literalsLength) << 4;
+		if (literalsLength >= 15)
+		{
+			destIndex = writeLength(dest, destIndex, literalsLength - 15);
+		}
+		
+		System.arraycopy(src, literalsStart, dest, destIndex, literalsLength);
+		destIndex += literalsLength;
+		
+		if (matchLength > 0)
+		{
+			dest[destIndex++] = (byte) offset;
+			dest[destIndex++] = (byte) (offset >>> 8);
+			
+			int matchCode = matchLength - MIN_MATCH;
+			token |= matchCode >= 15 ? 15 : matchCode;
+			if (matchCode >= 15)
+			{
+				destIndex = writeLength(dest, destIndex, matchCode - 15);
+			}
+		}
+		
+		dest[tokenIndex] = (byte) token;
+		return destIndex;
+	}
+	
+	private static int writeLength(byte[] dest, int destIndex, int length)
+	{
+		int remaining = length;
+		while (remaining >= 255)
+		{
+			dest[destIndex++] = (byte) 255;
+			remaining -= 255;
+		}
+		dest[destIndex++] = (byte) remaining;
+		return destIndex;
+	}
+	
+	private static int readInt(byte[] data, int index)
+	{
+		return (data[index] & 0xFF)
+				| ((data[index + 1] & 0xFF) << 8)
+				| ((data[index + 2] & 0xFF) << 16)
+				| ((data[index + 3] & 0xFF) << 24);
+	}
+	
+	/**
+	 * Decompresses a block of data produced by {@link #compress(byte[], int, byte[], int[])}.
+	 * 
+	 * @param src the compressed data
+	 * @param srcLength the size of the compressed data
+	 * @param dest the destination buffer
+	 * @param destLength the uncompressed size
+	 */
+	public static void decompress(byte[] src, int srcLength, byte[] dest, int destLength)
+	{
+		int srcIndex = 0;
+		int destIndex = 0;
+		while (srcIndex < srcLength)
+		{
+			int token = src[srcIndex++] & 0xFF;
+			
+			int literalsLength = token >>> 4;
+			if (literalsLength == 15)
+			{
+				int lengthByte;
+				do
+				{
+					checkData(srcIndex < srcLength);
+					lengthByte = src[srcIndex++] & 0xFF;
+					literalsLength += lengthByte;
+				}
+				while (lengthByte == 255);
+			}
+			
+			checkData(srcIndex + literalsLength <= srcLength && destIndex + literalsLength <= destLength);
+			System.arraycopy(src, srcIndex, dest, destIndex, literalsLength);
+			srcIndex += literalsLength;
+			destIndex += literalsLength;
+			
+			if (srcIndex == srcLength)
+			{
+				// last sequence
+				break;
+			}
+			
+			checkData(srcIndex + 2 <= srcLength);
+			int offset = (src[srcIndex] & 0xFF) | ((src[srcIndex + 1] & 0xFF) << 8);
+			srcIndex += 2;
+			
+			int matchLength = token & 0x0F;
+			if (matchLength == 15)
+			{
+				int lengthByte;
+				do
+				{
+					checkData(srcIndex < srcLength);
+					lengthByte = src[srcIndex++] & 0xFF;
+					matchLength += lengthByte;
+				}
+				while (lengthByte == 255);
+			}
+			matchLength += MIN_MATCH;
+			
+			int ref = destIndex - offset;
+			checkData(offset > 0 && ref >= 0 && destIndex + matchLength <= destLength);
+			if (offset >= matchLength)
+			{
+				System.arraycopy(dest, ref, dest, destIndex, matchLength);
+				destIndex += matchLength;
+			}
+			else
+			{
+				// overlapping match
+				for (int i = 0; i < matchLength; i++)
+				{
+					dest[destIndex++] = dest[ref + i];
+				}
+			}
+		}
+		
+		checkData(destIndex == destLength);
+	}
+	
+	private static void checkData(boolean valid)
+	{
+		if (!valid)
+		{
+			throw 
+				new JRRuntimeException(
+					EXCEPTION_MESSAGE_KEY_INVALID_DATA,
+					(Object[])null);
+		}
+	}
+	
+	protected static void writeBlockInt(OutputStream out, int value) throws IOException
+	{
+		out.write(value >>> 24);
+		out.write(value >>> 16);
+		out.write(value >>> 8);
+		out.write(value);
+	}
+	
+	protected static int readBlockInt(InputStream in) throws IOException
+	{
+		int b1 = in.read();
+		int b2 = in.read();
+		int b3 = in.read();
+		int b4 = in.read();
+		if ((b1 | b2 | b3 | b4) < 0)
+		{
+			throw new EOFException();
+		}
+		return (b1 << 24) | (b2 << 16) | (b3 << 8) | b4;
+	}
+	
+	protected static void readFully(InputStream in, byte[] data, int length) throws IOException
+	{
+		int read = 0;
+		while (read < length)
+		{
+			int count = in.read(data, read, length - read);
+			if (count < 0)
+			{
+				throw new EOFException();
+			}
+			read += count;
+		}
+	}
+	
+	protected static class BlockOutputStream extends OutputStream
+	{
+		private final OutputStream out;
+		private final byte[] block;
+		private final byte[] compressed;
+		private final int[] hashTable = new int[1 << HASH_LOG];
+		private int blockLength;
+		private boolean closed;
+		
+		public BlockOutputStream(OutputStream out, int blockSize)
+		{
+			this.out = out;
+			this.block = new byte[blockSize];
+			this.compressed = new byte[maxCompressedLength(blockSize)];
+		}
+
+		@Override
+		public void write(int b) throws IOException
+		{
+			if (blockLength == block.length)
+			{
+				writeBlock();
+			}
+			block[blockLength++] = (byte) b;
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException
+		{
+			int offset = off;
+			int remaining = len;
+			while (remaining > 0)
+			{
+				if (blockLength == block.length)
+				{
+					writeBlock();
+				}
+				
+				int count = Math.min(remaining, block.length - blockLength);
+				System.arraycopy(b, offset, block, blockLength, count);
+				blockLength += count;
+				offset += count;
+				remaining -= count;
+			}
+		}
+		
+		protected void writeBlock() throws IOException
+		{
+			if (blockLength == 0)
+			{
+				return;
+			}
+			
+			int compressedLength = compress(block, blockLength, compressed, hashTable);
+			if (compressedLength < blockLength)
+			{
+				out.write(BLOCK_COMPRESSED);
+				writeBlockInt(out, compressedLength);
+				writeBlockInt(out, blockLength);
+				out.write(compressed, 0, compressedLength);
+			}
+			else
+			{
+				out.write(BLOCK_RAW);
+				writeBlockInt(out, blockLength);
+				out.write(block, 0, blockLength);
+			}
+			
+			blockLength = 0;
+		}
+
+		@Override
+		public void flush() throws IOException
+		{
+			// not writing incomplete blocks
+			out.flush();
+		}
+
+		@Override
+		public void close() throws IOException
+		{
+			if (!closed)
+			{
+				closed = true;
+				try
+				{
+					writeBlock();
+					out.write(BLOCK_END);
+					out.flush();
+				}
+				finally
+				{
+					out.close();
+				}
+			}
+		}
+	}
+	
+	protected static class BlockInputStream extends InputStream
+	{
+		private final InputStream in;
+		private byte[] block = new byte[0];
+		private byte[] compressed = new byte[0];
+		private int blockLength;
+		private int blockPosition;
+		private boolean ended;
+		
+		public BlockInputStream(InputStream in)
+		{
+			this.in = in;
+		}
+		
+		protected boolean readBlock() throws IOException
+		{
+			while (!ended && blockPosition == blockLength)
+			{
+				int type = in.read();
+				switch (type)
+				{
+				case BLOCK_COMPRESSED:
+				{
+					int compressedLength = readBlockInt(in);
+					int length = readBlockInt(in);
+					checkData(compressedLength >= 0 && length >= 0);
+					if (compressed.length < compressedLength)
+					{
+						compressed = new byte[compressedLength];
+					}
+					ensureBlock(length);
+					readFully(in, compressed, compressedLength);
+					decompress(compressed, compressedLength, block, length);
+					blockLength = length;
+					blockPosition = 0;
+					break;
+				}
+				case BLOCK_RAW:
+				{
+					int length = readBlockInt(in);
+					checkData(length >= 0);
+					ensureBlock(length);
+					readFully(in, block, length);
+					blockLength = length;
+					blockPosition = 0;
+					break;
+				}
+				case BLOCK_END:
+				case -1:
+					ended = true;
+					break;
+				default:
+					checkData(false);
+				}
+			}
+			return blockPosition < blockLength;
+		}
+		
+		private void ensureBlock(int length)
+		{
+			if (block.length < length)
+			{
+				block = new byte[length];
+			}
+		}
+
+		@Override
+		public int read() throws IOException
+		{
+			if (!readBlock())
+			{
+				return -1;
+			}
+			return block[blockPosition++] & 0xFF;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException
+		{
+			if (len == 0)
+			{
+				return 0;
+			}
+			
+			if (!readBlock())
+			{
+				return -1;
+			}
+			
+			int count = Math.min(len, blockLength - blockPosition);
+			System.arraycopy(block, blockPosition, b, off, count);
+			blockPosition += count;
+			return count;
+		}
+
+		@Override
+		public int available() throws IOException
+		{
+			return blockLength - blockPosition;
+		}
+
+		@Override
+		public void close() throws IOException
+		{
+			in.close();
+		}
+	}
+}
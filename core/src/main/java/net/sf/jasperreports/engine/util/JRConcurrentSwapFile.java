@@ -28,6 +28,7 @@ import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
 
 import net.sf.jasperreports.engine.JRRuntimeException;
+import net.sf.jasperreports.engine.JasperReportsContext;
 
 
 /**
@@ -59,6 +60,23 @@ public class JRConcurrentSwapFile extends JRSwapFile
 		fileChannel = file.getChannel();
 	}
 	
+	/**
+	 * Creates a swap file.
+	 * 
+	 * The file name is generated automatically.
+	 * 
+	 * @param jasperReportsContext the JasperReportsContext to read configuration from.
+	 * @param directory the directory where the file should be created.
+	 * @param blockSize the size of the blocks allocated by the swap file
+	 * @param minGrowCount the minimum number of blocks by which the swap file grows when full
+	 */
+	public JRConcurrentSwapFile(JasperReportsContext jasperReportsContext, String directory, int blockSize, int minGrowCount)
+	{
+		super(jasperReportsContext, directory, blockSize, minGrowCount);
+
+		fileChannel = file.getChannel();
+	}
+	
 	@Override
 	public String toString()
 	{
@@ -0,0 +1,207 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2025 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.util;
+
+import java.io.IOException;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import net.sf.jasperreports.engine.DefaultJasperReportsContext;
+import net.sf.jasperreports.engine.JasperReportsContext;
+import net.sf.jasperreports.engine.util.JRSwapFile.SwapHandle;
+
+
+/**
+ * Swap file implementation that spreads the data over several independent
+ * {@link JRConcurrentSwapFile concurrent swap files}.
+ * <p>
+ * Each segment has its own file, its own list of free blocks and its own lock,
+ * so that threads writing data for different owners (usually virtualization contexts
+ * of different report fills) do not contend for the same swap file.
+ * The segment in which an area is allocated is chosen based on the identity hash code
+ * of the data owner, and the returned handle keeps track of the segment so that
+ * reading and freeing the area is performed directly on the segment.
+ * 
+ * @author agent (agent@local)
+ * @see SwapFile#write(byte[], Object)
+ */
+public class JRSegmentedSwapFile implements SwapFile
+{
+	private static final Log log = LogFactory.getLog(JRSegmentedSwapFile.class);
+	
+	private final JRConcurrentSwapFile[] segments;
+
+	/**
+	 * Creates a segmented swap file with a number of segments equal to the number
+	 * of available processors.
+	 * 
+	 * @param directory the directory where the segment files should be created.
+	 * @param blockSize the size of the blocks allocated by the swap file
+	 * @param minGrowCount the minimum number of blocks by which a segment grows when full
+	 */
+	public JRSegmentedSwapFile(String directory, int blockSize, int minGrowCount)
+	{
+		this(directory, blockSize, minGrowCount, Runtime.getRuntime().availableProcessors());
+	}
+	
+	/**
+	 * Creates a segmented swap file.
+	 * 
+	 * @param directory the directory where the segment files should be created.
+	 * @param blockSize the size of the blocks allocated by the swap file
+	 * @param minGrowCount the minimum number of blocks by which a segment grows when full
+	 * @param segmentCount the number of segments
+	 */
+	public JRSegmentedSwapFile(String directory, int blockSize, int minGrowCount, int segmentCount)
+	{
+		this(DefaultJasperReportsContext.getInstance(), directory, blockSize, minGrowCount, segmentCount);
+	}
+	
+	/**
+	 * Creates a segmented swap file.
+	 * 
+	 * @param jasperReportsContext the JasperReportsContext to read configuration from.
+	 * @param directory the directory where the segment files should be created.
+	 * @param blockSize the size of the blocks allocated by the swap file
+	 * @param minGrowCount the minimum number of blocks by which a segment grows when full
+	 * @param segmentCount the number of segments
+	 */
+	public JRSegmentedSwapFile(JasperReportsContext jasperReportsContext, String directory, 
+			int blockSize, int minGrowCount, int segmentCount)
+	{
+		if (segmentCount <= 0)
+		{
+			throw new IllegalArgumentException("Invalid segment count " + segmentCount);
+		}
+		
+		segments = new JRConcurrentSwapFile[segmentCount];
+		for (int i = 0; i < segmentCount; i++)
+		{
+			segments[i] = new JRConcurrentSwapFile(jasperReportsContext, directory, blockSize, minGrowCount);
+		}
+		
+		if (log.isDebugEnabled())
+		{
+			log.debug("created " + this);
+		}
+	}
+	
+	@Override
+	public String toString()
+	{
+		return "JRSegmentedSwapFile " + segments.length + " segments in " 
+				+ segments[0].swapFile.getAbsoluteFile().getParent();
+	}
+
+	/**
+	 * Returns the number of segments.
+	 * 
+	 * @return the number of segments
+	 */
+	public int getSegmentCount()
+	{
+		return segments.length;
+	}
+
+	/**
+	 * Allocates an area in the segment corresponding to the current thread.
+	 */
+	@Override
+	public SwapHandle write(byte[] data) throws IOException
+	{
+		return write(data, Thread.currentThread());
+	}
+
+	@Override
+	public SwapHandle write(byte[] data, Object owner) throws IOException
+	{
+		int segmentIndex = segmentIndex(owner);
+		SwapHandle handle = segments[segmentIndex].write(data);
+		return new SegmentSwapHandle(segmentIndex, handle.getOffsets(), handle.getLastSize());
+	}
+
+	protected int segmentIndex(Object owner)
+	{
+		if (segments.length == 1 || owner == null)
+		{
+			return 0;
+		}
+		
+		int hash = System.identityHashCode(owner);
+		// spreading the bits as the identity hash might not be well distributed in the lower bits
+		hash ^= (hash >>> 16);
+		return (hash & 0x7fffffff) % segments.length;
+	}
+
+	@Override
+	public byte[] read(SwapHandle handle, boolean free) throws IOException
+	{
+		return segment(handle).read(handle, free);
+	}
+
+	@Override
+	public void free(SwapHandle handle)
+	{
+		segment(handle).free(handle);
+	}
+	
+	protected JRConcurrentSwapFile segment(SwapHandle handle)
+	{
+		int segmentIndex = handle instanceof SegmentSwapHandle ? ((SegmentSwapHandle) handle).getSegment() : 0;
+		return segments[segmentIndex];
+	}
+
+	/**
+	 * Closes and deletes all the segment files.
+	 */
+	@Override
+	public void dispose()
+	{
+		for (JRConcurrentSwapFile segment : segments)
+		{
+			segment.dispose();
+		}
+	}
+	
+	/**
+	 * Swap handle that also keeps the index of the segment in which the area was allocated.
+	 */
+	public static class SegmentSwapHandle extends SwapHandle
+	{
+		private final int segment;
+		
+		public SegmentSwapHandle(int segment, long[] offsets, int lastSize)
+		{
+			super(offsets, lastSize);
+			
+			this.segment = segment;
+		}
+
+		public int getSegment()
+		{
+			return segment;
+		}
+	}
+}
@@ -49,7 +49,7 @@ import net.sf.jasperreports.engine.fill.JRFileVirtualizer;
  * 
  * @author Lucian Chirita (lucianc@users.sourceforge.net)
  */
-public class JRSwapFile
+public class JRSwapFile implements SwapFile
 {
 	private static final Log log = LogFactory.getLog(JRSwapFile.class);
 	
@@ -137,6 +137,23 @@ public class JRSwapFile
 		return "JRSwapFile " + swapFile.getAbsolutePath();
 	}
 
+	/**
+	 * Allocates an area in the swap file and writes data in it.
+	 * <p>
+	 * The owner of the data can be used by implementations to decide where the area
+	 * should be allocated.  The default implementation ignores it.
+	 * 
+	 * @param data the data for which to allocate an area in the file
+	 * @param owner the object that owns the data, usually a virtualization context
+	 * @return a handle to the allocated area
+	 * @throws IOException
+	 */
+	@Override
+	public SwapHandle write(byte[] data, Object owner) throws IOException
+	{
+		return write(data);
+	}
+
 	/**
 	 * Allocates an area in the swap file and writes data in it.
 	 * 
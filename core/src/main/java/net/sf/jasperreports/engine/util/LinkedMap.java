@@ -192,6 +192,18 @@ public class LinkedMap<K, V>
 		return entry;
 	}
 	
+	/**
+	 * Returns the element mapped to a key.
+	 *
+	 * @param key
+	 * @return the element mapped to the key, <code>null</code> if the key is not mapped
+	 */
+	public V get(K key)
+	{
+		LinkedValue<K, V> entry = map.get(key);
+		return entry == null ? null : entry.value;
+	}
+
 	/**
 	 * Removes and returns an element mapped to a key.
 	 * 
@@ -0,0 +1,376 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2025 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import net.sf.jasperreports.engine.DefaultJasperReportsContext;
+import net.sf.jasperreports.engine.JRPropertiesUtil;
+import net.sf.jasperreports.engine.JRRuntimeException;
+import net.sf.jasperreports.engine.JRVirtualizable;
+import net.sf.jasperreports.engine.JasperReportsContext;
+import net.sf.jasperreports.engine.fill.VirtualizerStore;
+
+/**
+ * Virtualizer store that keeps the serialized data in memory-mapped regions of a file.
+ * <p>
+ * The file is preallocated and mapped in regions of equal size, each region being divided
+ * in fixed-size blocks.  When the file is full, a new region is appended and mapped.
+ * Object data is written directly into the mapped blocks, and read back through an input
+ * stream that iterates over slices of the mapped blocks, without copying the data into an
+ * intermediate array and without a system call per read.
+ * 
+ * @author agent (agent@local)
+ * @see MappedFileVirtualizerStoreFactory
+ */
+public class MappedFileVirtualizerStore implements VirtualizerStore
+{
+	private static final Log log = LogFactory.getLog(MappedFileVirtualizerStore.class);
+	
+	private final File file;
+	private final RandomAccessFile randomAccessFile;
+	private final FileChannel channel;
+	private final int blockSize;
+	private final int regionSize;
+	private final JRSwapFile.LongQueue freeBlocks;
+	private volatile MappedByteBuffer[] regions;
+	private final Map<String,JRSwapFile.SwapHandle> handles;
+	private final StreamCompression compression;
+	
+	/**
+	 * Creates a mapped file store.
+	 * 
+	 * @param directory the directory where the file should be created
+	 * @param blockSize the size of the blocks allocated in the file
+	 * @param regionBlockCount the number of blocks in a mapped region, the file grows by
+	 * one region when full
+	 * @param initialRegionCount the number of regions to preallocate
+	 * @param compression stream compression to apply to serialized data, can be <code>null</code>
+	 */
+	public MappedFileVirtualizerStore(String directory, int blockSize, int regionBlockCount, 
+			int initialRegionCount, StreamCompression compression)
+	{
+		this(DefaultJasperReportsContext.getInstance(), directory, blockSize, regionBlockCount, 
+				initialRegionCount, compression);
+	}
+	
+	/**
+	 * Creates a mapped file store.
+	 * 
+	 * @param jasperReportsContext the JasperReportsContext to read configuration from
+	 * @param directory the directory where the file should be created
+	 * @param blockSize the size of the blocks allocated in the file
+	 * @param regionBlockCount the number of blocks in a mapped region, the file grows by
+	 * one region when full
+	 * @param initialRegionCount the number of regions to preallocate
+	 * @param compression stream compression to apply to serialized data, can be <code>null</code>
+	 * @see JRSwapFile#PROPERTY_DELETE_ON_EXIT
+	 */
+	public MappedFileVirtualizerStore(JasperReportsContext jasperReportsContext, String directory, 
+			int blockSize, int regionBlockCount, int initialRegionCount, StreamCompression compression)
+	{
+		long regionLength = (long) blockSize * regionBlockCount;
+		if (blockSize <= 0 || regionBlockCount <= 0 || regionLength > Integer.MAX_VALUE)
+		{
+			throw new IllegalArgumentException("Invalid mapped region size " + blockSize + " x " + regionBlockCount);
+		}
+		
+		this.blockSize = blockSize;
+		this.regionSize = (int) regionLength;
+		this.freeBlocks = new JRSwapFile.LongQueue(regionBlockCount);
+		this.regions = new MappedByteBuffer[0];
+		this.handles = new ConcurrentHashMap<>();
+		this.compression = compression;
+		
+		try
+		{
+			file = File.createTempFile("mapped_swap_", null, directory == null ? null : new File(directory));
+			boolean deleteOnExit = JRPropertiesUtil.getInstance(jasperReportsContext).getBooleanProperty(
+					JRSwapFile.PROPERTY_DELETE_ON_EXIT);
+			if (deleteOnExit)
+			{
+				file.deleteOnExit();
+			}
+			if (log.isDebugEnabled())
+			{
+				log.debug("Creating mapped swap file " + file.getPath());
+			}
+			
+			randomAccessFile = new RandomAccessFile(file, "rw");
+			channel = randomAccessFile.getChannel();
+			
+			for (int i = 0; i < initialRegionCount; i++)
+			{
+				addRegion();
+			}
+		}
+		catch (IOException e)
+		{
+			throw new JRRuntimeException(e);
+		}
+	}
+	
+	@Override
+	public String toString()
+	{
+		return "MappedFileVirtualizerStore " + file.getAbsolutePath();
+	}
+	
+	protected void addRegion() throws IOException
+	{
+		MappedByteBuffer[] currentRegions = regions;
+		long position = (long) currentRegions.length * regionSize;
+		if (log.isDebugEnabled())
+		{
+			log.debug("Mapping region " + currentRegions.length + " of " + file.getPath() + " at " + position);
+		}
+		
+		MappedByteBuffer region = channel.map(FileChannel.MapMode.READ_WRITE, position, regionSize);
+		
+		MappedByteBuffer[] newRegions = new MappedByteBuffer[currentRegions.length + 1];
+		System.arraycopy(currentRegions, 0, newRegions, 0, currentRegions.length);
+		newRegions[currentRegions.length] = region;
+		regions = newRegions;
+		
+		for (int offset = 0; offset < regionSize; offset += blockSize)
+		{
+			freeBlocks.addLast(position + offset);
+		}
+	}
+	
+	protected synchronized long[] reserveFreeBlocks(int blockCount) throws IOException
+	{
+		while (freeBlocks.size() < blockCount)
+		{
+			addRegion();
+		}
+		
+		long[] offsets = new long[blockCount];
+		for (int i = 0; i < blockCount; i++)
+		{
+			offsets[i] = freeBlocks.popFirst();
+		}
+		return offsets;
+	}
+
+	protected synchronized void freeBlocks(long[] offsets)
+	{
+		for (int i = offsets.length - 1; i >= 0; --i)
+		{
+			freeBlocks.addFirst(offsets[i]);
+		}
+	}
+	
+	protected ByteBuffer block(long offset, int length)
+	{
+		MappedByteBuffer region = regions[(int) (offset / regionSize)];
+		int position = (int) (offset % regionSize);
+		
+		// working on a duplicate so that concurrent threads do not share the position
+		ByteBuffer block = region.duplicate();
+		block.limit(position + length);
+		block.position(position);
+		return block;
+	}
+	
+	protected ByteBuffer[] blocks(JRSwapFile.SwapHandle handle)
+	{
+		long[] offsets = handle.getOffsets();
+		ByteBuffer[] blocks = new ByteBuffer[offsets.length];
+		for (int i = 0; i < offsets.length; i++)
+		{
+			blocks[i] = block(offsets[i], i < offsets.length - 1 ? blockSize : handle.getLastSize());
+		}
+		return blocks;
+	}
+	
+	protected boolean isStored(JRVirtualizable<?> o)
+	{
+		return handles.containsKey(o.getUID());
+	}
+
+	@Override
+	public boolean store(JRVirtualizable<?> o, VirtualizationSerializer serializer)
+	{
+		if (isStored(o))
+		{
+			if (log.isTraceEnabled())
+			{
+				log.trace("object " + o.getUID() + " already stored");
+			}
+			return false;
+		}
+		
+		try
+		{
+			ByteArrayOutputStream bout = new ByteArrayOutputStream(3000);
+			OutputStream out = compression == null ? bout : compression.compressedOutput(bout);
+			serializer.writeData(o, out);
+			out.close();
+			
+			byte[] data = bout.toByteArray();
+			if (log.isTraceEnabled())
+			{
+				log.trace("writing " + data.length + " for object " + o.getUID() + " to " + this);
+			}
+			
+			int blockCount = data.length == 0 ? 1 : (data.length - 1) / blockSize + 1;
+			long[] offsets = reserveFreeBlocks(blockCount);
+			int lastBlockSize = data.length - (blockCount - 1) * blockSize;
+			for (int i = 0; i < blockCount; ++i)
+			{
+				int dataSize = i < blockCount - 1 ? blockSize : lastBlockSize;
+				block(offsets[i], dataSize).put(data, i * blockSize, dataSize);
+			}
+			
+			handles.put(o.getUID(), new JRSwapFile.SwapHandle(offsets, lastBlockSize));
+			return true;
+		}
+		catch (IOException e)
+		{
+			if (log.isDebugEnabled())
+			{
+				log.debug("Error virtualizing object " + o.getUID() + " to " + this, e);
+			}
+			throw
+				new JRRuntimeException(
+					SwapFileVirtualizerStore.EXCEPTION_MESSAGE_KEY_VIRTUALIZING_ERROR,
+					(Object[])null,
+					e);
+		}
+	}
+
+	@Override
+	public void retrieve(JRVirtualizable<?> o, boolean remove, VirtualizationSerializer serializer)
+	{
+		JRSwapFile.SwapHandle handle = handles.get(o.getUID());
+		if (handle == null)
+		{
+			if (log.isDebugEnabled())
+			{
+				log.debug("No mapped handle found for " + o.getUID() + " in " + this);
+			}
+			throw
+				new JRRuntimeException(
+					SwapFileVirtualizerStore.EXCEPTION_MESSAGE_KEY_UNABLE_TO_READ_DATA,
+					(Object[])null);
+		}
+		
+		try
+		{
+			InputStream rawInput = new ByteBuffersInputStream(blocks(handle));
+			InputStream input = compression == null ? rawInput : compression.uncompressedInput(rawInput);
+			serializer.readData(o, input);
+			input.close();
+		}
+		catch (IOException e)
+		{
+			if (log.isDebugEnabled())
+			{
+				log.debug("Error reading object data " + o.getUID() + " from " + this, e);
+			}
+			throw
+				new JRRuntimeException(
+					SwapFileVirtualizerStore.EXCEPTION_MESSAGE_KEY_DEVIRTUALIZING_ERROR,
+					(Object[])null,
+					e);
+		}
+		
+		if (remove)
+		{
+			handles.remove(o.getUID());
+			freeBlocks(handle.getOffsets());
+		}
+	}
+
+	@Override
+	public void remove(String objectId)
+	{
+		JRSwapFile.SwapHandle handle = handles.remove(objectId);
+		if (handle == null)
+		{
+			if (log.isTraceEnabled())
+			{
+				log.trace("object " + objectId + " not found for removal");
+			}
+		}
+		else
+		{
+			if (log.isTraceEnabled())
+			{
+				log.trace("removing object " + objectId + " from " + this);
+			}
+			
+			freeBlocks(handle.getOffsets());
+		}
+	}
+
+	/**
+	 * Closes and deletes the mapped file.
+	 * <p>
+	 * Note that the mapped regions are only released when garbage collected,
+	 * therefore on some platforms the file might only be deleted on JVM exit.
+	 */
+	@Override
+	public synchronized void dispose()
+	{
+		handles.clear();
+		regions = new MappedByteBuffer[0];
+		
+		if (file.exists())
+		{
+			if (log.isDebugEnabled())
+			{
+				log.debug("Disposing mapped swap file " + file.getPath());
+			}
+			
+			try
+			{
+				randomAccessFile.close();
+			}
+			catch (IOException e)
+			{
+				log.warn("Not able to close mapped swap file " + file.getPath());
+			}
+			
+			if (!file.delete() && log.isDebugEnabled())
+			{
+				log.debug("Not able to delete mapped swap file " + file.getPath() + ", will be deleted on exit");
+			}
+		}
+	}
+}
@@ -0,0 +1,573 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2025 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import net.sf.jasperreports.engine.JRRuntimeException;
+import net.sf.jasperreports.engine.JRVirtualizable;
+import net.sf.jasperreports.engine.fill.VirtualizerStore;
+
+/**
+ * Virtualizer store that keeps serialized data in a bounded off-heap memory arena,
+ * spilling to a swap file when the arena is full.
+ * <p>
+ * The arena is a direct byte buffer divided in fixed-size blocks.  When data does not fit
+ * in the free arena blocks, the oldest data stored in the arena is moved to the swap file
+ * to make room, so that recently virtualized objects are retrieved from memory while
+ * the heap is only used for the live objects.
+ * Data that is larger than the whole arena is written directly to the swap file.
+ * The swap file writes are performed outside the store lock, the data being kept in memory
+ * (and retrieved from memory if requested) until it is written.
+ * <p>
+ * The store keeps counters of the objects stored, spilled and retrieved in each tier.
+ * 
+ * @author agent (agent@local)
+ * @see net.sf.jasperreports.engine.fill.JROffHeapVirtualizer
+ */
+public class OffHeapVirtualizerStore implements VirtualizerStore
+{
+	private static final Log log = LogFactory.getLog(OffHeapVirtualizerStore.class);
+	
+	protected static class ArenaEntry
+	{
+		private final JRSwapFile.SwapHandle handle;
+		private final Object owner;
+		
+		public ArenaEntry(JRSwapFile.SwapHandle handle, Object owner)
+		{
+			this.handle = handle;
+			this.owner = owner;
+		}
+	}
+	
+	protected static class SwapWrite
+	{
+		private final String uid;
+		private final byte[] data;
+		private final Object owner;
+		
+		public SwapWrite(String uid, byte[] data, Object owner)
+		{
+			this.uid = uid;
+			this.data = data;
+			this.owner = owner;
+		}
+	}
+	
+	private final int blockSize;
+	private final int blockCount;
+	private final ByteBuffer arena;
+	private final JRSwapFile.LongQueue freeBlocks;
+	private final SwapFile swap;
+	private final boolean swapOwner;
+	private final StreamCompression compression;
+	
+	// insertion ordered, used to spill the oldest entries
+	private final LinkedHashMap<String,ArenaEntry> arenaEntries;
+	// data that is being written to the swap file outside the lock
+	private final Map<String,byte[]> pendingSwapData;
+	private final Map<String,JRSwapFile.SwapHandle> swapHandles;
+	
+	private long offHeapStoreCount;
+	private long swapStoreCount;
+	private long spillCount;
+	private long offHeapRetrieveCount;
+	private long swapRetrieveCount;
+	
+	/**
+	 * Creates an off-heap store.
+	 * 
+	 * @param offHeapSize the size in bytes of the off-heap arena
+	 * @param blockSize the size of the blocks allocated in the arena
+	 * @param swap the swap file to which data is spilled when the arena is full
+	 * @param swapOwner whether the store is the owner (single user) of the swap file.
+	 * If <code>true</code>, the swap file is disposed when the store is disposed.
+	 * @param compression stream compression to apply to serialized data, can be <code>null</code>
+	 */
+	public OffHeapVirtualizerStore(int offHeapSize, int blockSize, SwapFile swap, boolean swapOwner, 
+			StreamCompression compression)
+	{
+		if (blockSize <= 0 || offHeapSize < blockSize)
+		{
+			throw new IllegalArgumentException("Invalid off-heap arena size " + offHeapSize + " for block size " + blockSize);
+		}
+		
+		this.blockSize = blockSize;
+		this.blockCount = offHeapSize / blockSize;
+		this.arena = ByteBuffer.allocateDirect(blockCount * blockSize);
+		this.freeBlocks = new JRSwapFile.LongQueue(blockCount);
+		for (int i = 0; i < blockCount; i++)
+		{
+			freeBlocks.addLast((long) i * blockSize);
+		}
+		
+		this.swap = swap;
+		this.swapOwner = swapOwner;
+		this.compression = compression;
+		this.arenaEntries = new LinkedHashMap<>();
+		this.pendingSwapData = new HashMap<>();
+		this.swapHandles = new HashMap<>();
+	}
+	
+	@Override
+	public String toString()
+	{
+		return "OffHeapVirtualizerStore " + (blockCount * blockSize) + " bytes, spilling to " + swap;
+	}
+	
+	protected synchronized boolean isStored(JRVirtualizable<?> o)
+	{
+		String uid = o.getUID();
+		return arenaEntries.containsKey(uid) || pendingSwapData.containsKey(uid) || swapHandles.containsKey(uid);
+	}
+	
+	protected ByteBuffer block(long offset, int length)
+	{
+		// working on a duplicate so that concurrent threads do not share the position
+		ByteBuffer block = arena.duplicate();
+		block.limit((int) offset + length);
+		block.position((int) offset);
+		return block;
+	}
+
+	protected byte[] arenaData(JRSwapFile.SwapHandle handle)
+	{
+		long[] offsets = handle.getOffsets();
+		byte[] data = new byte[(offsets.length - 1) * blockSize + handle.getLastSize()];
+		for (int i = 0; i < offsets.length; i++)
+		{
+			int length = i < offsets.length - 1 ? blockSize : handle.getLastSize();
+			block(offsets[i], length).get(data, i * blockSize, length);
+		}
+		return data;
+	}
+
+	protected void freeArenaBlocks(long[] offsets)
+	{
+		for (int i = offsets.length - 1; i >= 0; --i)
+		{
+			freeBlocks.addFirst(offsets[i]);
+		}
+	}
+
+	/**
+	 * Moves the oldest arena entries out of the arena until the needed number of blocks is free.
+	 * <p>
+	 * Must be called while holding the store lock.  The data of the spilled entries is kept 
+	 * in memory until {@link #writeToSwap(SwapWrite)} is called for it outside the lock.
+	 * 
+	 * @param neededBlocks the number of free blocks needed
+	 * @return the spilled entries that need to be written to the swap file
+	 */
+	protected List<SwapWrite> spill(int neededBlocks)
+	{
+		List<SwapWrite> spilled = new ArrayList<>();
+		for (Iterator<Map.Entry<String,ArenaEntry>> it = arenaEntries.entrySet().iterator(); 
+				freeBlocks.size() < neededBlocks && it.hasNext();)
+		{
+			Map.Entry<String,ArenaEntry> entry = it.next();
+			ArenaEntry arenaEntry = entry.getValue();
+			if (log.isTraceEnabled())
+			{
+				log.trace("spilling object " + entry.getKey() + " to " + swap);
+			}
+			
+			byte[] data = arenaData(arenaEntry.handle);
+			pendingSwapData.put(entry.getKey(), data);
+			spilled.add(new SwapWrite(entry.getKey(), data, arenaEntry.owner));
+			it.remove();
+			freeArenaBlocks(arenaEntry.handle.getOffsets());
+			++spillCount;
+		}
+		return spilled;
+	}
+	
+	/**
+	 * Writes data kept in memory to the swap file, without holding the store lock.
+	 */
+	protected void writeToSwap(SwapWrite write) throws IOException
+	{
+		if (log.isTraceEnabled())
+		{
+			log.trace("writing " + write.data.length + " for object " + write.uid + " to " + swap);
+		}
+		
+		JRSwapFile.SwapHandle handle = swap.write(write.data, write.owner);
+		
+		boolean free;
+		synchronized (this)
+		{
+			// the object might have been retrieved or removed while writing
+			free = pendingSwapData.get(write.uid) != write.data;
+			if (!free)
+			{
+				pendingSwapData.remove(write.uid);
+				swapHandles.put(write.uid, handle);
+			}
+		}
+		
+		if (free)
+		{
+			swap.free(handle);
+		}
+	}
+
+	@Override
+	public boolean store(JRVirtualizable<?> o, VirtualizationSerializer serializer)
+	{
+		if (isStored(o))
+		{
+			if (log.isTraceEnabled())
+			{
+				log.trace("object " + o.getUID() + " already stored");
+			}
+			return false;
+		}
+		
+		String uid = o.getUID();
+		try
+		{
+			ByteArrayOutputStream bout = new ByteArrayOutputStream(3000);
+			OutputStream out = compression == null ? bout : compression.compressedOutput(bout);
+			serializer.writeData(o, out);
+			out.close();
+			byte[] data = bout.toByteArray();
+			
+			int dataBlocks = data.length == 0 ? 1 : (data.length - 1) / blockSize + 1;
+			List<SwapWrite> spilled;
+			SwapWrite swapWrite = null;
+			synchronized (this)
+			{
+				if (dataBlocks <= blockCount && freeBlocks.size() < dataBlocks)
+				{
+					spilled = spill(dataBlocks);
+				}
+				else
+				{
+					spilled = Collections.emptyList();
+				}
+				
+				// blocks that are being read by other threads might not be free yet after spilling
+				if (freeBlocks.size() < dataBlocks)
+				{
+					pendingSwapData.put(uid, data);
+					swapWrite = new SwapWrite(uid, data, o.getContext());
+					++swapStoreCount;
+				}
+				else
+				{
+					if (log.isTraceEnabled())
+					{
+						log.trace("writing " + data.length + " for object " + uid + " off-heap");
+					}
+					
+					long[] offsets = new long[dataBlocks];
+					int lastSize = data.length - (dataBlocks - 1) * blockSize;
+					for (int i = 0; i < dataBlocks; i++)
+					{
+						offsets[i] = freeBlocks.popFirst();
+						int length = i < dataBlocks - 1 ? blockSize : lastSize;
+						block(offsets[i], length).put(data, i * blockSize, length);
+					}
+					arenaEntries.put(uid, new ArenaEntry(new JRSwapFile.SwapHandle(offsets, lastSize), o.getContext()));
+					++offHeapStoreCount;
+				}
+			}
+			
+			// the swap file I/O is performed outside the lock
+			for (SwapWrite write : spilled)
+			{
+				try
+				{
+					writeToSwap(write);
+				}
+				catch (IOException e)
+				{
+					// keeping the data in memory
+					log.error("Error writing object " + write.uid + " to " + swap, e);
+				}
+			}
+			
+			if (swapWrite != null)
+			{
+				try
+				{
+					writeToSwap(swapWrite);
+				}
+				catch (IOException e)
+				{
+					synchronized (this)
+					{
+						pendingSwapData.remove(uid);
+					}
+					throw e;
+				}
+			}
+			return true;
+		}
+		catch (IOException e)
+		{
+			if (log.isDebugEnabled())
+			{
+				log.debug("Error virtualizing object " + uid + " to " + this, e);
+			}
+			throw
+				new JRRuntimeException(
+					SwapFileVirtualizerStore.EXCEPTION_MESSAGE_KEY_VIRTUALIZING_ERROR,
+					(Object[])null,
+					e);
+		}
+	}
+
+	@Override
+	public void retrieve(JRVirtualizable<?> o, boolean remove, VirtualizationSerializer serializer)
+	{
+		String uid = o.getUID();
+		try
+		{
+			InputStream rawInput;
+			ArenaEntry arenaEntry = null;
+			JRSwapFile.SwapHandle swapHandle = null;
+			synchronized (this)
+			{
+				arenaEntry = remove ? arenaEntries.remove(uid) : arenaEntries.get(uid);
+				if (arenaEntry != null)
+				{
+					++offHeapRetrieveCount;
+					
+					if (remove)
+					{
+						// the blocks are only freed after reading, we can read outside the lock
+						rawInput = null;
+					}
+					else
+					{
+						// the data might be spilled by other threads, copying it
+						rawInput = new ByteArrayInputStream(arenaData(arenaEntry.handle));
+					}
+				}
+				else
+				{
+					byte[] pendingData = remove ? pendingSwapData.remove(uid) : pendingSwapData.get(uid);
+					if (pendingData != null)
+					{
+						// still being written to the swap file, if removed the writer frees the area
+						++offHeapRetrieveCount;
+						rawInput = new ByteArrayInputStream(pendingData);
+					}
+					else
+					{
+						swapHandle = remove ? swapHandles.remove(uid) : swapHandles.get(uid);
+						if (swapHandle == null)
+						{
+							if (log.isDebugEnabled())
+							{
+								log.debug("No data found for " + uid + " in " + this);
+							}
+							throw
+								new JRRuntimeException(
+									SwapFileVirtualizerStore.EXCEPTION_MESSAGE_KEY_UNABLE_TO_READ_DATA,
+									(Object[])null);
+						}
+						
+						++swapRetrieveCount;
+						rawInput = null;
+					}
+				}
+			}
+			
+			if (rawInput == null)
+			{
+				if (arenaEntry != null)
+				{
+					JRSwapFile.SwapHandle arenaHandle = arenaEntry.handle;
+					long[] offsets = arenaHandle.getOffsets();
+					ByteBuffer[] blocks = new ByteBuffer[offsets.length];
+					for (int i = 0; i < offsets.length; i++)
+					{
+						blocks[i] = block(offsets[i], i < offsets.length - 1 ? blockSize : arenaHandle.getLastSize());
+					}
+					rawInput = new ByteBuffersInputStream(blocks);
+				}
+				else
+				{
+					rawInput = new ByteArrayInputStream(swap.read(swapHandle, remove));
+				}
+			}
+			
+			try
+			{
+				InputStream input = compression == null ? rawInput : compression.uncompressedInput(rawInput);
+				serializer.readData(o, input);
+				input.close();
+			}
+			finally
+			{
+				if (remove && arenaEntry != null)
+				{
+					synchronized (this)
+					{
+						freeArenaBlocks(arenaEntry.handle.getOffsets());
+					}
+				}
+			}
+		}
+		catch (IOException e)
+		{
+			if (log.isDebugEnabled())
+			{
+				log.debug("Error reading object data " + uid + " from " + this, e);
+			}
+			throw
+				new JRRuntimeException(
+					SwapFileVirtualizerStore.EXCEPTION_MESSAGE_KEY_DEVIRTUALIZING_ERROR,
+					(Object[])null,
+					e);
+		}
+	}
+
+	@Override
+	public void remove(String objectId)
+	{
+		JRSwapFile.SwapHandle swapHandle = null;
+		synchronized (this)
+		{
+			ArenaEntry arenaEntry = arenaEntries.remove(objectId);
+			if (arenaEntry != null)
+			{
+				freeArenaBlocks(arenaEntry.handle.getOffsets());
+			}
+			else if (pendingSwapData.remove(objectId) == null)
+			{
+				// if the data was still being written, the writer frees the area
+				swapHandle = swapHandles.remove(objectId);
+			}
+		}
+		
+		if (swapHandle != null)
+		{
+			swap.free(swapHandle);
+		}
+	}
+
+	/**
+	 * Releases the off-heap data, and disposes the swap file if this store owns it.
+	 * If the swap file is shared, the areas allocated by this store are freed.
+	 */
+	@Override
+	public void dispose()
+	{
+		List<JRSwapFile.SwapHandle> allocatedHandles;
+		synchronized (this)
+		{
+			allocatedHandles = swapOwner ? Collections.emptyList() : new ArrayList<>(swapHandles.values());
+			arenaEntries.clear();
+			pendingSwapData.clear();
+			swapHandles.clear();
+		}
+		
+		for (JRSwapFile.SwapHandle handle : allocatedHandles)
+		{
+			swap.free(handle);
+		}
+		
+		if (swapOwner)
+		{
+			if (log.isDebugEnabled())
+			{
+				log.debug("disposing " + swap);
+			}
+			
+			swap.dispose();
+		}
+	}
+
+	/**
+	 * Returns the number of objects that were stored in the off-heap arena.
+	 */
+	public synchronized long getOffHeapStoreCount()
+	{
+		return offHeapStoreCount;
+	}
+
+	/**
+	 * Returns the number of objects that were stored directly to the swap file
+	 * because they did not fit in the off-heap arena.
+	 */
+	public synchronized long getSwapStoreCount()
+	{
+		return swapStoreCount;
+	}
+
+	/**
+	 * Returns the number of objects that were moved from the off-heap arena to the swap file.
+	 */
+	public synchronized long getSpillCount()
+	{
+		return spillCount;
+	}
+
+	/**
+	 * Returns the number of objects that were retrieved from the off-heap arena,
+	 * i.e. the number of off-heap tier hits.
+	 * Objects retrieved from memory while being spilled to the swap file are also included.
+	 */
+	public synchronized long getOffHeapRetrieveCount()
+	{
+		return offHeapRetrieveCount;
+	}
+
+	/**
+	 * Returns the number of objects that were retrieved from the swap file,
+	 * i.e. the number of off-heap tier misses.
+	 */
+	public synchronized long getSwapRetrieveCount()
+	{
+		return swapRetrieveCount;
+	}
+
+	/**
+	 * Returns the number of bytes currently used in the off-heap arena.
+	 */
+	public synchronized long getOffHeapUsedSize()
+	{
+		return (long) (blockCount - freeBlocks.size()) * blockSize;
+	}
+}
@@ -0,0 +1,89 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2025 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.util;
+
+import java.io.IOException;
+
+import net.sf.jasperreports.engine.util.JRSwapFile.SwapHandle;
+
+
+/**
+ * Storage for arbitrary binary data, used by swap file based virtualizer stores.
+ * <p>
+ * Callers write data and receive a handle to the allocated area based on which
+ * they can later read the data or free the area.
+ * Implementations are thread-safe.
+ * 
+ * @author agent (agent@local)
+ * @see JRSwapFile
+ * @see JRSegmentedSwapFile
+ */
+public interface SwapFile
+{
+
+	/**
+	 * Allocates an area in the swap file and writes data in it.
+	 * 
+	 * @param data the data for which to allocate an area in the file
+	 * @return a handle to the allocated area
+	 * @throws IOException
+	 */
+	SwapHandle write(byte[] data) throws IOException;
+
+	/**
+	 * Allocates an area in the swap file and writes data in it.
+	 * <p>
+	 * The owner of the data can be used by implementations to decide where the area
+	 * should be allocated.
+	 * 
+	 * @param data the data for which to allocate an area in the file
+	 * @param owner the object that owns the data, usually a virtualization context
+	 * @return a handle to the allocated area
+	 * @throws IOException
+	 */
+	SwapHandle write(byte[] data, Object owner) throws IOException;
+
+	/**
+	 * Reads all the data from an allocated area.
+	 * 
+	 * @param handle the allocated area handle
+	 * @param free whether to free the area after reading
+	 * @return the whole data saved in an allocated area
+	 * @throws IOException
+	 */
+	byte[] read(SwapHandle handle, boolean free) throws IOException;
+
+	/**
+	 * Frees an allocated area.
+	 * 
+	 * @param handle the allocated area handle
+	 */
+	void free(SwapHandle handle);
+
+	/**
+	 * Closes and deletes the swap file.
+	 */
+	void dispose();
+
+}
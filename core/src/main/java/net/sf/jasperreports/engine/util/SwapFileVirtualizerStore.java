@@ -49,7 +49,7 @@ public class SwapFileVirtualizerStore implements VirtualizerStore
 	public static final String EXCEPTION_MESSAGE_KEY_UNABLE_TO_READ_DATA = "util.swap.file.virtualizer.unable.to.read.data";
 	public static final String EXCEPTION_MESSAGE_KEY_VIRTUALIZING_ERROR = "util.swap.file.virtualizer.virtualizing.error";
 	
-	private final JRSwapFile swap;
+	private final SwapFile swap;
 	private final boolean swapOwner;
 	private final Map<String,JRSwapFile.SwapHandle> handles;
 	private final StreamCompression compression;
@@ -60,6 +60,19 @@ public class SwapFileVirtualizerStore implements VirtualizerStore
 	}
 
 	public SwapFileVirtualizerStore(JRSwapFile swap, boolean swapOwner, StreamCompression compression)
+	{
+		this((SwapFile) swap, swapOwner, compression);
+	}
+
+	/**
+	 * Creates a store that uses a swap file.
+	 * 
+	 * @param swap the swap file
+	 * @param swapOwner whether the store is the owner (single user) of the swap file.
+	 * If <code>true</code>, the swap file is disposed when the store is disposed.
+	 * @param compression stream compression to apply to serialized data, can be <code>null</code>
+	 */
+	public SwapFileVirtualizerStore(SwapFile swap, boolean swapOwner, StreamCompression compression)
 	{
 		this.swap = swap;
 		this.swapOwner = swapOwner;
@@ -103,7 +116,7 @@ public class SwapFileVirtualizerStore implements VirtualizerStore
 				log.trace("writing " + data.length + " for object " + o.getUID() + " to " + swap);
 			}
 			
-			JRSwapFile.SwapHandle handle = swap.write(data);
+			JRSwapFile.SwapHandle handle = swap.write(data, o.getContext());
 			handles.put(o.getUID(), handle);
 			return true;
 		}
@@ -196,11 +209,23 @@ public class SwapFileVirtualizerStore implements VirtualizerStore
 
 	/**
 	 * Disposes the swap file used if this virtualizer owns it.
+	 * If the swap file is shared, the areas still allocated by this store are freed.
 	 * @see #SwapFileVirtualizerStore(JRSwapFile, boolean)
 	 */
 	@Override
 	public void dispose()
 	{
+		if (!swapOwner)
+		{
+			synchronized (handles)
+			{
+				for (JRSwapFile.SwapHandle handle : handles.values())
+				{
+					swap.free(handle);
+				}
+			}
+		}
+		
 		handles.clear();
 		if (swapOwner)
 		{
@@ -23,26 +23,142 @@
  */
 package net.sf.jasperreports.engine.util;
 
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
 import net.sf.jasperreports.engine.fill.JRVirtualizationContext;
 import net.sf.jasperreports.engine.fill.VirtualizerStore;
 import net.sf.jasperreports.engine.fill.VirtualizerStoreFactory;
 
 /**
+ * Factory of swap file virtualizer stores.
+ * <p>
+ * If the factory is configured with more than one {@link #setSegmentCount(int) segment},
+ * a single {@link JRSegmentedSwapFile segmented swap file} is shared by the stores of all
+ * virtualization contexts, the areas of each context being allocated in a segment chosen
+ * based on the context.  The segmented swap file is created when the first store is created,
+ * and is disposed when all the stores that use it have been disposed.
+ * 
  * @author Lucian Chirita (lucianc@users.sourceforge.net)
  */
 public class SwapFileVirtualizerStoreFactory implements VirtualizerStoreFactory
 {
+	private static final Log log = LogFactory.getLog(SwapFileVirtualizerStoreFactory.class);
+	
 	private String directory = System.getProperty("java.io.tmpdir");//default value
 	private int blockSize = 4096;//default value
 	private int minGrowCount = 20;//default value
+	private int segmentCount = 1;//default value
+	private int writeBehindQueueSize = 0;//default value
 	private StreamCompression compression;
 	
+	private final Object sharedSwapFileLock = new Object();
+	private JRSegmentedSwapFile sharedSwapFile;
+	private int sharedSwapFileReferences;
+	
 	@Override
 	public VirtualizerStore createStore(JRVirtualizationContext virtualizationContext)
 	{
+		if (segmentCount > 1)
+		{
+			return createSharedSwapFileStore();
+		}
+		
 		JRSwapFile swapFile = new JRSwapFile(directory, blockSize, minGrowCount);
+		if (writeBehindQueueSize > 0)
+		{
+			return new WriteBehindSwapFileVirtualizerStore(swapFile, true, compression, writeBehindQueueSize);
+		}
 		return new SwapFileVirtualizerStore(swapFile, true, compression);
 	}
+	
+	protected VirtualizerStore createSharedSwapFileStore()
+	{
+		SwapFile swapFile = acquireSharedSwapFile();
+		AtomicBoolean released = new AtomicBoolean();
+		if (writeBehindQueueSize > 0)
+		{
+			return new WriteBehindSwapFileVirtualizerStore(swapFile, false, compression, writeBehindQueueSize)
+			{
+				@Override
+				public void dispose()
+				{
+					super.dispose();
+					
+					if (released.compareAndSet(false, true))
+					{
+						releaseSharedSwapFile(swapFile);
+					}
+				}
+			};
+		}
+		
+		return new SwapFileVirtualizerStore(swapFile, false, compression)
+		{
+			@Override
+			public void dispose()
+			{
+				super.dispose();
+				
+				if (released.compareAndSet(false, true))
+				{
+					releaseSharedSwapFile(swapFile);
+				}
+			}
+		};
+	}
+	
+	/**
+	 * Returns the shared segmented swap file, creating it if needed, and increments its reference count.
+	 * 
+	 * @return the shared segmented swap file
+	 */
+	protected SwapFile acquireSharedSwapFile()
+	{
+		synchronized (sharedSwapFileLock)
+		{
+			if (sharedSwapFile == null)
+			{
+				sharedSwapFile = new JRSegmentedSwapFile(directory, blockSize, minGrowCount, segmentCount);
+			}
+			
+			++sharedSwapFileReferences;
+			return sharedSwapFile;
+		}
+	}
+	
+	/**
+	 * Decrements the reference count of the shared segmented swap file, and disposes the file
+	 * when no longer referenced.
+	 * 
+	 * @param swapFile the swap file previously returned by {@link #acquireSharedSwapFile()}
+	 */
+	protected void releaseSharedSwapFile(SwapFile swapFile)
+	{
+		synchronized (sharedSwapFileLock)
+		{
+			if (swapFile != sharedSwapFile)
+			{
+				// should not happen
+				log.warn("Released swap file " + swapFile + " is not the shared swap file");
+				return;
+			}
+			
+			--sharedSwapFileReferences;
+			if (sharedSwapFileReferences == 0)
+			{
+				if (log.isDebugEnabled())
+				{
+					log.debug("disposing shared " + sharedSwapFile);
+				}
+				
+				sharedSwapFile.dispose();
+				sharedSwapFile = null;
+			}
+		}
+	}
 
 	public String getDirectory()
 	{
@@ -74,6 +190,39 @@ public class SwapFileVirtualizerStoreFactory implements VirtualizerStoreFactory
 		this.minGrowCount = minGrowCount;
 	}
 
+	public int getSegmentCount()
+	{
+		return segmentCount;
+	}
+
+	/**
+	 * Sets the number of segments of the swap files created by this factory.
+	 * 
+	 * @param segmentCount the number of segments, values greater than 1 result in
+	 * a {@link JRSegmentedSwapFile segmented swap file} shared by all created stores
+	 */
+	public void setSegmentCount(int segmentCount)
+	{
+		this.segmentCount = segmentCount;
+	}
+
+	public int getWriteBehindQueueSize()
+	{
+		return writeBehindQueueSize;
+	}
+
+	/**
+	 * Sets the size of the queue of objects waiting to be written to the swap file by
+	 * a background thread.
+	 * 
+	 * @param writeBehindQueueSize the queue size, if positive 
+	 * {@link WriteBehindSwapFileVirtualizerStore write-behind stores} are created
+	 */
+	public void setWriteBehindQueueSize(int writeBehindQueueSize)
+	{
+		this.writeBehindQueueSize = writeBehindQueueSize;
+	}
+
 	public StreamCompression getCompression()
 	{
 		return compression;
@@ -23,6 +23,8 @@
  */
 package net.sf.jasperreports.engine.util;
 
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -38,11 +40,39 @@ import net.sf.jasperreports.engine.virtualization.VirtualizationOutput;
 public abstract class VirtualizationSerializer
 {
 	
+	private static final ThreadLocal<long[]> recordedSize = new ThreadLocal<>();
+	
+	/**
+	 * Starts recording the number of bytes that virtualizable objects data is serialized to
+	 * or deserialized from by the current thread.
+	 * 
+	 * @see #endSizeRecording()
+	 */
+	public static void startSizeRecording()
+	{
+		recordedSize.set(new long[1]);
+	}
+	
+	/**
+	 * Stops recording the serialized data size for the current thread.
+	 * 
+	 * @return the number of bytes written or read by 
+	 * {@link #writeData(JRVirtualizable, OutputStream)} and {@link #readData(JRVirtualizable, InputStream)}
+	 * since {@link #startSizeRecording()} was called
+	 */
+	public static long endSizeRecording()
+	{
+		long[] size = recordedSize.get();
+		recordedSize.remove();
+		return size == null ? 0 : size[0];
+	}
+	
 	public final void writeData(JRVirtualizable o, OutputStream out) throws IOException
 	{
 		Object virtualData = o.getVirtualData();
 		JRVirtualizationContext context = o.getContext();
-		writeData(virtualData, context, out);
+		long[] size = recordedSize.get();
+		writeData(virtualData, context, size == null ? out : new CountingOutputStream(out, size));
 	}
 
 	public final void writeData(Object virtualData, JRVirtualizationContext context, OutputStream out) throws IOException
@@ -57,7 +87,8 @@ public abstract class VirtualizationSerializer
 	
 	public final void readData(JRVirtualizable o, InputStream in) throws IOException
 	{
-		Object virtualData = readData(o.getContext(), in);
+		long[] size = recordedSize.get();
+		Object virtualData = readData(o.getContext(), size == null ? in : new CountingInputStream(in, size));
 		o.setVirtualData(virtualData);
 	}
 	
@@ -71,4 +102,62 @@ public abstract class VirtualizationSerializer
 	protected abstract VirtualizationInput createInput(JRVirtualizationContext context, InputStream in) 
 			throws IOException;
 
+
+	private static class CountingOutputStream extends FilterOutputStream
+	{
+		private final long[] count;
+		
+		public CountingOutputStream(OutputStream out, long[] count)
+		{
+			super(out);
+			this.count = count;
+		}
+
+		@Override
+		public void write(int b) throws IOException
+		{
+			out.write(b);
+			++count[0];
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException
+		{
+			out.write(b, off, len);
+			count[0] += len;
+		}
+	}
+
+	private static class CountingInputStream extends FilterInputStream
+	{
+		private final long[] count;
+		
+		public CountingInputStream(InputStream in, long[] count)
+		{
+			super(in);
+			this.count = count;
+		}
+
+		@Override
+		public int read() throws IOException
+		{
+			int read = in.read();
+			if (read >= 0)
+			{
+				++count[0];
+			}
+			return read;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException
+		{
+			int read = in.read(b, off, len);
+			if (read > 0)
+			{
+				count[0] += read;
+			}
+			return read;
+		}
+	}
 }
@@ -0,0 +1,360 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2025 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import net.sf.jasperreports.engine.JRRuntimeException;
+import net.sf.jasperreports.engine.JRVirtualizable;
+import net.sf.jasperreports.engine.fill.VirtualizerStore;
+
+/**
+ * Swap file store that writes the data to the swap file asynchronously.
+ * <p>
+ * Objects are serialized on the calling thread, and the serialized data is queued to
+ * a background thread that writes it to the swap file, so that the calling thread
+ * (usually the report filler) does not wait for the disk I/O.
+ * The queue is bounded, when it is full the calling thread writes the data itself.
+ * <p>
+ * The serialized data is kept in memory until it is written to the swap file, 
+ * if the object is retrieved before that the data is read from memory.
+ * 
+ * @author agent (agent@local)
+ * @see SwapFileVirtualizerStore
+ */
+public class WriteBehindSwapFileVirtualizerStore implements VirtualizerStore
+{
+	private static final Log log = LogFactory.getLog(WriteBehindSwapFileVirtualizerStore.class);
+	
+	private static final long WRITER_TERMINATION_TIMEOUT = 60;
+	
+	protected static class Entry
+	{
+		private byte[] data;
+		private JRSwapFile.SwapHandle handle;
+		private boolean removed;
+		
+		public Entry(byte[] data)
+		{
+			this.data = data;
+		}
+	}
+	
+	private final SwapFile swap;
+	private final boolean swapOwner;
+	private final StreamCompression compression;
+	private final Map<String,Entry> entries;
+	private final ThreadPoolExecutor writer;
+	private volatile boolean disposed;
+
+	/**
+	 * Creates a write-behind swap file store.
+	 * 
+	 * @param swap the swap file
+	 * @param swapOwner whether the store is the owner (single user) of the swap file.
+	 * If <code>true</code>, the swap file is disposed when the store is disposed.
+	 * @param compression stream compression to apply to serialized data, can be <code>null</code>
+	 * @param queueSize the maximum number of objects waiting to be written to the swap file
+	 */
+	public WriteBehindSwapFileVirtualizerStore(SwapFile swap, boolean swapOwner, StreamCompression compression,
+			int queueSize)
+	{
+		this.swap = swap;
+		this.swapOwner = swapOwner;
+		this.compression = compression;
+		this.entries = new ConcurrentHashMap<>();
+		
+		// when the queue is full, the data is written by the calling thread
+		this.writer = new ThreadPoolExecutor(1, 1, 30, TimeUnit.SECONDS, 
+				new ArrayBlockingQueue<>(queueSize), 
+				runnable -> 
+				{
+					Thread thread = new Thread(runnable, "swap write-behind " + swap);
+					thread.setDaemon(true);
+					return thread;
+				},
+				new ThreadPoolExecutor.CallerRunsPolicy());
+		this.writer.allowCoreThreadTimeOut(true);
+	}
+	
+	@Override
+	public String toString()
+	{
+		return "WriteBehindSwapFileVirtualizerStore " + swap.toString(); 
+	}
+
+	@Override
+	public boolean store(JRVirtualizable<?> o, VirtualizationSerializer serializer)
+	{
+		String uid = o.getUID();
+		if (entries.containsKey(uid))
+		{
+			if (log.isTraceEnabled())
+			{
+				log.trace("object " + uid + " already stored");
+			}
+			return false;
+		}
+		
+		try
+		{
+			ByteArrayOutputStream bout = new ByteArrayOutputStream(3000);
+			OutputStream out = compression == null ? bout : compression.compressedOutput(bout);
+			serializer.writeData(o, out);
+			out.close();
+			
+			Entry entry = new Entry(bout.toByteArray());
+			entries.put(uid, entry);
+			
+			Object owner = o.getContext();
+			writer.execute(() -> write(uid, entry, owner));
+			return true;
+		}
+		catch (IOException e)
+		{
+			if (log.isDebugEnabled())
+			{
+				log.debug("Error virtualizing object " + uid + " to " + swap, e);
+			}
+			throw
+				new JRRuntimeException(
+					SwapFileVirtualizerStore.EXCEPTION_MESSAGE_KEY_VIRTUALIZING_ERROR,
+					(Object[])null,
+					e);
+		}
+	}
+	
+	protected void write(String uid, Entry entry, Object owner)
+	{
+		byte[] data;
+		synchronized (entry)
+		{
+			if (entry.removed || disposed)
+			{
+				return;
+			}
+			data = entry.data;
+		}
+		
+		JRSwapFile.SwapHandle handle;
+		try
+		{
+			if (log.isTraceEnabled())
+			{
+				log.trace("writing " + data.length + " for object " + uid + " to " + swap);
+			}
+			
+			handle = swap.write(data, owner);
+		}
+		catch (IOException e)
+		{
+			// keeping the data in memory
+			log.error("Error writing object " + uid + " to " + swap, e);
+			return;
+		}
+		
+		boolean free;
+		synchronized (entry)
+		{
+			// if the store was disposed in the meantime, nobody else is going to free the area
+			free = entry.removed || disposed;
+			if (!free)
+			{
+				entry.handle = handle;
+				entry.data = null;
+			}
+		}
+		
+		if (free)
+		{
+			swap.free(handle);
+		}
+	}
+
+	@Override
+	public void retrieve(JRVirtualizable<?> o, boolean remove, VirtualizationSerializer serializer)
+	{
+		String uid = o.getUID();
+		Entry entry = remove ? entries.remove(uid) : entries.get(uid);
+		if (entry == null)
+		{
+			if (log.isDebugEnabled())
+			{
+				log.debug("No entry found for " + uid + " in " + this);
+			}
+			throw
+				new JRRuntimeException(
+					SwapFileVirtualizerStore.EXCEPTION_MESSAGE_KEY_UNABLE_TO_READ_DATA,
+					(Object[])null);
+		}
+		
+		byte[] data;
+		JRSwapFile.SwapHandle handle;
+		synchronized (entry)
+		{
+			data = entry.data;
+			handle = entry.handle;
+			if (remove)
+			{
+				// if the data is still being written, the writer will free the area
+				entry.removed = true;
+			}
+		}
+		
+		try
+		{
+			if (data == null)
+			{
+				data = swap.read(handle, remove);
+			}
+			else if (log.isTraceEnabled())
+			{
+				log.trace("object " + uid + " not yet written, reading from memory");
+			}
+			
+			ByteArrayInputStream rawInput = new ByteArrayInputStream(data);
+			InputStream input = compression == null ? rawInput : compression.uncompressedInput(rawInput);
+			serializer.readData(o, input);
+			input.close();
+		}
+		catch (IOException e)
+		{
+			if (log.isDebugEnabled())
+			{
+				log.debug("Error reading object data " + uid + " from " + swap, e);
+			}
+			throw
+				new JRRuntimeException(
+					SwapFileVirtualizerStore.EXCEPTION_MESSAGE_KEY_DEVIRTUALIZING_ERROR,
+					(Object[])null,
+					e);
+		}
+	}
+
+	@Override
+	public void remove(String objectId)
+	{
+		Entry entry = entries.remove(objectId);
+		if (entry == null)
+		{
+			if (log.isTraceEnabled())
+			{
+				log.trace("object " + objectId + " not found for removal");
+			}
+			return;
+		}
+		
+		JRSwapFile.SwapHandle handle;
+		synchronized (entry)
+		{
+			entry.removed = true;
+			entry.data = null;
+			handle = entry.handle;
+		}
+		
+		if (handle != null)
+		{
+			swap.free(handle);
+		}
+	}
+
+	/**
+	 * Stops the background writer and disposes the swap file if this store owns it.
+	 * If the swap file is shared, the areas still allocated by this store are freed.
+	 * <p>
+	 * The writer thread is not interrupted, as interrupting a thread that performs I/O
+	 * on a file channel closes the channel for all the users of a shared swap file.
+	 * Queued writes are discarded and the write in progress, if any, is awaited.
+	 */
+	@Override
+	public void dispose()
+	{
+		disposed = true;
+		writer.getQueue().clear();
+		writer.shutdown();
+		awaitWriter();
+		
+		if (!swapOwner)
+		{
+			for (Entry entry : entries.values())
+			{
+				JRSwapFile.SwapHandle handle;
+				synchronized (entry)
+				{
+					entry.removed = true;
+					entry.data = null;
+					handle = entry.handle;
+					entry.handle = null;
+				}
+				
+				if (handle != null)
+				{
+					swap.free(handle);
+				}
+			}
+		}
+		entries.clear();
+		
+		if (swapOwner)
+		{
+			if (log.isDebugEnabled())
+			{
+				log.debug("disposing " + swap);
+			}
+			
+			swap.dispose();
+		}
+	}
+	
+	protected void awaitWriter()
+	{
+		try
+		{
+			if (!writer.awaitTermination(WRITER_TERMINATION_TIMEOUT, TimeUnit.SECONDS))
+			{
+				log.warn("Timed out waiting for the write-behind writer of " + swap);
+			}
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			if (log.isDebugEnabled())
+			{
+				log.debug("Interrupted while waiting for the write-behind writer of " + swap, e);
+			}
+		}
+	}
+}
@@ -97,6 +97,12 @@ public class VirtualizationInput extends ObjectInputStream
 			}
 		}
 		
+		if (type == SerializationConstants.OBJECT_DICTIONARY_STRING)
+		{
+			int stringIdx = readIntCompressed();
+			return virtualizationContext.getStringDictionary().string(stringIdx);
+		}
+		
 		if ((type & SerializationConstants.OBJECT_REF_MASK) != 0)
 		{
 			int typeValue = type ^ SerializationConstants.OBJECT_REF_MASK;
@@ -100,6 +100,17 @@ public class VirtualizationOutput extends ObjectOutputStream
 				writeIntCompressed(objectIndex);
 				return;
 			}
+			
+			if (typeValue == SerializationConstants.OBJECT_TYPE_STRING)
+			{
+				Integer dictionaryIndex = findDictionaryString((String) o);
+				if (dictionaryIndex != null)
+				{
+					writeByte(SerializationConstants.OBJECT_DICTIONARY_STRING);
+					writeIntCompressed(dictionaryIndex);
+					return;
+				}
+			}
 		}
 		
 		if (storeReference == null ? typeStoreReference : storeReference)
@@ -112,6 +123,13 @@ public class VirtualizationOutput extends ObjectOutputStream
 		serializer.write(o, this);
 	}
 	
+	protected Integer findDictionaryString(String value)
+	{
+		VirtualizationStringDictionary stringDictionary = virtualizationContext == null 
+				? null : virtualizationContext.getStringDictionary();
+		return stringDictionary == null ? null : stringDictionary.index(value);
+	}
+	
 	protected Integer findReference(int typeValue, Object value)
 	{
 		Map<Object, Integer> objectsMap = writtenObjects[typeValue - SerializationConstants.OBJECT_TYPE_OFFSET];
@@ -0,0 +1,163 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2025 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.virtualization;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import net.sf.jasperreports.engine.JRRuntimeException;
+
+/**
+ * Dictionary of strings shared by the virtualized objects of a report fill.
+ * 
+ * <p>
+ * Strings that are written repeatedly in different virtualized objects (such as
+ * names, status codes or currency labels repeated on every row) are assigned an index
+ * in the dictionary, and subsequent writes only output the index instead of the
+ * whole string.
+ * Strings are admitted into the dictionary on their second sighting so that unique
+ * values do not fill the dictionary, and the dictionary stops accepting new strings
+ * once it reaches the maximum size.
+ * </p>
+ * 
+ * <p>
+ * The dictionary only lives in memory and is shared by all the virtualization contexts
+ * that derive from the same root context.
+ * </p>
+ * 
+ * @author agent (agent@local)
+ * @see VirtualizationOutput#writeJRObject(Object, Boolean, Boolean)
+ */
+public class VirtualizationStringDictionary
+{
+	public static final String EXCEPTION_MESSAGE_KEY_STRING_NOT_FOUND = "engine.virtualization.dictionary.string.not.found";
+	
+	public static final int DEFAULT_MAX_STRING_LENGTH = 256;
+	
+	private static final Object CANDIDATE = new Object();
+	
+	private final int maxSize;
+	private final int maxStringLength;
+	
+	private final AtomicInteger size = new AtomicInteger();
+	private final Map<String, Integer> indexes = new ConcurrentHashMap<>();
+	private final Map<Integer, String> strings = new ConcurrentHashMap<>();
+	private final Map<String, Object> candidates = new ConcurrentHashMap<>();
+
+	public VirtualizationStringDictionary(int maxSize)
+	{
+		this(maxSize, DEFAULT_MAX_STRING_LENGTH);
+	}
+	
+	public VirtualizationStringDictionary(int maxSize, int maxStringLength)
+	{
+		this.maxSize = maxSize;
+		this.maxStringLength = maxStringLength;
+	}
+	
+	/**
+	 * Returns the dictionary index of a string, adding the string to the dictionary
+	 * if it has been seen before.
+	 * 
+	 * @param value the string
+	 * @return the index of the string, or <code>null</code> if the string is not in the dictionary
+	 */
+	public Integer index(String value)
+	{
+		Integer index = indexes.get(value);
+		if (index != null || value.length() > maxStringLength || size.get() >= maxSize)
+		{
+			return index;
+		}
+		
+		if (candidates.putIfAbsent(value, CANDIDATE) == null)
+		{
+			// first sighting
+			if (candidates.size() > maxSize)
+			{
+				// not keeping too many candidates around
+				candidates.clear();
+			}
+			return null;
+		}
+		
+		candidates.remove(value);
+		return add(value);
+	}
+
+	protected Integer add(String value)
+	{
+		int newIndex = size.getAndIncrement();
+		if (newIndex >= maxSize)
+		{
+			size.decrementAndGet();
+			return indexes.get(value);
+		}
+		
+		// adding the string before publishing the index
+		strings.put(newIndex, value);
+		Integer existingIndex = indexes.putIfAbsent(value, newIndex);
+		// if another thread added the same string, the new index remains unused
+		return existingIndex == null ? newIndex : existingIndex;
+	}
+	
+	/**
+	 * Returns the string for a dictionary index.
+	 * 
+	 * @param index the index of the string
+	 * @return the string
+	 * @throws JRRuntimeException if the index is not found in the dictionary
+	 */
+	public String string(int index)
+	{
+		String value = strings.get(index);
+		if (value == null)
+		{
+			throw 
+				new JRRuntimeException(
+					EXCEPTION_MESSAGE_KEY_STRING_NOT_FOUND,
+					new Object[]{index});
+		}
+		return value;
+	}
+	
+	/**
+	 * Returns the number of strings in the dictionary.
+	 */
+	public int size()
+	{
+		return indexes.size();
+	}
+
+	public int getMaxSize()
+	{
+		return maxSize;
+	}
+
+	public int getMaxStringLength()
+	{
+		return maxStringLength;
+	}
+}
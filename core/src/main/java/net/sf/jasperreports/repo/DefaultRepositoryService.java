@@ -206,7 +206,9 @@ public class DefaultRepositoryService implements StreamRepositoryService
 			{
 				//resolving to real path to eliminate .. and .
 				Path path = file.toPath().toRealPath();
-				return StandardResourceInfo.from(path);
+				StandardResourceInfo resourceInfo = StandardResourceInfo.from(path);
+				resourceInfo.setFileVersion(path);
+				return resourceInfo;
 			}
 			catch (IOException e)
 			{
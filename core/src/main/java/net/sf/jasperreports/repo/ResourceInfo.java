@@ -33,4 +33,20 @@ public interface ResourceInfo
 
 	String getRepositoryContextLocation();
 	
+	/**
+	 * Returns a key that identifies the current version of the resource.
+	 * 
+	 * <p>
+	 * Resources that have equal version keys are expected to have the same contents, regardless
+	 * of the repository context in which they were resolved.
+	 * The key can be used to cache the resource beyond the scope of a single report fill.
+	 * </p>
+	 * 
+	 * @return the resource version key, or <code>null</code> if the resource version is not known
+	 */
+	default Object getResourceVersionKey()
+	{
+		return null;
+	}
+	
 }
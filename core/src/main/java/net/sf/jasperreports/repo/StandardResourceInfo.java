@@ -26,6 +26,8 @@ package net.sf.jasperreports.repo;
 import java.io.File;
 import java.nio.file.Path;
 
+import net.sf.jasperreports.engine.util.Pair;
+
 /**
  * @author Lucian Chirita (lucianc@users.sourceforge.net)
  */
@@ -53,6 +55,8 @@ public class StandardResourceInfo implements ResourceInfo
 
 	private String contextLocation;
 	
+	private Object resourceVersionKey;
+	
 	@Override
 	public String getRepositoryResourceLocation()
 	{
@@ -75,4 +79,27 @@ public class StandardResourceInfo implements ResourceInfo
 		this.contextLocation = contextLocation;
 	}
 
+	@Override
+	public Object getResourceVersionKey()
+	{
+		return resourceVersionKey;
+	}
+
+	public void setResourceVersionKey(Object resourceVersionKey)
+	{
+		this.resourceVersionKey = resourceVersionKey;
+	}
+
+	/**
+	 * Sets the version key of a resource stored in a file, based on the file path and the
+	 * file modification time.
+	 * 
+	 * @param filePath the real path of the resource file
+	 */
+	public void setFileVersion(Path filePath)
+	{
+		long lastModified = filePath.toFile().lastModified();
+		this.resourceVersionKey = lastModified == 0L ? null : new Pair<>(filePath.toString(), lastModified);
+	}
+
 }
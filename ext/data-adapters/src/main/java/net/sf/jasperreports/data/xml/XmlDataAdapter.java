@@ -77,4 +77,14 @@ public interface XmlDataAdapter extends FileDataAdapter
 	public void setUseConnection(boolean useConnection);
 	
 	public boolean isNamespaceAware();
+	
+	/**
+	 * Determines whether the XML data is read as a stream when the adapter creates the data source,
+	 * without loading the whole document in memory.
+	 * The data is streamed only when the select expression is supported by 
+	 * {@link net.sf.jasperreports.engine.data.XmlStreamDataSource#isStreamable(String)}.
+	 * 
+	 * @return whether the XML data is read as a stream
+	 */
+	public boolean isStreaming();
 }
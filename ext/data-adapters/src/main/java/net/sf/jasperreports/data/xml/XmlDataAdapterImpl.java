@@ -49,6 +49,7 @@ public class XmlDataAdapterImpl extends AbstractDataAdapter implements XmlDataAd
 	private String numberPattern = null;
 	private TimeZone timeZone = null;
 	private boolean namespaceAware = false;
+	private boolean streaming = false;
 
 	/**
 	 * @deprecated replaced by {@link #getDataFile()}
@@ -143,6 +144,15 @@ public class XmlDataAdapterImpl extends AbstractDataAdapter implements XmlDataAd
 		this.namespaceAware = namespaceAware;
 	}
 
+	@Override
+	public boolean isStreaming() {
+		return streaming;
+	}
+
+	public void setStreaming(boolean streaming) {
+		this.streaming = streaming;
+	}
+
 	@Override
 	public DataFile getDataFile()
 	{
@@ -27,6 +27,8 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.TimeZone;
 
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
 import org.w3c.dom.Document;
 
 import net.sf.jasperreports.dataadapters.AbstractDataAdapterService;
@@ -35,7 +37,9 @@ import net.sf.jasperreports.dataadapters.DataFileUtils;
 import net.sf.jasperreports.engine.JRException;
 import net.sf.jasperreports.engine.JRParameter;
 import net.sf.jasperreports.engine.ParameterContributorContext;
+import net.sf.jasperreports.engine.data.AbstractXmlDataSource;
 import net.sf.jasperreports.engine.data.JRXmlDataSource;
+import net.sf.jasperreports.engine.data.XmlStreamDataSource;
 import net.sf.jasperreports.engine.query.JRXPathQueryExecuterFactory;
 import net.sf.jasperreports.engine.util.Designated;
 import net.sf.jasperreports.engine.util.JRXmlUtils;
@@ -46,7 +50,11 @@ import net.sf.jasperreports.engine.util.JRXmlUtils;
 public class XmlDataAdapterService extends AbstractDataAdapterService implements Designated
 {
 	
+	private static final Log log = LogFactory.getLog(XmlDataAdapterService.class);
+	
 	public static final String SERVICE_DESIGNATION = "net.sf.jasperreports.data.adapter:XML";
+	
+	private DataFileStream dataStream;
 
 	/**
 	 * 
@@ -70,9 +78,8 @@ public class XmlDataAdapterService extends AbstractDataAdapterService implements
 		XmlDataAdapter xmlDataAdapter = getXmlDataAdapter();
 		if (xmlDataAdapter != null)
 		{
-			Document dataDocument = loadDataDocument(xmlDataAdapter, parameters);
-			
 			if (xmlDataAdapter.isUseConnection()) {
+				Document dataDocument = loadDataDocument(xmlDataAdapter, parameters);
 				
 				/*
 				if (this.getFilename().toLowerCase().startsWith("https://") ||
@@ -110,7 +117,7 @@ public class XmlDataAdapterService extends AbstractDataAdapterService implements
 			}
 			else
 			{
-				JRXmlDataSource ds = new JRXmlDataSource(getJasperReportsContext(), dataDocument, xmlDataAdapter.getSelectExpression()); 
+				AbstractXmlDataSource<?> ds = createDataSource(xmlDataAdapter, parameters);
 
 				Locale locale = xmlDataAdapter.getLocale();
 				if (locale != null) {
@@ -137,6 +144,31 @@ public class XmlDataAdapterService extends AbstractDataAdapterService implements
 		}
 	}
 
+	protected AbstractXmlDataSource<?> createDataSource(XmlDataAdapter xmlDataAdapter, Map<String, Object> parameters) throws JRException
+	{
+		String selectExpression = xmlDataAdapter.getSelectExpression();
+		if (xmlDataAdapter.isStreaming())
+		{
+			if (XmlStreamDataSource.isStreamable(selectExpression))
+			{
+				// the stream is kept open until the service is disposed or a new data source is created
+				disposeDataStream();
+				dataStream = DataFileUtils.instance(getParameterContributorContext()).getDataStream(
+						xmlDataAdapter.getDataFile(), parameters);
+				return new XmlStreamDataSource(getJasperReportsContext(), dataStream, 
+						selectExpression, xmlDataAdapter.isNamespaceAware());
+			}
+			
+			if (log.isDebugEnabled())
+			{
+				log.debug("select expression " + selectExpression + " is not supported for streaming, loading the XML document");
+			}
+		}
+		
+		Document dataDocument = loadDataDocument(xmlDataAdapter, parameters);
+		return new JRXmlDataSource(getJasperReportsContext(), dataDocument, selectExpression);
+	}
+
 	protected Document loadDataDocument(XmlDataAdapter xmlDataAdapter, Map<String, Object> parameters) throws JRException
 	{
 		DataFileUtils dataFileUtils = DataFileUtils.instance(getParameterContributorContext());
@@ -153,6 +185,23 @@ public class XmlDataAdapterService extends AbstractDataAdapterService implements
 		}
 	}
 
+	protected void disposeDataStream()
+	{
+		if (dataStream != null)
+		{
+			dataStream.dispose();
+			dataStream = null;
+		}
+	}
+
+	@Override
+	public void dispose()
+	{
+		disposeDataStream();
+		
+		super.dispose();
+	}
+
 	@Override
 	public String getDesignation()
 	{
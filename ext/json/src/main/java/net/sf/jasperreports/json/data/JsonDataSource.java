@@ -290,6 +290,19 @@ public class JsonDataSource extends JRAbstractTextDataSource implements JsonData
 			return null;
 		}
 		
+		return getFieldValue(currentJsonNode, jrField);
+	}
+	
+	/**
+	 * Evaluates the expression of a field on a JSON node and converts the result to the field type.
+	 * 
+	 * @param node the JSON node
+	 * @param jrField the field
+	 * @return the field value
+	 * @throws JRException
+	 */
+	protected Object getFieldValue(JsonNode node, JRField jrField) throws JRException 
+	{
 		String expression = null;
 		if (fieldExpressions.containsKey(jrField.getName()))
 		{
@@ -308,7 +321,7 @@ public class JsonDataSource extends JRAbstractTextDataSource implements JsonData
 		Object value = null;
 		
 		Class<?> valueClass = jrField.getValueClass();
-		JsonNode selectedObject = getJsonData(currentJsonNode, expression);
+		JsonNode selectedObject = getJsonData(node, expression);
 		
 		if(Object.class != valueClass) 
 		{
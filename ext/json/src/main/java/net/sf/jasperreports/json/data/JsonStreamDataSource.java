@@ -0,0 +1,510 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2025 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.json.data;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.StringTokenizer;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JRField;
+import net.sf.jasperreports.engine.data.JRAbstractTextDataSource;
+import net.sf.jasperreports.engine.data.JsonData;
+import net.sf.jasperreports.json.util.JsonUtil;
+import net.sf.jasperreports.repo.RepositoryContext;
+import net.sf.jasperreports.repo.RepositoryUtil;
+
+
+/**
+ * JSON data source that reads the records from the JSON input via a streaming parser,
+ * without building the JSON tree for the whole input.
+ * 
+ * <p>
+ * Only the nodes of the current record are kept in memory, the field expressions being evaluated
+ * on the record node in the same way as by {@link JsonDataSource}.
+ * The select expression is limited to a path of property names, see {@link #isStreamable(String)},
+ * and it selects the same records as it would for {@link JsonDataSource}, 
+ * including the flattening of arrays found along the path.
+ * </p>
+ * 
+ * <p>
+ * The data source can be rewound only when created for a repository location, in which case
+ * the location is read again.
+ * </p>
+ * 
+ * @author agent (agent@local)
+ */
+public class JsonStreamDataSource extends JRAbstractTextDataSource implements JsonData<JsonDataSource>
+{
+	
+	private static final Log log = LogFactory.getLog(JsonStreamDataSource.class);
+	
+	public static final String EXCEPTION_MESSAGE_KEY_STREAM_NOT_REWINDABLE = "data.json.stream.not.rewindable";
+	public static final String EXCEPTION_MESSAGE_KEY_STREAM_READ_ERROR = "data.json.stream.read.error";
+	
+	private static final String PROPERTY_SEPARATOR = ".";
+	
+	private enum Mode
+	{
+		/**
+		 * A node reached via object properties from the root.
+		 */
+		ROOT,
+		/**
+		 * An element of the array collected by the previous path step.
+		 */
+		COLLECTED,
+		/**
+		 * A property value found on a collected element, flattened if it is an array.
+		 */
+		FLATTEN
+	}
+	
+	private static class Frame
+	{
+		final boolean array;
+		final int pathIndex;
+		final Mode mode;
+		
+		Frame(boolean array, int pathIndex, Mode mode)
+		{
+			this.array = array;
+			this.pathIndex = pathIndex;
+			this.mode = mode;
+		}
+	}
+
+	private final RepositoryContext repositoryContext;
+	private final String location;
+	private InputStream inputStream;
+	private final String[] path;
+	
+	private final ObjectMapper mapper;
+	private JsonParser parser;
+	private boolean started;
+	private boolean ended;
+	private final Deque<Frame> frames = new ArrayDeque<>();
+	private JsonNode pendingRecord;
+	
+	private int recordCount;
+	private JsonNode currentJsonNode;
+	private JsonDataSource fieldEvaluator;
+	
+	/**
+	 * Creates a data source that reads JSON data from an input stream.
+	 * 
+	 * <p>
+	 * The stream is not closed by the data source.
+	 * </p>
+	 * 
+	 * @param jsonStream the JSON input stream
+	 * @param selectExpression the select expression
+	 * @see #isStreamable(String)
+	 */
+	public JsonStreamDataSource(InputStream jsonStream, String selectExpression)
+	{
+		this(null, null, jsonStream, selectExpression);
+	}
+
+	/**
+	 * Creates a data source that reads JSON data from a repository location.
+	 * 
+	 * @param repositoryContext the repository context
+	 * @param location the JSON data location
+	 * @param selectExpression the select expression
+	 * @see #isStreamable(String)
+	 */
+	public JsonStreamDataSource(RepositoryContext repositoryContext, String location, String selectExpression)
+	{
+		this(repositoryContext, location, null, selectExpression);
+	}
+	
+	private JsonStreamDataSource(RepositoryContext repositoryContext, String location, 
+			InputStream inputStream, String selectExpression)
+	{
+		if (!isStreamable(selectExpression))
+		{
+			throw new IllegalArgumentException("Select expression " + selectExpression + " is not supported for streaming");
+		}
+		
+		this.repositoryContext = repositoryContext;
+		this.location = location;
+		this.inputStream = inputStream;
+		this.path = parsePath(selectExpression);
+		this.mapper = JsonUtil.createObjectMapper();
+	}
+	
+	/**
+	 * Determines whether a select expression can be evaluated by the streaming data source.
+	 * 
+	 * <p>
+	 * Expressions consisting of property names separated by dots are supported.
+	 * Array indexes and attribute selections need the JSON tree and are not supported.
+	 * </p>
+	 * 
+	 * @param selectExpression the select expression
+	 * @return whether the expression can be used to stream the records
+	 */
+	public static boolean isStreamable(String selectExpression)
+	{
+		if (selectExpression == null)
+		{
+			return true;
+		}
+		
+		for (int i = 0; i < selectExpression.length(); i++)
+		{
+			switch (selectExpression.charAt(i))
+			{
+			case '[':
+			case ']':
+			case '(':
+			case ')':
+				return false;
+			default:
+				break;
+			}
+		}
+		return true;
+	}
+	
+	private static String[] parsePath(String selectExpression)
+	{
+		if (selectExpression == null)
+		{
+			return new String[0];
+		}
+		
+		StringTokenizer tokenizer = new StringTokenizer(selectExpression, PROPERTY_SEPARATOR);
+		String[] path = new String[tokenizer.countTokens()];
+		for (int i = 0; tokenizer.hasMoreTokens(); i++)
+		{
+			path[i] = tokenizer.nextToken();
+		}
+		return path;
+	}
+
+	@Override
+	public boolean next() throws JRException
+	{
+		if (!started)
+		{
+			start();
+		}
+		
+		if (ended)
+		{
+			return false;
+		}
+		
+		try
+		{
+			currentJsonNode = nextRecord();
+		}
+		catch (IOException e)
+		{
+			throw 
+				new JRException(
+					EXCEPTION_MESSAGE_KEY_STREAM_READ_ERROR,
+					(Object[]) null, 
+					e);
+		}
+		
+		if (currentJsonNode == null)
+		{
+			if (log.isDebugEnabled())
+			{
+				log.debug("read " + recordCount + " records");
+			}
+			
+			end();
+			return false;
+		}
+		
+		++recordCount;
+		return true;
+	}
+	
+	protected void start() throws JRException
+	{
+		started = true;
+		ended = false;
+		recordCount = 0;
+		currentJsonNode = null;
+		pendingRecord = null;
+		frames.clear();
+		
+		try
+		{
+			if (location != null)
+			{
+				inputStream = RepositoryUtil.getInstance(repositoryContext).getInputStreamFromLocation(location);
+			}
+			parser = mapper.getFactory().createParser(inputStream);
+			
+			JsonToken rootToken = parser.nextToken();
+			if (rootToken == null)
+			{
+				end();
+			}
+			else
+			{
+				// the root object can be the single record
+				pendingRecord = handleValue(rootToken, 0, Mode.ROOT);
+			}
+		}
+		catch (IOException e)
+		{
+			throw 
+				new JRException(
+					EXCEPTION_MESSAGE_KEY_STREAM_READ_ERROR,
+					(Object[]) null, 
+					e);
+		}
+	}
+	
+	private JsonNode nextRecord() throws IOException
+	{
+		if (pendingRecord != null)
+		{
+			JsonNode record = pendingRecord;
+			pendingRecord = null;
+			return record;
+		}
+		
+		while (!frames.isEmpty())
+		{
+			Frame frame = frames.peek();
+			JsonToken token = parser.nextToken();
+			if (token == null)
+			{
+				// truncated input
+				return null;
+			}
+			
+			JsonNode record = null;
+			if (frame.array)
+			{
+				if (token == JsonToken.END_ARRAY)
+				{
+					frames.pop();
+				}
+				else
+				{
+					record = handleValue(token, frame.pathIndex, Mode.COLLECTED);
+				}
+			}
+			else
+			{
+				if (token == JsonToken.END_OBJECT)
+				{
+					frames.pop();
+				}
+				else
+				{
+					// field name
+					String name = parser.currentName();
+					JsonToken valueToken = parser.nextToken();
+					if (name.equals(path[frame.pathIndex]))
+					{
+						record = handleValue(valueToken, frame.pathIndex + 1, 
+								frame.mode == Mode.ROOT ? Mode.ROOT : Mode.FLATTEN);
+					}
+					else
+					{
+						parser.skipChildren();
+					}
+				}
+			}
+			
+			if (record != null)
+			{
+				return record;
+			}
+		}
+		
+		return null;
+	}
+	
+	/**
+	 * Handles the value at the current parser token, either reading it as a record
+	 * or descending into it, mirroring the path evaluation of {@link JsonDataSource}.
+	 */
+	private JsonNode handleValue(JsonToken token, int pathIndex, Mode mode) throws IOException
+	{
+		if (mode == Mode.FLATTEN)
+		{
+			if (token == JsonToken.START_ARRAY)
+			{
+				frames.push(new Frame(true, pathIndex, Mode.COLLECTED));
+				return null;
+			}
+			
+			mode = Mode.COLLECTED;
+		}
+		
+		if (pathIndex == path.length)
+		{
+			if (mode == Mode.COLLECTED || token == JsonToken.START_OBJECT)
+			{
+				return mapper.readTree(parser);
+			}
+			
+			if (token == JsonToken.START_ARRAY)
+			{
+				// the array elements are the records
+				frames.push(new Frame(true, pathIndex, Mode.COLLECTED));
+			}
+			else
+			{
+				parser.skipChildren();
+			}
+			return null;
+		}
+		
+		if (token == JsonToken.START_OBJECT)
+		{
+			frames.push(new Frame(false, pathIndex, mode));
+		}
+		else if (token == JsonToken.START_ARRAY && mode == Mode.ROOT)
+		{
+			// the property is looked up in each element
+			frames.push(new Frame(true, pathIndex, Mode.COLLECTED));
+		}
+		else
+		{
+			parser.skipChildren();
+		}
+		return null;
+	}
+	
+	protected void end()
+	{
+		ended = true;
+		currentJsonNode = null;
+		frames.clear();
+		close();
+	}
+
+	/**
+	 * Closes the JSON parser, and the input stream if it was opened by the data source.
+	 */
+	public void close()
+	{
+		if (parser != null)
+		{
+			try
+			{
+				parser.close();
+			}
+			catch (IOException e)
+			{
+				log.warn("Failed to close JSON parser", e);
+			}
+			parser = null;
+		}
+		
+		if (location != null && inputStream != null)
+		{
+			try
+			{
+				inputStream.close();
+			}
+			catch (IOException e)
+			{
+				log.warn("Failed to close input stream for location " + location, e);
+			}
+			inputStream = null;
+		}
+	}
+
+	@Override
+	public void moveFirst() throws JRException
+	{
+		if (!started)
+		{
+			return;
+		}
+		
+		if (location == null)
+		{
+			throw 
+				new JRException(
+					EXCEPTION_MESSAGE_KEY_STREAM_NOT_REWINDABLE,
+					(Object[]) null);
+		}
+		
+		close();
+		started = false;
+	}
+
+	@Override
+	public Object getFieldValue(JRField jrField) throws JRException
+	{
+		if (currentJsonNode == null)
+		{
+			return null;
+		}
+		
+		if (fieldEvaluator == null)
+		{
+			// using a tree data source to evaluate the field expressions on the record nodes
+			fieldEvaluator = new JsonDataSource(currentJsonNode, null);
+			fieldEvaluator.setTextAttributes(this);
+		}
+		return fieldEvaluator.getFieldValue(currentJsonNode, jrField);
+	}
+
+	@Override
+	public JsonDataSource subDataSource() throws JRException
+	{
+		return subDataSource(null);
+	}
+
+	@Override
+	public JsonDataSource subDataSource(String selectExpression) throws JRException
+	{
+		if (currentJsonNode == null)
+		{
+			throw 
+				new JRException(
+					EXCEPTION_MESSAGE_KEY_NODE_NOT_AVAILABLE,
+					(Object[]) null);
+		}
+
+		JsonDataSource subDataSource = new JsonDataSource(currentJsonNode, selectExpression);
+		subDataSource.setTextAttributes(this);
+		return subDataSource;
+	}
+}
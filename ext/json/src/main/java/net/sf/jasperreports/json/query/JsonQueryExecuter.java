@@ -26,6 +26,7 @@ package net.sf.jasperreports.json.query;
 import java.io.InputStream;
 import java.util.Map;
 
+import net.sf.jasperreports.engine.JRDataSource;
 import net.sf.jasperreports.engine.JRDataset;
 import net.sf.jasperreports.engine.JRException;
 import net.sf.jasperreports.engine.JRValueParameter;
@@ -36,6 +37,7 @@ import net.sf.jasperreports.engine.query.QueryExecutionContext;
 import net.sf.jasperreports.engine.query.SimpleQueryExecutionContext;
 import net.sf.jasperreports.json.data.JsonDataSource;
 import net.sf.jasperreports.json.data.JsonDataSourceProvider;
+import net.sf.jasperreports.json.data.JsonStreamDataSource;
 
 /**
  * JSON query executer implementation.
@@ -46,6 +48,8 @@ public class JsonQueryExecuter extends AbstractJsonQueryExecuter<JsonDataSource>
 {
 	public static final String CANONICAL_LANGUAGE = "JSON";
 	
+	private JsonStreamDataSource streamDataSource;
+	
 	/**
 	 * 
 	 */
@@ -69,6 +73,50 @@ public class JsonQueryExecuter extends AbstractJsonQueryExecuter<JsonDataSource>
 	}
 	
 	
+	@Override
+	public JRDataSource createDatasource() throws JRException
+	{
+		if (getBooleanParameterOrProperty(JsonQueryExecuterFactory.JSON_STREAMING, false)
+				&& JsonStreamDataSource.isStreamable(getQueryString()))
+		{
+			JsonStreamDataSource dataSource = null;
+			InputStream jsonInputStream = (InputStream) getParameterValue(JsonQueryExecuterFactory.JSON_INPUT_STREAM);
+			if (jsonInputStream != null)
+			{
+				dataSource = new JsonStreamDataSource(jsonInputStream, getQueryString());
+			}
+			else
+			{
+				String jsonSource = getStringParameterOrProperty(JsonQueryExecuterFactory.JSON_SOURCE);
+				if (jsonSource != null)
+				{
+					dataSource = new JsonStreamDataSource(getRepositoryContext(), jsonSource, getQueryString());
+				}
+			}
+			
+			if (dataSource != null)
+			{
+				dataSource.setTextAttributes(getTextAttributes());
+				streamDataSource = dataSource;
+				return dataSource;
+			}
+		}
+		
+		// multiple sources or select expressions not supported for streaming
+		return super.createDatasource();
+	}
+
+	@Override
+	public void close()
+	{
+		if (streamDataSource != null)
+		{
+			streamDataSource.close();
+			streamDataSource = null;
+		}
+		super.close();
+	}
+	
 	@Override
 	protected String getCanonicalQueryLanguage()
 	{
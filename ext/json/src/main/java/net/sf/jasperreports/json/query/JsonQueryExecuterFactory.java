@@ -134,6 +134,26 @@ public class JsonQueryExecuterFactory extends AbstractQueryExecuterFactory imple
 			)
 	public static final String JSON_TIMEZONE_ID = JRPropertiesUtil.PROPERTY_PREFIX + "json.timezone.id";
 	
+	/**
+	 * Parameter/property that determines whether the JSON data is read via a streaming parser
+	 * instead of building the JSON tree for the whole input.
+	 * <p/>
+	 * Streaming is used only for select expressions that consist of property names, 
+	 * and for data read from an input stream or a single source.
+	 * Other expressions and multiple sources fall back to the JSON tree.
+	 * 
+	 * @see net.sf.jasperreports.json.data.JsonStreamDataSource
+	 */
+	@Property(
+			category = PropertyConstants.CATEGORY_DATA_SOURCE,
+			defaultValue = PropertyConstants.BOOLEAN_FALSE,
+			scopes = {PropertyScope.CONTEXT, PropertyScope.DATASET},
+			scopeQualifications = {JsonQueryExecuterFactory.JSON_QUERY_EXECUTER_NAME},
+			sinceVersion = PropertyConstants.VERSION_7_0_7,
+			valueType = Boolean.class
+			)
+	public static final String JSON_STREAMING = JRPropertiesUtil.PROPERTY_PREFIX + "json.streaming";
+	
 	private final static Object[] JSON_BUILTIN_PARAMETERS = {
 		JSON_INPUT_STREAM, "java.io.InputStream",
 		JSON_SOURCE, "java.lang.String",
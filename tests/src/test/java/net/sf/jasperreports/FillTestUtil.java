@@ -0,0 +1,178 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2025 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.function.Function;
+
+import net.sf.jasperreports.engine.JRDataSource;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JRParameter;
+import net.sf.jasperreports.engine.JRPrintElement;
+import net.sf.jasperreports.engine.JRPrintFrame;
+import net.sf.jasperreports.engine.JRPrintPage;
+import net.sf.jasperreports.engine.JRPrintText;
+import net.sf.jasperreports.engine.JasperFillManager;
+import net.sf.jasperreports.engine.JasperPrint;
+import net.sf.jasperreports.engine.JasperReport;
+import net.sf.jasperreports.engine.SimpleJasperReportsContext;
+
+/**
+ * Fills reports with specific context properties and collects the texts of the generated 
+ * reports, for tests that compare the output of different fill settings.
+ * 
+ * @author agent (agent@local)
+ */
+public final class FillTestUtil
+{
+	
+	/**
+	 * Describes a text element by its text and position.
+	 */
+	public static final Function<JRPrintText, String> TEXT_POSITION = 
+		text -> text.getFullText() + "@" + text.getX() + "," + text.getY();
+	
+	private FillTestUtil()
+	{
+	}
+	
+	/**
+	 * Fills a report using a context that has the specified properties.
+	 * <p>
+	 * The report locale and time zone are set to <code>en_US</code> and GMT unless 
+	 * provided in the parameters.
+	 * 
+	 * @param report the report
+	 * @param properties the context properties, can be <code>null</code>
+	 * @param params the report parameters, can be <code>null</code>
+	 * @param dataSource the report data source, if <code>null</code> the report query is used
+	 * @return the generated report
+	 * @throws JRException
+	 */
+	public static JasperPrint fill(JasperReport report, Map<String, String> properties, 
+			Map<String, Object> params, JRDataSource dataSource) throws JRException
+	{
+		SimpleJasperReportsContext jasperReportsContext = new SimpleJasperReportsContext();
+		if (properties != null)
+		{
+			for (Map.Entry<String, String> property : properties.entrySet())
+			{
+				jasperReportsContext.setProperty(property.getKey(), property.getValue());
+			}
+		}
+		
+		Map<String, Object> reportParams = params == null ? new HashMap<>() : new HashMap<>(params);
+		reportParams.putIfAbsent(JRParameter.REPORT_LOCALE, Locale.US);
+		reportParams.putIfAbsent(JRParameter.REPORT_TIME_ZONE, TimeZone.getTimeZone("GMT"));
+		
+		JasperFillManager fillManager = JasperFillManager.getInstance(jasperReportsContext);
+		return dataSource == null ? fillManager.fill(report, reportParams)
+				: fillManager.fill(report, reportParams, dataSource);
+	}
+	
+	/**
+	 * Returns the texts of each page, described by text and position.
+	 */
+	public static List<List<String>> pageTexts(JasperPrint print)
+	{
+		List<List<String>> pages = new ArrayList<>();
+		for (JRPrintPage page : print.getPages())
+		{
+			List<String> texts = new ArrayList<>();
+			collectTexts(page.getElements(), TEXT_POSITION, texts);
+			pages.add(texts);
+		}
+		return pages;
+	}
+	
+	/**
+	 * Returns the texts of all pages, followed by a page separator for each page.
+	 */
+	public static List<String> printTexts(JasperPrint print, Function<JRPrintText, String> description)
+	{
+		List<String> texts = new ArrayList<>();
+		for (JRPrintPage page : print.getPages())
+		{
+			collectTexts(page.getElements(), description, texts);
+			texts.add("--");
+		}
+		return texts;
+	}
+	
+	public static List<String> printTexts(JasperPrint print)
+	{
+		return printTexts(print, TEXT_POSITION);
+	}
+	
+	public static void collectTexts(List<JRPrintElement> elements, Function<JRPrintText, String> description, 
+			List<String> texts)
+	{
+		for (JRPrintElement element : elements)
+		{
+			if (element instanceof JRPrintText)
+			{
+				texts.add(description.apply((JRPrintText) element));
+			}
+			else if (element instanceof JRPrintFrame)
+			{
+				collectTexts(((JRPrintFrame) element).getElements(), description, texts);
+			}
+		}
+	}
+	
+	/**
+	 * Returns the number of text elements in the report, including the ones placed in frames.
+	 */
+	public static int countTexts(JasperPrint print)
+	{
+		int count = 0;
+		for (JRPrintPage page : print.getPages())
+		{
+			count += countTexts(page.getElements());
+		}
+		return count;
+	}
+	
+	private static int countTexts(List<JRPrintElement> elements)
+	{
+		int count = 0;
+		for (JRPrintElement element : elements)
+		{
+			if (element instanceof JRPrintText)
+			{
+				++count;
+			}
+			else if (element instanceof JRPrintFrame)
+			{
+				count += countTexts(((JRPrintFrame) element).getElements());
+			}
+		}
+		return count;
+	}
+}
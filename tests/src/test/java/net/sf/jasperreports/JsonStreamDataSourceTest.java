@@ -0,0 +1,139 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2025 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import net.sf.jasperreports.engine.DefaultJasperReportsContext;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JRRewindableDataSource;
+import net.sf.jasperreports.engine.design.JRDesignField;
+import net.sf.jasperreports.engine.data.JsonData;
+import net.sf.jasperreports.json.data.JsonDataSource;
+import net.sf.jasperreports.json.data.JsonStreamDataSource;
+import net.sf.jasperreports.repo.SimpleRepositoryContext;
+
+/**
+ * @author agent (agent@local)
+ */
+public class JsonStreamDataSourceTest
+{
+	
+	private static final String ORDERS_LOCATION = "net/sf/jasperreports/jsonql/orders.json";
+	
+	@DataProvider
+	public Object[][] selectExpressions()
+	{
+		return new Object[][] {
+			{null},
+			{"customerXorders"},
+			{"customerXorders.products"},
+			{"customerXorders.products.product_1"},
+			{"customerYorders.products"},
+			{"customerYorders.products.prodId"},
+			{"customerYorders.orderId"},
+			{"customerXorders.missing"},
+			{"missing.orderId"},
+		};
+	}
+
+	@Test(dataProvider = "selectExpressions")
+	public void sameRecords(String selectExpression) throws JRException, IOException
+	{
+		assert JsonStreamDataSource.isStreamable(selectExpression);
+		
+		List<JsonNode> treeRecords;
+		try (InputStream input = openOrders())
+		{
+			treeRecords = records(new JsonDataSource(input, selectExpression));
+		}
+		
+		List<JsonNode> streamRecords;
+		try (InputStream input = openOrders())
+		{
+			streamRecords = records(new JsonStreamDataSource(input, selectExpression));
+		}
+		
+		assert streamRecords.equals(treeRecords) : streamRecords + " vs " + treeRecords;
+	}
+
+	@Test
+	public void fieldValues() throws JRException
+	{
+		JsonStreamDataSource dataSource = new JsonStreamDataSource(
+				SimpleRepositoryContext.of(DefaultJasperReportsContext.getInstance()), 
+				ORDERS_LOCATION, "customerYorders");
+		JRDesignField orderId = new JRDesignField();
+		orderId.setName("orderId");
+		orderId.setValueClass(Integer.class);
+		JRDesignField shippedOn = new JRDesignField();
+		shippedOn.setName("shippedOn");
+		shippedOn.setValueClass(String.class);
+		
+		for (int pass = 0; pass < 2; pass++)
+		{
+			assert dataSource.next();
+			assert Integer.valueOf(1200).equals(dataSource.getFieldValue(orderId));
+			assert "2015-12-03".equals(dataSource.getFieldValue(shippedOn));
+			assert dataSource.next();
+			assert Integer.valueOf(1201).equals(dataSource.getFieldValue(orderId));
+			assert dataSource.getFieldValue(shippedOn) == null;
+			assert !dataSource.next();
+			
+			// the location is read again
+			dataSource.moveFirst();
+		}
+	}
+	
+	@Test
+	public void notStreamable()
+	{
+		assert !JsonStreamDataSource.isStreamable("customerXorders[0]");
+		assert !JsonStreamDataSource.isStreamable("customerXorders(orderId == 1001)");
+	}
+	
+	private InputStream openOrders()
+	{
+		return JsonStreamDataSourceTest.class.getClassLoader().getResourceAsStream(ORDERS_LOCATION);
+	}
+	
+	private static <T extends JsonData<JsonDataSource> & JRRewindableDataSource> List<JsonNode> records(
+			T dataSource) throws JRException
+	{
+		List<JsonNode> records = new ArrayList<>();
+		while (dataSource.next())
+		{
+			records.add(dataSource.subDataSource().getRootNode());
+		}
+		return records;
+	}
+}
@@ -53,6 +53,7 @@ import net.sf.jasperreports.engine.SimpleJasperReportsContext;
 import net.sf.jasperreports.engine.design.JasperDesign;
 import net.sf.jasperreports.engine.export.JRXmlExporter;
 import net.sf.jasperreports.engine.fill.JRAbstractLRUVirtualizer;
+import net.sf.jasperreports.engine.fill.JRConcurrentVirtualizer;
 import net.sf.jasperreports.engine.util.JRLoader;
 import net.sf.jasperreports.engine.xml.JRXmlLoader;
 import net.sf.jasperreports.export.SimpleExporterInput;
@@ -173,6 +174,10 @@ public class Report
 		{
 			((JRAbstractLRUVirtualizer) virtualizer).setReadOnly(true);
 		}
+		else if (virtualizer instanceof JRConcurrentVirtualizer)
+		{
+			((JRConcurrentVirtualizer) virtualizer).setReadOnly(true);
+		}
 		
 		assert !print.getPages().isEmpty();
 		
@@ -0,0 +1,194 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2025 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JRField;
+import net.sf.jasperreports.engine.JRResultSetDataSource;
+import net.sf.jasperreports.engine.design.JRDesignField;
+
+/**
+ * Measures reading the fields of an in-memory HSQLDB result set via {@link JRResultSetDataSource},
+ * compared to reading the same columns directly from the result set.
+ *
+ * <p>
+ * The benchmark is not run as part of the tests, it can be run via {@link #main(String[])}
+ * from the test classpath.
+ * </p>
+ *
+ * @author agent (agent@local)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResultSetDataSourceBenchmark
+{
+
+	private static final String QUERY = "SELECT ID, NAME, AMOUNT, PRICE, CREATED, DAY FROM ITEMS";
+
+	@Param({"100000"})
+	private int rowCount;
+
+	@Param({"false", "true"})
+	private boolean timeZone;
+
+	private Connection connection;
+	private JRField[] fields;
+
+	@Setup
+	public void createData() throws SQLException
+	{
+		connection = DriverManager.getConnection("jdbc:hsqldb:mem:resultsetdatasourcebenchmark", "SA", "");
+		try (Statement statement = connection.createStatement())
+		{
+			statement.execute("CREATE TABLE ITEMS (ID INTEGER, NAME VARCHAR(40), AMOUNT DOUBLE, "
+					+ "PRICE DECIMAL(12, 2), CREATED TIMESTAMP, DAY DATE)");
+		}
+
+		long time = Timestamp.valueOf("2024-01-01 00:00:00").getTime();
+		try (PreparedStatement insert = connection.prepareStatement("INSERT INTO ITEMS VALUES (?, ?, ?, ?, ?, ?)"))
+		{
+			for (int i = 0; i < rowCount; i++)
+			{
+				insert.setInt(1, i);
+				insert.setString(2, "item " + i);
+				insert.setDouble(3, i * 1.5);
+				insert.setBigDecimal(4, BigDecimal.valueOf(i, 2));
+				insert.setTimestamp(5, new Timestamp(time + i * 60000L));
+				insert.setDate(6, new java.sql.Date(time + (i % 365) * 86400000L));
+				insert.addBatch();
+				if (i % 1000 == 999)
+				{
+					insert.executeBatch();
+				}
+			}
+			insert.executeBatch();
+		}
+
+		fields = new JRField[] {
+				field("ID", Integer.class),
+				field("NAME", String.class),
+				field("AMOUNT", Double.class),
+				field("PRICE", BigDecimal.class),
+				field("CREATED", Timestamp.class),
+				field("DAY", java.sql.Date.class),
+		};
+	}
+
+	@TearDown
+	public void dropData() throws SQLException
+	{
+		try (Statement statement = connection.createStatement())
+		{
+			statement.execute("DROP TABLE ITEMS");
+		}
+		connection.close();
+	}
+
+	@Benchmark
+	public void dataSource(Blackhole blackhole) throws SQLException, JRException
+	{
+		try (Statement statement = connection.createStatement();
+				ResultSet resultSet = statement.executeQuery(QUERY))
+		{
+			JRResultSetDataSource dataSource = new JRResultSetDataSource(resultSet);
+			if (timeZone)
+			{
+				dataSource.setTimeZone(TimeZone.getTimeZone("GMT"), false);
+			}
+
+			while (dataSource.next())
+			{
+				for (JRField field : fields)
+				{
+					blackhole.consume(dataSource.getFieldValue(field));
+				}
+			}
+		}
+	}
+
+	@Benchmark
+	public void resultSet(Blackhole blackhole) throws SQLException
+	{
+		try (Statement statement = connection.createStatement();
+				ResultSet resultSet = statement.executeQuery(QUERY))
+		{
+			while (resultSet.next())
+			{
+				blackhole.consume(resultSet.getInt(1));
+				blackhole.consume(resultSet.getString(2));
+				blackhole.consume(resultSet.getDouble(3));
+				blackhole.consume(resultSet.getBigDecimal(4));
+				blackhole.consume(resultSet.getTimestamp(5));
+				blackhole.consume(resultSet.getDate(6));
+			}
+		}
+	}
+
+	private static JRDesignField field(String name, Class<?> valueClass)
+	{
+		JRDesignField field = new JRDesignField();
+		field.setName(name);
+		field.setValueClass(valueClass);
+		return field;
+	}
+
+	public static void main(String[] args) throws RunnerException
+	{
+		new Runner(new OptionsBuilder()
+				.include(ResultSetDataSourceBenchmark.class.getSimpleName())
+				.build()).run();
+	}
+}
@@ -0,0 +1,211 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2025 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.annotations.Test;
+
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JRResultSetDataSource;
+import net.sf.jasperreports.engine.design.JRDesignField;
+
+/**
+ * @author agent (agent@local)
+ */
+public class ResultSetDataSourceTest
+{
+	
+	private static final String[] COLUMNS = {"ID", "NAME", "AMOUNT"};
+	private static final int[] COLUMN_TYPES = {Types.INTEGER, Types.VARCHAR, Types.DOUBLE};
+	private static final Object[][] ROWS = {
+			{1, "a", 1.5d},
+			{null, "b", null},
+			{3, null, 2.5d},
+	};
+
+	@Test
+	public void readFields() throws JRException
+	{
+		AtomicInteger metadataCalls = new AtomicInteger();
+		JRResultSetDataSource dataSource = new JRResultSetDataSource(resultSet(metadataCalls));
+		JRDesignField id = field("ID", Integer.class);
+		JRDesignField name = field("NAME", String.class);
+		JRDesignField amount = field("AMOUNT", Double.class);
+		
+		for (int row = 0; row < ROWS.length; row++)
+		{
+			assert dataSource.next();
+			
+			if (row < 2)
+			{
+				assert equal(ROWS[row][0], dataSource.getFieldValue(id));
+				assert equal(ROWS[row][1], dataSource.getFieldValue(name));
+				assert equal(ROWS[row][2], dataSource.getFieldValue(amount));
+			}
+			else
+			{
+				// fields read in a different order
+				assert equal(ROWS[row][2], dataSource.getFieldValue(amount));
+				assert equal(ROWS[row][0], dataSource.getFieldValue(id));
+				assert equal(ROWS[row][1], dataSource.getFieldValue(name));
+			}
+			
+			if (row == 0)
+			{
+				metadataCalls.set(0);
+			}
+		}
+		assert !dataSource.next();
+		
+		// the columns are resolved when reading the first row
+		assert metadataCalls.get() == 0;
+	}
+	
+	@Test
+	public void readDatabaseFields() throws JRException, SQLException
+	{
+		try (Connection connection = DriverManager.getConnection("jdbc:hsqldb:mem:resultsetdatasourcetest", "SA", ""))
+		{
+			try (Statement statement = connection.createStatement())
+			{
+				statement.execute("CREATE TABLE ITEMS (ID INTEGER, NAME VARCHAR(20), PRICE DECIMAL(10, 2), "
+						+ "CREATED TIMESTAMP, DAY DATE)");
+				statement.execute("INSERT INTO ITEMS VALUES (1, 'first', 10.50, TIMESTAMP '2024-01-02 03:04:05', DATE '2024-01-02')");
+				statement.execute("INSERT INTO ITEMS VALUES (2, NULL, NULL, NULL, NULL)");
+			}
+			
+			JRDesignField id = field("ID", Integer.class);
+			JRDesignField name = field("NAME", String.class);
+			JRDesignField price = field("PRICE", BigDecimal.class);
+			JRDesignField created = field("CREATED", Timestamp.class);
+			JRDesignField day = field("DAY", java.sql.Date.class);
+			
+			try (Statement statement = connection.createStatement();
+					ResultSet resultSet = statement.executeQuery("SELECT * FROM ITEMS ORDER BY ID"))
+			{
+				JRResultSetDataSource dataSource = new JRResultSetDataSource(resultSet);
+				
+				assert dataSource.next();
+				assert Integer.valueOf(1).equals(dataSource.getFieldValue(id));
+				assert "first".equals(dataSource.getFieldValue(name));
+				assert new BigDecimal("10.50").equals(dataSource.getFieldValue(price));
+				assert Timestamp.valueOf("2024-01-02 03:04:05").equals(dataSource.getFieldValue(created));
+				assert java.sql.Date.valueOf("2024-01-02").equals(dataSource.getFieldValue(day));
+				
+				assert dataSource.next();
+				assert Integer.valueOf(2).equals(dataSource.getFieldValue(id));
+				assert dataSource.getFieldValue(name) == null;
+				assert dataSource.getFieldValue(price) == null;
+				assert dataSource.getFieldValue(created) == null;
+				assert dataSource.getFieldValue(day) == null;
+				
+				assert !dataSource.next();
+			}
+			finally
+			{
+				try (Statement statement = connection.createStatement())
+				{
+					statement.execute("DROP TABLE ITEMS");
+				}
+			}
+		}
+	}
+	
+	private static boolean equal(Object expected, Object value)
+	{
+		return expected == null ? value == null : expected.equals(value);
+	}
+	
+	private static JRDesignField field(String name, Class<?> valueClass)
+	{
+		JRDesignField field = new JRDesignField();
+		field.setName(name);
+		field.setValueClass(valueClass);
+		return field;
+	}
+	
+	private static ResultSet resultSet(AtomicInteger metadataCalls)
+	{
+		ResultSetMetaData metadata = (ResultSetMetaData) Proxy.newProxyInstance(
+				ResultSetDataSourceTest.class.getClassLoader(), new Class<?>[]{ResultSetMetaData.class}, 
+				(proxy, method, args) -> 
+				{
+					switch (method.getName())
+					{
+					case "getColumnCount":
+						return COLUMNS.length;
+					case "getColumnLabel":
+					case "getColumnName":
+						return COLUMNS[(Integer) args[0] - 1];
+					case "getColumnType":
+						return COLUMN_TYPES[(Integer) args[0] - 1];
+					default:
+						return null;
+					}
+				});
+		
+		int[] row = {-1};
+		boolean[] wasNull = {false};
+		return (ResultSet) Proxy.newProxyInstance(
+				ResultSetDataSourceTest.class.getClassLoader(), new Class<?>[]{ResultSet.class}, 
+				(proxy, method, args) -> 
+				{
+					switch (method.getName())
+					{
+					case "next":
+						++row[0];
+						return row[0] < ROWS.length;
+					case "getMetaData":
+						metadataCalls.incrementAndGet();
+						return metadata;
+					case "wasNull":
+						return wasNull[0];
+					case "getInt":
+					case "getString":
+					case "getDouble":
+						Object value = ROWS[row[0]][(Integer) args[0] - 1];
+						wasNull[0] = value == null;
+						if (value == null)
+						{
+							return method.getReturnType().equals(int.class) ? (Object) 0
+									: method.getReturnType().equals(double.class) ? (Object) 0d : null;
+						}
+						return value;
+					default:
+						throw new UnsupportedOperationException(method.getName());
+					}
+				});
+	}
+}
@@ -0,0 +1,129 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2025 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import net.sf.jasperreports.engine.DefaultJasperReportsContext;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.data.AbstractXmlDataSource;
+import net.sf.jasperreports.engine.data.JRXmlDataSource;
+import net.sf.jasperreports.engine.data.XmlStreamDataSource;
+import net.sf.jasperreports.engine.design.JRDesignField;
+
+/**
+ * @author agent (agent@local)
+ */
+public class XmlStreamDataSourceTest
+{
+	
+	private static final String XML = 
+			"<catalog>"
+			+ "<section name=\"a\">"
+			+ "<item id=\"1\"><name>One</name><item id=\"1.1\"><name>Nested</name></item></item>"
+			+ "<item id=\"2\"><name><![CDATA[Two]]></name><!-- comment --></item>"
+			+ "</section>"
+			+ "<other><item id=\"3\"><name>Three</name></item></other>"
+			+ "<item id=\"4\"><name>Four</name></item>"
+			+ "</catalog>";
+	
+	@DataProvider
+	public Object[][] selectExpressions()
+	{
+		return new Object[][] {
+			{"/catalog"},
+			{"/catalog/item"},
+			{"/catalog/section/item"},
+			{"/catalog/*/item"},
+			{"//item"},
+			{"/catalog//item"},
+			{"//section/item/item"},
+			{"/missing/item"},
+		};
+	}
+
+	@Test(dataProvider = "selectExpressions")
+	public void sameRecords(String selectExpression) throws JRException
+	{
+		assert XmlStreamDataSource.isStreamable(selectExpression);
+		
+		List<String> documentRecords = records(new JRXmlDataSource(
+				DefaultJasperReportsContext.getInstance(), input(), selectExpression, false));
+		List<String> streamRecords = records(new XmlStreamDataSource(
+				DefaultJasperReportsContext.getInstance(), input(), selectExpression, false));
+		assert streamRecords.equals(documentRecords) : streamRecords + " vs " + documentRecords;
+	}
+	
+	@Test
+	public void notStreamable()
+	{
+		assert !XmlStreamDataSource.isStreamable(".");
+		assert !XmlStreamDataSource.isStreamable("catalog/item");
+		assert !XmlStreamDataSource.isStreamable("/catalog/item[@id > 1]");
+		assert !XmlStreamDataSource.isStreamable("/catalog/item/..");
+		assert !XmlStreamDataSource.isStreamable("/catalog/item/");
+	}
+	
+	@Test(expectedExceptions = JRException.class)
+	public void outerFieldExpression() throws JRException
+	{
+		XmlStreamDataSource dataSource = new XmlStreamDataSource(
+				DefaultJasperReportsContext.getInstance(), input(), "/catalog/item", false);
+		assert dataSource.next();
+		dataSource.getFieldValue(field("../section/@name"));
+	}
+	
+	private static InputStream input()
+	{
+		return new ByteArrayInputStream(XML.getBytes(StandardCharsets.UTF_8));
+	}
+	
+	private static JRDesignField field(String expression)
+	{
+		JRDesignField field = new JRDesignField();
+		field.setName(expression);
+		field.setValueClass(String.class);
+		return field;
+	}
+	
+	private static List<String> records(AbstractXmlDataSource<?> dataSource) throws JRException
+	{
+		JRDesignField id = field("@id");
+		JRDesignField name = field("name");
+		
+		List<String> records = new ArrayList<>();
+		while (dataSource.next())
+		{
+			records.add(dataSource.getFieldValue(id) + ":" + dataSource.getFieldValue(name));
+		}
+		return records;
+	}
+}
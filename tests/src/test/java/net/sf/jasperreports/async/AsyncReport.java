@@ -28,6 +28,8 @@ import java.util.Map;
 import net.sf.jasperreports.Report;
 import net.sf.jasperreports.engine.JRException;
 import net.sf.jasperreports.engine.JasperPrint;
+import net.sf.jasperreports.engine.export.FillExportPipeline;
+import net.sf.jasperreports.engine.export.PageExportHandler;
 import net.sf.jasperreports.engine.fill.AsynchronousFillHandle;
 import net.sf.jasperreports.engine.fill.FillListener;
 import net.sf.jasperreports.web.servlets.AsyncJasperPrintAccessor;
@@ -66,5 +68,35 @@ public class AsyncReport extends Report
 			throw new RuntimeException(e);
 		}
 	}
+	
+	public JasperPrint runPipeline(Map<String, Object> params, PageExportHandler exportHandler)
+	{
+		return runPipeline(params, exportHandler, false);
+	}
+	
+	public JasperPrint runPipeline(Map<String, Object> params, PageExportHandler exportHandler,
+			boolean releaseExportedPages)
+	{
+		try
+		{
+			Map<String, Object> reportParams = reportParams(params);
+			AsynchronousFillHandle asyncHandle = AsynchronousFillHandle.createHandle(
+					jasperReportsContext, report, reportParams);
+			
+			FillExportPipeline pipeline = new FillExportPipeline(asyncHandle);
+			pipeline.setReleaseExportedPages(releaseExportedPages);
+			JasperPrint print = pipeline.export(exportHandler);
+			if (!releaseExportedPages)
+			{
+				// the released pages are empty, the output can only be checked by the handler
+				reportComplete(reportParams, print);
+			}
+			return print;
+		}
+		catch (JRException e)
+		{
+			throw new RuntimeException(e);
+		}
+	}
 
 }
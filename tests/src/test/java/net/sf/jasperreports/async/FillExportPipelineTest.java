@@ -0,0 +1,150 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2025 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.async;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.testng.annotations.Test;
+
+import net.sf.jasperreports.engine.DefaultJasperReportsContext;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JRParameter;
+import net.sf.jasperreports.engine.JRPrintPage;
+import net.sf.jasperreports.engine.JasperPrint;
+import net.sf.jasperreports.engine.export.CsvPageExportHandler;
+import net.sf.jasperreports.engine.export.HtmlPageExportHandler;
+import net.sf.jasperreports.engine.export.JRCsvExporter;
+import net.sf.jasperreports.engine.export.PageExportHandler;
+import net.sf.jasperreports.engine.fill.JRGzipVirtualizer;
+import net.sf.jasperreports.export.SimpleExporterInput;
+import net.sf.jasperreports.export.SimpleWriterExporterOutput;
+
+/**
+ * @author agent (agent@local)
+ */
+public class FillExportPipelineTest
+{
+	
+	protected AsyncReport report(String name)
+	{
+		AsyncReport report = new AsyncReport("net/sf/jasperreports/" + name + ".jrxml", 
+				"net/sf/jasperreports/" + name + ".reference.jrpxml");
+		report.init();
+		return report;
+	}
+	
+	@Test
+	public void pageOrder()
+	{
+		AsyncReport report = report("async/GroupKeepTogether");
+		List<Integer> exportedPages = new ArrayList<>();
+		List<Boolean> lastPages = new ArrayList<>();
+		JasperPrint print = report.runPipeline(null, new PageExportHandler()
+		{
+			@Override
+			public void exportPage(JasperPrint jasperPrint, int pageIndex, boolean lastPage)
+			{
+				exportedPages.add(pageIndex);
+				lastPages.add(lastPage);
+			}
+		});
+		
+		assert exportedPages.size() == print.getPages().size();
+		for (int i = 0; i < exportedPages.size(); i++)
+		{
+			assert exportedPages.get(i) == i;
+			assert lastPages.get(i) == (i == exportedPages.size() - 1);
+		}
+	}
+	
+	@Test
+	public void csvPipeline() throws JRException, IOException
+	{
+		AsyncReport report = report("virtualization/FirstJasper");
+		StringWriter pipelineWriter = new StringWriter();
+		JasperPrint print = report.runPipeline(null, 
+				new CsvPageExportHandler(DefaultJasperReportsContext.getInstance(), pipelineWriter));
+		
+		StringWriter writer = new StringWriter();
+		JRCsvExporter exporter = new JRCsvExporter();
+		exporter.setExporterInput(new SimpleExporterInput(print));
+		exporter.setExporterOutput(new SimpleWriterExporterOutput(writer));
+		exporter.exportReport();
+		
+		assert pipelineWriter.toString().equals(writer.toString());
+	}
+	
+	@Test
+	public void htmlPipeline() throws JRException, IOException
+	{
+		AsyncReport report = report("virtualization/FirstJasper");
+		StringWriter pipelineWriter = new StringWriter();
+		HtmlPageExportHandler exportHandler = new HtmlPageExportHandler(
+				DefaultJasperReportsContext.getInstance(), pipelineWriter);
+		exportHandler.setBetweenPagesHtml("<!-- page break -->\n");
+		JasperPrint print = report.runPipeline(null, exportHandler);
+		
+		String html = pipelineWriter.toString();
+		assert html.startsWith("<!DOCTYPE html");
+		assert html.endsWith("</html>\n");
+		assert html.indexOf("<html>") == html.lastIndexOf("<html>");
+		assert html.split("<!-- page break -->", -1).length == print.getPages().size();
+	}
+	
+	@Test
+	public void releaseExportedPages() throws JRException, IOException
+	{
+		AsyncReport report = report("virtualization/FirstJasper");
+		StringWriter writer = new StringWriter();
+		JasperPrint print = report.runPipeline(null, 
+				new CsvPageExportHandler(DefaultJasperReportsContext.getInstance(), writer));
+		
+		StringWriter releasedWriter = new StringWriter();
+		JRGzipVirtualizer virtualizer = new JRGzipVirtualizer(2);
+		JasperPrint releasedPrint;
+		try
+		{
+			Map<String, Object> params = new HashMap<>();
+			params.put(JRParameter.REPORT_VIRTUALIZER, virtualizer);
+			releasedPrint = report.runPipeline(params, 
+					new CsvPageExportHandler(DefaultJasperReportsContext.getInstance(), releasedWriter), true);
+		}
+		finally
+		{
+			virtualizer.cleanup();
+		}
+		
+		assert releasedWriter.toString().equals(writer.toString());
+		assert releasedPrint.getPages().size() == print.getPages().size();
+		for (JRPrintPage page : releasedPrint.getPages())
+		{
+			assert page.getElements().isEmpty();
+		}
+	}
+}
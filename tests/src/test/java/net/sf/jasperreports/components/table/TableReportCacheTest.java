@@ -0,0 +1,244 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2025 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.components.table;
+
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import net.sf.jasperreports.FillTestUtil;
+import net.sf.jasperreports.Report;
+import net.sf.jasperreports.components.table.fill.TableReportCache;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JasperFillManager;
+import net.sf.jasperreports.engine.JasperPrint;
+import net.sf.jasperreports.engine.JasperReport;
+import net.sf.jasperreports.engine.JasperReportsContext;
+import net.sf.jasperreports.engine.SimpleJasperReportsContext;
+
+/**
+ * @author agent (agent@local)
+ */
+public class TableReportCacheTest
+{
+
+	private static final String FILL_ERROR = "table report cache test error";
+
+	// the number of cached table reports while the report summary is filled
+	private static volatile int sizeDuringFill;
+
+	private JasperReport report;
+	private SimpleJasperReportsContext cachingContext;
+	private TableReportCache cache;
+	private long hitCount;
+	private long missCount;
+
+	@BeforeClass
+	public void compileReport() throws JRException, IOException
+	{
+		report = new Report("net/sf/jasperreports/components/table/TableReportCacheReport.jrxml", null).compileReport();
+
+		cachingContext = new SimpleJasperReportsContext();
+		cachingContext.setProperty(TableReportCache.PROPERTY_ENABLED, "true");
+
+		cache = TableReportCache.getInstance();
+	}
+
+	@BeforeMethod
+	public void clearCache()
+	{
+		cache.invalidateAll();
+		hitCount = cache.getHitCount();
+		missCount = cache.getMissCount();
+	}
+
+	@Test
+	public void reuseReport() throws JRException
+	{
+		fill(cachingContext, null, false);
+		// the generated report is returned to the cache when the fill ends
+		assert sizeDuringFill == 0;
+		assertCache(0, 1, 1);
+
+		fill(cachingContext, null, false);
+		assert sizeDuringFill == 0;
+		assertCache(1, 1, 1);
+	}
+
+	@Test
+	public void sameOutput() throws JRException
+	{
+		List<String> texts = FillTestUtil.printTexts(fill(new SimpleJasperReportsContext(), null, false));
+		assertCache(0, 0, 0);
+
+		assert FillTestUtil.printTexts(fill(cachingContext, null, false)).equals(texts);
+		assert FillTestUtil.printTexts(fill(cachingContext, null, false)).equals(texts);
+		assertCache(1, 1, 1);
+	}
+
+	@Test
+	public void concurrentFills() throws Exception
+	{
+		// both fills wait for each other after filling the table
+		CyclicBarrier barrier = new CyclicBarrier(2);
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try
+		{
+			Future<JasperPrint> fill1 = executor.submit(() -> fill(cachingContext, barrier, false));
+			Future<JasperPrint> fill2 = executor.submit(() -> fill(cachingContext, barrier, false));
+			assert FillTestUtil.printTexts(fill1.get(30, TimeUnit.SECONDS)).equals(
+					FillTestUtil.printTexts(fill2.get(30, TimeUnit.SECONDS)));
+		}
+		finally
+		{
+			executor.shutdownNow();
+		}
+
+		// the report checked out by a fill is not used by the other fill
+		assertCache(0, 2, 2);
+
+		fill(cachingContext, null, false);
+		assertCache(1, 2, 2);
+	}
+
+	@Test
+	public void checkinOnFailure() throws JRException
+	{
+		JRException fillException = null;
+		try
+		{
+			fill(cachingContext, null, true);
+		}
+		catch (JRException e)
+		{
+			fillException = e;
+		}
+
+		assert fillException != null;
+		boolean testError = false;
+		for (Throwable t = fillException; t != null && !testError; t = t.getCause())
+		{
+			testError = FILL_ERROR.equals(t.getMessage());
+		}
+		assert testError;
+
+		// the report is returned to the cache by the failed fill
+		assertCache(0, 1, 1);
+
+		fill(cachingContext, null, false);
+		assertCache(1, 1, 1);
+	}
+
+	@Test
+	public void releaseDroppedReport() throws Exception
+	{
+		JasperReport droppedReport = new Report("net/sf/jasperreports/components/table/TableReportCacheReport.jrxml", null).compileReport();
+		fill(droppedReport, cachingContext, null, false);
+		assertCache(0, 1, 1);
+		
+		WeakReference<JasperReport> reportReference = new WeakReference<>(droppedReport);
+		droppedReport = null;
+		
+		// the cached reports are released when memory is needed, and then the report can be collected
+		releaseSoftReferences();
+		for (int i = 0; i < 10 && reportReference.get() != null; i++)
+		{
+			System.gc();
+			Thread.sleep(100);
+		}
+		
+		assert reportReference.get() == null;
+		assert cache.getSize() == 0;
+	}
+	
+	protected static void releaseSoftReferences()
+	{
+		// soft references are cleared before an OutOfMemoryError is thrown
+		List<long[]> memory = new ArrayList<>();
+		try
+		{
+			while (true)
+			{
+				memory.add(new long[1 << 20]);
+			}
+		}
+		catch (OutOfMemoryError e)
+		{
+			memory.clear();
+		}
+	}
+	
+	protected JasperPrint fill(JasperReportsContext jasperReportsContext, CyclicBarrier barrier, boolean fail)
+			throws JRException
+	{
+		return fill(report, jasperReportsContext, barrier, fail);
+	}
+	
+	protected JasperPrint fill(JasperReport jasperReport, JasperReportsContext jasperReportsContext, 
+			CyclicBarrier barrier, boolean fail) throws JRException
+	{
+		Map<String, Object> params = new HashMap<>();
+		params.put("Barrier", barrier);
+		params.put("Fail", fail);
+		return JasperFillManager.getInstance(jasperReportsContext).fill(jasperReport, params);
+	}
+
+	protected void assertCache(int hits, int misses, int size)
+	{
+		assert cache.getHitCount() - hitCount == hits;
+		assert cache.getMissCount() - missCount == misses;
+		assert cache.getSize() == size;
+	}
+
+	/**
+	 * Called from the report summary.
+	 */
+	public static String endOfReport(CyclicBarrier barrier, Boolean fail) throws Exception
+	{
+		if (barrier != null)
+		{
+			barrier.await(10, TimeUnit.SECONDS);
+		}
+
+		sizeDuringFill = TableReportCache.getInstance().getSize();
+
+		if (Boolean.TRUE.equals(fail))
+		{
+			throw new IllegalStateException(FILL_ERROR);
+		}
+		return "end";
+	}
+}
@@ -0,0 +1,292 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2025 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.fill;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import net.sf.jasperreports.Report;
+import net.sf.jasperreports.engine.JRDataSource;
+import net.sf.jasperreports.engine.JRDataset;
+import net.sf.jasperreports.engine.JREmptyDataSource;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JRField;
+import net.sf.jasperreports.engine.JRValueParameter;
+import net.sf.jasperreports.engine.JasperFillManager;
+import net.sf.jasperreports.engine.JasperReport;
+import net.sf.jasperreports.engine.JasperReportsContext;
+import net.sf.jasperreports.engine.SimpleJasperReportsContext;
+import net.sf.jasperreports.engine.query.JRQueryExecuter;
+import net.sf.jasperreports.engine.query.JRQueryExecuterFactoryBundle;
+import net.sf.jasperreports.engine.query.QueryExecuterFactory;
+
+/**
+ * @author agent (agent@local)
+ */
+public class DatasetPrefetchTest
+{
+	
+	private static final String QUERY_LANGUAGE = "prefetchtest";
+	private static final String PREFETCH_THREAD_NAME = "DatasetPrefetchReport dataset prefetch";
+	
+	private static final List<TestQueryExecuter> executers = Collections.synchronizedList(new ArrayList<>());
+	
+	private JasperReport report;
+
+	@BeforeClass
+	public void compileReport() throws JRException, IOException
+	{
+		report = new Report("net/sf/jasperreports/engine/fill/DatasetPrefetchReport.jrxml", null).compileReport();
+	}
+	
+	@Test
+	public void prefetchedQuery() throws JRException
+	{
+		fill("hit", false, true);
+		
+		// the query is executed once, on the prefetch thread, and its data is used by the crosstab
+		assert executers.size() == 1;
+		TestQueryExecuter executer = executers.get(0);
+		assert executer.executions == 1;
+		assert executer.queryThread.startsWith(PREFETCH_THREAD_NAME);
+		assert executer.records == 2;
+		assert executer.closed;
+	}
+	
+	@Test
+	public void parameterMismatch() throws JRException
+	{
+		fill("miss", true, true);
+		
+		// the prefetched query is discarded and the query is executed again on the fill thread
+		assert executers.size() == 2;
+		TestQueryExecuter prefetched = executers.get(0);
+		assert prefetched.queryThread == null || prefetched.queryThread.startsWith(PREFETCH_THREAD_NAME);
+		assert prefetched.records == 0;
+		assert prefetched.closed;
+		
+		TestQueryExecuter synchronous = executers.get(1);
+		assert synchronous.executions == 1;
+		assert !synchronous.queryThread.startsWith(PREFETCH_THREAD_NAME);
+		assert synchronous.records == 2;
+		assert synchronous.closed;
+	}
+	
+	@Test
+	public void queryFailure()
+	{
+		Exception fillException = null;
+		try
+		{
+			fill("fail", false, true);
+		}
+		catch (JRException | RuntimeException e)
+		{
+			fillException = e;
+		}
+		
+		assert fillException != null;
+		boolean queryError = false;
+		for (Throwable t = fillException; t != null && !queryError; t = t.getCause())
+		{
+			queryError = TestQueryExecuter.QUERY_ERROR.equals(t.getMessage());
+		}
+		assert queryError;
+		
+		// the query failed on the prefetch thread and was not executed again
+		assert executers.size() == 1;
+		assert executers.get(0).queryThread.startsWith(PREFETCH_THREAD_NAME);
+		assert executers.get(0).executions == 1;
+		assert executers.get(0).closed;
+	}
+	
+	@Test
+	public void disposeUnused() throws Exception
+	{
+		// the crosstab is not printed, the blocked query is cancelled at the end of the fill
+		fill("block", false, false);
+		
+		assert executers.size() == 1;
+		TestQueryExecuter executer = executers.get(0);
+		assert executer.cancelled;
+		assert executer.closed;
+		assert executer.records == 0;
+		
+		// the prefetch threads are stopped
+		for (Thread thread : Thread.getAllStackTraces().keySet())
+		{
+			if (thread.getName().startsWith(PREFETCH_THREAD_NAME))
+			{
+				thread.join(TimeUnit.SECONDS.toMillis(10));
+				assert !thread.isAlive();
+			}
+		}
+	}
+	
+	protected void fill(String key, boolean mismatch, boolean printCrosstab) throws JRException
+	{
+		executers.clear();
+		
+		SimpleJasperReportsContext jasperReportsContext = new SimpleJasperReportsContext();
+		jasperReportsContext.setProperty(DatasetRunPrefetcher.PROPERTY_THREAD_COUNT, "2");
+		jasperReportsContext.setExtensions(JRQueryExecuterFactoryBundle.class, 
+				Collections.singletonList(new TestQueryExecuterFactoryBundle()));
+		
+		Map<String, Object> params = new HashMap<>();
+		params.put("Key", key);
+		params.put("Mismatch", mismatch);
+		params.put("PrintCrosstab", printCrosstab);
+		JasperFillManager.getInstance(jasperReportsContext).fill(report, params, new JREmptyDataSource(1));
+	}
+	
+	protected static class TestQueryExecuterFactoryBundle implements JRQueryExecuterFactoryBundle
+	{
+		@Override
+		public String[] getLanguages()
+		{
+			return new String[]{QUERY_LANGUAGE};
+		}
+
+		@Override
+		public QueryExecuterFactory getQueryExecuterFactory(String language)
+		{
+			return QUERY_LANGUAGE.equals(language) ? new TestQueryExecuterFactory() : null;
+		}
+	}
+	
+	protected static class TestQueryExecuterFactory implements QueryExecuterFactory
+	{
+		@Override
+		public Object[] getBuiltinParameters()
+		{
+			return new Object[0];
+		}
+
+		@Override
+		public JRQueryExecuter createQueryExecuter(JasperReportsContext jasperReportsContext, JRDataset dataset,
+				Map<String, ? extends JRValueParameter> parameters)
+		{
+			TestQueryExecuter executer = new TestQueryExecuter((String) parameters.get("Key").getValue());
+			executers.add(executer);
+			return executer;
+		}
+
+		@Override
+		public boolean supportsQueryParameterType(String className)
+		{
+			return true;
+		}
+	}
+	
+	protected static class TestQueryExecuter implements JRQueryExecuter
+	{
+		protected static final String QUERY_ERROR = "prefetch test query error";
+		
+		private final String key;
+		private final CountDownLatch cancelLatch = new CountDownLatch(1);
+		private volatile int executions;
+		private volatile String queryThread;
+		private volatile int records;
+		private volatile boolean cancelled;
+		private volatile boolean closed;
+		
+		public TestQueryExecuter(String key)
+		{
+			this.key = key;
+		}
+
+		@Override
+		public JRDataSource createDatasource() throws JRException
+		{
+			++executions;
+			queryThread = Thread.currentThread().getName();
+			
+			if ("fail".equals(key))
+			{
+				throw new JRException(QUERY_ERROR);
+			}
+			
+			if ("block".equals(key))
+			{
+				try
+				{
+					// waiting for the query to be cancelled
+					cancelLatch.await();
+				}
+				catch (InterruptedException e)
+				{
+					Thread.currentThread().interrupt();
+				}
+				throw new JRException("query cancelled");
+			}
+			
+			String[] values = {"a", "b"};
+			return new JRDataSource()
+			{
+				private int index = -1;
+				
+				@Override
+				public boolean next()
+				{
+					if (index + 1 < values.length)
+					{
+						++index;
+						++records;
+						return true;
+					}
+					return false;
+				}
+				
+				@Override
+				public Object getFieldValue(JRField jrField)
+				{
+					return values[index];
+				}
+			};
+		}
+
+		@Override
+		public void close()
+		{
+			closed = true;
+		}
+
+		@Override
+		public boolean cancelQuery()
+		{
+			cancelled = true;
+			cancelLatch.countDown();
+			return true;
+		}
+	}
+}
@@ -0,0 +1,107 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2025 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.fill;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.testng.annotations.Test;
+
+import net.sf.jasperreports.FillTestUtil;
+import net.sf.jasperreports.Report;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JasperPrint;
+import net.sf.jasperreports.engine.JasperReport;
+
+/**
+ * @author agent (agent@local)
+ */
+public class DatasetSortTest
+{
+
+	@Test
+	public void externalSort() throws JRException, IOException
+	{
+		JasperReport report = new Report("net/sf/jasperreports/virtualization/FirstJasper.jrxml", null).compileReport();
+		
+		List<String> baseTexts = FillTestUtil.printTexts(fill(report, null, false, false));
+		// records with equal sort values need to keep their original order across runs
+		assert FillTestUtil.printTexts(fill(report, 7, false, true)).equals(baseTexts);
+		assert FillTestUtil.printTexts(fill(report, 50, true, true)).equals(baseTexts);
+		assert FillTestUtil.printTexts(fill(report, null, true, false)).equals(baseTexts);
+	}
+
+	@Test
+	public void columnarSort() throws JRException, IOException
+	{
+		JasperReport report = new Report("net/sf/jasperreports/virtualization/FirstJasper.jrxml", null).compileReport();
+		
+		List<String> baseTexts = FillTestUtil.printTexts(fill(report, null, false, false));
+		assert FillTestUtil.printTexts(fill(report, null, false, true)).equals(baseTexts);
+		assert FillTestUtil.printTexts(fill(report, null, true, true)).equals(baseTexts);
+	}
+
+	@Test
+	public void recordColumns()
+	{
+		SortRecordColumns columns = new SortRecordColumns(3);
+		columns.addRecord(new Object[]{null, 2.5d, "a"});
+		columns.addRecord(new Object[]{3, null, "b"});
+		columns.addRecord(new Object[]{-1, 1.5d, null});
+		
+		assert columns.size() == 3;
+		assert columns.isPrimitive(0);
+		assert columns.isPrimitive(1);
+		assert !columns.isPrimitive(2);
+		
+		assert columns.getValue(0, 0) == null;
+		assert Integer.valueOf(3).equals(columns.getValue(1, 0));
+		assert Double.valueOf(2.5d).equals(columns.getValue(0, 1));
+		assert columns.compareValues(0, 0, 2) < 0;
+		assert columns.compareValues(0, 1, 2) > 0;
+		assert columns.compareValues(1, 0, 2) > 0;
+		
+		// values of a different type switch the column to objects
+		columns.addRecord(new Object[]{4L, 0.5d, "c"});
+		assert !columns.isPrimitive(0);
+		assert Integer.valueOf(3).equals(columns.getValue(1, 0));
+		assert Long.valueOf(4L).equals(columns.getValue(3, 0));
+		assert columns.isPrimitive(1);
+	}
+
+	protected JasperPrint fill(JasperReport report, Integer maxMemoryRecords, boolean parallel, 
+			boolean columnar) throws JRException
+	{
+		Map<String, String> properties = new HashMap<>();
+		if (maxMemoryRecords != null)
+		{
+			properties.put(DatasetSortUtil.PROPERTY_MEMORY_MAX_RECORDS, maxMemoryRecords.toString());
+		}
+		properties.put(DatasetSortUtil.PROPERTY_PARALLEL, Boolean.toString(parallel));
+		properties.put(DatasetSortUtil.PROPERTY_COLUMNAR_RECORDS, Boolean.toString(columnar));
+		return FillTestUtil.fill(report, properties, null, null);
+	}
+}
@@ -0,0 +1,94 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2025 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.fill;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TimeZone;
+
+import org.testng.annotations.Test;
+
+import net.sf.jasperreports.Report;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JRParameter;
+import net.sf.jasperreports.engine.JasperFillManager;
+import net.sf.jasperreports.engine.JasperReport;
+import net.sf.jasperreports.engine.SimpleJasperReportsContext;
+import net.sf.jasperreports.engine.fill.FillProfiler.Category;
+import net.sf.jasperreports.engine.fill.events.FillProfileEvent;
+import net.sf.jasperreports.engine.fill.events.ReportFillListenerProvider;
+
+/**
+ * @author agent (agent@local)
+ */
+public class FillProfilerTest
+{
+
+	@Test
+	public void profileEvent() throws JRException, IOException
+	{
+		JasperReport report = new Report("net/sf/jasperreports/virtualization/FirstJasper.jrxml", null).compileReport();
+		
+		List<FillProfile> profiles = new ArrayList<>();
+		SimpleJasperReportsContext jasperReportsContext = new SimpleJasperReportsContext();
+		jasperReportsContext.setExtensions(ReportFillListenerProvider.class, Collections.singletonList(
+				(ReportFillListenerProvider) (fillContext, consumer) -> 
+					consumer.accept(FillProfileEvent.class, event -> profiles.add(event.getProfile()))));
+		
+		fill(jasperReportsContext, report);
+		assert profiles.isEmpty();
+		
+		jasperReportsContext.setProperty(FillProfiler.PROPERTY_ENABLED, Boolean.TRUE.toString());
+		fill(jasperReportsContext, report);
+		assert profiles.size() == 1;
+		
+		FillProfile profile = profiles.get(0);
+		assert profile.getReportName().equals(report.getName());
+		assert profile.getTotalTime() > 0;
+		for (Category category : new Category[]{Category.BAND, Category.ELEMENT_EVALUATE, Category.ELEMENT_PREPARE, 
+				Category.EXPRESSION, Category.TEXT_MEASURE})
+		{
+			List<FillProfile.Entry> entries = profile.getEntries(category);
+			assert !entries.isEmpty() : category;
+			assert entries.get(0).getCount() > 0;
+			assert entries.get(0).getTotalTime() <= profile.getTotalTime();
+		}
+		
+		assert profile.toText().contains(report.getName());
+		assert profile.toJson(jasperReportsContext).contains("\"TEXT_MEASURE\"");
+	}
+
+	protected void fill(SimpleJasperReportsContext jasperReportsContext, JasperReport report) throws JRException
+	{
+		Map<String, Object> params = new HashMap<>();
+		params.put(JRParameter.REPORT_LOCALE, Locale.US);
+		params.put(JRParameter.REPORT_TIME_ZONE, TimeZone.getTimeZone("GMT"));
+		JasperFillManager.getInstance(jasperReportsContext).fill(report, params);
+	}
+}
@@ -0,0 +1,211 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2025 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.fill;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.testng.annotations.Test;
+
+import net.sf.jasperreports.FillTestUtil;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JasperCompileManager;
+import net.sf.jasperreports.engine.JasperPrint;
+import net.sf.jasperreports.engine.JasperReport;
+import net.sf.jasperreports.engine.SimpleJasperReportsContext;
+import net.sf.jasperreports.engine.design.JasperDesign;
+import net.sf.jasperreports.engine.fill.FillResourceCache.ResourceType;
+import net.sf.jasperreports.engine.util.JRLoader;
+import net.sf.jasperreports.engine.util.JRSaver;
+import net.sf.jasperreports.engine.xml.JRXmlLoader;
+import net.sf.jasperreports.repo.FileRepositoryService;
+import net.sf.jasperreports.repo.RepositoryService;
+import net.sf.jasperreports.repo.SimpleRepositoryResourceContext;
+import net.sf.jasperreports.repo.StandardResourceInfo;
+
+/**
+ * @author agent (agent@local)
+ */
+public class FillResourceCacheTest
+{
+
+	@Test
+	public void versionedResources() throws IOException
+	{
+		Path file = Files.createTempFile("resource", ".jrtx");
+		try
+		{
+			FillResourceCache cache = new FillResourceCache(10);
+			
+			StandardResourceInfo resourceInfo = resourceInfo(file);
+			assert cache.get(ResourceType.TEMPLATE, resourceInfo, null) == null;
+			assert cache.put(ResourceType.TEMPLATE, resourceInfo, null, "v1").equals("v1");
+			assert cache.put(ResourceType.TEMPLATE, resourceInfo, null, "other").equals("v1");
+			assert "v1".equals(cache.get(ResourceType.TEMPLATE, resourceInfo(file), null));
+			assert cache.get(ResourceType.REPORT, resourceInfo, null) == null;
+			assert cache.getHitCount() == 1;
+			assert cache.getMissCount() == 2;
+			
+			// a modified file is a new resource version
+			File resourceFile = file.toFile();
+			resourceFile.setLastModified(resourceFile.lastModified() - 10000);
+			assert cache.get(ResourceType.TEMPLATE, resourceInfo(file), null) == null;
+			cache.put(ResourceType.TEMPLATE, resourceInfo(file), null, "v2");
+			assert cache.getSize() == 2;
+			
+			assert cache.invalidate(resourceInfo.getRepositoryResourceLocation()) == 2;
+			assert cache.getSize() == 0;
+		}
+		finally
+		{
+			Files.delete(file);
+		}
+	}
+
+	@Test
+	public void unversionedResources()
+	{
+		FillResourceCache cache = new FillResourceCache(10);
+		StandardResourceInfo resourceInfo = new StandardResourceInfo();
+		resourceInfo.setRepositoryResourceLocation("repo/report.jasper");
+		
+		assert cache.put(ResourceType.REPORT, resourceInfo, null, "report").equals("report");
+		assert cache.get(ResourceType.REPORT, resourceInfo, null) == null;
+		assert cache.getSize() == 0;
+	}
+
+	@Test
+	public void eviction()
+	{
+		FillResourceCache cache = new FillResourceCache(3);
+		for (int i = 0; i < 5; ++i)
+		{
+			cache.put(ResourceType.IMAGE, versionedInfo("image" + i), null, "image" + i);
+			// keeping the first image recently used
+			cache.get(ResourceType.IMAGE, versionedInfo("image0"), null);
+		}
+		
+		assert cache.getSize() == 3;
+		assert "image0".equals(cache.get(ResourceType.IMAGE, versionedInfo("image0"), null));
+		assert cache.get(ResourceType.IMAGE, versionedInfo("image1"), null) == null;
+		assert "image4".equals(cache.get(ResourceType.IMAGE, versionedInfo("image4"), null));
+	}
+	
+	@Test
+	public void subreportContexts() throws JRException, IOException
+	{
+		Path root = Files.createTempDirectory("resources");
+		try
+		{
+			// a shared subreport that includes a nested subreport resolved relative to the master report
+			Files.createDirectories(root.resolve("common"));
+			Files.createDirectories(root.resolve("a"));
+			Files.createDirectories(root.resolve("b"));
+			saveReport(compileReport("ResourceCacheSubreport", null), root.resolve("common/ResourceCacheSubreport.jasper"));
+			saveReport(compileReport("ResourceCacheNestedSubreport", "A"), root.resolve("a/ResourceCacheNestedSubreport.jasper"));
+			saveReport(compileReport("ResourceCacheNestedSubreport", "B"), root.resolve("b/ResourceCacheNestedSubreport.jasper"));
+			JasperReport report = compileReport("ResourceCacheReport", null);
+			
+			SimpleJasperReportsContext jasperReportsContext = new SimpleJasperReportsContext();
+			jasperReportsContext.setProperty(FillResourceCache.PROPERTY_ENABLED, "true");
+			jasperReportsContext.setExtensions(RepositoryService.class, Collections.singletonList(
+					new FileRepositoryService(jasperReportsContext, root.toString(), false)));
+			
+			FillResourceCache.getInstance().invalidateAll();
+			long hitCount = FillResourceCache.getInstance().getHitCount();
+			
+			assert fill(jasperReportsContext, report, root.resolve("a")).equals(
+					Arrays.asList("report", "subreport", "A"));
+			// the subreport is found in the cache, the nested subreport is resolved in the context of the second fill
+			assert fill(jasperReportsContext, report, root.resolve("b")).equals(
+					Arrays.asList("report", "subreport", "B"));
+			assert FillResourceCache.getInstance().getHitCount() > hitCount;
+		}
+		finally
+		{
+			FillResourceCache.getInstance().invalidateAll();
+			try (Stream<Path> paths = Files.walk(root))
+			{
+				paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+			}
+		}
+	}
+	
+	private static JasperReport compileReport(String name, String label) throws JRException, IOException
+	{
+		JasperDesign design;
+		try (InputStream jrxmlInput = JRLoader.getResourceInputStream(
+				"net/sf/jasperreports/engine/fill/" + name + ".jrxml"))
+		{
+			design = JRXmlLoader.load(jrxmlInput);
+		}
+		if (label != null)
+		{
+			design.setProperty("label", label);
+		}
+		return JasperCompileManager.compileReport(design);
+	}
+	
+	private static void saveReport(JasperReport report, Path file) throws JRException
+	{
+		JRSaver.saveObject(report, file.toFile());
+	}
+	
+	private static List<String> fill(SimpleJasperReportsContext jasperReportsContext, JasperReport report, 
+			Path contextDir) throws JRException
+	{
+		SimpleRepositoryResourceContext reportContext = SimpleRepositoryResourceContext.of(contextDir.toString());
+		reportContext.setSelfAsDerivedFallback(true);
+		JasperPrint print = JRFiller.fill(jasperReportsContext, 
+				SimpleJasperReportSource.from(report, null, reportContext), new HashMap<>());
+		
+		List<String> texts = FillTestUtil.printTexts(print, text -> text.getFullText());
+		texts.remove(texts.size() - 1);
+		return texts;
+	}
+	
+	private static StandardResourceInfo resourceInfo(Path file)
+	{
+		StandardResourceInfo resourceInfo = StandardResourceInfo.from(file);
+		resourceInfo.setFileVersion(file);
+		return resourceInfo;
+	}
+	
+	private static StandardResourceInfo versionedInfo(String location)
+	{
+		StandardResourceInfo resourceInfo = new StandardResourceInfo();
+		resourceInfo.setRepositoryResourceLocation(location);
+		resourceInfo.setResourceVersionKey(1L);
+		return resourceInfo;
+	}
+}
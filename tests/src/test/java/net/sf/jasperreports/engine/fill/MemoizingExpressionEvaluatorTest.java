@@ -0,0 +1,201 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2025 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.fill;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.testng.annotations.Test;
+
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JRExpression;
+import net.sf.jasperreports.engine.design.JRDesignExpression;
+import net.sf.jasperreports.engine.design.JRDesignField;
+import net.sf.jasperreports.engine.design.JRDesignParameter;
+import net.sf.jasperreports.engine.type.WhenResourceMissingTypeEnum;
+
+/**
+ * @author agent (agent@local)
+ */
+public class MemoizingExpressionEvaluatorTest
+{
+	
+	@Test
+	public void skipUnchangedInputs() throws JRException
+	{
+		JRFillObjectFactory factory = new JRFillObjectFactory((JRBaseFiller) null, null);
+		
+		JRDesignParameter designParameter = new JRDesignParameter();
+		designParameter.setName("prefix");
+		JRFillParameter parameter = new JRFillParameter(designParameter, factory);
+		parameter.setValue("Group ");
+		Map<String, JRFillParameter> parameters = new HashMap<>();
+		parameters.put(parameter.getName(), parameter);
+		
+		JRDesignField designField = new JRDesignField();
+		designField.setName("group");
+		JRFillField field = new JRFillField(designField, factory);
+		Map<String, JRFillField> fields = new HashMap<>();
+		fields.put(field.getName(), field);
+		
+		JRExpression labelExpression = new JRDesignExpression("$P{prefix} + $F{group}");
+		JRExpression variableExpression = new JRDesignExpression("$F{group} + $V{count}");
+		JRExpression listExpression = new JRDesignExpression("java.util.Collections.singletonList($F{group})");
+		
+		CountingEvaluator counting = new CountingEvaluator(parameter, field);
+		MemoizingExpressionEvaluatorDecorator evaluator = new MemoizingExpressionEvaluatorDecorator(counting);
+		evaluator.init(parameters, fields, new HashMap<>(), WhenResourceMissingTypeEnum.NULL, true);
+		
+		String[] groups = {"A", "A", "A", "B", "B", "A"};
+		for (String group : groups)
+		{
+			field.setOldValue(field.getValue());
+			field.setValue(new String(group));
+			
+			assert ("Group " + group).equals(evaluator.evaluate(labelExpression));
+			assert ("Group " + group).equals(evaluator.evaluateEstimated(labelExpression));
+			evaluator.evaluate(variableExpression);
+			evaluator.evaluate(listExpression);
+		}
+		
+		//the label is evaluated once per group change, the other expressions are always evaluated
+		assert counting.evaluations(labelExpression) == 3;
+		assert counting.evaluations(variableExpression) == groups.length;
+		assert counting.evaluations(listExpression) == groups.length;
+		assert evaluator.getSkippedCount() == 2 * groups.length - 3;
+		assert evaluator.getEvaluatedCount() == 3 + 2 * groups.length;
+		
+		parameter.setValue("Section ");
+		assert "Section A".equals(evaluator.evaluate(labelExpression));
+		assert counting.evaluations(labelExpression) == 4;
+		
+		assert "Section B".equals(evaluator.evaluateOld(labelExpression));
+		assert counting.evaluations(labelExpression) == 5;
+	}
+	
+	@Test
+	public void alwaysEvaluateUntracked() throws JRException
+	{
+		JRFillObjectFactory factory = new JRFillObjectFactory((JRBaseFiller) null, null);
+		
+		JRDesignParameter designParameter = new JRDesignParameter();
+		designParameter.setName("prefix");
+		JRFillParameter parameter = new JRFillParameter(designParameter, factory);
+		StringBuilder prefix = new StringBuilder("Group ");
+		parameter.setValue(prefix);
+		Map<String, JRFillParameter> parameters = new HashMap<>();
+		parameters.put(parameter.getName(), parameter);
+		
+		JRDesignField designField = new JRDesignField();
+		designField.setName("group");
+		JRFillField field = new JRFillField(designField, factory);
+		field.setValue("A");
+		Map<String, JRFillField> fields = new HashMap<>();
+		fields.put(field.getName(), field);
+		
+		JRExpression labelExpression = new JRDesignExpression("$P{prefix} + $F{group}");
+		JRExpression dateExpression = new JRDesignExpression("new java.util.Date().toString()");
+		
+		CountingEvaluator counting = new CountingEvaluator(parameter, field);
+		MemoizingExpressionEvaluatorDecorator evaluator = new MemoizingExpressionEvaluatorDecorator(counting);
+		evaluator.init(parameters, fields, new HashMap<>(), WhenResourceMissingTypeEnum.NULL, true);
+		
+		assert "Group A".equals(evaluator.evaluate(labelExpression));
+		//the mutable parameter value changes without the change being detected
+		prefix.replace(0, prefix.length(), "Section ");
+		assert "Section A".equals(evaluator.evaluate(labelExpression));
+		assert counting.evaluations(labelExpression) == 2;
+		
+		//expressions without parameters and fields are not memoized
+		evaluator.evaluate(dateExpression);
+		evaluator.evaluate(dateExpression);
+		assert counting.evaluations(dateExpression) == 2;
+		assert evaluator.getSkippedCount() == 0;
+	}
+	
+	protected static class CountingEvaluator implements DatasetExpressionEvaluator
+	{
+		private final JRFillParameter parameter;
+		private final JRFillField field;
+		private final List<JRExpression> evaluated = new ArrayList<>();
+		
+		public CountingEvaluator(JRFillParameter parameter, JRFillField field)
+		{
+			this.parameter = parameter;
+			this.field = field;
+		}
+
+		@Override
+		public void init(Map<String, JRFillParameter> parametersMap, Map<String, JRFillField> fieldsMap,
+				Map<String, JRFillVariable> variablesMap, WhenResourceMissingTypeEnum resourceMissingType,
+				boolean ignoreNPE) throws JRException
+		{
+		}
+		
+		public int evaluations(JRExpression expression)
+		{
+			int count = 0;
+			for (JRExpression evaluatedExpression : evaluated)
+			{
+				if (evaluatedExpression == expression)
+				{
+					++count;
+				}
+			}
+			return count;
+		}
+		
+		protected Object value(JRExpression expression, Object fieldValue)
+		{
+			evaluated.add(expression);
+			if (expression.getText().startsWith("java.util.Collections"))
+			{
+				List<Object> list = new ArrayList<>();
+				list.add(fieldValue);
+				return list;
+			}
+			return parameter.getValue() + String.valueOf(fieldValue);
+		}
+
+		@Override
+		public Object evaluate(JRExpression expression) throws JRExpressionEvalException
+		{
+			return value(expression, field.getValue());
+		}
+
+		@Override
+		public Object evaluateOld(JRExpression expression) throws JRExpressionEvalException
+		{
+			return value(expression, field.getOldValue());
+		}
+
+		@Override
+		public Object evaluateEstimated(JRExpression expression) throws JRExpressionEvalException
+		{
+			return value(expression, field.getValue());
+		}
+	}
+}
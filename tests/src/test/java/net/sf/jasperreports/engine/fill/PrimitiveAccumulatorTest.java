@@ -0,0 +1,172 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2025 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.fill;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.design.JRDesignVariable;
+import net.sf.jasperreports.engine.type.CalculationEnum;
+
+/**
+ * @author agent (agent@local)
+ */
+public class PrimitiveAccumulatorTest
+{
+	
+	private static final List<Object> EXPRESSION_VALUES = Arrays.asList(
+			1, null, 2L, (short) 3, (byte) 120, 100000, null,
+			4.25d, 1.5f, -7, new BigDecimal("12.345"), new BigDecimal("-0.1"), 
+			Long.MAX_VALUE / 3, new BigDecimal("99999999999999999.9"), Integer.MAX_VALUE, 
+			new BigDecimal("1E+3"), new BigDecimal("123456789012345678901234567890.12"), 
+			null, 5, new BigDecimal("0.000"), -3.75d
+			);
+
+	@DataProvider
+	public Object[][] variables()
+	{
+		List<Object[]> variables = new ArrayList<>();
+		for (Class<?> valueClass : new Class<?>[]{Byte.class, Short.class, Integer.class, Long.class, 
+			Float.class, Double.class, Number.class, BigDecimal.class})
+		{
+			for (CalculationEnum calculation : new CalculationEnum[]{
+					CalculationEnum.COUNT, CalculationEnum.SUM, CalculationEnum.AVERAGE})
+			{
+				variables.add(new Object[]{valueClass, calculation});
+			}
+		}
+		return variables.toArray(new Object[variables.size()][]);
+	}
+	
+	@Test(dataProvider = "variables")
+	public void incrementerEquivalence(Class<?> valueClass, CalculationEnum calculation) throws JRException
+	{
+		JRFillObjectFactory factory = new JRFillObjectFactory((JRBaseFiller) null, null);
+		List<JRFillVariable> accumulated = variables(factory, valueClass, calculation);
+		List<JRFillVariable> incremented = variables(factory, valueClass, calculation);
+		assert accumulated.get(0).getAccumulator() != null 
+				|| (calculation == CalculationEnum.AVERAGE && valueClass == BigDecimal.class);
+		
+		for (int i = 0; i < accumulated.size(); i++)
+		{
+			initialize(accumulated.get(i));
+			initialize(incremented.get(i));
+		}
+
+		for (int row = 0; row < EXPRESSION_VALUES.size(); ++row)
+		{
+			Object expressionValue = valueClass == BigDecimal.class || valueClass == Number.class
+					? EXPRESSION_VALUES.get(row) : toNonDecimal(EXPRESSION_VALUES.get(row));
+			for (int i = 0; i < accumulated.size(); i++)
+			{
+				JRFillVariable accumulatedVariable = accumulated.get(i);
+				accumulatedVariable.estimateValue(expressionValue);
+				accumulatedVariable.updateOldValue();
+				accumulatedVariable.calculateValue(expressionValue);
+				accumulatedVariable.setInitialized(false);
+				accumulatedVariable.updatePreviousIncrementedValue();
+				accumulatedVariable.updateIncrementedValue();
+				
+				JRFillVariable incrementedVariable = incremented.get(i);
+				incrementedVariable.setEstimatedValue(incrementedVariable.getIncrementer().increment(
+						incrementedVariable, expressionValue, AbstractValueProvider.getEstimatedValueProvider()));
+				incrementedVariable.setPreviousOldValue(incrementedVariable.getOldValue());
+				incrementedVariable.setOldValue(incrementedVariable.getValue());
+				incrementedVariable.setValue(incrementedVariable.getIncrementer().increment(
+						incrementedVariable, expressionValue, AbstractValueProvider.getCurrentValueProvider()));
+				incrementedVariable.setInitialized(false);
+				incrementedVariable.setPreviousIncrementedValue(incrementedVariable.getIncrementedValue());
+				incrementedVariable.setIncrementedValue(incrementedVariable.getValue());
+				
+				assertSameValue(accumulatedVariable.getEstimatedValue(), incrementedVariable.getEstimatedValue());
+				assertSameValue(accumulatedVariable.getValue(), incrementedVariable.getValue());
+				assertSameValue(accumulatedVariable.getOldValue(), incrementedVariable.getOldValue());
+				assertSameValue(accumulatedVariable.getPreviousIncrementedValue(), incrementedVariable.getPreviousIncrementedValue());
+			}
+		}
+		
+		JRFillVariable accumulatedVariable = accumulated.get(accumulated.size() - 1);
+		accumulatedVariable.revertToOldValue();
+		JRFillVariable incrementedVariable = incremented.get(incremented.size() - 1);
+		incrementedVariable.setValue(incrementedVariable.getOldValue());
+		incrementedVariable.setOldValue(incrementedVariable.getPreviousOldValue());
+		assertSameValue(accumulatedVariable.getValue(), incrementedVariable.getValue());
+		assertSameValue(accumulatedVariable.getOldValue(), incrementedVariable.getOldValue());
+	}
+
+	protected List<JRFillVariable> variables(JRFillObjectFactory factory, Class<?> valueClass, CalculationEnum calculation)
+	{
+		List<JRFillVariable> variables = new ArrayList<>();
+		JRFillVariable variable = variable(factory, valueClass, calculation);
+		if (calculation == CalculationEnum.AVERAGE)
+		{
+			JRFillVariable countVariable = variable(factory, valueClass, CalculationEnum.COUNT);
+			variable.setHelperVariable(countVariable, JRCalculable.HELPER_COUNT);
+			variables.add(countVariable);
+
+			JRFillVariable sumVariable = variable(factory, valueClass, CalculationEnum.SUM);
+			variable.setHelperVariable(sumVariable, JRCalculable.HELPER_SUM);
+			variables.add(sumVariable);
+		}
+		variables.add(variable);
+		return variables;
+	}
+
+	protected JRFillVariable variable(JRFillObjectFactory factory, Class<?> valueClass, CalculationEnum calculation)
+	{
+		JRDesignVariable variable = new JRDesignVariable();
+		variable.setName(calculation.getName());
+		variable.setValueClass(valueClass);
+		variable.setCalculation(calculation);
+		return new JRFillVariable(variable, factory);
+	}
+	
+	protected void initialize(JRFillVariable variable)
+	{
+		variable.setValue(null);
+		variable.setInitialized(true);
+		variable.setIncrementedValue(null);
+		variable.setOldValue(variable.getValue());
+		variable.setPreviousIncrementedValue(null);
+	}
+	
+	protected Object toNonDecimal(Object value)
+	{
+		return value instanceof BigDecimal ? ((BigDecimal) value).doubleValue() : value;
+	}
+	
+	protected void assertSameValue(Object value, Object expectedValue)
+	{
+		assert Objects.equals(value, expectedValue) : value + " instead of " + expectedValue;
+		assert value == null || value.getClass() == expectedValue.getClass();
+	}
+	
+}
@@ -0,0 +1,140 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2025 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.fill;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
+
+import org.testng.annotations.Test;
+
+import net.sf.jasperreports.FillTestUtil;
+import net.sf.jasperreports.Report;
+import net.sf.jasperreports.engine.DefaultJasperReportsContext;
+import net.sf.jasperreports.engine.JREmptyDataSource;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JRPrintText;
+import net.sf.jasperreports.engine.JasperFillManager;
+import net.sf.jasperreports.engine.JasperPrint;
+import net.sf.jasperreports.engine.JasperReport;
+import net.sf.jasperreports.engine.SimpleJasperReportsContext;
+import net.sf.jasperreports.engine.design.JRDesignTextField;
+import net.sf.jasperreports.engine.fill.TextMeasureCache.MeasureKey;
+
+/**
+ * @author agent (agent@local)
+ */
+public class TextMeasureCacheTest
+{
+	
+	private static final int ROW_COUNT = 2000;
+	
+	private static final Function<JRPrintText, String> TEXT_MEASURES = text -> 
+		FillTestUtil.TEXT_POSITION.apply(text) + "," + text.getHeight()
+				+ "," + text.getTextHeight() + "," + text.getTextTruncateIndex();
+
+	@Test
+	public void stretchHeights()
+	{
+		TextMeasureCache cache = new TextMeasureCache(10);
+		JRDesignTextField element = new JRDesignTextField();
+		MeasureKey key = new MeasureKey(element, null, "text", Locale.US, 100, 20, 0, true, false);
+		
+		TextMeasurer.TextMeasuredState complete = new TextMeasurer.TextMeasuredState(false);
+		cache.put(key, 50, complete, true);
+		assert cache.get(new MeasureKey(element, null, "text", Locale.US, 100, 20, 0, true, false), 50) == complete;
+		assert cache.get(key, 80) == complete;
+		assert cache.get(key, 40) == null;
+		assert cache.get(new MeasureKey(new JRDesignTextField(), null, "text", Locale.US, 100, 20, 0, true, false), 50) == null;
+		
+		// partial results do not replace complete ones, and apply only to the same height
+		TextMeasurer.TextMeasuredState partial = new TextMeasurer.TextMeasuredState(false);
+		cache.put(key, 10, partial, false);
+		assert cache.get(key, 10) == null;
+		MeasureKey otherKey = new MeasureKey(element, null, "other", Locale.US, 100, 20, 0, true, false);
+		cache.put(otherKey, 10, partial, false);
+		assert cache.get(otherKey, 10) == partial;
+		assert cache.get(otherKey, 20) == null;
+		
+		assert cache.getHitCount() == 3;
+		assert cache.getMissCount() == 4;
+		assert cache.getSize() == 2;
+	}
+
+	@Test
+	public void eviction()
+	{
+		TextMeasureCache cache = new TextMeasureCache(2);
+		JRDesignTextField element = new JRDesignTextField();
+		for (int i = 0; i < 3; i++)
+		{
+			cache.put(new MeasureKey(element, null, "text" + i, Locale.US, 100, 20, 0, true, false), 
+					0, new TextMeasurer.TextMeasuredState(false), true);
+		}
+		assert cache.getSize() == 2;
+		assert cache.get(new MeasureKey(element, null, "text0", Locale.US, 100, 20, 0, true, false), 0) == null;
+		assert cache.get(new MeasureKey(element, null, "text2", Locale.US, 100, 20, 0, true, false), 0) != null;
+	}
+
+	@Test
+	public void fillReport() throws JRException, IOException
+	{
+		JasperReport report = new Report("net/sf/jasperreports/virtualization/FirstJasper.jrxml", null).compileReport();
+		
+		List<String> baseTexts = FillTestUtil.printTexts(fill(report, false), TEXT_MEASURES);
+		List<String> cachedTexts = FillTestUtil.printTexts(fill(report, true), TEXT_MEASURES);
+		assert cachedTexts.equals(baseTexts);
+	}
+
+	@Test
+	public void repeatedTextsHitRate() throws JRException, IOException
+	{
+		JasperReport report = new Report("net/sf/jasperreports/engine/fill/TextMeasureCacheReport.jrxml", null).compileReport();
+		
+		SimpleJasperReportsContext jasperReportsContext = new SimpleJasperReportsContext();
+		jasperReportsContext.setProperty(TextMeasureCache.PROPERTY_ENABLED, "true");
+		JRBaseFiller filler = JRFiller.createFiller(jasperReportsContext, report);
+		JasperPrint print = filler.fill(new HashMap<>(), new JREmptyDataSource(ROW_COUNT));
+		
+		// the cache is kept by the fill context after the fill ends
+		TextMeasureCache cache = TextMeasureCache.getInstance(filler.getFillContext());
+		assert cache.getHitCount() + cache.getMissCount() >= 2 * ROW_COUNT;
+		// rows are measured again only when they are placed lower on the page than before
+		assert cache.getHitRate() > 0.9;
+		
+		JasperPrint basePrint = JasperFillManager.getInstance(DefaultJasperReportsContext.getInstance()).fill(
+				report, new HashMap<>(), new JREmptyDataSource(ROW_COUNT));
+		assert FillTestUtil.printTexts(print, TEXT_MEASURES).equals(FillTestUtil.printTexts(basePrint, TEXT_MEASURES));
+	}
+
+	protected JasperPrint fill(JasperReport report, boolean measureCache) throws JRException
+	{
+		return FillTestUtil.fill(report, 
+				Collections.singletonMap(TextMeasureCache.PROPERTY_ENABLED, Boolean.toString(measureCache)), 
+				null, null);
+	}
+}
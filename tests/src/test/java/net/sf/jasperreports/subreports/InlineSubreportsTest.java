@@ -0,0 +1,74 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2025 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.subreports;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.testng.annotations.Test;
+
+import net.sf.jasperreports.FillTestUtil;
+import net.sf.jasperreports.Report;
+import net.sf.jasperreports.engine.JREmptyDataSource;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JasperPrint;
+import net.sf.jasperreports.engine.JasperReport;
+import net.sf.jasperreports.engine.fill.InlineSubreportRunnerFactory;
+import net.sf.jasperreports.engine.fill.JRSubreportRunnerFactory;
+import net.sf.jasperreports.engine.fill.ThreadPoolSubreportRunnerFactory;
+
+/**
+ * @author agent (agent@local)
+ */
+public class InlineSubreportsTest
+{
+
+	@Test
+	public void sameOutputAsThreads() throws JRException, IOException
+	{
+		JasperReport report = new Report("net/sf/jasperreports/subreports/nested/NestedSubreportReport.jrxml", null).compileReport();
+		
+		// small subreports fit on the page and are filled inline, the outer ones overflow
+		List<List<String>> threadPages = fill(report, ThreadPoolSubreportRunnerFactory.class);
+		List<List<String>> inlinePages = fill(report, InlineSubreportRunnerFactory.class);
+		
+		assert threadPages.size() > 1;
+		assert inlinePages.equals(threadPages);
+	}
+
+	protected List<List<String>> fill(JasperReport report, Class<? extends JRSubreportRunnerFactory> runnerFactoryClass) 
+			throws JRException
+	{
+		Map<String, Object> params = new HashMap<>();
+		params.put("NestedReport", report);
+		params.put("MaxLevel", 5);
+		JasperPrint print = FillTestUtil.fill(report, 
+				Collections.singletonMap(JRSubreportRunnerFactory.SUBREPORT_RUNNER_FACTORY, runnerFactoryClass.getName()), 
+				params, new JREmptyDataSource(2));
+		return FillTestUtil.pageTexts(print);
+	}
+}
@@ -0,0 +1,108 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2025 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.subreports;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.testng.annotations.Test;
+
+import net.sf.jasperreports.FillTestUtil;
+import net.sf.jasperreports.Report;
+import net.sf.jasperreports.engine.JREmptyDataSource;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JasperFillManager;
+import net.sf.jasperreports.engine.JasperPrint;
+import net.sf.jasperreports.engine.JasperReport;
+import net.sf.jasperreports.engine.SimpleJasperReportsContext;
+import net.sf.jasperreports.engine.fill.JRSubreportRunnerFactory;
+import net.sf.jasperreports.engine.fill.VirtualThreadSubreportRunnerFactory;
+
+/**
+ * @author agent (agent@local)
+ */
+public class VirtualThreadSubreportsTest
+{
+	private static final int MAX_LEVEL = 5;
+	private static final int RECORD_COUNT = 2;
+	private static final int FILL_COUNT = 32;
+
+	@Test
+	public void concurrentNestedFills() throws JRException, IOException, InterruptedException, ExecutionException
+	{
+		JasperReport report = new Report("net/sf/jasperreports/subreports/nested/NestedSubreportReport.jrxml", null).compileReport();
+		
+		SimpleJasperReportsContext jasperReportsContext = new SimpleJasperReportsContext();
+		jasperReportsContext.setProperty(JRSubreportRunnerFactory.SUBREPORT_RUNNER_FACTORY, 
+				VirtualThreadSubreportRunnerFactory.class.getName());
+		JasperFillManager fillManager = JasperFillManager.getInstance(jasperReportsContext);
+		
+		// each record prints a text, records at levels below the maximum also nest a subreport
+		int expectedTextCount = 0;
+		for (int level = 0, levelRecords = RECORD_COUNT; level <= MAX_LEVEL; ++level, levelRecords *= RECORD_COUNT)
+		{
+			expectedTextCount += levelRecords;
+		}
+		
+		ExecutorService fillExecutor = Executors.newFixedThreadPool(8);
+		try
+		{
+			List<Future<JasperPrint>> fills = new ArrayList<>();
+			for (int i = 0; i < FILL_COUNT; ++i)
+			{
+				fills.add(fillExecutor.submit(() ->
+				{
+					Map<String, Object> params = new HashMap<>();
+					params.put("NestedReport", report);
+					params.put("MaxLevel", MAX_LEVEL);
+					return fillManager.fill(report, params, 
+							new JREmptyDataSource(RECORD_COUNT));
+				}));
+			}
+			
+			for (Future<JasperPrint> fill : fills)
+			{
+				JasperPrint print = fill.get(5, TimeUnit.MINUTES);
+				assert FillTestUtil.countTexts(print) == expectedTextCount;
+			}
+		}
+		catch (TimeoutException e)
+		{
+			throw new AssertionError("Fill did not complete", e);
+		}
+		finally
+		{
+			fillExecutor.shutdownNow();
+		}
+	}
+}
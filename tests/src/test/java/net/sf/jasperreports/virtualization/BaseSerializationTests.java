@@ -136,6 +136,12 @@ public class BaseSerializationTests
 			
 			return in;
 		}
+		
+		public int outputSize() throws IOException
+		{
+			out.flush();
+			return bout.size();
+		}
 	}
 	
 }
@@ -0,0 +1,83 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2025 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.virtualization;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.testng.annotations.Test;
+
+import net.sf.jasperreports.FillTestUtil;
+import net.sf.jasperreports.Report;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JRParameter;
+import net.sf.jasperreports.engine.JasperPrint;
+import net.sf.jasperreports.engine.JasperReport;
+import net.sf.jasperreports.engine.fill.DelayedFillActions;
+import net.sf.jasperreports.engine.fill.JRGzipVirtualizer;
+
+/**
+ * @author agent (agent@local)
+ */
+public class DelayedPlaceholdersTest
+{
+
+	@Test
+	public void placeholdersReport() throws JRException, IOException
+	{
+		JasperReport report = new Report("net/sf/jasperreports/virtualization/FirstJasper.jrxml", null).compileReport();
+		
+		List<List<String>> basePages = FillTestUtil.pageTexts(fill(report, null));
+		
+		JRGzipVirtualizer virtualizer = new JRGzipVirtualizer(2);
+		try
+		{
+			JasperPrint print = fill(report, virtualizer);
+			virtualizer.setReadOnly(true);
+			
+			assert FillTestUtil.pageTexts(print).equals(basePages);
+			// read-only virtualized data is not updated, the pages are patched again
+			assert FillTestUtil.pageTexts(print).equals(basePages);
+		}
+		finally
+		{
+			virtualizer.cleanup();
+		}
+	}
+
+	protected JasperPrint fill(JasperReport report, JRGzipVirtualizer virtualizer) throws JRException
+	{
+		Map<String, Object> params = new HashMap<>();
+		if (virtualizer != null)
+		{
+			params.put(JRParameter.REPORT_VIRTUALIZER, virtualizer);
+		}
+		return FillTestUtil.fill(report, 
+				Collections.singletonMap(DelayedFillActions.PROPERTY_VIRTUALIZED_PLACEHOLDERS, Boolean.TRUE.toString()), 
+				params, null);
+	}
+}
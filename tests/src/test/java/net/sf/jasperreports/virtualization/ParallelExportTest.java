@@ -0,0 +1,138 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2025 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.virtualization;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import net.sf.jasperreports.Report;
+import net.sf.jasperreports.engine.DefaultJasperReportsContext;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JRParameter;
+import net.sf.jasperreports.engine.JasperPrint;
+import net.sf.jasperreports.engine.export.ParallelPageExporter;
+import net.sf.jasperreports.engine.export.ParallelPageExporter.PageRenderer;
+import net.sf.jasperreports.engine.fill.JRGzipVirtualizer;
+
+/**
+ * @author agent (agent@local)
+ */
+public class ParallelExportTest
+{
+	
+	private Report report;
+	private ForkJoinPool pool;
+
+	@BeforeClass
+	public void initReport() throws JRException, IOException
+	{
+		pool = new ForkJoinPool(4);
+		
+		report = new Report("net/sf/jasperreports/virtualization/FirstJasper.jrxml", 
+				"net/sf/jasperreports/virtualization/FirstJasper.reference.jrpxml");
+		report.addPrintConsumer((filledReport, print) -> 
+		{
+			try
+			{
+				checkParallelExport(print);
+			}
+			catch (JRException e)
+			{
+				throw new RuntimeException(e);
+			}
+		});
+		report.init();
+	}
+	
+	@AfterClass
+	public void shutdownPool()
+	{
+		pool.shutdown();
+	}
+	
+	@Test
+	public void parallelExport()
+	{
+		report.runReport(null);
+	}
+	
+	@Test
+	public void virtualizedParallelExport()
+	{
+		HashMap<String, Object> params = new HashMap<>();
+		JRGzipVirtualizer virtualizer = new JRGzipVirtualizer(2);
+		params.put(JRParameter.REPORT_VIRTUALIZER, virtualizer);
+		
+		report.runReport(params);
+	}
+	
+	protected void checkParallelExport(JasperPrint print) throws JRException
+	{
+		PageRenderer<String> htmlRenderer = ParallelPageExporter.htmlRenderer(
+				DefaultJasperReportsContext.getInstance(), null);
+		List<String> htmlPages = exportPages(print, htmlRenderer);
+		for (int pageIndex = 0; pageIndex < htmlPages.size(); pageIndex++)
+		{
+			String htmlPage = htmlRenderer.renderPage(print, pageIndex);
+			assert htmlPage.equals(htmlPages.get(pageIndex));
+		}
+		
+		PageRenderer<BufferedImage> imageRenderer = ParallelPageExporter.imageRenderer(
+				DefaultJasperReportsContext.getInstance(), 0.5f);
+		List<BufferedImage> imagePages = exportPages(print, imageRenderer);
+		for (int pageIndex = 0; pageIndex < imagePages.size(); pageIndex++)
+		{
+			BufferedImage imagePage = imageRenderer.renderPage(print, pageIndex);
+			assert Arrays.equals(pixels(imagePage), pixels(imagePages.get(pageIndex)));
+		}
+	}
+	
+	protected <B> List<B> exportPages(JasperPrint print, PageRenderer<B> renderer) throws JRException
+	{
+		List<B> pages = new ArrayList<>();
+		// rendering at most 3 pages ahead
+		new ParallelPageExporter(pool, 3).exportPages(print, renderer, (pageIndex, page) -> 
+		{
+			assert pageIndex == pages.size();
+			pages.add(page);
+		});
+		
+		assert pages.size() == print.getPages().size();
+		return pages;
+	}
+	
+	protected int[] pixels(BufferedImage image)
+	{
+		return image.getRGB(0, 0, image.getWidth(), image.getHeight(), null, 0, image.getWidth());
+	}
+}
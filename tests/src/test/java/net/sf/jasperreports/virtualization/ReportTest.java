@@ -26,6 +26,7 @@ package net.sf.jasperreports.virtualization;
 import java.io.IOException;
 import java.security.NoSuchAlgorithmException;
 import java.util.HashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
@@ -35,7 +36,15 @@ import net.sf.jasperreports.PrintSerializer;
 import net.sf.jasperreports.Report;
 import net.sf.jasperreports.engine.JRException;
 import net.sf.jasperreports.engine.JRParameter;
+import net.sf.jasperreports.engine.fill.JRConcurrentVirtualizer;
 import net.sf.jasperreports.engine.fill.JRGzipVirtualizer;
+import net.sf.jasperreports.engine.fill.JROffHeapVirtualizer;
+import net.sf.jasperreports.engine.fill.JRSwapFileVirtualizer;
+import net.sf.jasperreports.engine.fill.StoreFactoryVirtualizer;
+import net.sf.jasperreports.engine.fill.VirtualizerMemoryBudget;
+import net.sf.jasperreports.engine.util.FastBlockStreamCompression;
+import net.sf.jasperreports.engine.util.JRSwapFile;
+import net.sf.jasperreports.engine.util.MappedFileVirtualizerStoreFactory;
 
 /**
  * @author Lucian Chirita (lucianc@users.sourceforge.net)
@@ -70,4 +79,114 @@ public class ReportTest
 		
 		report.runReport(params);
 	}
+	
+	@Test
+	public void fastCompressionVirtualizedReport() throws JRException, NoSuchAlgorithmException, IOException
+	{
+		HashMap<String, Object> params = new HashMap<>();
+		JRGzipVirtualizer virtualizer = new JRGzipVirtualizer(3, new FastBlockStreamCompression());
+		params.put(JRParameter.REPORT_VIRTUALIZER, virtualizer);
+		
+		report.runReport(params);
+	}
+	
+	@Test
+	public void mappedFileVirtualizedReport() throws JRException, NoSuchAlgorithmException, IOException
+	{
+		MappedFileVirtualizerStoreFactory storeFactory = new MappedFileVirtualizerStoreFactory();
+		storeFactory.setBlockSize(1024);
+		storeFactory.setRegionBlockCount(8);
+		StoreFactoryVirtualizer virtualizer = new StoreFactoryVirtualizer(3, storeFactory);
+		try
+		{
+			HashMap<String, Object> params = new HashMap<>();
+			params.put(JRParameter.REPORT_VIRTUALIZER, virtualizer);
+			
+			report.runReport(params);
+		}
+		finally
+		{
+			virtualizer.cleanup();
+		}
+	}
+	
+	@Test
+	public void offHeapVirtualizedReport() throws JRException, NoSuchAlgorithmException, IOException
+	{
+		JRSwapFile swap = new JRSwapFile(System.getProperty("java.io.tmpdir"), 1024, 10);
+		// small arena so that the data gets spilled to the swap file
+		JROffHeapVirtualizer virtualizer = new JROffHeapVirtualizer(3, 16 * 4096, swap);
+		try
+		{
+			HashMap<String, Object> params = new HashMap<>();
+			params.put(JRParameter.REPORT_VIRTUALIZER, virtualizer);
+			
+			report.runReport(params);
+			
+			assert virtualizer.getOffHeapStore().getOffHeapStoreCount() > 0;
+			assert virtualizer.getHeapSpillCount() > 0;
+			assert virtualizer.getHeapHitCount() > 0;
+			// every page in is served either from the arena or from the swap file
+			assert virtualizer.getOffHeapHitCount() + virtualizer.getOffHeapMissCount() 
+					== virtualizer.getHeapMissCount();
+		}
+		finally
+		{
+			virtualizer.cleanup();
+		}
+	}
+	
+	@Test
+	public void concurrentVirtualizedReport() throws JRException, NoSuchAlgorithmException, IOException
+	{
+		HashMap<String, Object> params = new HashMap<>();
+		JRConcurrentVirtualizer virtualizer = new JRConcurrentVirtualizer(3, new JRGzipVirtualizer(0));
+		params.put(JRParameter.REPORT_VIRTUALIZER, virtualizer);
+		
+		report.runReport(params);
+	}
+	
+	@Test
+	public void memoryBudgetVirtualizedReport() throws JRException, NoSuchAlgorithmException, IOException
+	{
+		HashMap<String, Object> params = new HashMap<>();
+		VirtualizerMemoryBudget memoryBudget = new VirtualizerMemoryBudget(8 * 1024);
+		JRConcurrentVirtualizer virtualizer = new JRConcurrentVirtualizer(Integer.MAX_VALUE, 
+				new JRGzipVirtualizer(0), memoryBudget);
+		params.put(JRParameter.REPORT_VIRTUALIZER, virtualizer);
+		
+		report.runReport(params);
+		
+		assert memoryBudget.getSize() == 0;
+	}
+	
+	@Test
+	public void writeBehindVirtualizedReport() throws JRException, NoSuchAlgorithmException, IOException
+	{
+		AtomicInteger swapWrites = new AtomicInteger();
+		JRSwapFile swap = new JRSwapFile(System.getProperty("java.io.tmpdir"), 1024, 10)
+		{
+			@Override
+			public SwapHandle write(byte[] data, Object owner) throws IOException
+			{
+				swapWrites.incrementAndGet();
+				return super.write(data, owner);
+			}
+		};
+		JRSwapFileVirtualizer virtualizer = new JRSwapFileVirtualizer(3, swap, true, null, 2);
+		try
+		{
+			HashMap<String, Object> params = new HashMap<>();
+			params.put(JRParameter.REPORT_VIRTUALIZER, virtualizer);
+			
+			// the output is checked against the reference digest
+			report.runReport(params);
+			
+			assert swapWrites.get() > 0;
+		}
+		finally
+		{
+			virtualizer.cleanup();
+		}
+	}
 }
@@ -0,0 +1,199 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2025 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.virtualization;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.annotations.Test;
+
+import net.sf.jasperreports.PrintSerializer;
+import net.sf.jasperreports.Report;
+import net.sf.jasperreports.engine.JRParameter;
+import net.sf.jasperreports.engine.fill.StoreFactoryVirtualizer;
+import net.sf.jasperreports.engine.util.JRSegmentedSwapFile;
+import net.sf.jasperreports.engine.util.JRSwapFile;
+import net.sf.jasperreports.engine.util.SwapFile;
+import net.sf.jasperreports.engine.util.SwapFileVirtualizerStoreFactory;
+
+/**
+ * @author agent (agent@local)
+ */
+public class SegmentedSwapFileTest
+{
+	private static final int BLOCK_SIZE = 512;
+	
+	@Test
+	public void readWrite() throws Exception
+	{
+		JRSegmentedSwapFile swap = new JRSegmentedSwapFile(System.getProperty("java.io.tmpdir"), BLOCK_SIZE, 4, 3);
+		try
+		{
+			Random random = new Random(17);
+			List<byte[]> data = new ArrayList<>();
+			List<JRSwapFile.SwapHandle> handles = new ArrayList<>();
+			for (int i = 0; i < 30; i++)
+			{
+				byte[] bytes = new byte[1 + random.nextInt(4 * BLOCK_SIZE)];
+				random.nextBytes(bytes);
+				data.add(bytes);
+				handles.add(swap.write(bytes, new Object()));
+			}
+			
+			for (int i = 0; i < data.size(); i++)
+			{
+				byte[] read = swap.read(handles.get(i), i % 2 == 0);
+				assert Arrays.equals(data.get(i), read);
+			}
+			
+			for (int i = 1; i < data.size(); i += 2)
+			{
+				swap.free(handles.get(i));
+			}
+		}
+		finally
+		{
+			swap.dispose();
+		}
+	}
+	
+	@Test
+	public void concurrentReadWrite() throws Exception
+	{
+		JRSegmentedSwapFile swap = new JRSegmentedSwapFile(System.getProperty("java.io.tmpdir"), BLOCK_SIZE, 4, 4);
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try
+		{
+			List<Future<Boolean>> results = new ArrayList<>();
+			for (int t = 0; t < 8; t++)
+			{
+				final int seed = t;
+				results.add(executor.submit(new Callable<Boolean>()
+				{
+					@Override
+					public Boolean call() throws Exception
+					{
+						Object owner = new Object();
+						Random random = new Random(seed);
+						for (int i = 0; i < 200; i++)
+						{
+							byte[] bytes = new byte[1 + random.nextInt(3 * BLOCK_SIZE)];
+							random.nextBytes(bytes);
+							JRSwapFile.SwapHandle handle = swap.write(bytes, owner);
+							byte[] read = swap.read(handle, true);
+							if (!Arrays.equals(bytes, read))
+							{
+								return false;
+							}
+						}
+						return true;
+					}
+				}));
+			}
+			
+			for (Future<Boolean> result : results)
+			{
+				assert result.get();
+			}
+		}
+		finally
+		{
+			executor.shutdown();
+			swap.dispose();
+		}
+	}
+	
+	@Test
+	public void concurrentFills() throws Exception
+	{
+		Report report = new Report("net/sf/jasperreports/virtualization/FirstJasper.jrxml", 
+				"net/sf/jasperreports/virtualization/FirstJasper.reference.jrpxml");
+		report.addPrintConsumer(PrintSerializer.instance());
+		report.init();
+		
+		AtomicInteger acquired = new AtomicInteger();
+		AtomicInteger references = new AtomicInteger();
+		SwapFileVirtualizerStoreFactory storeFactory = new SwapFileVirtualizerStoreFactory()
+		{
+			@Override
+			protected SwapFile acquireSharedSwapFile()
+			{
+				SwapFile swapFile = super.acquireSharedSwapFile();
+				assert swapFile instanceof JRSegmentedSwapFile;
+				acquired.incrementAndGet();
+				references.incrementAndGet();
+				return swapFile;
+			}
+
+			@Override
+			protected void releaseSharedSwapFile(SwapFile swapFile)
+			{
+				references.decrementAndGet();
+				super.releaseSharedSwapFile(swapFile);
+			}
+		};
+		storeFactory.setBlockSize(1024);
+		storeFactory.setSegmentCount(4);
+		
+		int fillCount = 6;
+		ExecutorService executor = Executors.newFixedThreadPool(fillCount);
+		try
+		{
+			List<Future<?>> fills = new ArrayList<>();
+			for (int i = 0; i < fillCount; i++)
+			{
+				fills.add(executor.submit(() ->
+				{
+					StoreFactoryVirtualizer virtualizer = new StoreFactoryVirtualizer(3, storeFactory);
+					Map<String, Object> params = new HashMap<>();
+					params.put(JRParameter.REPORT_VIRTUALIZER, virtualizer);
+					// the report output is checked against the reference and the virtualizer is cleaned up
+					report.runReport(params);
+				}));
+			}
+			
+			for (Future<?> fill : fills)
+			{
+				fill.get();
+			}
+		}
+		finally
+		{
+			executor.shutdown();
+		}
+		
+		assert acquired.get() >= fillCount;
+		// all stores released the shared swap file
+		assert references.get() == 0;
+	}
+}
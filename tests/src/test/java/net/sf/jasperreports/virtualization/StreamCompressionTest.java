@@ -0,0 +1,186 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2025 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.virtualization;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.Deflater;
+
+import org.testng.annotations.Test;
+
+import net.sf.jasperreports.engine.DefaultJasperReportsContext;
+import net.sf.jasperreports.engine.JRPrintElement;
+import net.sf.jasperreports.engine.base.VirtualElementsData;
+import net.sf.jasperreports.engine.fill.DefaultPrintElementOriginator;
+import net.sf.jasperreports.engine.fill.JRTemplatePrintText;
+import net.sf.jasperreports.engine.fill.JRTemplateText;
+import net.sf.jasperreports.engine.fill.JRVirtualizationContext;
+import net.sf.jasperreports.engine.util.DeflateStreamCompression;
+import net.sf.jasperreports.engine.util.FastBlockStreamCompression;
+import net.sf.jasperreports.engine.util.LocalVirtualizationSerializer;
+import net.sf.jasperreports.engine.util.StreamCompression;
+
+/**
+ * @author agent (agent@local)
+ */
+public class StreamCompressionTest
+{
+	
+	@Test
+	public void fastBlockRoundTrip() throws IOException
+	{
+		Random random = new Random(23);
+		FastBlockStreamCompression compression = new FastBlockStreamCompression(1024);
+		for (int i = 0; i < 300; i++)
+		{
+			byte[] data = new byte[random.nextInt(5000)];
+			for (int j = 0; j < data.length; j++)
+			{
+				switch (i % 3)
+				{
+				case 0:
+					// incompressible
+					data[j] = (byte) random.nextInt(256);
+					break;
+				case 1:
+					data[j] = (byte) random.nextInt(4);
+					break;
+				default:
+					data[j] = (byte) (j % 37 < 20 ? 'a' + j % 7 : random.nextInt(256));
+					break;
+				}
+			}
+			
+			byte[] compressed = compress(compression, data);
+			assert Arrays.equals(data, uncompress(compression, compressed));
+		}
+	}
+	
+	@Test
+	public void fastBlockLongMatches() throws IOException
+	{
+		byte[] data = new byte[100000];
+		Arrays.fill(data, (byte) 'x');
+		
+		FastBlockStreamCompression compression = new FastBlockStreamCompression();
+		byte[] compressed = compress(compression, data);
+		assert compressed.length < 1000;
+		assert Arrays.equals(data, uncompress(compression, compressed));
+	}
+	
+	@Test
+	public void printPagesCompression() throws IOException
+	{
+		JRVirtualizationContext virtualizationContext = new JRVirtualizationContext(DefaultJasperReportsContext.getInstance());
+		LocalVirtualizationSerializer serializer = new LocalVirtualizationSerializer();
+		
+		JRTemplateText template = new JRTemplateText(null, null);
+		DefaultPrintElementOriginator originator = new DefaultPrintElementOriginator(10);
+		List<JRPrintElement> elements = new ArrayList<>();
+		for (int row = 0; row < 50; row++)
+		{
+			for (int column = 0; column < 4; column++)
+			{
+				JRTemplatePrintText text = new JRTemplatePrintText(template, originator);
+				text.setX(column * 100);
+				text.setY(row * 20);
+				text.setWidth(100);
+				text.setHeight(20);
+				text.setText("Row " + row + " column " + column);
+				text.setTextHeight(15f);
+				virtualizationContext.cacheTemplate(text);
+				elements.add(text);
+			}
+		}
+		
+		ByteArrayOutputStream pageOut = new ByteArrayOutputStream();
+		serializer.writeData(new VirtualElementsData(elements), virtualizationContext, pageOut);
+		byte[] page = pageOut.toByteArray();
+		
+		StreamCompression[] compressions = new StreamCompression[] {
+				new DeflateStreamCompression(Deflater.BEST_SPEED),
+				new DeflateStreamCompression(Deflater.DEFAULT_COMPRESSION),
+				new DeflateStreamCompression(Deflater.BEST_COMPRESSION),
+				new FastBlockStreamCompression(),
+		};
+		for (StreamCompression compression : compressions)
+		{
+			byte[] compressed = compress(compression, page);
+			assert compressed.length < page.length;
+			
+			byte[] uncompressed = uncompress(compression, compressed);
+			assert Arrays.equals(page, uncompressed);
+			
+			VirtualElementsData readData = (VirtualElementsData) serializer.readData(virtualizationContext, 
+					new ByteArrayInputStream(uncompressed));
+			assert readData.getElements().size() == elements.size();
+		}
+	}
+	
+	protected byte[] compress(StreamCompression compression, byte[] data) throws IOException
+	{
+		ByteArrayOutputStream bout = new ByteArrayOutputStream();
+		try (OutputStream out = compression.compressedOutput(bout))
+		{
+			// writing in chunks of different sizes
+			int offset = 0;
+			for (int chunk = 1; offset < data.length; chunk = chunk * 2 + 1)
+			{
+				int length = Math.min(chunk, data.length - offset);
+				if (length == 1)
+				{
+					out.write(data[offset]);
+				}
+				else
+				{
+					out.write(data, offset, length);
+				}
+				offset += length;
+			}
+		}
+		return bout.toByteArray();
+	}
+	
+	protected byte[] uncompress(StreamCompression compression, byte[] data) throws IOException
+	{
+		ByteArrayOutputStream bout = new ByteArrayOutputStream();
+		try (InputStream in = compression.uncompressedInput(new ByteArrayInputStream(data)))
+		{
+			byte[] buffer = new byte[1000];
+			int read;
+			while ((read = in.read(buffer)) > 0)
+			{
+				bout.write(buffer, 0, read);
+			}
+		}
+		return bout.toByteArray();
+	}
+}
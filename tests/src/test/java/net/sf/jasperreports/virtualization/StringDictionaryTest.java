@@ -0,0 +1,196 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2025 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.virtualization;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.testng.annotations.Test;
+
+import net.sf.jasperreports.engine.DefaultJasperReportsContext;
+import net.sf.jasperreports.engine.SimpleJasperReportsContext;
+import net.sf.jasperreports.engine.fill.DefaultPrintElementOriginator;
+import net.sf.jasperreports.engine.fill.JRTemplatePrintText;
+import net.sf.jasperreports.engine.fill.JRTemplateText;
+import net.sf.jasperreports.engine.fill.JRVirtualizationContext;
+import net.sf.jasperreports.engine.virtualization.VirtualizationStringDictionary;
+
+/**
+ * @author agent (agent@local)
+ */
+public class StringDictionaryTest extends BaseElementsTests
+{
+	
+	private static final String[] CUSTOMERS = {"Alfreds Futterkiste", "Ana Trujillo Emparedados y helados", 
+			"Antonio Moreno Taqueria", "Around the Horn", "Berglunds snabbkop"};
+	private static final String[] STATUSES = {"SHIPPED", "PENDING", "CANCELLED"};
+	private static final String CURRENCY = "EUR";
+	
+	private static final int PAGE_COUNT = 20;
+	private static final int PAGE_ROWS = 40;
+
+	protected JRVirtualizationContext dictionaryContext(int dictionarySize)
+	{
+		SimpleJasperReportsContext jasperReportsContext = new SimpleJasperReportsContext(DefaultJasperReportsContext.getInstance());
+		jasperReportsContext.setProperty(JRVirtualizationContext.PROPERTY_STRING_DICTIONARY_SIZE, 
+				String.valueOf(dictionarySize));
+		return new JRVirtualizationContext(jasperReportsContext);
+	}
+	
+	@Test
+	public void dictionaryString() throws IOException
+	{
+		JRVirtualizationContext virtualizationContext = dictionaryContext(10);
+		VirtualizationStringDictionary dictionary = virtualizationContext.getStringDictionary();
+		assert dictionary != null;
+		
+		String s = "x";
+		SerializationJob job1 = serializationJob(virtualizationContext);
+		job1.out().writeJRObject(s);
+		assert dictionary.size() == 0;
+		String r1 = (String) job1.in().readJRObject();
+		assert r1.equals(s);
+		
+		SerializationJob job2 = serializationJob(virtualizationContext);
+		job2.out().writeJRObject(s);
+		job2.out().writeJRObject(s);
+		assert dictionary.size() == 1;
+		String r2 = (String) job2.in().readJRObject();
+		String r3 = (String) job2.in().readJRObject();
+		assert r2.equals(s);
+		assert r2 == r3;
+	}
+	
+	@Test
+	public void dictionaryLimits() throws IOException
+	{
+		JRVirtualizationContext virtualizationContext = dictionaryContext(2);
+		VirtualizationStringDictionary dictionary = virtualizationContext.getStringDictionary();
+		
+		StringBuilder longString = new StringBuilder();
+		while (longString.length() <= dictionary.getMaxStringLength())
+		{
+			longString.append("long string ");
+		}
+		
+		String[] values = {"a", "b", "c", longString.toString()};
+		for (int i = 0; i < 3; i++)
+		{
+			SerializationJob job = serializationJob(virtualizationContext);
+			for (String value : values)
+			{
+				job.out().writeJRObject(value);
+			}
+			for (String value : values)
+			{
+				assert value.equals(job.in().readJRObject());
+			}
+		}
+		
+		assert dictionary.size() == 2;
+		assert dictionary.index(longString.toString()) == null;
+	}
+	
+	@Test
+	public void subContextDictionary() throws IOException
+	{
+		JRVirtualizationContext virtualizationContext = dictionaryContext(10);
+		JRVirtualizationContext subContext = virtualizationContext.getFramesContext();
+		assert subContext.getStringDictionary() == virtualizationContext.getStringDictionary();
+		
+		assert new JRVirtualizationContext(DefaultJasperReportsContext.getInstance()).getStringDictionary() == null;
+	}
+	
+	@Test
+	public void tabularPages() throws IOException
+	{
+		List<List<JRTemplatePrintText>> pages = tabularPages(new JRTemplateText(null, null));
+		
+		int plainSize = passThroughPages(createVirtualizationContext(), pages);
+		int dictionarySize = passThroughPages(dictionaryContext(1000), pages);
+		
+		assert dictionarySize < plainSize;
+	}
+	
+	protected List<List<JRTemplatePrintText>> tabularPages(JRTemplateText template)
+	{
+		DefaultPrintElementOriginator originator = new DefaultPrintElementOriginator(10);
+		List<List<JRTemplatePrintText>> pages = new ArrayList<>();
+		int row = 0;
+		for (int pageIdx = 0; pageIdx < PAGE_COUNT; pageIdx++)
+		{
+			List<JRTemplatePrintText> page = new ArrayList<>();
+			for (int rowIdx = 0; rowIdx < PAGE_ROWS; rowIdx++, row++)
+			{
+				// the same value in different string instances, as produced by a data source 
+				page.add(text(template, originator, rowIdx, 0, "Order " + row));
+				page.add(text(template, originator, rowIdx, 100, new String(CUSTOMERS[row % CUSTOMERS.length])));
+				page.add(text(template, originator, rowIdx, 300, new String(STATUSES[row % STATUSES.length])));
+				page.add(text(template, originator, rowIdx, 400, new String(CURRENCY)));
+			}
+			pages.add(page);
+		}
+		return pages;
+	}
+	
+	protected JRTemplatePrintText text(JRTemplateText template, DefaultPrintElementOriginator originator, 
+			int row, int x, String value)
+	{
+		JRTemplatePrintText text = new JRTemplatePrintText(template, originator);
+		text.setX(x);
+		text.setY(row * 20);
+		text.setWidth(100);
+		text.setHeight(20);
+		text.setText(value);
+		text.setValue(value);
+		text.setTextHeight(15f);
+		return text;
+	}
+	
+	protected int passThroughPages(JRVirtualizationContext virtualizationContext, 
+			List<List<JRTemplatePrintText>> pages) throws IOException
+	{
+		int totalSize = 0;
+		for (List<JRTemplatePrintText> page : pages)
+		{
+			SerializationJob job = serializationJob(virtualizationContext);
+			for (JRTemplatePrintText text : page)
+			{
+				virtualizationContext.cacheTemplate(text);
+				job.out().writeJRObject(text);
+			}
+			totalSize += job.outputSize();
+			
+			for (JRTemplatePrintText text : page)
+			{
+				JRTemplatePrintText readText = (JRTemplatePrintText) job.in().readJRObject();
+				assert readText.getFullText().equals(text.getFullText());
+				assert readText.getValue().equals(text.getValue());
+				assert readText.getY() == text.getY();
+			}
+		}
+		return totalSize;
+	}
+}
@@ -0,0 +1,391 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2025 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.virtualization;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import org.testng.annotations.Test;
+
+import net.sf.jasperreports.engine.DefaultJasperReportsContext;
+import net.sf.jasperreports.engine.JRVirtualizable;
+import net.sf.jasperreports.engine.fill.JRVirtualizationContext;
+import net.sf.jasperreports.engine.util.JRSegmentedSwapFile;
+import net.sf.jasperreports.engine.util.JRSwapFile;
+import net.sf.jasperreports.engine.util.JRSwapFile.SwapHandle;
+import net.sf.jasperreports.engine.util.LocalVirtualizationSerializer;
+import net.sf.jasperreports.engine.util.SwapFile;
+import net.sf.jasperreports.engine.util.VirtualizationSerializer;
+import net.sf.jasperreports.engine.util.WriteBehindSwapFileVirtualizerStore;
+
+/**
+ * @author agent (agent@local)
+ */
+public class WriteBehindStoreTest
+{
+	
+	private static class TestObject implements JRVirtualizable<String>
+	{
+		private final String uid;
+		private final JRVirtualizationContext context;
+		private String data;
+		
+		public TestObject(String uid, JRVirtualizationContext context, String data)
+		{
+			this.uid = uid;
+			this.context = context;
+			this.data = data;
+		}
+
+		@Override
+		public String getUID()
+		{
+			return uid;
+		}
+
+		@Override
+		public void ensureVirtualData()
+		{
+		}
+
+		@Override
+		public void setVirtualData(String o)
+		{
+			data = o;
+		}
+
+		@Override
+		public String getVirtualData()
+		{
+			return data;
+		}
+
+		@Override
+		public void removeVirtualData()
+		{
+			data = null;
+		}
+
+		@Override
+		public void beforeExternalization()
+		{
+		}
+
+		@Override
+		public void afterExternalization()
+		{
+		}
+
+		@Override
+		public void afterInternalization()
+		{
+		}
+
+		@Override
+		public JRVirtualizationContext getContext()
+		{
+			return context;
+		}
+	}
+	
+	/**
+	 * Swap file that blocks writes until released, so that objects stay queued.
+	 */
+	private static class BlockingSwapFile extends JRSwapFile
+	{
+		private final CountDownLatch release = new CountDownLatch(1);
+		private final CountDownLatch writeStarted = new CountDownLatch(1);
+		private final AtomicInteger writes = new AtomicInteger();
+		private final AtomicInteger frees = new AtomicInteger();
+		
+		public BlockingSwapFile()
+		{
+			super(System.getProperty("java.io.tmpdir"), 256, 10);
+		}
+
+		@Override
+		public SwapHandle write(byte[] data, Object owner) throws IOException
+		{
+			writeStarted.countDown();
+			try
+			{
+				release.await();
+			}
+			catch (InterruptedException e)
+			{
+				throw new IOException(e);
+			}
+			
+			SwapHandle handle = super.write(data, owner);
+			writes.incrementAndGet();
+			return handle;
+		}
+
+		@Override
+		public void free(SwapHandle handle)
+		{
+			frees.incrementAndGet();
+			super.free(handle);
+		}
+	}
+	
+	/**
+	 * Shared swap file that blocks the writes of an owner until released.
+	 * <p>
+	 * The blocked write proceeds even when the writer thread is interrupted, 
+	 * preserving the interrupt status for the swap file I/O.
+	 */
+	private static class GatedSwapFile implements SwapFile
+	{
+		private final SwapFile swap;
+		private final Object gatedOwner;
+		private final CountDownLatch release = new CountDownLatch(1);
+		private final CountDownLatch writeStarted = new CountDownLatch(1);
+		private final AtomicInteger writes = new AtomicInteger();
+		private final AtomicInteger gatedWrites = new AtomicInteger();
+		private final AtomicInteger frees = new AtomicInteger();
+		
+		public GatedSwapFile(SwapFile swap, Object gatedOwner)
+		{
+			this.swap = swap;
+			this.gatedOwner = gatedOwner;
+		}
+
+		@Override
+		public SwapHandle write(byte[] data) throws IOException
+		{
+			return write(data, null);
+		}
+
+		@Override
+		public SwapHandle write(byte[] data, Object owner) throws IOException
+		{
+			boolean gated = owner == gatedOwner;
+			if (gated)
+			{
+				writeStarted.countDown();
+				boolean interrupted = false;
+				while (true)
+				{
+					try
+					{
+						release.await();
+						break;
+					}
+					catch (InterruptedException e)
+					{
+						interrupted = true;
+					}
+				}
+				
+				if (interrupted)
+				{
+					Thread.currentThread().interrupt();
+				}
+			}
+			
+			SwapHandle handle = swap.write(data, owner);
+			writes.incrementAndGet();
+			if (gated)
+			{
+				gatedWrites.incrementAndGet();
+			}
+			return handle;
+		}
+
+		@Override
+		public byte[] read(SwapHandle handle, boolean free) throws IOException
+		{
+			return swap.read(handle, free);
+		}
+
+		@Override
+		public void free(SwapHandle handle)
+		{
+			frees.incrementAndGet();
+			swap.free(handle);
+		}
+
+		@Override
+		public void dispose()
+		{
+			swap.dispose();
+		}
+	}
+	
+	private static void awaitCondition(BooleanSupplier condition) throws InterruptedException
+	{
+		long timeout = System.currentTimeMillis() + 10000;
+		while (!condition.getAsBoolean())
+		{
+			assert System.currentTimeMillis() < timeout;
+			Thread.sleep(10);
+		}
+	}
+	
+	@Test
+	public void retrieveQueued() throws Exception
+	{
+		BlockingSwapFile swap = new BlockingSwapFile();
+		WriteBehindSwapFileVirtualizerStore store = new WriteBehindSwapFileVirtualizerStore(swap, true, null, 4);
+		VirtualizationSerializer serializer = new LocalVirtualizationSerializer();
+		JRVirtualizationContext context = new JRVirtualizationContext(DefaultJasperReportsContext.getInstance());
+		try
+		{
+			TestObject first = new TestObject("first", context, "first data");
+			assert store.store(first, serializer);
+			// the writer is blocked writing the first object
+			assert swap.writeStarted.await(10, TimeUnit.SECONDS);
+			
+			TestObject second = new TestObject("second", context, "second data");
+			assert store.store(second, serializer);
+			
+			// both objects are read from memory while their writes are pending
+			second.removeVirtualData();
+			store.retrieve(second, false, serializer);
+			assert "second data".equals(second.getVirtualData());
+			
+			first.removeVirtualData();
+			store.retrieve(first, true, serializer);
+			assert "first data".equals(first.getVirtualData());
+			assert swap.writes.get() == 0;
+			
+			swap.release.countDown();
+			// the area of the first object is freed by the writer as the object was retrieved with removal
+			awaitCondition(() -> swap.writes.get() == 2 && swap.frees.get() == 1);
+			
+			second.removeVirtualData();
+			store.retrieve(second, true, serializer);
+			assert "second data".equals(second.getVirtualData());
+		}
+		finally
+		{
+			swap.release.countDown();
+			store.dispose();
+			context.dispose();
+		}
+	}
+	
+	@Test
+	public void removeQueued() throws Exception
+	{
+		BlockingSwapFile swap = new BlockingSwapFile();
+		WriteBehindSwapFileVirtualizerStore store = new WriteBehindSwapFileVirtualizerStore(swap, true, null, 4);
+		VirtualizationSerializer serializer = new LocalVirtualizationSerializer();
+		JRVirtualizationContext context = new JRVirtualizationContext(DefaultJasperReportsContext.getInstance());
+		try
+		{
+			TestObject first = new TestObject("first", context, "first data");
+			assert store.store(first, serializer);
+			assert swap.writeStarted.await(10, TimeUnit.SECONDS);
+			
+			TestObject second = new TestObject("second", context, "second data");
+			assert store.store(second, serializer);
+			
+			// removing the object being written and the queued object
+			store.remove(first.getUID());
+			store.remove(second.getUID());
+			
+			TestObject third = new TestObject("third", context, "third data");
+			assert store.store(third, serializer);
+			
+			swap.release.countDown();
+			// the queued object is not written, the area of the object being written is freed
+			awaitCondition(() -> swap.writes.get() == 2 && swap.frees.get() == 1);
+			
+			third.removeVirtualData();
+			store.retrieve(third, true, serializer);
+			assert "third data".equals(third.getVirtualData());
+			assert swap.writes.get() == 2;
+		}
+		finally
+		{
+			swap.release.countDown();
+			store.dispose();
+			context.dispose();
+		}
+	}
+	
+	@Test
+	public void disposeSharedWhileWriting() throws Exception
+	{
+		VirtualizationSerializer serializer = new LocalVirtualizationSerializer();
+		JRVirtualizationContext disposedContext = new JRVirtualizationContext(DefaultJasperReportsContext.getInstance());
+		JRVirtualizationContext context = new JRVirtualizationContext(DefaultJasperReportsContext.getInstance());
+		// a single segment shared by both stores
+		GatedSwapFile swap = new GatedSwapFile(
+				new JRSegmentedSwapFile(System.getProperty("java.io.tmpdir"), 256, 10, 1), disposedContext);
+		WriteBehindSwapFileVirtualizerStore disposedStore = new WriteBehindSwapFileVirtualizerStore(swap, false, null, 4);
+		WriteBehindSwapFileVirtualizerStore store = new WriteBehindSwapFileVirtualizerStore(swap, false, null, 4);
+		try
+		{
+			TestObject first = new TestObject("first", context, "first data");
+			assert store.store(first, serializer);
+			awaitCondition(() -> swap.writes.get() == 1);
+			
+			TestObject disposed = new TestObject("disposed", disposedContext, "disposed data");
+			assert disposedStore.store(disposed, serializer);
+			assert swap.writeStarted.await(10, TimeUnit.SECONDS);
+			TestObject queued = new TestObject("queued", disposedContext, "queued data");
+			assert disposedStore.store(queued, serializer);
+			
+			// disposing the store while its writer is writing to the shared segment
+			Thread disposeThread = new Thread(disposedStore::dispose);
+			disposeThread.start();
+			awaitCondition(() -> disposeThread.getState() == Thread.State.TIMED_WAITING
+					|| disposeThread.getState() == Thread.State.TERMINATED);
+			swap.release.countDown();
+			disposeThread.join(10000);
+			assert !disposeThread.isAlive();
+			
+			// the write in progress completes and its area is freed, the queued write is discarded
+			assert swap.gatedWrites.get() == 1;
+			assert swap.frees.get() == 1;
+			
+			// the other store keeps reading and writing the shared segment
+			first.removeVirtualData();
+			store.retrieve(first, true, serializer);
+			assert "first data".equals(first.getVirtualData());
+			
+			TestObject second = new TestObject("second", context, "second data");
+			assert store.store(second, serializer);
+			awaitCondition(() -> swap.writes.get() == 3);
+			second.removeVirtualData();
+			store.retrieve(second, true, serializer);
+			assert "second data".equals(second.getVirtualData());
+		}
+		finally
+		{
+			swap.release.countDown();
+			disposedStore.dispose();
+			store.dispose();
+			swap.dispose();
+			disposedContext.dispose();
+			context.dispose();
+		}
+	}
+}